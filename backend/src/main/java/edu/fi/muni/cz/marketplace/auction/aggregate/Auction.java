@@ -0,0 +1,186 @@
+package edu.fi.muni.cz.marketplace.auction.aggregate;
+
+import static org.axonframework.modelling.command.AggregateLifecycle.apply;
+
+import edu.fi.muni.cz.marketplace.auction.command.CreateAuctionCommand;
+import edu.fi.muni.cz.marketplace.auction.command.RecordBidCommand;
+import edu.fi.muni.cz.marketplace.auction.deadline.AuctionDeadline;
+import edu.fi.muni.cz.marketplace.auction.deadline.AuctionEndedPayload;
+import edu.fi.muni.cz.marketplace.auction.events.AuctionClosedEvent;
+import edu.fi.muni.cz.marketplace.auction.events.AuctionCreatedEvent;
+import edu.fi.muni.cz.marketplace.auction.events.BidPlacedEvent;
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.commandhandling.CommandHandler;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.deadline.annotation.DeadlineHandler;
+import org.axonframework.eventsourcing.EventSourcingHandler;
+import org.axonframework.modelling.command.AggregateIdentifier;
+import org.axonframework.spring.stereotype.Aggregate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * English auction: bids go up by at least the minimum increment until the auction ends, and the
+ * highest bid wins.
+ * <p>
+ * Which bids are high enough is decided by the {@code AuctionOrderBook} of the instance, so that
+ * bids that lost to a concurrent one are rejected without waiting for the aggregate. The aggregate
+ * stores every bid the book accepted. Accepted bids can reach it out of order, so it does not
+ * compare a bid with the previous one, it only keeps the highest. When the auction ends the
+ * highest bid wins and the auction hands off to the order of the winner.
+ * </p>
+ */
+@Slf4j
+@Getter
+@Aggregate(snapshotTriggerDefinition = "auctionSnapshotTriggerDefinition", cache = "auctionCache")
+@NoArgsConstructor
+public class Auction {
+
+  @Nonnull
+  @AggregateIdentifier
+  private UUID id;
+
+  @Nonnull
+  private AuctionStatus status;
+
+  @Nonnull
+  private UUID sellerId;
+
+  @Nonnull
+  private String sellerStripeAccountId;
+
+  @Nullable
+  private String category;
+
+  @Nonnull
+  private Money startingPrice;
+
+  @Nonnull
+  private Money minimumIncrement;
+
+  @Nonnull
+  private Instant endsAt;
+
+  @Nullable
+  private Bid highBid;
+
+  private long bidCount;
+
+  @CommandHandler
+  public Auction(CreateAuctionCommand command,
+      @Autowired DeadlineManager deadlineManager,
+      @Autowired Clock clock) {
+    if (!command.getEndsAt().isAfter(clock.instant())) {
+      throw new IllegalArgumentException("Auction must end in the future: " + command.getEndsAt());
+    }
+    if (command.getStartingPrice().isNegative() || command.getMinimumIncrement().isNegative()
+        || command.getMinimumIncrement().isZero()) {
+      throw new IllegalArgumentException("Auction prices must be positive");
+    }
+    if (!command.getStartingPrice().getCurrency()
+        .equals(command.getMinimumIncrement().getCurrency())) {
+      throw new IllegalArgumentException("Auction prices must be in one currency");
+    }
+
+    String deadlineId = deadlineManager.schedule(command.getEndsAt(),
+        AuctionDeadline.AUCTION_ENDED, new AuctionEndedPayload(command.getAuctionId()));
+
+    apply(new AuctionCreatedEvent(
+        command.getAuctionId(),
+        command.getSellerId(),
+        command.getSellerStripeAccountId(),
+        command.getCategory(),
+        command.getStartingPrice(),
+        command.getMinimumIncrement(),
+        command.getEndsAt(),
+        deadlineId));
+  }
+
+  @EventSourcingHandler
+  public void on(AuctionCreatedEvent event) {
+    this.id = event.getAuctionId();
+    this.status = AuctionStatus.OPEN;
+    this.sellerId = event.getSellerId();
+    this.sellerStripeAccountId = event.getSellerStripeAccountId();
+    this.category = event.getCategory();
+    this.startingPrice = event.getStartingPrice();
+    this.minimumIncrement = event.getMinimumIncrement();
+    this.endsAt = event.getEndsAt();
+  }
+
+  @CommandHandler
+  public void on(RecordBidCommand command) {
+    if (status != AuctionStatus.OPEN || !command.getPlacedAt().isBefore(endsAt)) {
+      throw new IllegalStateException("Auction " + this.id + " is closed");
+    }
+    if (command.getAmount().compareTo(startingPrice) < 0) {
+      throw new IllegalArgumentException(
+          "Bid " + command.getAmount() + " is below the starting price " + startingPrice);
+    }
+
+    apply(new BidPlacedEvent(
+        command.getAuctionId(),
+        command.getBidderId(),
+        command.getCustomerId(),
+        command.getPaymentMethodId(),
+        command.getAmount(),
+        command.getPlacedAt()));
+  }
+
+  @EventSourcingHandler
+  public void on(BidPlacedEvent event) {
+    this.bidCount++;
+    if (this.highBid == null || event.getAmount().compareTo(this.highBid.getAmount()) > 0) {
+      this.highBid = new Bid(
+          event.getBidderId(),
+          event.getCustomerId(),
+          event.getPaymentMethodId(),
+          event.getAmount(),
+          event.getPlacedAt());
+    }
+  }
+
+  @DeadlineHandler(deadlineName = AuctionDeadline.AUCTION_ENDED)
+  public void onAuctionEnded(AuctionEndedPayload payload, @Autowired Clock clock) {
+    if (status != AuctionStatus.OPEN) {
+      log.warn("Deadline fired but auction {} already in state {}. Ignoring.", this.id, status);
+      return;
+    }
+
+    log.info("Auction {} ended with {} bids", this.id, this.bidCount);
+    Bid winner = this.highBid;
+    apply(new AuctionClosedEvent(
+        this.id,
+        clock.instant(),
+        this.sellerId,
+        this.sellerStripeAccountId,
+        this.category,
+        winner == null ? null : orderIdOf(this.id),
+        winner == null ? null : winner.getBidderId(),
+        winner == null ? null : winner.getCustomerId(),
+        winner == null ? null : winner.getPaymentMethodId(),
+        winner == null ? null : winner.getAmount()));
+  }
+
+  @EventSourcingHandler
+  public void on(AuctionClosedEvent event) {
+    this.status = AuctionStatus.CLOSED;
+  }
+
+  /**
+   * Order of the winning bid. Derived from the auction, so handing off again, e.g. on a replay,
+   * targets the same order instead of creating another one.
+   */
+  public static UUID orderIdOf(UUID auctionId) {
+    return UUID.nameUUIDFromBytes(("auction-order:" + auctionId)
+        .getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,8 @@
+package edu.fi.muni.cz.marketplace.auction.aggregate;
+
+public enum AuctionStatus {
+  // bids are accepted until the auction ends
+  OPEN,
+  // auction ended, the highest bid won
+  CLOSED
+}
@@ -0,0 +1,26 @@
+package edu.fi.muni.cz.marketplace.auction.aggregate;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.time.Instant;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import lombok.Value;
+
+@Value
+public class Bid {
+
+  @Nonnull
+  UUID bidderId;
+
+  @Nonnull
+  String customerId;
+
+  @Nonnull
+  String paymentMethodId;
+
+  @Nonnull
+  Money amount;
+
+  @Nonnull
+  Instant placedAt;
+}
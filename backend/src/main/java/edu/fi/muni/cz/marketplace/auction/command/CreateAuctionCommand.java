@@ -0,0 +1,22 @@
+package edu.fi.muni.cz.marketplace.auction.command;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.time.Instant;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import lombok.Value;
+import org.axonframework.modelling.command.TargetAggregateIdentifier;
+
+@Value
+public class CreateAuctionCommand {
+
+  @TargetAggregateIdentifier
+  UUID auctionId;
+  UUID sellerId;
+  String sellerStripeAccountId;
+  @Nullable
+  String category;
+  Money startingPrice;
+  Money minimumIncrement;
+  Instant endsAt;
+}
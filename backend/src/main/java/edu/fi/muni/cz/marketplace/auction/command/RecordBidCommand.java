@@ -0,0 +1,22 @@
+package edu.fi.muni.cz.marketplace.auction.command;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Value;
+import org.axonframework.modelling.command.TargetAggregateIdentifier;
+
+/**
+ * Stores a bid the order book of the auction already accepted.
+ */
+@Value
+public class RecordBidCommand {
+
+  @TargetAggregateIdentifier
+  UUID auctionId;
+  UUID bidderId;
+  String customerId;
+  String paymentMethodId;
+  Money amount;
+  Instant placedAt;
+}
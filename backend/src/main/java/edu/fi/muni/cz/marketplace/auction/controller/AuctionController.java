@@ -0,0 +1,138 @@
+package edu.fi.muni.cz.marketplace.auction.controller;
+
+import edu.fi.muni.cz.marketplace.auction.command.CreateAuctionCommand;
+import edu.fi.muni.cz.marketplace.auction.command.RecordBidCommand;
+import edu.fi.muni.cz.marketplace.auction.dto.CreateAuctionRequest;
+import edu.fi.muni.cz.marketplace.auction.dto.CreateAuctionResponse;
+import edu.fi.muni.cz.marketplace.auction.dto.HighBidResponse;
+import edu.fi.muni.cz.marketplace.auction.dto.PlaceBidRequest;
+import edu.fi.muni.cz.marketplace.auction.dto.PlaceBidResponse;
+import edu.fi.muni.cz.marketplace.auction.orderbook.AuctionOrderBook;
+import edu.fi.muni.cz.marketplace.auction.orderbook.BidDecision;
+import edu.fi.muni.cz.marketplace.config.exception.HttpException;
+import edu.fi.muni.cz.marketplace.config.web.CommandReply;
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Auction endpoints.
+ * <p>
+ * A bid is first offered to the {@link AuctionOrderBook}. A bid the book rejects is answered
+ * right away with 409 and never reaches the auction. An accepted bid is answered once it is
+ * stored, or with 504 after {@code auction-api.command-timeout}. Failed commands answer 409 when
+ * the auction is closed and 400 when the bid or auction is invalid.
+ * </p>
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/auctions")
+@RequiredArgsConstructor
+public class AuctionController {
+
+  private final CommandGateway commandGateway;
+  private final AuctionOrderBook orderBook;
+
+  @Value("${auction-api.command-timeout}")
+  private Duration commandTimeout;
+
+  @PostMapping
+  public DeferredResult<ResponseEntity<CreateAuctionResponse>> createAuction(
+      @RequestBody CreateAuctionRequest request) {
+    UUID auctionId = UUID.randomUUID();
+
+    log.info("Creating auction: {}", auctionId);
+
+    CompletableFuture<Object> result = commandGateway.send(new CreateAuctionCommand(
+        auctionId,
+        request.sellerId(),
+        request.sellerStripeAccountId(),
+        request.category(),
+        amount(request.startingPrice()),
+        amount(request.minimumIncrement()),
+        request.endsAt()));
+
+    return CommandReply.of(result, commandTimeout, () -> ResponseEntity.status(HttpStatus.CREATED)
+        .body(new CreateAuctionResponse(auctionId)), AuctionController::rejection);
+  }
+
+  @PostMapping("/{auctionId}/bids")
+  public DeferredResult<ResponseEntity<PlaceBidResponse>> placeBid(
+      @PathVariable UUID auctionId,
+      @RequestBody PlaceBidRequest request) {
+    Money amount = amount(request.amount());
+
+    BidDecision decision;
+    try {
+      decision = orderBook.offer(auctionId, request.bidderId(), amount);
+    } catch (IllegalArgumentException e) {
+      throw new HttpException(400, e.getMessage());
+    }
+    switch (decision.outcome()) {
+      case UNKNOWN_AUCTION -> throw new HttpException(404,
+          String.format("No auction '%s'", auctionId));
+      case CLOSED -> throw new HttpException(409,
+          String.format("Auction '%s' has ended", auctionId));
+      case TOO_LOW -> throw new HttpException(409,
+          "Bid must be at least " + decision.minimumBid());
+      case ACCEPTED -> log.debug("Bid {} on auction {} accepted", amount, auctionId);
+    }
+
+    CompletableFuture<Object> result = commandGateway.send(new RecordBidCommand(
+        auctionId,
+        request.bidderId(),
+        request.customerId(),
+        request.paymentMethodId(),
+        amount,
+        decision.decidedAt()));
+    result.whenComplete((ignored, failure) -> {
+      if (failure == null) {
+        orderBook.stored(decision);
+      } else {
+        orderBook.storingFailed(decision);
+      }
+    });
+
+    return CommandReply.of(result, commandTimeout, () -> ResponseEntity.status(HttpStatus.CREATED)
+        .body(new PlaceBidResponse(auctionId, amount.toMajor())), AuctionController::rejection);
+  }
+
+  @GetMapping("/{auctionId}/high-bid")
+  public ResponseEntity<HighBidResponse> highBid(@PathVariable UUID auctionId) {
+    return ResponseEntity.ok(new HighBidResponse(auctionId,
+        orderBook.highBid(auctionId).map(Money::toMajor).orElse(null)));
+  }
+
+  private static Money amount(BigDecimal amount) {
+    try {
+      return Money.ofMajor(amount, Money.CZK);
+    } catch (ArithmeticException e) {
+      throw new HttpException(400, "Amount has more decimal places than CZK allows: " + amount);
+    }
+  }
+
+  private static Throwable rejection(Throwable failure) {
+    if (failure instanceof IllegalStateException) {
+      return new HttpException(409, failure.getMessage());
+    }
+    if (failure instanceof IllegalArgumentException) {
+      return new HttpException(400, failure.getMessage());
+    }
+    return failure;
+  }
+}
@@ -0,0 +1,6 @@
+package edu.fi.muni.cz.marketplace.auction.deadline;
+
+public class AuctionDeadline {
+
+  public static final String AUCTION_ENDED = "AuctionEnded";
+}
@@ -0,0 +1,10 @@
+package edu.fi.muni.cz.marketplace.auction.deadline;
+
+import java.util.UUID;
+import lombok.Value;
+
+@Value
+public class AuctionEndedPayload {
+
+  UUID auctionId;
+}
@@ -0,0 +1,15 @@
+package edu.fi.muni.cz.marketplace.auction.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+public record CreateAuctionRequest(
+    UUID sellerId,
+    String sellerStripeAccountId,
+    @Nullable String category,
+    BigDecimal startingPrice,
+    BigDecimal minimumIncrement,
+    Instant endsAt) {
+}
@@ -0,0 +1,6 @@
+package edu.fi.muni.cz.marketplace.auction.dto;
+
+import java.util.UUID;
+
+public record CreateAuctionResponse(UUID auctionId) {
+}
@@ -0,0 +1,8 @@
+package edu.fi.muni.cz.marketplace.auction.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+public record HighBidResponse(UUID auctionId, @Nullable BigDecimal amount) {
+}
@@ -0,0 +1,11 @@
+package edu.fi.muni.cz.marketplace.auction.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record PlaceBidRequest(
+    UUID bidderId,
+    String customerId,
+    String paymentMethodId,
+    BigDecimal amount) {
+}
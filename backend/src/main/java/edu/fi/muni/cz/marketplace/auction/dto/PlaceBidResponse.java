@@ -0,0 +1,7 @@
+package edu.fi.muni.cz.marketplace.auction.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record PlaceBidResponse(UUID auctionId, BigDecimal amount) {
+}
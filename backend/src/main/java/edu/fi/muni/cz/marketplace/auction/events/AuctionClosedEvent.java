@@ -0,0 +1,34 @@
+package edu.fi.muni.cz.marketplace.auction.events;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.time.Instant;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import lombok.Value;
+
+/**
+ * The auction ended. When it had bids, the highest one won and {@code orderId} is the order its
+ * funds are reserved for, otherwise the winner fields are {@code null}.
+ */
+@Value
+public class AuctionClosedEvent {
+
+  UUID auctionId;
+  Instant closedAt;
+
+  UUID sellerId;
+  String sellerStripeAccountId;
+  @Nullable
+  String category;
+
+  @Nullable
+  UUID orderId;
+  @Nullable
+  UUID winnerId;
+  @Nullable
+  String winnerCustomerId;
+  @Nullable
+  String winnerPaymentMethodId;
+  @Nullable
+  Money winningAmount;
+}
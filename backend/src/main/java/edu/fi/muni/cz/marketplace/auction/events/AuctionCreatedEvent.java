@@ -0,0 +1,21 @@
+package edu.fi.muni.cz.marketplace.auction.events;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.time.Instant;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import lombok.Value;
+
+@Value
+public class AuctionCreatedEvent {
+
+  UUID auctionId;
+  UUID sellerId;
+  String sellerStripeAccountId;
+  @Nullable
+  String category;
+  Money startingPrice;
+  Money minimumIncrement;
+  Instant endsAt;
+  String deadlineId;
+}
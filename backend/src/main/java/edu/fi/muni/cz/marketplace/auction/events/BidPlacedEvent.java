@@ -0,0 +1,17 @@
+package edu.fi.muni.cz.marketplace.auction.events;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Value;
+
+@Value
+public class BidPlacedEvent {
+
+  UUID auctionId;
+  UUID bidderId;
+  String customerId;
+  String paymentMethodId;
+  Money amount;
+  Instant placedAt;
+}
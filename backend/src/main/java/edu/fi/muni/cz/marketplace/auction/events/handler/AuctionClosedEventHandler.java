@@ -0,0 +1,98 @@
+package edu.fi.muni.cz.marketplace.auction.events.handler;
+
+import edu.fi.muni.cz.marketplace.auction.events.AuctionClosedEvent;
+import edu.fi.muni.cz.marketplace.auction.orderbook.AuctionOrderBook;
+import edu.fi.muni.cz.marketplace.order.command.ReserveFundsCommand;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.eventhandling.EventHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands a closed auction with a winner off to the order flow, reserving the winning amount from
+ * the winner's payment method for the order of the auction.
+ * <p>
+ * A failed reservation is sent again after {@code hand-off.retry.initial-delay}, doubling up to
+ * {@code hand-off.retry.max-delay}, at most {@code hand-off.retry.max-attempts} times in total.
+ * Stripe reserves under the order id as idempotency key, so a retry never charges the winner
+ * twice. A hand-off that still fails is logged and counted in {@code auction.hand-offs.failed}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AuctionClosedEventHandler {
+
+  private final CommandGateway commandGateway;
+  private final AuctionOrderBook orderBook;
+  private final int maxAttempts;
+  private final Duration retryInitialDelay;
+  private final Duration retryMaxDelay;
+  private final Counter failedHandOffs;
+
+  public AuctionClosedEventHandler(
+      CommandGateway commandGateway,
+      AuctionOrderBook orderBook,
+      MeterRegistry meterRegistry,
+      @Value("${auction.hand-off.retry.max-attempts}") int maxAttempts,
+      @Value("${auction.hand-off.retry.initial-delay}") Duration retryInitialDelay,
+      @Value("${auction.hand-off.retry.max-delay}") Duration retryMaxDelay) {
+    this.commandGateway = commandGateway;
+    this.orderBook = orderBook;
+    this.maxAttempts = maxAttempts;
+    this.retryInitialDelay = retryInitialDelay;
+    this.retryMaxDelay = retryMaxDelay;
+    this.failedHandOffs = Counter.builder("auction.hand-offs.failed")
+        .description("Closed auctions whose funds could not be reserved from the winner")
+        .register(meterRegistry);
+  }
+
+  @EventHandler
+  public void on(AuctionClosedEvent event) {
+    orderBook.close(event.getAuctionId());
+    if (event.getOrderId() == null) {
+      log.info("Auction {} closed without bids", event.getAuctionId());
+      return;
+    }
+
+    log.info("Auction {} won by {} for {}, reserving funds for order {}",
+        event.getAuctionId(), event.getWinnerId(), event.getWinningAmount(), event.getOrderId());
+    handOff(event, new ReserveFundsCommand(
+        event.getOrderId(),
+        event.getWinnerCustomerId(),
+        event.getWinnerPaymentMethodId(),
+        event.getWinningAmount(),
+        event.getSellerId(),
+        event.getSellerStripeAccountId(),
+        event.getCategory()), 1, retryInitialDelay);
+  }
+
+  private void handOff(AuctionClosedEvent event, ReserveFundsCommand command, int attempt,
+      Duration retryDelay) {
+    CompletableFuture<Object> result = commandGateway.send(command);
+    result.whenComplete((ignored, failure) -> {
+      if (failure == null) {
+        return;
+      }
+      Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+      if (attempt >= maxAttempts) {
+        log.error("Failed to reserve funds for order {} of auction {} after {} attempts",
+            event.getOrderId(), event.getAuctionId(), attempt, cause);
+        failedHandOffs.increment();
+        return;
+      }
+      log.warn("Failed to reserve funds for order {} of auction {}, retrying in {}",
+          event.getOrderId(), event.getAuctionId(), retryDelay, cause);
+      Duration doubled = retryDelay.multipliedBy(2);
+      Duration nextDelay = doubled.compareTo(retryMaxDelay) < 0 ? doubled : retryMaxDelay;
+      CompletableFuture.delayedExecutor(retryDelay.toMillis(), TimeUnit.MILLISECONDS)
+          .execute(() -> handOff(event, command, attempt + 1, nextDelay));
+    });
+  }
+}
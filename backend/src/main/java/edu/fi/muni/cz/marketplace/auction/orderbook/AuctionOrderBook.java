@@ -0,0 +1,254 @@
+package edu.fi.muni.cz.marketplace.auction.orderbook;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.fi.muni.cz.marketplace.auction.aggregate.Auction;
+import edu.fi.muni.cz.marketplace.auction.aggregate.AuctionStatus;
+import edu.fi.muni.cz.marketplace.auction.events.AuctionClosedEvent;
+import edu.fi.muni.cz.marketplace.auction.events.AuctionCreatedEvent;
+import edu.fi.muni.cz.marketplace.auction.events.BidPlacedEvent;
+import edu.fi.muni.cz.marketplace.money.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which bids are high enough, in memory, before they are stored.
+ * <p>
+ * Every auction has a book holding its current high bid in an {@link AtomicReference}. A bid is
+ * accepted by a compare-and-set from the high bid it outbids to itself, so of two concurrent bids
+ * over the same high bid only one is accepted, and the other one is checked again against the
+ * new high bid. Rejected bids never reach the {@link Auction} aggregate, and accepting a bid
+ * takes no lock.
+ * </p>
+ * <p>
+ * A book is loaded from the events of its auction the first time it is bid on and then kept up to
+ * date by the bids it accepts. Every accepted bid remembers the high bid it replaced until it is
+ * stored. When storing it fails, the high bid is set back to the last bid before it that did not
+ * fail, unless it was outbid in the meantime. Books are local to the instance, bids on one auction
+ * have to be routed to the same instance for it to see all of them.
+ * </p>
+ * <p>
+ * {@code auction.bids.decisions} times the decision of every bid by outcome,
+ * {@code auction.bids.accepted} times accepted bids until they are stored.
+ * </p>
+ */
+@Component
+public class AuctionOrderBook {
+
+  private static final HighBid NO_BID = new HighBid(Long.MIN_VALUE, null);
+
+  private final EventStore eventStore;
+  private final Clock clock;
+  private final Cache<UUID, Book> books;
+  private final Map<BidOutcome, Timer> decisionTimers = new EnumMap<>(BidOutcome.class);
+  private final Timer acceptanceTimer;
+
+  public AuctionOrderBook(
+      EventStore eventStore,
+      Clock clock,
+      MeterRegistry meterRegistry,
+      @Value("${auction.order-book.maximum-size}") long maximumSize,
+      @Value("${auction.order-book.expire-after-access}") Duration expireAfterAccess) {
+    this.eventStore = eventStore;
+    this.clock = clock;
+    this.books = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterAccess(expireAfterAccess)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, books, "auctionOrderBooks");
+
+    for (BidOutcome outcome : BidOutcome.values()) {
+      decisionTimers.put(outcome, Timer.builder("auction.bids.decisions")
+          .description("Time to accept or reject a bid in the order book")
+          .tag("outcome", outcome.name().toLowerCase())
+          .publishPercentiles(0.5, 0.99)
+          .register(meterRegistry));
+    }
+    this.acceptanceTimer = Timer.builder("auction.bids.accepted")
+        .description("Time from receiving an accepted bid until it is stored")
+        .publishPercentiles(0.5, 0.99)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Accepts the bid if it is at least the minimum increment above the current high bid, or at
+   * least the starting price if there is none, and the auction has not ended.
+   *
+   * @throws IllegalArgumentException if {@code amount} is not in the currency of the auction
+   */
+  public BidDecision offer(UUID auctionId, UUID bidderId, Money amount) {
+    long receivedAt = System.nanoTime();
+    Book book = books.get(auctionId, this::load);
+    Instant now = clock.instant();
+    BidDecision decision = book == null
+        ? new BidDecision(auctionId, BidOutcome.UNKNOWN_AUCTION, null, now, receivedAt)
+        : book.offer(auctionId, bidderId, amount, now, receivedAt);
+    decisionTimers.get(decision.outcome()).record(System.nanoTime() - receivedAt,
+        TimeUnit.NANOSECONDS);
+    return decision;
+  }
+
+  /**
+   * Records that an accepted bid was stored.
+   */
+  public void stored(BidDecision decision) {
+    acceptanceTimer.record(System.nanoTime() - decision.receivedAt(), TimeUnit.NANOSECONDS);
+    HighBid accepted = decision.accepted();
+    if (accepted != null) {
+      // the stored bid is the floor any later rollback stops at
+      accepted.replaced = null;
+    }
+  }
+
+  /**
+   * Sets the high bid of the auction back from an accepted bid that could not be stored, if it is
+   * still the high bid.
+   */
+  public void storingFailed(BidDecision decision) {
+    HighBid failed = decision.accepted();
+    if (failed == null) {
+      return;
+    }
+    failed.failed = true;
+    HighBid previous = failed.replaced;
+    while (previous.failed) {
+      previous = previous.replaced;
+    }
+    Book book = books.getIfPresent(decision.auctionId());
+    if (book != null) {
+      book.high.compareAndSet(failed, previous);
+    }
+  }
+
+  /**
+   * Rejects all further bids on the auction.
+   */
+  public void close(UUID auctionId) {
+    Book book = books.getIfPresent(auctionId);
+    if (book != null) {
+      book.closed = true;
+    }
+  }
+
+  /**
+   * @return current high bid, empty if the auction is unknown or has no bids
+   */
+  public Optional<Money> highBid(UUID auctionId) {
+    Book book = books.get(auctionId, this::load);
+    if (book == null) {
+      return Optional.empty();
+    }
+    HighBid current = book.high.get();
+    return current == NO_BID ? Optional.empty()
+        : Optional.of(Money.of(current.minorUnits, book.currency));
+  }
+
+  @Nullable
+  private Book load(UUID auctionId) {
+    Book book = null;
+    DomainEventStream events = eventStore.readEvents(auctionId.toString());
+    while (events.hasNext()) {
+      DomainEventMessage<?> event = events.next();
+      Object payload = event.getPayload();
+      if (payload instanceof Auction snapshot) {
+        book = new Book(snapshot.getStartingPrice(), snapshot.getMinimumIncrement(),
+            snapshot.getEndsAt());
+        book.closed = snapshot.getStatus() == AuctionStatus.CLOSED;
+        if (snapshot.getHighBid() != null) {
+          book.high.set(new HighBid(snapshot.getHighBid().getAmount().getMinorUnits(),
+              snapshot.getHighBid().getBidderId()));
+        }
+      } else if (payload instanceof AuctionCreatedEvent created) {
+        book = new Book(created.getStartingPrice(), created.getMinimumIncrement(),
+            created.getEndsAt());
+      } else if (payload instanceof BidPlacedEvent bid && book != null
+          && bid.getAmount().getMinorUnits() > book.high.get().minorUnits) {
+        book.high.set(new HighBid(bid.getAmount().getMinorUnits(), bid.getBidderId()));
+      } else if (payload instanceof AuctionClosedEvent && book != null) {
+        book.closed = true;
+      }
+    }
+    return book;
+  }
+
+  /**
+   * High bid of a book, compared by identity.
+   */
+  static final class HighBid {
+
+    private final long minorUnits;
+    @Nullable
+    private final UUID bidderId;
+    /**
+     * High bid this one replaced, {@code null} once this one is stored or if it was loaded.
+     */
+    @Nullable
+    private volatile HighBid replaced;
+    private volatile boolean failed;
+
+    private HighBid(long minorUnits, @Nullable UUID bidderId) {
+      this.minorUnits = minorUnits;
+      this.bidderId = bidderId;
+    }
+  }
+
+  private static final class Book {
+
+    private final long startingPrice;
+    private final long minimumIncrement;
+    private final String currency;
+    private final Instant endsAt;
+    private final AtomicReference<HighBid> high = new AtomicReference<>(NO_BID);
+    private volatile boolean closed;
+
+    private Book(Money startingPrice, Money minimumIncrement, Instant endsAt) {
+      this.startingPrice = startingPrice.getMinorUnits();
+      this.minimumIncrement = minimumIncrement.getMinorUnits();
+      this.currency = startingPrice.getCurrency();
+      this.endsAt = endsAt;
+    }
+
+    private BidDecision offer(UUID auctionId, UUID bidderId, Money amount, Instant now,
+        long receivedAt) {
+      if (!currency.equals(amount.getCurrency())) {
+        throw new IllegalArgumentException(
+            "Auction " + auctionId + " is in " + currency + ", not " + amount.getCurrency());
+      }
+      HighBid bid = new HighBid(amount.getMinorUnits(), bidderId);
+      while (true) {
+        if (closed || !now.isBefore(endsAt)) {
+          return new BidDecision(auctionId, BidOutcome.CLOSED, null, now, receivedAt);
+        }
+        HighBid current = high.get();
+        long minimum = current == NO_BID ? startingPrice
+            : Math.addExact(current.minorUnits, minimumIncrement);
+        if (bid.minorUnits < minimum) {
+          return new BidDecision(auctionId, BidOutcome.TOO_LOW, Money.of(minimum, currency),
+              now, receivedAt);
+        }
+        bid.replaced = current;
+        if (high.compareAndSet(current, bid)) {
+          return new BidDecision(auctionId, BidOutcome.ACCEPTED, null, now, receivedAt, bid);
+        }
+        // outbid concurrently, check against the new high bid
+      }
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package edu.fi.muni.cz.marketplace.auction.orderbook;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.time.Instant;
+import java.util.UUID;
+import javax.annotation.Nullable;
+
+/**
+ * @param minimumBid lowest bid that would have been accepted, for {@link BidOutcome#TOO_LOW}
+ * @param decidedAt  time the bid was checked against the end of the auction, the time it is
+ *                   placed at when accepted
+ * @param receivedAt {@link System#nanoTime()} when the bid was received
+ * @param accepted   high bid the book moved to, for {@link BidOutcome#ACCEPTED}
+ */
+public record BidDecision(
+    UUID auctionId,
+    BidOutcome outcome,
+    @Nullable Money minimumBid,
+    Instant decidedAt,
+    long receivedAt,
+    @Nullable AuctionOrderBook.HighBid accepted) {
+
+  public BidDecision(UUID auctionId, BidOutcome outcome, @Nullable Money minimumBid,
+      Instant decidedAt, long receivedAt) {
+    this(auctionId, outcome, minimumBid, decidedAt, receivedAt, null);
+  }
+}
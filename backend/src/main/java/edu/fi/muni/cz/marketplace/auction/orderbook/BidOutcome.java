@@ -0,0 +1,12 @@
+package edu.fi.muni.cz.marketplace.auction.orderbook;
+
+public enum BidOutcome {
+  // bid is the new high bid
+  ACCEPTED,
+  // bid does not outbid the current high bid by the minimum increment
+  TOO_LOW,
+  // auction has ended
+  CLOSED,
+  // no auction with the id
+  UNKNOWN_AUCTION
+}
@@ -1,10 +1,13 @@
 package edu.fi.muni.cz.marketplace.config;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
+import org.axonframework.common.caching.Cache;
 import org.axonframework.common.transaction.TransactionManager;
 import org.axonframework.config.ConfigurationScopeAwareProvider;
 import org.axonframework.deadline.DeadlineManager;
@@ -12,28 +15,109 @@ import org.axonframework.deadline.DefaultDeadlineManagerSpanFactory;
 import org.axonframework.deadline.dbscheduler.DbSchedulerDeadlineManager;
 import org.axonframework.eventhandling.tokenstore.TokenStore;
 import org.axonframework.eventhandling.tokenstore.jdbc.JdbcTokenStore;
+import org.axonframework.eventsourcing.EventCountSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.Snapshotter;
 import org.axonframework.messaging.ScopeAwareProvider;
+import org.axonframework.modelling.saga.repository.CachingSagaStore;
+import org.axonframework.modelling.saga.repository.SagaStore;
+import org.axonframework.modelling.saga.repository.jdbc.JdbcSagaStore;
+import org.axonframework.modelling.saga.repository.jdbc.PostgresSagaSqlSchema;
+import org.axonframework.modelling.saga.repository.jdbc.SagaSchema;
 import org.axonframework.serialization.Serializer;
 import org.axonframework.spring.jdbc.SpringDataSourceConnectionProvider;
 import org.axonframework.tracing.SpanFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.github.kagkarlsson.scheduler.Scheduler;
 import com.github.kagkarlsson.scheduler.task.Task;
+import com.github.kagkarlsson.scheduler.task.helper.RecurringTask;
+
+import edu.fi.muni.cz.marketplace.config.cache.CaffeineCacheAdapter;
+import edu.fi.muni.cz.marketplace.config.cache.SagaCacheEvictingTokenStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Configuration
 public class AxonConfig {
 
+  /**
+   * Stores tokens with plain JDBC. Claiming or releasing a segment of one of the
+   * {@code saga-cache.processors} empties the saga caches, see {@link SagaCacheEvictingTokenStore}.
+   */
   @Bean
-  public TokenStore tokenStore(Serializer serializer, DataSource source) {
+  public TokenStore tokenStore(Serializer serializer, DataSource source,
+      @Qualifier("sagaCache") Cache sagaCache,
+      @Qualifier("sagaAssociationsCache") Cache associationsCache,
+      @Value("${saga-cache.processors}") Set<String> sagaProcessors) {
     JdbcTokenStore jdbcTokenStore = JdbcTokenStore.builder()
         .serializer(serializer)
         .connectionProvider(new SpringDataSourceConnectionProvider(source))
         .build();
 
-    return jdbcTokenStore;
+    return new SagaCacheEvictingTokenStore(jdbcTokenStore, sagaProcessors,
+        List.of(sagaCache, associationsCache));
+  }
+
+  /**
+   * Stores sagas with plain JDBC in the tables of {@code 002-create-saga-tables.yaml}, which index
+   * association values by saga type, key and value. Active sagas and their associations are kept
+   * in bounded caches, so an event for a running saga is usually handled without reading from the
+   * database. The caches only see the writes of this instance and are emptied whenever a saga
+   * segment moves between instances. Sagas are serialized with the event serializer, the
+   * {@code BinarySerializer} when {@code serialization.format} is {@code binary}. Sagas still open
+   * in the tables of the former JPA saga store are copied over by
+   * {@code 005-copy-jpa-sagas.yaml}, their XStream payloads are read through the serializer's
+   * XStream fallback.
+   */
+  @Bean
+  public SagaStore<Object> sagaStore(
+      @Qualifier("eventSerializer") Serializer serializer,
+      DataSource dataSource,
+      @Qualifier("sagaCache") Cache sagaCache,
+      @Qualifier("sagaAssociationsCache") Cache associationsCache) {
+    SagaSchema schema = SagaSchema.builder()
+        .sagaEntryTable("saga_instance")
+        .associationValueEntryTable("saga_association")
+        .sagaIdColumn("saga_id")
+        .sagaTypeColumn("saga_type")
+        .revisionColumn("revision")
+        .serializedSagaColumn("serialized_saga")
+        .associationKeyColumn("association_key")
+        .associationValueColumn("association_value")
+        .build();
+    JdbcSagaStore jdbcSagaStore = JdbcSagaStore.builder()
+        .connectionProvider(new SpringDataSourceConnectionProvider(dataSource))
+        .sqlSchema(new PostgresSagaSqlSchema(schema))
+        .serializer(serializer)
+        .build();
+
+    return CachingSagaStore.builder()
+        .delegateSagaStore(jdbcSagaStore)
+        .sagaCache(sagaCache)
+        .associationsCache(associationsCache)
+        .build();
+  }
+
+  @Bean
+  public Cache sagaCache(
+      MeterRegistry meterRegistry,
+      @Value("${saga-cache.sagas.maximum-size}") long maximumSize,
+      @Value("${saga-cache.sagas.expire-after-access}") Duration expireAfterAccess) {
+    return monitoredCache("sagaCache", meterRegistry, maximumSize, expireAfterAccess);
+  }
+
+  @Bean
+  public Cache sagaAssociationsCache(
+      MeterRegistry meterRegistry,
+      @Value("${saga-cache.associations.maximum-size}") long maximumSize,
+      @Value("${saga-cache.associations.expire-after-access}") Duration expireAfterAccess) {
+    return monitoredCache("sagaAssociationsCache", meterRegistry, maximumSize,
+        expireAfterAccess);
   }
 
   @Bean
@@ -41,15 +125,36 @@ public class AxonConfig {
     return Clock.systemUTC();
   }
 
+  /**
+   * Polls every {@code scheduler.polling-interval}, or every
+   * {@code scheduler.notify.polling-interval} when {@code scheduler.wake-up} is {@code notify}
+   * and {@link ScheduledTaskNotificationConfig} wakes the scheduler up as tasks become due.
+   */
   @Bean
-  public Scheduler scheduler(DataSource dataSource, List<Task<?>> tasks) {
+  public Scheduler scheduler(DataSource dataSource, List<Task<?>> tasks,
+      @Value("${scheduler.wake-up:poll}") String wakeUp,
+      @Value("${scheduler.polling-interval}") Duration pollingInterval,
+      @Value("${scheduler.notify.polling-interval}") Duration notifyPollingInterval) {
+    List<RecurringTask<?>> recurringTasks = tasks.stream()
+        .filter(RecurringTask.class::isInstance)
+        .<RecurringTask<?>>map(RecurringTask.class::cast)
+        .toList();
     return Scheduler.create(dataSource, tasks)
+        .startTasks(recurringTasks)
         .threads(10)
+        .pollingInterval("notify".equals(wakeUp) ? notifyPollingInterval : pollingInterval)
         .registerShutdownHook()
         .build();
   }
 
+  /**
+   * Fires deadlines from {@code scheduled_tasks} when {@code deadline-manager.mode} is
+   * {@code db-scheduler}. Every deadline is scheduled at the same priority, so refund deadlines
+   * are not claimed ahead of the others, see {@link TimingWheelDeadlineConfig} for the default
+   * mode that does.
+   */
   @Bean
+  @ConditionalOnProperty(name = "deadline-manager.mode", havingValue = "db-scheduler")
   public DeadlineManager deadlineManager(
       Scheduler scheduler,
       org.axonframework.config.Configuration configuration,
@@ -68,4 +173,56 @@ public class AxonConfig {
         .startScheduler(true)
         .build();
   }
+
+  @Bean
+  public SnapshotTriggerDefinition orderSnapshotTriggerDefinition(
+      Snapshotter snapshotter,
+      @Value("${snapshotting.order.event-threshold}") int eventThreshold) {
+    return new EventCountSnapshotTriggerDefinition(snapshotter, eventThreshold);
+  }
+
+  @Bean
+  public SnapshotTriggerDefinition userSnapshotTriggerDefinition(
+      Snapshotter snapshotter,
+      @Value("${snapshotting.user.event-threshold}") int eventThreshold) {
+    return new EventCountSnapshotTriggerDefinition(snapshotter, eventThreshold);
+  }
+
+  @Bean
+  public SnapshotTriggerDefinition auctionSnapshotTriggerDefinition(
+      Snapshotter snapshotter,
+      @Value("${snapshotting.auction.event-threshold}") int eventThreshold) {
+    return new EventCountSnapshotTriggerDefinition(snapshotter, eventThreshold);
+  }
+
+  @Bean
+  public Cache orderCache(
+      MeterRegistry meterRegistry,
+      @Value("${aggregate-cache.order.maximum-size}") long maximumSize,
+      @Value("${aggregate-cache.order.expire-after-access}") Duration expireAfterAccess) {
+    return monitoredCache("orderCache", meterRegistry, maximumSize, expireAfterAccess);
+  }
+
+  @Bean
+  public Cache userCache(
+      MeterRegistry meterRegistry,
+      @Value("${aggregate-cache.user.maximum-size}") long maximumSize,
+      @Value("${aggregate-cache.user.expire-after-access}") Duration expireAfterAccess) {
+    return monitoredCache("userCache", meterRegistry, maximumSize, expireAfterAccess);
+  }
+
+  @Bean
+  public Cache auctionCache(
+      MeterRegistry meterRegistry,
+      @Value("${aggregate-cache.auction.maximum-size}") long maximumSize,
+      @Value("${aggregate-cache.auction.expire-after-access}") Duration expireAfterAccess) {
+    return monitoredCache("auctionCache", meterRegistry, maximumSize, expireAfterAccess);
+  }
+
+  private static Cache monitoredCache(String name, MeterRegistry meterRegistry, long maximumSize,
+      Duration expireAfterAccess) {
+    CaffeineCacheAdapter cache = new CaffeineCacheAdapter(maximumSize, expireAfterAccess);
+    CaffeineCacheMetrics.monitor(meterRegistry, cache.getNativeCache(), name);
+    return cache;
+  }
 }
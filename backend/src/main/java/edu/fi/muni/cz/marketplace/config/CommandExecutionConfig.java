@@ -0,0 +1,103 @@
+package edu.fi.muni.cz.marketplace.config;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandBusSpanFactory;
+import org.axonframework.commandhandling.CommandHandler;
+import org.axonframework.commandhandling.DuplicateCommandHandlerResolver;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.messaging.interceptors.CorrelationDataInterceptor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+
+import edu.fi.muni.cz.marketplace.config.command.ExternalIo;
+import edu.fi.muni.cz.marketplace.config.command.VirtualThreadCommandBus;
+import edu.fi.muni.cz.marketplace.config.command.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs the commands of {@link ExternalIo} handlers on virtual threads when
+ * {@code command-execution.mode} is {@code virtual-threads}. Otherwise Axon's local command bus
+ * handles every command on the dispatching thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "command-execution.mode", havingValue = "virtual-threads")
+public class CommandExecutionConfig {
+
+  @Bean
+  @Qualifier("localSegment")
+  public VirtualThreadCommandBus localSegment(
+      TransactionManager transactionManager,
+      org.axonframework.config.Configuration axonConfiguration,
+      DuplicateCommandHandlerResolver duplicateCommandHandlerResolver,
+      MeterRegistry meterRegistry,
+      @Value("${command-execution.permits.stripe}") int stripePermits) {
+    Map<String, Integer> downstreamPermits = Map.of("stripe", stripePermits);
+    VirtualThreadCommandBus.Builder builder = VirtualThreadCommandBus.builder()
+        .downstreamPermits(downstreamPermits);
+    builder.transactionManager(transactionManager)
+        .duplicateCommandHandlerResolver(duplicateCommandHandlerResolver)
+        .spanFactory(axonConfiguration.getComponent(CommandBusSpanFactory.class))
+        .messageMonitor(axonConfiguration.messageMonitor(CommandBus.class, "commandBus"));
+    VirtualThreadCommandBus commandBus = builder.build();
+    commandBus.registerHandlerInterceptor(
+        new CorrelationDataInterceptor<>(axonConfiguration.correlationDataProviders()));
+
+    downstreamPermits.keySet().forEach(downstream -> {
+      Gauge.builder("command.bus.downstream.permits.available", commandBus,
+              bus -> bus.availablePermits(downstream))
+          .tag("downstream", downstream)
+          .register(meterRegistry);
+      Gauge.builder("command.bus.downstream.waiting", commandBus,
+              bus -> bus.waitingCommands(downstream))
+          .tag("downstream", downstream)
+          .register(meterRegistry);
+    });
+    return commandBus;
+  }
+
+  /**
+   * Routes the commands of every {@link ExternalIo} component to its downstream once all
+   * handlers are created.
+   */
+  @Bean
+  public SmartInitializingSingleton externalIoCommandRoutes(ApplicationContext applicationContext,
+      VirtualThreadCommandBus commandBus) {
+    return () -> applicationContext.getBeansWithAnnotation(ExternalIo.class).values()
+        .forEach(handler -> {
+          Class<?> handlerType = AopUtils.getTargetClass(handler);
+          String downstream = AnnotatedElementUtils
+              .findMergedAnnotation(handlerType, ExternalIo.class).value();
+          ReflectionUtils.doWithMethods(handlerType,
+              method -> commandBus.route(commandName(method), downstream),
+              method -> AnnotatedElementUtils.hasAnnotation(method, CommandHandler.class));
+        });
+  }
+
+  @Bean
+  public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+      @Value("${command-execution.pinning-threshold}") Duration pinningThreshold) {
+    return new VirtualThreadPinningMonitor(meterRegistry, pinningThreshold);
+  }
+
+  private static String commandName(Method method) {
+    CommandHandler annotation = AnnotatedElementUtils.findMergedAnnotation(method,
+        CommandHandler.class);
+    if (annotation != null && !annotation.commandName().isEmpty()) {
+      return annotation.commandName();
+    }
+    return method.getParameterTypes()[0].getName();
+  }
+}
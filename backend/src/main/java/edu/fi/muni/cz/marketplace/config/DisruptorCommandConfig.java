@@ -0,0 +1,139 @@
+package edu.fi.muni.cz.marketplace.config;
+
+import java.lang.reflect.Executable;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandBusSpanFactory;
+import org.axonframework.commandhandling.CommandHandler;
+import org.axonframework.commandhandling.DuplicateCommandHandlerResolver;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.disruptor.commandhandling.DisruptorCommandBus;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.messaging.interceptors.CorrelationDataInterceptor;
+import org.axonframework.modelling.command.Repository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import edu.fi.muni.cz.marketplace.config.cache.CaffeineCacheAdapter;
+import edu.fi.muni.cz.marketplace.config.command.ForwardingCommandBus;
+import edu.fi.muni.cz.marketplace.order.aggregate.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Handles the commands of the {@link Order} aggregate on a {@link DisruptorCommandBus} when
+ * {@code command-execution.order-bus} is {@code disruptor}. The local segment of the command bus
+ * forwards the order commands and keeps handling all other commands itself, so it has to be a
+ * {@link ForwardingCommandBus}. Unless {@code command-execution.mode} provides one, a plain
+ * {@link ForwardingCommandBus} replaces Axon's local segment.
+ * <p>
+ * The disruptor hands every command to one of its invoker threads by the hash of the order id, so
+ * the commands of one order are handled one after another in the order they were dispatched,
+ * without locking the aggregate. Invoker threads keep the orders they handle in their own cache,
+ * and publisher threads store the resulting events and commit the transactions, so handling the
+ * next command does not wait for the database.
+ * </p>
+ * <p>
+ * Deadlines and other work a handler does outside of the aggregate, such as scheduling the
+ * shipping deadline, runs on the invoker thread before the events are stored, and is not part of
+ * the transaction that stores them.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "command-execution.order-bus", havingValue = "disruptor")
+public class DisruptorCommandConfig {
+
+  @Bean
+  @Qualifier("localSegment")
+  @ConditionalOnExpression("'${command-execution.mode:}' != 'virtual-threads'")
+  public ForwardingCommandBus localSegment(
+      TransactionManager transactionManager,
+      org.axonframework.config.Configuration axonConfiguration,
+      DuplicateCommandHandlerResolver duplicateCommandHandlerResolver) {
+    ForwardingCommandBus.Builder builder = ForwardingCommandBus.builder();
+    builder.transactionManager(transactionManager)
+        .duplicateCommandHandlerResolver(duplicateCommandHandlerResolver)
+        .spanFactory(axonConfiguration.getComponent(CommandBusSpanFactory.class))
+        .messageMonitor(axonConfiguration.messageMonitor(CommandBus.class, "commandBus"));
+    ForwardingCommandBus commandBus = builder.build();
+    commandBus.registerHandlerInterceptor(
+        new CorrelationDataInterceptor<>(axonConfiguration.correlationDataProviders()));
+    return commandBus;
+  }
+
+  @Bean(destroyMethod = "stop")
+  public DisruptorCommandBus orderCommandBus(
+      TransactionManager transactionManager,
+      org.axonframework.config.Configuration axonConfiguration,
+      MeterRegistry meterRegistry,
+      @Value("${command-execution.disruptor.buffer-size}") int bufferSize,
+      @Value("${command-execution.disruptor.invoker-threads}") int invokerThreads,
+      @Value("${command-execution.disruptor.publisher-threads}") int publisherThreads,
+      @Value("${command-execution.disruptor.cache.maximum-size}") long cacheMaximumSize,
+      @Value("${command-execution.disruptor.cache.expire-after-access}")
+      Duration cacheExpireAfterAccess) {
+    CaffeineCacheAdapter cache = new CaffeineCacheAdapter(cacheMaximumSize,
+        cacheExpireAfterAccess);
+    CaffeineCacheMetrics.monitor(meterRegistry, cache.getNativeCache(), "orderDisruptorCache");
+    return DisruptorCommandBus.builder()
+        .transactionManager(transactionManager)
+        .cache(cache)
+        .bufferSize(bufferSize)
+        .invokerThreadCount(invokerThreads)
+        .publisherThreadCount(publisherThreads)
+        .invokerInterceptors(List.of(
+            new CorrelationDataInterceptor<>(axonConfiguration.correlationDataProviders())))
+        .messageMonitor(axonConfiguration.messageMonitor(CommandBus.class, "orderCommandBus"))
+        .build();
+  }
+
+  /**
+   * Replaces the default {@link EventSourcingRepository} of {@link Order}, Axon picks it up by
+   * its name.
+   */
+  @Bean
+  public Repository<Order> orderRepository(
+      DisruptorCommandBus orderCommandBus,
+      EventStore eventStore,
+      org.axonframework.config.Configuration axonConfiguration,
+      @Qualifier("orderSnapshotTriggerDefinition")
+      SnapshotTriggerDefinition snapshotTriggerDefinition) {
+    return orderCommandBus.createRepository(eventStore,
+        new GenericAggregateFactory<>(Order.class),
+        snapshotTriggerDefinition,
+        axonConfiguration.parameterResolverFactory(),
+        axonConfiguration.handlerDefinition(Order.class),
+        axonConfiguration::repository);
+  }
+
+  @Bean
+  public SmartInitializingSingleton orderCommandForwarding(
+      @Qualifier("localSegment") ForwardingCommandBus localSegment,
+      DisruptorCommandBus orderCommandBus) {
+    return () -> Stream.concat(Stream.of(Order.class.getDeclaredConstructors()),
+            Stream.of(Order.class.getDeclaredMethods()))
+        .filter(handler -> AnnotatedElementUtils.hasAnnotation(handler, CommandHandler.class))
+        .forEach(handler -> localSegment.forward(commandName(handler), orderCommandBus));
+  }
+
+  private static String commandName(Executable handler) {
+    CommandHandler annotation = AnnotatedElementUtils.findMergedAnnotation(handler,
+        CommandHandler.class);
+    if (annotation != null && !annotation.commandName().isEmpty()) {
+      return annotation.commandName();
+    }
+    return handler.getParameterTypes()[0].getName();
+  }
+}
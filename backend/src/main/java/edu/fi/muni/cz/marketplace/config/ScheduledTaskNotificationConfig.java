@@ -0,0 +1,38 @@
+package edu.fi.muni.cz.marketplace.config;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.kagkarlsson.scheduler.Scheduler;
+
+import edu.fi.muni.cz.marketplace.config.scheduler.ScheduledTaskNotificationListener;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Wakes the scheduler up through Postgres notifications when {@code scheduler.wake-up} is
+ * {@code notify}, so the longer {@code scheduler.notify.polling-interval} only bounds how late
+ * a missed notification is noticed. Otherwise the scheduler finds due tasks by polling alone
+ * every {@code scheduler.polling-interval}, which bounds how late every task fires.
+ */
+@Configuration
+@ConditionalOnProperty(name = "scheduler.wake-up", havingValue = "notify")
+public class ScheduledTaskNotificationConfig {
+
+  @Bean
+  public ScheduledTaskNotificationListener scheduledTaskNotificationListener(
+      DataSource dataSource,
+      Scheduler scheduler,
+      Clock clock,
+      MeterRegistry meterRegistry,
+      @Value("${scheduler.notify.polling-interval}") Duration pollingInterval) {
+    return new ScheduledTaskNotificationListener(dataSource, scheduler, clock, pollingInterval,
+        meterRegistry);
+  }
+}
@@ -0,0 +1,29 @@
+package edu.fi.muni.cz.marketplace.config;
+
+import org.axonframework.serialization.RevisionResolver;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import edu.fi.muni.cz.marketplace.AuctionMarketplaceApplication;
+import edu.fi.muni.cz.marketplace.config.serialization.BinarySerializer;
+
+/**
+ * Switches events, deadline payloads and sagas to the compact {@link BinarySerializer} when
+ * {@code serialization.format} is {@code binary}. Otherwise Axon's configured serializers are
+ * used unchanged. Sagas get it through the saga store in {@link AxonConfig}, which serializes
+ * them with the event serializer.
+ */
+@Configuration
+@ConditionalOnProperty(name = "serialization.format", havingValue = "binary")
+public class SerializationConfig {
+
+  @Bean
+  @Qualifier("eventSerializer")
+  public Serializer eventSerializer(Serializer serializer, RevisionResolver revisionResolver) {
+    return new BinarySerializer(
+        AuctionMarketplaceApplication.class.getPackageName(), serializer, revisionResolver);
+  }
+}
@@ -0,0 +1,78 @@
+package edu.fi.muni.cz.marketplace.config;
+
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+
+import edu.fi.muni.cz.marketplace.config.resilience.AdaptiveConcurrencyLimiter;
+import edu.fi.muni.cz.marketplace.config.resilience.CallGuard;
+import edu.fi.muni.cz.marketplace.config.resilience.CircuitBreaker;
+import edu.fi.muni.cz.marketplace.config.stripe.StripeHttpTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Shares one HTTP/2 client with kept-alive connections between all Stripe API clients, and guards
+ * their calls against Stripe degradation.
+ */
+@Configuration
+public class StripeConfig {
+
+  @Bean
+  public StripeHttpTransport stripeHttpTransport(
+      @Value("${stripe.api-base}") String apiBase,
+      @Value("${stripe.api-key}") String apiKey,
+      @Value("${stripe.connect-timeout}") Duration connectTimeout,
+      @Value("${stripe.read-timeout}") Duration readTimeout) {
+    HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(connectTimeout)
+        .build();
+    return new StripeHttpTransport(httpClient, apiBase, apiKey, readTimeout);
+  }
+
+  @Bean
+  public CallGuard stripeCallGuard(
+      MeterRegistry meterRegistry,
+      Clock clock,
+      @Value("${stripe.resilience.concurrency-limit.initial}") int initialLimit,
+      @Value("${stripe.resilience.concurrency-limit.min}") int minLimit,
+      @Value("${stripe.resilience.concurrency-limit.max}") int maxLimit,
+      @Value("${stripe.resilience.concurrency-limit.target-latency}") Duration targetLatency,
+      @Value("${stripe.resilience.concurrency-limit.backoff-ratio}") double backoffRatio,
+      @Value("${stripe.resilience.bulkheads.reserve}") int reserveBulkhead,
+      @Value("${stripe.resilience.bulkheads.transfer}") int transferBulkhead,
+      @Value("${stripe.resilience.bulkheads.refund}") int refundBulkhead,
+      @Value("${stripe.resilience.bulkheads.customer}") int customerBulkhead,
+      @Value("${stripe.resilience.circuit-breaker.window-size}") int windowSize,
+      @Value("${stripe.resilience.circuit-breaker.minimum-calls}") int minimumCalls,
+      @Value("${stripe.resilience.circuit-breaker.failure-rate-threshold}") double failureRate,
+      @Value("${stripe.resilience.circuit-breaker.open-duration}") Duration openDuration,
+      @Value("${stripe.resilience.circuit-breaker.half-open-calls}") int halfOpenCalls) {
+    return new CallGuard("stripe",
+        new CircuitBreaker(windowSize, minimumCalls, failureRate, openDuration, halfOpenCalls,
+            clock),
+        new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, targetLatency,
+            backoffRatio),
+        Map.of("reserve", reserveBulkhead, "transfer", transferBulkhead,
+            "refund", refundBulkhead, "customer", customerBulkhead),
+        StripeConfig::isStripeUnavailable,
+        meterRegistry);
+  }
+
+  private static boolean isStripeUnavailable(Throwable error) {
+    if (error instanceof ApiConnectionException) {
+      return true;
+    }
+    return error instanceof StripeException stripeException
+        && stripeException.getStatusCode() != null
+        && (stripeException.getStatusCode() == 429 || stripeException.getStatusCode() >= 500);
+  }
+}
@@ -0,0 +1,93 @@
+package edu.fi.muni.cz.marketplace.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.config.ConfigurationScopeAwareProvider;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.github.kagkarlsson.scheduler.Scheduler;
+
+import edu.fi.muni.cz.marketplace.config.deadline.DbSchedulerDeadlineMigration;
+import edu.fi.muni.cz.marketplace.config.deadline.TimingWheelDeadlineManager;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Fires deadlines from an in-memory timing wheel unless {@code deadline-manager.mode} is
+ * {@code db-scheduler}, see {@link TimingWheelDeadlineManager}. In that mode the db-scheduler
+ * based deadline manager of {@link AxonConfig} polls {@code scheduled_tasks} for due deadlines.
+ * <p>
+ * The deadlines listed in {@code lanes.urgent.deadlines}, such as the shipping deadline that
+ * refunds the buyer, run on their own workers and are claimed before all other deadlines, which
+ * share the bulk lane.
+ * </p>
+ * <p>
+ * Only this mode protects the refund deadlines from a backlog of other deadlines. The db-scheduler
+ * based manager schedules every deadline at the same priority, it cannot give one a higher one,
+ * so there the shipping deadline waits behind every deadline that became due before it.
+ * </p>
+ * <p>
+ * Deadlines the db-scheduler based manager left in {@code scheduled_tasks} are moved to the
+ * timing wheel once the application is ready, see {@link DbSchedulerDeadlineMigration}. They are
+ * claimed by the next load, at most half a window later.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "deadline-manager.mode", havingValue = "timing-wheel",
+    matchIfMissing = true)
+public class TimingWheelDeadlineConfig {
+
+  @Bean
+  public TimingWheelDeadlineManager deadlineManager(
+      DataSource dataSource,
+      org.axonframework.config.Configuration configuration,
+      @Qualifier("eventSerializer") Serializer serializer,
+      TransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      Clock clock,
+      @Value("${deadline-manager.timing-wheel.tick}") Duration tick,
+      @Value("${deadline-manager.timing-wheel.wheel-size}") int wheelSize,
+      @Value("${deadline-manager.timing-wheel.window}") Duration window,
+      @Value("${deadline-manager.timing-wheel.batch-size}") int batchSize,
+      @Value("${deadline-manager.timing-wheel.heartbeat-interval}") Duration heartbeatInterval,
+      @Value("${deadline-manager.timing-wheel.claim-timeout}") Duration claimTimeout,
+      @Value("${deadline-manager.timing-wheel.retry-delay}") Duration retryDelay,
+      @Value("${deadline-manager.timing-wheel.lanes.urgent.priority}") int urgentPriority,
+      @Value("${deadline-manager.timing-wheel.lanes.urgent.deadlines}") Set<String> urgentDeadlines,
+      @Value("${deadline-manager.timing-wheel.lanes.urgent.threads}") int urgentThreads,
+      @Value("${deadline-manager.timing-wheel.lanes.bulk.threads}") int bulkThreads) {
+    return new TimingWheelDeadlineManager(
+        new JdbcTemplate(dataSource),
+        new ConfigurationScopeAwareProvider(configuration),
+        serializer,
+        transactionManager,
+        meterRegistry,
+        clock,
+        new TimingWheelDeadlineManager.Settings(tick, wheelSize, window, batchSize,
+            heartbeatInterval, claimTimeout, retryDelay, List.of(
+                new TimingWheelDeadlineManager.Lane("urgent", urgentPriority, urgentDeadlines,
+                    urgentThreads),
+                new TimingWheelDeadlineManager.Lane("bulk", 0, Set.of(), bulkThreads))));
+  }
+
+  @Bean
+  public ApplicationListener<ApplicationReadyEvent> dbSchedulerDeadlineMigration(
+      Scheduler scheduler, TimingWheelDeadlineManager deadlineManager) {
+    DbSchedulerDeadlineMigration migration =
+        new DbSchedulerDeadlineMigration(scheduler, deadlineManager);
+    return event -> migration.migrate();
+  }
+}
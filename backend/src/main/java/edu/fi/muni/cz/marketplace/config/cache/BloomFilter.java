@@ -0,0 +1,151 @@
+package edu.fi.muni.cz.marketplace.config.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over string keys.
+ * <p>
+ * Answers whether a key might have been added, with no false negatives and a false positive
+ * probability close to the configured rate as long as no more than the expected number of keys
+ * is added. Keys cannot be removed; to forget keys, build a new filter and swap it in.
+ * </p>
+ * <p>
+ * Bit positions are derived from a single 128-bit MurmurHash3 of the key's UTF-8 bytes by double
+ * hashing.
+ * </p>
+ */
+public class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashFunctions;
+
+  /**
+   * @param expectedInsertions number of keys the filter is sized for
+   * @param falsePositiveRate  desired false positive probability, between 0 and 1 exclusive
+   */
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Expected insertions must be positive");
+    }
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+    }
+
+    long optimalBits = (long) Math.ceil(
+        -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = Math.toIntExact(Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE));
+    this.bits = new AtomicLongArray(words);
+    this.bitCount = (long) words * Long.SIZE;
+    this.hashFunctions = Math.max(1,
+        (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+  }
+
+  public void put(String key) {
+    long[] hash = murmur3(key.getBytes(UTF_8));
+    long combined = hash[0];
+    for (int i = 0; i < hashFunctions; i++) {
+      long index = (combined & Long.MAX_VALUE) % bitCount;
+      setBit(index);
+      combined += hash[1];
+    }
+  }
+
+  public boolean mightContain(String key) {
+    long[] hash = murmur3(key.getBytes(UTF_8));
+    long combined = hash[0];
+    for (int i = 0; i < hashFunctions; i++) {
+      long index = (combined & Long.MAX_VALUE) % bitCount;
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+      combined += hash[1];
+    }
+    return true;
+  }
+
+  private void setBit(long index) {
+    int word = (int) (index >>> 6);
+    long mask = 1L << index;
+    long current;
+    do {
+      current = bits.get(word);
+      if ((current & mask) != 0) {
+        return;
+      }
+    } while (!bits.compareAndSet(word, current, current | mask));
+  }
+
+  /**
+   * MurmurHash3 x64 128-bit variant with seed 0.
+   */
+  private static long[] murmur3(byte[] data) {
+    final long c1 = 0x87c37b91114253d5L;
+    final long c2 = 0x4cf5ad432745937fL;
+    long h1 = 0;
+    long h2 = 0;
+
+    int blocks = data.length / 16;
+    for (int i = 0; i < blocks; i++) {
+      long k1 = littleEndianLong(data, i * 16);
+      long k2 = littleEndianLong(data, i * 16 + 8);
+
+      h1 ^= mixK1(k1, c1, c2);
+      h1 = Long.rotateLeft(h1, 27) + h2;
+      h1 = h1 * 5 + 0x52dce729;
+
+      h2 ^= mixK2(k2, c1, c2);
+      h2 = Long.rotateLeft(h2, 31) + h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    long k1 = 0;
+    long k2 = 0;
+    int tail = blocks * 16;
+    for (int i = data.length - tail - 1; i >= 8; i--) {
+      k2 ^= (data[tail + i] & 0xffL) << ((i - 8) * 8);
+    }
+    for (int i = Math.min(data.length - tail, 8) - 1; i >= 0; i--) {
+      k1 ^= (data[tail + i] & 0xffL) << (i * 8);
+    }
+    h1 ^= mixK1(k1, c1, c2);
+    h2 ^= mixK2(k2, c1, c2);
+
+    h1 ^= data.length;
+    h2 ^= data.length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix(h1);
+    h2 = fmix(h2);
+    h1 += h2;
+    h2 += h1;
+    return new long[] {h1, h2};
+  }
+
+  private static long mixK1(long k1, long c1, long c2) {
+    return Long.rotateLeft(k1 * c1, 31) * c2;
+  }
+
+  private static long mixK2(long k2, long c1, long c2) {
+    return Long.rotateLeft(k2 * c2, 33) * c1;
+  }
+
+  private static long fmix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb93fe53e87ceL;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private static long littleEndianLong(byte[] data, int offset) {
+    long value = 0;
+    for (int i = 7; i >= 0; i--) {
+      value = (value << 8) | (data[offset + i] & 0xffL);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,125 @@
+package edu.fi.muni.cz.marketplace.config.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.axonframework.common.Registration;
+import org.axonframework.common.caching.Cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+/**
+ * Axon {@link Cache} backed by a size- and time-bounded Caffeine cache.
+ * <p>
+ * Used as the aggregate cache of the caching event sourcing repositories and as the saga and
+ * association cache of the saga store. Entries are evicted once the cache grows over
+ * {@code maximumSize} or when they were not accessed for {@code expireAfterAccess}. Statistics are
+ * recorded so the native cache can be bound to Micrometer.
+ * </p>
+ */
+public class CaffeineCacheAdapter implements Cache {
+
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache;
+  private final List<EntryListener> listeners = new CopyOnWriteArrayList<>();
+
+  public CaffeineCacheAdapter(long maximumSize, Duration expireAfterAccess) {
+    this.nativeCache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterAccess(expireAfterAccess)
+        .recordStats()
+        // the listeners are cheap, notifying them on the common pool cost more than they do
+        .executor(Runnable::run)
+        .removalListener(this::onRemoval)
+        .build();
+  }
+
+  public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+    return nativeCache;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K, V> V get(K key) {
+    Object value = nativeCache.getIfPresent(key);
+    if (value != null) {
+      listeners.forEach(listener -> listener.onEntryRead(key, value));
+    }
+    return (V) value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    Object previous = nativeCache.asMap().put(key, value);
+    if (previous == null) {
+      listeners.forEach(listener -> listener.onEntryCreated(key, value));
+    } else {
+      listeners.forEach(listener -> listener.onEntryUpdated(key, value));
+    }
+  }
+
+  @Override
+  public boolean putIfAbsent(Object key, Object value) {
+    boolean created = nativeCache.asMap().putIfAbsent(key, value) == null;
+    if (created) {
+      listeners.forEach(listener -> listener.onEntryCreated(key, value));
+    }
+    return created;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T computeIfAbsent(Object key, Supplier<T> valueSupplier) {
+    boolean[] created = {false};
+    Object value = nativeCache.asMap().computeIfAbsent(key, k -> {
+      created[0] = true;
+      return valueSupplier.get();
+    });
+    if (created[0] && value != null) {
+      listeners.forEach(listener -> listener.onEntryCreated(key, value));
+    }
+    return (T) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <V> void computeIfPresent(Object key, UnaryOperator<V> update) {
+    Object value = nativeCache.asMap()
+        .computeIfPresent(key, (k, current) -> update.apply((V) current));
+    if (value != null) {
+      listeners.forEach(listener -> listener.onEntryUpdated(key, value));
+    }
+  }
+
+  @Override
+  public boolean remove(Object key) {
+    return nativeCache.asMap().remove(key) != null;
+  }
+
+  @Override
+  public void removeAll() {
+    nativeCache.invalidateAll();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return nativeCache.asMap().containsKey(key);
+  }
+
+  @Override
+  public Registration registerCacheEntryListener(EntryListener entryListener) {
+    listeners.add(entryListener);
+    return () -> listeners.remove(entryListener);
+  }
+
+  private void onRemoval(Object key, Object value, RemovalCause cause) {
+    if (cause == RemovalCause.EXPLICIT) {
+      listeners.forEach(listener -> listener.onEntryRemoved(key));
+    } else if (cause.wasEvicted()) {
+      listeners.forEach(listener -> listener.onEntryExpired(key));
+    }
+  }
+}
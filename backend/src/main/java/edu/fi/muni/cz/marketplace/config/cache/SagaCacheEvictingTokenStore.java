@@ -0,0 +1,113 @@
+package edu.fi.muni.cz.marketplace.config.cache;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.axonframework.common.caching.Cache;
+import org.axonframework.eventhandling.Segment;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.axonframework.eventhandling.tokenstore.UnableToClaimTokenException;
+
+/**
+ * {@link TokenStore} that empties the saga caches whenever this instance claims or releases a
+ * segment of a saga processor.
+ * <p>
+ * The saga caches are local to the instance and only see its own writes. While a segment is
+ * processed by another instance, the sagas of that segment change without this instance
+ * noticing, so the cached copies are dropped when the segment moves, before any of its events
+ * is handled here again. Claims are only taken over after a node stopped processing, so clearing
+ * the whole cache costs a few reloads from the database.
+ * </p>
+ */
+public class SagaCacheEvictingTokenStore implements TokenStore {
+
+  private final TokenStore delegate;
+  private final Set<String> sagaProcessors;
+  private final List<Cache> sagaCaches;
+
+  public SagaCacheEvictingTokenStore(TokenStore delegate, Set<String> sagaProcessors,
+      List<Cache> sagaCaches) {
+    this.delegate = delegate;
+    this.sagaProcessors = Set.copyOf(sagaProcessors);
+    this.sagaCaches = List.copyOf(sagaCaches);
+  }
+
+  @Override
+  public TrackingToken fetchToken(String processorName, int segment) {
+    TrackingToken token = delegate.fetchToken(processorName, segment);
+    evictIfSagaProcessor(processorName);
+    return token;
+  }
+
+  @Override
+  public TrackingToken fetchToken(String processorName, Segment segment) {
+    TrackingToken token = delegate.fetchToken(processorName, segment);
+    evictIfSagaProcessor(processorName);
+    return token;
+  }
+
+  @Override
+  public void releaseClaim(String processorName, int segment) {
+    delegate.releaseClaim(processorName, segment);
+    evictIfSagaProcessor(processorName);
+  }
+
+  @Override
+  public void initializeTokenSegments(String processorName, int segmentCount) {
+    delegate.initializeTokenSegments(processorName, segmentCount);
+  }
+
+  @Override
+  public void initializeTokenSegments(String processorName, int segmentCount,
+      TrackingToken initialToken) {
+    delegate.initializeTokenSegments(processorName, segmentCount, initialToken);
+  }
+
+  @Override
+  public void storeToken(TrackingToken token, String processorName, int segment) {
+    delegate.storeToken(token, processorName, segment);
+  }
+
+  @Override
+  public void extendClaim(String processorName, int segment) throws UnableToClaimTokenException {
+    delegate.extendClaim(processorName, segment);
+  }
+
+  @Override
+  public void initializeSegment(TrackingToken token, String processorName, int segment) {
+    delegate.initializeSegment(token, processorName, segment);
+  }
+
+  @Override
+  public void deleteToken(String processorName, int segment) {
+    delegate.deleteToken(processorName, segment);
+  }
+
+  @Override
+  public boolean requiresExplicitSegmentInitialization() {
+    return delegate.requiresExplicitSegmentInitialization();
+  }
+
+  @Override
+  public int[] fetchSegments(String processorName) {
+    return delegate.fetchSegments(processorName);
+  }
+
+  @Override
+  public List<Segment> fetchAvailableSegments(String processorName) {
+    return delegate.fetchAvailableSegments(processorName);
+  }
+
+  @Override
+  public Optional<String> retrieveStorageIdentifier() {
+    return delegate.retrieveStorageIdentifier();
+  }
+
+  private void evictIfSagaProcessor(String processorName) {
+    if (sagaProcessors.contains(processorName)) {
+      sagaCaches.forEach(Cache::removeAll);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package edu.fi.muni.cz.marketplace.config.command;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a command handler component whose handlers block on a call to an external service.
+ * <p>
+ * With {@code command-execution.mode} set to {@code virtual-threads}, the commands handled by the
+ * component run on virtual threads instead of the thread dispatching them, and at most
+ * {@code command-execution.permits.<downstream>} of them call the same downstream at a time.
+ * </p>
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExternalIo {
+
+  /**
+   * Name of the downstream service the handlers call, used to look up its concurrency permits.
+   */
+  String value();
+}
@@ -0,0 +1,89 @@
+package edu.fi.muni.cz.marketplace.config.command;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.common.Registration;
+import org.axonframework.messaging.MessageHandler;
+
+/**
+ * Local command bus that can hand some commands to another bus.
+ * <p>
+ * Commands forwarded with {@link #forward(String, CommandBus)} are dispatched to the other bus,
+ * which gets every handler subscribed for them, e.g. to handle the commands of one aggregate on a
+ * {@code DisruptorCommandBus}. All other commands are handled exactly as by the
+ * {@link SimpleCommandBus}.
+ * </p>
+ */
+public class ForwardingCommandBus extends SimpleCommandBus {
+
+  private final Map<String, CommandBus> forwards = new ConcurrentHashMap<>();
+  private final Map<String, MessageHandler<? super CommandMessage<?>>> handlers =
+      new ConcurrentHashMap<>();
+
+  protected ForwardingCommandBus(Builder builder) {
+    super(builder);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Dispatches commands named {@code commandName} to {@code commandBus}, subscribing their
+   * handler there.
+   */
+  public void forward(String commandName, CommandBus commandBus) {
+    forwards.put(commandName, commandBus);
+    MessageHandler<? super CommandMessage<?>> handler = handlers.get(commandName);
+    if (handler != null) {
+      commandBus.subscribe(commandName, handler);
+    }
+  }
+
+  @Override
+  public Registration subscribe(@Nonnull String commandName,
+      @Nonnull MessageHandler<? super CommandMessage<?>> handler) {
+    handlers.put(commandName, handler);
+    CommandBus forward = forwards.get(commandName);
+    if (forward != null) {
+      forward.subscribe(commandName, handler);
+    }
+    return super.subscribe(commandName, handler);
+  }
+
+  @Override
+  protected <C, R> void handle(CommandMessage<C> command,
+      MessageHandler<? super CommandMessage<?>> handler,
+      CommandCallback<? super C, ? super R> callback) {
+    CommandBus forward = forwards.get(command.getCommandName());
+    if (forward != null) {
+      forward.dispatch(command, callback);
+      return;
+    }
+    handleLocally(command, handler, callback);
+  }
+
+  /**
+   * Handles a command that is not forwarded, on the dispatching thread unless overridden.
+   */
+  protected <C, R> void handleLocally(CommandMessage<C> command,
+      MessageHandler<? super CommandMessage<?>> handler,
+      CommandCallback<? super C, ? super R> callback) {
+    super.handle(command, handler, callback);
+  }
+
+  public static class Builder extends SimpleCommandBus.Builder {
+
+    @Override
+    public ForwardingCommandBus build() {
+      return new ForwardingCommandBus(this);
+    }
+  }
+}
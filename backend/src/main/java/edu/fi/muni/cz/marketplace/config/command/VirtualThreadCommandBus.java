@@ -0,0 +1,124 @@
+package edu.fi.muni.cz.marketplace.config.command;
+
+import static org.axonframework.common.BuilderUtils.assertNonNull;
+import static org.axonframework.common.BuilderUtils.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+import org.axonframework.commandhandling.CommandCallback;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.GenericCommandResultMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.messaging.MessageHandler;
+
+/**
+ * Local command bus that runs commands of blocking, external-I/O handlers on virtual threads.
+ * <p>
+ * Commands routed to a downstream with {@link #route(String, String)} are handed to a new virtual
+ * thread, which waits for one of the downstream's permits before invoking the handler, so the
+ * dispatching thread is released right away and no more than the configured number of calls hit
+ * the downstream at once. All other commands are handled on the dispatching thread, exactly as by
+ * the {@link SimpleCommandBus}.
+ * </p>
+ * <p>
+ * Commands can be forwarded to another bus as by the {@link ForwardingCommandBus}.
+ * </p>
+ */
+public class VirtualThreadCommandBus extends ForwardingCommandBus {
+
+  private final ExecutorService executor;
+  private final Map<String, Semaphore> downstreams;
+  private final Map<String, Semaphore> routes = new ConcurrentHashMap<>();
+
+  protected VirtualThreadCommandBus(Builder builder) {
+    super(builder);
+    this.executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("command-", 0).factory());
+    this.downstreams = builder.downstreamPermits.entrySet().stream()
+        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey,
+            entry -> new Semaphore(entry.getValue(), true)));
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Handles commands named {@code commandName} on virtual threads, within the permits of
+   * {@code downstream}.
+   */
+  public void route(String commandName, String downstream) {
+    Semaphore permits = downstreams.get(downstream);
+    if (permits == null) {
+      throw new IllegalArgumentException("No permits configured for downstream: " + downstream);
+    }
+    routes.put(commandName, permits);
+  }
+
+  public int availablePermits(String downstream) {
+    return downstreams.get(downstream).availablePermits();
+  }
+
+  public int waitingCommands(String downstream) {
+    return downstreams.get(downstream).getQueueLength();
+  }
+
+  @Override
+  protected <C, R> void handleLocally(CommandMessage<C> command,
+      MessageHandler<? super CommandMessage<?>> handler,
+      CommandCallback<? super C, ? super R> callback) {
+    Semaphore permits = routes.get(command.getCommandName());
+    if (permits == null) {
+      super.handleLocally(command, handler, callback);
+      return;
+    }
+
+    executor.execute(() -> {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        callback.onResult(command, GenericCommandResultMessage.asCommandResultMessage(e));
+        return;
+      }
+      try {
+        super.handleLocally(command, handler, callback);
+      } finally {
+        permits.release();
+      }
+    });
+  }
+
+  /**
+   * Stops accepting routed commands. Commands already handed to a virtual thread still complete.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  public static class Builder extends ForwardingCommandBus.Builder {
+
+    private Map<String, Integer> downstreamPermits = Map.of();
+
+    /**
+     * Sets how many commands may call each downstream at the same time.
+     */
+    public Builder downstreamPermits(Map<String, Integer> downstreamPermits) {
+      assertNonNull(downstreamPermits, "Downstream permits may not be null");
+      downstreamPermits.forEach((downstream, permits) -> assertThat(permits, value -> value > 0,
+          "Permits of downstream " + downstream + " must be positive"));
+      this.downstreamPermits = Map.copyOf(downstreamPermits);
+      return this;
+    }
+
+    @Override
+    public VirtualThreadCommandBus build() {
+      return new VirtualThreadCommandBus(this);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package edu.fi.muni.cz.marketplace.config.command;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.context.SmartLifecycle;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, using the JFR
+ * {@code jdk.VirtualThreadPinned} event.
+ * <p>
+ * A pinned virtual thread blocks its carrier while it waits, typically inside native code or a
+ * class initializer, so a handler that pins during a Stripe call occupies one of the few carrier
+ * threads for the whole round trip. Every pinning longer than {@code threshold} is recorded in the
+ * {@code jvm.threads.virtual.pinned} timer and logged with the top of its stack.
+ * </p>
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int LOGGED_FRAMES = 10;
+
+  private final Duration threshold;
+  private final Timer pinnedTimer;
+  private volatile RecordingStream recording;
+
+  public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+    this.threshold = threshold;
+    this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+        .description("Time virtual threads spent pinned to their carrier thread")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void start() {
+    RecordingStream stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::onPinned);
+    stream.startAsync();
+    recording = stream;
+    log.info("Reporting virtual threads pinned for longer than {}", threshold);
+  }
+
+  @Override
+  public void stop() {
+    RecordingStream stream = recording;
+    recording = null;
+    if (stream != null) {
+      stream.close();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return recording != null;
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinnedTimer.record(event.getDuration());
+    String thread = event.getThread() == null ? "unknown" : event.getThread().getJavaName();
+    log.warn("Virtual thread {} was pinned to its carrier for {} ms{}", thread,
+        event.getDuration().toMillis(), formatStackTrace(event));
+  }
+
+  private static String formatStackTrace(RecordedEvent event) {
+    if (event.getStackTrace() == null) {
+      return "";
+    }
+    List<RecordedFrame> frames = event.getStackTrace().getFrames();
+    return frames.stream()
+        .limit(LOGGED_FRAMES)
+        .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "."
+            + frame.getMethod().getName() + ":" + frame.getLineNumber())
+        .collect(Collectors.joining());
+  }
+}
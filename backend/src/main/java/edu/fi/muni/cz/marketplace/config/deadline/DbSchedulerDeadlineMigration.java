@@ -0,0 +1,55 @@
+package edu.fi.muni.cz.marketplace.config.deadline;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.axonframework.deadline.dbscheduler.DbSchedulerBinaryDeadlineDetails;
+import org.axonframework.deadline.dbscheduler.DbSchedulerDeadlineManager;
+
+import com.github.kagkarlsson.scheduler.ScheduledExecution;
+import com.github.kagkarlsson.scheduler.SchedulerClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves the deadlines the db-scheduler based deadline manager left in {@code scheduled_tasks}
+ * over to a {@link TimingWheelDeadlineManager}.
+ * <p>
+ * Every deadline is adopted under its schedule id, so the aggregate that scheduled it can still
+ * cancel it, and only then removed from {@code scheduled_tasks}. A run interrupted in between
+ * adopts the remaining deadlines again on the next start. Executions picked by a node still
+ * running the db-scheduler based manager are left to it.
+ * </p>
+ */
+@Slf4j
+public class DbSchedulerDeadlineMigration {
+
+  static final String TASK_NAME = DbSchedulerDeadlineManager.binaryTask(() -> null).getName();
+
+  private final SchedulerClient scheduler;
+  private final TimingWheelDeadlineManager deadlineManager;
+
+  public DbSchedulerDeadlineMigration(SchedulerClient scheduler,
+      TimingWheelDeadlineManager deadlineManager) {
+    this.scheduler = scheduler;
+    this.deadlineManager = deadlineManager;
+  }
+
+  /**
+   * @return number of moved deadlines
+   */
+  public int migrate() {
+    List<ScheduledExecution<DbSchedulerBinaryDeadlineDetails>> executions = new ArrayList<>();
+    scheduler.fetchScheduledExecutionsForTask(TASK_NAME, DbSchedulerBinaryDeadlineDetails.class,
+        executions::add);
+    for (ScheduledExecution<DbSchedulerBinaryDeadlineDetails> execution : executions) {
+      deadlineManager.adopt(execution.getTaskInstance().getId(), execution.getData(),
+          execution.getExecutionTime());
+      scheduler.cancel(execution.getTaskInstance());
+    }
+    if (!executions.isEmpty()) {
+      log.info("Moved {} deadlines from scheduled_tasks to the timing wheel", executions.size());
+    }
+    return executions.size();
+  }
+}
@@ -0,0 +1,213 @@
+package edu.fi.muni.cz.marketplace.config.deadline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel.
+ * <p>
+ * Time is cut into ticks, and every level of the wheel has {@code wheelSize} buckets. A bucket of
+ * level {@code n} spans {@code wheelSize^n} ticks, so an entry is kept in the lowest level whose
+ * bucket contains only its own tick once all higher levels agree with the current tick. When the
+ * current tick reaches the bucket of a higher level, its entries cascade to the lower levels, and
+ * the entries of a level 0 bucket expire when the current tick reaches it. Adding and cancelling an
+ * entry is O(1), advancing costs O(1) per tick plus the entries that cascade or expire.
+ * </p>
+ * <p>
+ * An entry never expires before its deadline, but up to one tick after it. The wheel is not
+ * thread-safe.
+ * </p>
+ */
+public class TimingWheel<T> {
+
+  private final long tickMillis;
+  private final int bits;
+  private final int mask;
+  private final Bucket<T>[][] levels;
+  private long currentTick;
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  public TimingWheel(Duration tick, int wheelSize, long nowMillis) {
+    if (tick.toMillis() < 1) {
+      throw new IllegalArgumentException("Tick must be at least 1ms: " + tick);
+    }
+    if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+    }
+    this.tickMillis = tick.toMillis();
+    this.bits = Integer.numberOfTrailingZeros(wheelSize);
+    this.mask = wheelSize - 1;
+    this.levels = new Bucket[(Long.SIZE + bits - 1) / bits][];
+    this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+  }
+
+  /**
+   * Adds {@code task} to expire at {@code deadlineMillis}. A deadline that has already passed
+   * expires on the next tick.
+   *
+   * @return the handle to cancel the entry with
+   */
+  public Timeout<T> add(long deadlineMillis, T task) {
+    Timeout<T> timeout = new Timeout<>(deadlineMillis, task,
+        Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1));
+    place(timeout);
+    size++;
+    return timeout;
+  }
+
+  /**
+   * Removes the entry of {@code timeout} from the wheel.
+   *
+   * @return false if it has already expired or was cancelled before
+   */
+  public boolean cancel(Timeout<T> timeout) {
+    if (timeout.bucket == null) {
+      return false;
+    }
+    timeout.bucket.remove(timeout);
+    size--;
+    return true;
+  }
+
+  /**
+   * Moves the wheel to {@code nowMillis}.
+   *
+   * @return the tasks that expired on the way, in the order of their ticks
+   */
+  public List<T> advance(long nowMillis) {
+    long targetTick = Math.floorDiv(nowMillis, tickMillis);
+    List<T> expired = new ArrayList<>();
+    while (currentTick < targetTick) {
+      currentTick++;
+      int cascading = Math.min(Long.numberOfTrailingZeros(currentTick) / bits, levels.length - 1);
+      for (int level = cascading; level > 0; level--) {
+        Bucket<T> bucket = bucket(level, digit(currentTick, level), false);
+        if (bucket != null) {
+          for (Timeout<T> timeout = bucket.clear(); timeout != null; ) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            if (timeout.tick == currentTick) {
+              expired.add(timeout.task);
+              size--;
+            } else {
+              place(timeout);
+            }
+            timeout = next;
+          }
+        }
+      }
+      Bucket<T> due = bucket(0, digit(currentTick, 0), false);
+      if (due != null) {
+        for (Timeout<T> timeout = due.clear(); timeout != null; ) {
+          Timeout<T> next = timeout.next;
+          timeout.next = null;
+          expired.add(timeout.task);
+          size--;
+          timeout = next;
+        }
+      }
+    }
+    return expired;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private void place(Timeout<T> timeout) {
+    int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(timeout.tick ^ currentTick)) / bits;
+    bucket(level, digit(timeout.tick, level), true).add(timeout);
+  }
+
+  private int digit(long tick, int level) {
+    return (int) (tick >>> ((long) bits * level)) & mask;
+  }
+
+  private Bucket<T> bucket(int level, int slot, boolean create) {
+    Bucket<T>[] buckets = levels[level];
+    if (buckets == null) {
+      if (!create) {
+        return null;
+      }
+      @SuppressWarnings("unchecked")
+      Bucket<T>[] created = new Bucket[mask + 1];
+      buckets = created;
+      levels[level] = buckets;
+    }
+    if (buckets[slot] == null && create) {
+      buckets[slot] = new Bucket<>();
+    }
+    return buckets[slot];
+  }
+
+  /**
+   * Entry of the wheel.
+   */
+  public static final class Timeout<T> {
+
+    private final long deadlineMillis;
+    private final T task;
+    private final long tick;
+    private Bucket<T> bucket;
+    private Timeout<T> previous;
+    private Timeout<T> next;
+
+    private Timeout(long deadlineMillis, T task, long tick) {
+      this.deadlineMillis = deadlineMillis;
+      this.task = task;
+      this.tick = tick;
+    }
+
+    public long getDeadlineMillis() {
+      return deadlineMillis;
+    }
+
+    public T getTask() {
+      return task;
+    }
+  }
+
+  private static final class Bucket<T> {
+
+    private Timeout<T> head;
+
+    private void add(Timeout<T> timeout) {
+      timeout.bucket = this;
+      timeout.previous = null;
+      timeout.next = head;
+      if (head != null) {
+        head.previous = timeout;
+      }
+      head = timeout;
+    }
+
+    private void remove(Timeout<T> timeout) {
+      if (timeout.previous == null) {
+        head = timeout.next;
+      } else {
+        timeout.previous.next = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.previous = timeout.previous;
+      }
+      timeout.bucket = null;
+      timeout.previous = null;
+      timeout.next = null;
+    }
+
+    /**
+     * Detaches all entries and returns the first one, the rest follow through {@code next}.
+     */
+    private Timeout<T> clear() {
+      Timeout<T> first = head;
+      head = null;
+      for (Timeout<T> timeout = first; timeout != null; timeout = timeout.next) {
+        timeout.bucket = null;
+        timeout.previous = null;
+      }
+      return first;
+    }
+  }
+}
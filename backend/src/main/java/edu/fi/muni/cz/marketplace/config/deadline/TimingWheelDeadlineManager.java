@@ -0,0 +1,577 @@
+package edu.fi.muni.cz.marketplace.config.deadline;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.axonframework.common.IdentifierFactory;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.deadline.AbstractDeadlineManager;
+import org.axonframework.deadline.DeadlineException;
+import org.axonframework.deadline.DeadlineMessage;
+import org.axonframework.deadline.GenericDeadlineMessage;
+import org.axonframework.deadline.dbscheduler.DbSchedulerBinaryDeadlineDetails;
+import org.axonframework.messaging.DefaultInterceptorChain;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.ResultMessage;
+import org.axonframework.messaging.ScopeAwareProvider;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link org.axonframework.deadline.DeadlineManager} that fires deadlines from an in-memory
+ * {@link TimingWheel} and keeps them durable in the {@code timing_wheel_deadlines} table.
+ * <p>
+ * Every deadline is inserted into {@code timing_wheel_deadlines} in the transaction that schedules
+ * it. Instead of polling the table for due executions, each node claims the deadlines due within
+ * the next {@code window} in one statement every half window, and puts them on its wheel. A
+ * deadline scheduled within the window that is already loaded is claimed right away. Claimed rows
+ * are marked as picked by the node and kept alive with heartbeats, rows of a node that stopped
+ * sending them for {@code claimTimeout} are released to be claimed by another node. Every manager
+ * gets a node name of its own and only renews the rows it holds on its wheel or is executing, so
+ * the claims of a crashed run are released even when the restarted process has the same pid and
+ * host.
+ * </p>
+ * <p>
+ * The deadlines are kept out of {@code scheduled_tasks} on purpose. The db-scheduler
+ * {@code Scheduler} keeps running there for the recurring tasks, and it deletes the due rows of
+ * task names it has no task for once they stay unresolved for long enough.
+ * </p>
+ * <p>
+ * A deadline fires in a unit of work that first deletes its row, so a deadline cancelled or taken
+ * over by another node in the meantime is skipped, and a failing deadline handler leaves the row
+ * in place. The row of a failed deadline is released to be retried after {@code retryDelay}.
+ * Cancelling deletes the row by its primary key and unlinks the entry from the wheel.
+ * </p>
+ * <p>
+ * Deadlines run in priority lanes, each with its own pool of worker threads, so a backlog of bulk
+ * deadlines never delays the ones moving money. A deadline goes to the lane listing its name, or
+ * to the lane with the lowest priority. The priority of the lane is stored in the {@code priority}
+ * column, and higher priorities are claimed first.
+ * </p>
+ * <p>
+ * Publishes the {@code deadlines.wheel.pending} gauge, and by lane the
+ * {@code deadlines.lane.queued} gauge of due deadlines waiting for a worker and the
+ * {@code deadlines.lateness} timer of how long after their trigger time deadlines started.
+ * </p>
+ */
+@Slf4j
+public class TimingWheelDeadlineManager extends AbstractDeadlineManager implements SmartLifecycle {
+
+  static final String INSERT = "INSERT INTO timing_wheel_deadlines (deadline_id, deadline_data, "
+      + "execution_time, picked, picked_by, last_heartbeat, priority, version) "
+      + "VALUES (?, ?, ?, ?, ?, ?, ?, 1)";
+  static final String ADOPT = "INSERT INTO timing_wheel_deadlines (deadline_id, deadline_data, "
+      + "execution_time, picked, priority, version) VALUES (?, ?, ?, false, ?, 1) "
+      + "ON CONFLICT (deadline_id) DO NOTHING";
+  static final String CLAIM = "UPDATE timing_wheel_deadlines SET picked = true, picked_by = ?, "
+      + "last_heartbeat = ?, version = version + 1 "
+      + "WHERE deadline_id IN (SELECT deadline_id FROM timing_wheel_deadlines "
+      + "WHERE picked = false AND execution_time < ? "
+      + "ORDER BY priority DESC, execution_time LIMIT ? FOR UPDATE SKIP LOCKED) "
+      + "RETURNING deadline_id, deadline_data, execution_time";
+  static final String HEARTBEAT = "UPDATE timing_wheel_deadlines SET last_heartbeat = ? "
+      + "WHERE deadline_id = ? AND picked_by = ?";
+  static final String RELEASE_STALE = "UPDATE timing_wheel_deadlines SET picked = false, "
+      + "picked_by = NULL, last_heartbeat = NULL, version = version + 1 "
+      + "WHERE picked = true AND last_heartbeat < ?";
+  static final String RELEASE_OWN = "UPDATE timing_wheel_deadlines SET picked = false, "
+      + "picked_by = NULL, last_heartbeat = NULL, version = version + 1 WHERE picked_by = ?";
+  static final String DELETE_CLAIMED = "DELETE FROM timing_wheel_deadlines "
+      + "WHERE deadline_id = ? AND picked_by = ?";
+  static final String RETRY_LATER = "UPDATE timing_wheel_deadlines SET picked = false, "
+      + "picked_by = NULL, last_heartbeat = NULL, last_failure = ?, execution_time = ?, "
+      + "consecutive_failures = COALESCE(consecutive_failures, 0) + 1, version = version + 1 "
+      + "WHERE deadline_id = ? AND picked_by = ?";
+  static final String CANCEL = "DELETE FROM timing_wheel_deadlines WHERE deadline_id = ?";
+  static final String SELECT_BY_NAME = "SELECT deadline_id, deadline_data "
+      + "FROM timing_wheel_deadlines WHERE starts_with(deadline_id, ?)";
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ScopeAwareProvider scopeAwareProvider;
+  private final Serializer serializer;
+  private final TransactionManager transactionManager;
+  private final Clock clock;
+  private final Settings settings;
+  private final String nodeName;
+  private final Map<String, Lane> lanesByDeadline;
+  private final Lane defaultLane;
+  private final Map<Lane, Timer> latenessTimers;
+
+  private final TimingWheel<PendingDeadline> wheel;
+  private final Map<String, TimingWheel.Timeout<PendingDeadline>> pending = new HashMap<>();
+  private final Set<String> executing = ConcurrentHashMap.newKeySet();
+  private volatile Instant loadedUntil = Instant.MIN;
+  private ScheduledExecutorService timer;
+  private volatile Map<Lane, ThreadPoolExecutor> workers = Map.of();
+  private volatile boolean running;
+
+  public TimingWheelDeadlineManager(JdbcTemplate jdbcTemplate,
+      ScopeAwareProvider scopeAwareProvider, Serializer serializer,
+      TransactionManager transactionManager, MeterRegistry meterRegistry, Clock clock,
+      Settings settings) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.scopeAwareProvider = scopeAwareProvider;
+    this.serializer = serializer;
+    this.transactionManager = transactionManager;
+    this.clock = clock;
+    this.settings = settings;
+    this.nodeName = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+    this.wheel = new TimingWheel<>(settings.tick(), settings.wheelSize(), clock.millis());
+    this.lanesByDeadline = settings.lanes().stream()
+        .flatMap(lane -> lane.deadlineNames().stream().map(name -> Map.entry(name, lane)))
+        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+    this.defaultLane = settings.lanes().stream()
+        .min(Comparator.comparingInt(Lane::priority))
+        .orElseThrow(() -> new IllegalArgumentException("At least one lane is required"));
+
+    Gauge.builder("deadlines.wheel.pending", this, TimingWheelDeadlineManager::pendingDeadlines)
+        .description("Deadlines claimed by this node and waiting on the timing wheel")
+        .register(meterRegistry);
+    this.latenessTimers = settings.lanes().stream()
+        .collect(Collectors.toUnmodifiableMap(lane -> lane,
+            lane -> Timer.builder("deadlines.lateness")
+                .description("Time between the trigger time of a deadline and its execution")
+                .tag("lane", lane.name())
+                .register(meterRegistry)));
+    settings.lanes().forEach(lane ->
+        Gauge.builder("deadlines.lane.queued", this, manager -> manager.queuedDeadlines(lane))
+            .description("Due deadlines waiting for a worker of the lane")
+            .tag("lane", lane.name())
+            .register(meterRegistry));
+  }
+
+  @Override
+  public String schedule(Instant triggerDateTime, String deadlineName, Object messageOrPayload,
+      ScopeDescriptor deadlineScope) {
+    DeadlineMessage<Object> deadlineMessage = processDispatchInterceptors(
+        GenericDeadlineMessage.asDeadlineMessage(deadlineName, messageOrPayload,
+            triggerDateTime));
+    String deadlineId = deadlineName + ":" + IdentifierFactory.getInstance().generateIdentifier();
+    DbSchedulerBinaryDeadlineDetails details =
+        serialize(deadlineName, deadlineScope, deadlineMessage);
+
+    boolean claim = running && triggerDateTime.isBefore(loadedUntil);
+    jdbcTemplate.update(INSERT, deadlineId, encode(details),
+        Timestamp.from(triggerDateTime), claim, claim ? nodeName : null,
+        claim ? Timestamp.from(clock.instant()) : null, laneOf(deadlineName).priority());
+    if (claim) {
+      runAfterCommitOrNow(() -> addToWheel(
+          new PendingDeadline(deadlineId, details, triggerDateTime)));
+    }
+    return deadlineId;
+  }
+
+  @Override
+  public void cancelSchedule(String deadlineName, String scheduleId) {
+    String deadlineId = deadlineId(deadlineName, scheduleId);
+    jdbcTemplate.update(CANCEL, deadlineId);
+    runAfterCommitOrNow(() -> removeFromWheel(deadlineId));
+  }
+
+  /**
+   * Stores a deadline scheduled by another deadline manager under its {@code scheduleId}, to be
+   * claimed by the next load. Adopting the same deadline again has no effect.
+   */
+  public void adopt(String scheduleId, DbSchedulerBinaryDeadlineDetails details,
+      Instant triggerDateTime) {
+    jdbcTemplate.update(ADOPT, deadlineId(details.getD(), scheduleId), encode(details),
+        Timestamp.from(triggerDateTime), laneOf(details.getD()).priority());
+  }
+
+  @Override
+  public void cancelAll(String deadlineName) {
+    cancelMatching(deadlineName, details -> true);
+  }
+
+  @Override
+  public void cancelAllWithinScope(String deadlineName, ScopeDescriptor scope) {
+    cancelMatching(deadlineName,
+        details -> scope.equals(details.getDeserializedScopeDescriptor(serializer)));
+  }
+
+  @Override
+  public void start() {
+    workers = settings.lanes().stream()
+        .collect(Collectors.toUnmodifiableMap(lane -> lane,
+            TimingWheelDeadlineManager::startWorkers));
+    AtomicInteger timerNumber = new AtomicInteger();
+    timer = Executors.newScheduledThreadPool(2,
+        runnable -> new Thread(runnable, "deadline-wheel-" + timerNumber.incrementAndGet()));
+    running = true;
+
+    long tickMillis = settings.tick().toMillis();
+    timer.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    timer.scheduleWithFixedDelay(this::load, 0, settings.window().toMillis() / 2,
+        TimeUnit.MILLISECONDS);
+    timer.scheduleWithFixedDelay(this::heartbeat, settings.heartbeatInterval().toMillis(),
+        settings.heartbeatInterval().toMillis(), TimeUnit.MILLISECONDS);
+    log.info("Started timing wheel deadline manager {} with a window of {}", nodeName,
+        settings.window());
+  }
+
+  @Override
+  public void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    timer.shutdownNow();
+    workers.values().forEach(ExecutorService::shutdown);
+    try {
+      for (ExecutorService laneWorkers : workers.values()) {
+        if (!laneWorkers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          laneWorkers.shutdownNow();
+        }
+      }
+    } catch (InterruptedException e) {
+      workers.values().forEach(ExecutorService::shutdownNow);
+      Thread.currentThread().interrupt();
+    }
+    synchronized (wheel) {
+      pending.values().forEach(wheel::cancel);
+      pending.clear();
+      loadedUntil = Instant.MIN;
+    }
+    executing.clear();
+    int released = jdbcTemplate.update(RELEASE_OWN, nodeName);
+    log.info("Stopped timing wheel deadline manager, released {} claimed deadlines", released);
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public void shutdown() {
+    stop();
+  }
+
+  private int queuedDeadlines(Lane lane) {
+    ThreadPoolExecutor laneWorkers = workers.get(lane);
+    return laneWorkers == null ? 0 : laneWorkers.getQueue().size();
+  }
+
+  /**
+   * Ids of the deadlines scheduled here start with their name, adopted ones get it prepended.
+   */
+  private static String deadlineId(String deadlineName, String scheduleId) {
+    String prefix = deadlineName + ":";
+    return scheduleId.startsWith(prefix) ? scheduleId : prefix + scheduleId;
+  }
+
+  private Lane laneOf(String deadlineName) {
+    return lanesByDeadline.getOrDefault(deadlineName, defaultLane);
+  }
+
+  private static ThreadPoolExecutor startWorkers(Lane lane) {
+    AtomicInteger workerNumber = new AtomicInteger();
+    return new ThreadPoolExecutor(lane.threads(), lane.threads(), 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), runnable -> new Thread(runnable,
+            "deadline-" + lane.name() + "-" + workerNumber.incrementAndGet()));
+  }
+
+  private int pendingDeadlines() {
+    synchronized (wheel) {
+      return wheel.size();
+    }
+  }
+
+  private void tick() {
+    List<PendingDeadline> expired;
+    synchronized (wheel) {
+      expired = wheel.advance(clock.millis());
+      expired.forEach(deadline -> {
+        pending.remove(deadline.deadlineId());
+        executing.add(deadline.deadlineId());
+      });
+    }
+    try {
+      expired.forEach(deadline -> workers.get(laneOf(deadline.details().getD()))
+          .execute(() -> execute(deadline)));
+    } catch (RejectedExecutionException e) {
+      log.debug("Deadline manager is stopping, {} expired deadlines stay claimed until released",
+          expired.size());
+    }
+  }
+
+  /**
+   * Claims the deadlines due before the end of the next window.
+   */
+  private void load() {
+    try {
+      Instant now = clock.instant();
+      jdbcTemplate.update(RELEASE_STALE, Timestamp.from(now.minus(settings.claimTimeout())));
+      Instant horizon = now.plus(settings.window());
+      loadedUntil = horizon;
+      int claimed;
+      do {
+        List<PendingDeadline> deadlines = jdbcTemplate.query(CLAIM,
+            (row, rowNumber) -> new PendingDeadline(row.getString("deadline_id"),
+                decode(row.getBytes("deadline_data")),
+                row.getTimestamp("execution_time").toInstant()),
+            nodeName, Timestamp.from(now), Timestamp.from(horizon), settings.batchSize());
+        deadlines.forEach(this::addToWheel);
+        claimed = deadlines.size();
+      } while (claimed == settings.batchSize());
+    } catch (RuntimeException e) {
+      log.error("Failed to load deadlines into the timing wheel", e);
+    }
+  }
+
+  /**
+   * Renews the claims of the deadlines on the wheel and the ones being executed.
+   */
+  private void heartbeat() {
+    List<String> deadlineIds;
+    synchronized (wheel) {
+      deadlineIds = new ArrayList<>(pending.keySet());
+    }
+    deadlineIds.addAll(executing);
+    if (deadlineIds.isEmpty()) {
+      return;
+    }
+    Timestamp now = Timestamp.from(clock.instant());
+    try {
+      jdbcTemplate.batchUpdate(HEARTBEAT, deadlineIds.stream()
+          .map(deadlineId -> new Object[] {now, deadlineId, nodeName})
+          .toList());
+    } catch (RuntimeException e) {
+      log.error("Failed to update the heartbeat of claimed deadlines", e);
+    }
+  }
+
+  private void execute(PendingDeadline deadline) {
+    try {
+      executeClaimed(deadline);
+    } finally {
+      executing.remove(deadline.deadlineId());
+    }
+  }
+
+  private void executeClaimed(PendingDeadline deadline) {
+    latenessTimers.get(laneOf(deadline.details().getD()))
+        .record(Duration.between(deadline.triggerTime(), clock.instant()));
+    Throwable failure;
+    try {
+      failure = dispatch(deadline);
+    } catch (RuntimeException e) {
+      failure = e;
+    }
+    if (failure != null) {
+      Instant now = clock.instant();
+      log.error("Deadline {} failed, retrying at {}", deadline.deadlineId(),
+          now.plus(settings.retryDelay()), failure);
+      jdbcTemplate.update(RETRY_LATER, Timestamp.from(now),
+          Timestamp.from(now.plus(settings.retryDelay())), deadline.deadlineId(), nodeName);
+    }
+  }
+
+  /**
+   * Runs the handlers of {@code deadline} in a unit of work deleting its row.
+   *
+   * @return the failure of the handlers, or null if they succeeded
+   */
+  private Throwable dispatch(PendingDeadline deadline) {
+    DeadlineMessage<?> deadlineMessage = deadline.details().asDeadLineMessage(serializer);
+    ScopeDescriptor scope = deadline.details().getDeserializedScopeDescriptor(serializer);
+
+    DefaultUnitOfWork<DeadlineMessage<?>> unitOfWork = new DefaultUnitOfWork<>(deadlineMessage);
+    unitOfWork.attachTransaction(transactionManager);
+    InterceptorChain chain = new DefaultInterceptorChain<>(unitOfWork, handlerInterceptors(),
+        message -> {
+          send(message, scope);
+          return null;
+        });
+    ResultMessage<?> result = unitOfWork.executeWithResult(() -> {
+      if (jdbcTemplate.update(DELETE_CLAIMED, deadline.deadlineId(), nodeName) == 0) {
+        log.debug("Deadline {} was cancelled or claimed by another node", deadline.deadlineId());
+        return null;
+      }
+      return chain.proceed();
+    });
+    return result.isExceptional() ? result.exceptionResult() : null;
+  }
+
+  private void send(DeadlineMessage<?> deadlineMessage, ScopeDescriptor scope) {
+    scopeAwareProvider.provideScopeAwareStream(scope)
+        .filter(component -> component.canResolve(scope))
+        .forEach(component -> {
+          try {
+            component.send(deadlineMessage, scope);
+          } catch (Exception e) {
+            throw new DeadlineException("Failed to send deadline "
+                + deadlineMessage.getDeadlineName() + " to " + scope.scopeDescription(), e);
+          }
+        });
+  }
+
+  private void cancelMatching(String deadlineName,
+      Predicate<DbSchedulerBinaryDeadlineDetails> matching) {
+    List<String> deadlineIds = jdbcTemplate.query(SELECT_BY_NAME,
+            (row, rowNumber) -> new PendingDeadline(row.getString("deadline_id"),
+                decode(row.getBytes("deadline_data")), null),
+            deadlineName + ":").stream()
+        .filter(deadline -> deadlineName.equals(deadline.details().getD())
+            && matching.test(deadline.details()))
+        .map(PendingDeadline::deadlineId)
+        .toList();
+    deadlineIds.forEach(deadlineId -> cancelSchedule(deadlineName, deadlineId));
+  }
+
+  private void addToWheel(PendingDeadline deadline) {
+    synchronized (wheel) {
+      if (running && !pending.containsKey(deadline.deadlineId())) {
+        pending.put(deadline.deadlineId(),
+            wheel.add(deadline.triggerTime().toEpochMilli(), deadline));
+      }
+    }
+  }
+
+  private void removeFromWheel(String deadlineId) {
+    synchronized (wheel) {
+      TimingWheel.Timeout<PendingDeadline> timeout = pending.remove(deadlineId);
+      if (timeout != null) {
+        wheel.cancel(timeout);
+      }
+    }
+  }
+
+  private static void runAfterCommitOrNow(Runnable task) {
+    if (CurrentUnitOfWork.isStarted()) {
+      CurrentUnitOfWork.get().afterCommit(unitOfWork -> task.run());
+    } else {
+      task.run();
+    }
+  }
+
+  private DbSchedulerBinaryDeadlineDetails serialize(String deadlineName, ScopeDescriptor scope,
+      DeadlineMessage<?> deadlineMessage) {
+    SerializedObject<byte[]> serializedScope = serializer.serialize(scope, byte[].class);
+    SerializedObject<byte[]> payload =
+        serializer.serialize(deadlineMessage.getPayload(), byte[].class);
+    SerializedObject<byte[]> metaData =
+        serializer.serialize(MetaData.from(deadlineMessage.getMetaData()), byte[].class);
+    return new DbSchedulerBinaryDeadlineDetails(deadlineName, serializedScope.getData(),
+        serializedScope.getType().getName(), payload.getData(), payload.getType().getName(),
+        payload.getType().getRevision(), metaData.getData());
+  }
+
+  static byte[] encode(DbSchedulerBinaryDeadlineDetails details) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeUTF(details.getD());
+      writeBytes(out, details.getS());
+      out.writeUTF(details.getSc());
+      writeBytes(out, details.getP());
+      out.writeUTF(details.getPc());
+      out.writeBoolean(details.getR() != null);
+      if (details.getR() != null) {
+        out.writeUTF(details.getR());
+      }
+      writeBytes(out, details.getM());
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  static DbSchedulerBinaryDeadlineDetails decode(byte[] data) {
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+      String deadlineName = in.readUTF();
+      byte[] scope = readBytes(in);
+      String scopeType = in.readUTF();
+      byte[] payload = readBytes(in);
+      String payloadType = in.readUTF();
+      String revision = in.readBoolean() ? in.readUTF() : null;
+      byte[] metaData = readBytes(in);
+      return new DbSchedulerBinaryDeadlineDetails(deadlineName, scope, scopeType, payload,
+          payloadType, revision, metaData);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * Tunables of the manager.
+   *
+   * @param tick              resolution of the wheel
+   * @param wheelSize         buckets per level of the wheel, a power of two
+   * @param window            how far ahead deadlines are claimed
+   * @param batchSize         rows claimed per statement
+   * @param heartbeatInterval how often the claims of this node are renewed
+   * @param claimTimeout      after which claims without heartbeat are released
+   * @param retryDelay        delay before a failed deadline is retried
+   * @param lanes             priority lanes executing deadline handlers
+   */
+  public record Settings(Duration tick, int wheelSize, Duration window, int batchSize,
+      Duration heartbeatInterval, Duration claimTimeout, Duration retryDelay, List<Lane> lanes) {
+  }
+
+  /**
+   * Priority lane with its own worker threads.
+   *
+   * @param name          name of the lane in thread names and metrics
+   * @param priority      priority stored with the deadlines of the lane
+   * @param deadlineNames names of the deadlines running in the lane
+   * @param threads       threads executing the deadline handlers of the lane
+   */
+  public record Lane(String name, int priority, Set<String> deadlineNames, int threads) {
+  }
+
+  private record PendingDeadline(String deadlineId, DbSchedulerBinaryDeadlineDetails details,
+      Instant triggerTime) {
+  }
+}
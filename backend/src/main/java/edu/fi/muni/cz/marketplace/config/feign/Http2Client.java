@@ -0,0 +1,141 @@
+package edu.fi.muni.cz.marketplace.config.feign;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+/**
+ * Feign client sending requests over a shared {@link HttpClient}.
+ * <p>
+ * The JDK client keeps connections alive between requests and, with HTTP/2, multiplexes all
+ * concurrent requests to a host over a single connection, so bursts of calls do not pay for new
+ * TLS handshakes. At most {@code maxConcurrentRequests} requests are in flight at once, the others
+ * wait for a free slot. Bounding them here keeps a burst from exceeding the stream limit of the
+ * server or opening extra HTTP/1.1 connections when HTTP/2 is not negotiated.
+ * </p>
+ * <p>
+ * Responses are requested compressed and transparently decompressed. The read timeout of the
+ * request {@link Request.Options} bounds the whole exchange, the connect timeout is the one of the
+ * {@link HttpClient}.
+ * </p>
+ */
+public class Http2Client implements Client {
+
+  /** Headers the JDK client sets itself and refuses to take from the caller. */
+  private static final Set<String> RESTRICTED_HEADERS = caseInsensitive(
+      List.of("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+
+  private final HttpClient httpClient;
+  private final Semaphore slots;
+
+  public Http2Client(HttpClient httpClient, int maxConcurrentRequests) {
+    if (maxConcurrentRequests <= 0) {
+      throw new IllegalArgumentException("Max concurrent requests must be positive");
+    }
+    this.httpClient = httpClient;
+    this.slots = new Semaphore(maxConcurrentRequests, true);
+  }
+
+  @Override
+  public Response execute(Request request, Request.Options options) throws IOException {
+    HttpRequest httpRequest = toHttpRequest(request, options);
+    HttpResponse<byte[]> httpResponse;
+    try {
+      slots.acquire();
+      try {
+        httpResponse = httpClient.send(httpRequest, BodyHandlers.ofByteArray());
+      } finally {
+        slots.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while calling " + request.url());
+    }
+    return toResponse(request, httpResponse);
+  }
+
+  private static HttpRequest toHttpRequest(Request request, Request.Options options) {
+    byte[] body = request.body();
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url()))
+        .timeout(Duration.of(options.readTimeout(), options.readTimeoutUnit().toChronoUnit()))
+        .method(request.httpMethod().name(), body == null || body.length == 0
+            ? BodyPublishers.noBody() : BodyPublishers.ofByteArray(body));
+
+    request.headers().forEach((name, values) -> {
+      if (!RESTRICTED_HEADERS.contains(name)) {
+        values.forEach(value -> builder.header(name, value));
+      }
+    });
+    if (!request.headers().containsKey("Accept-Encoding")) {
+      builder.header("Accept-Encoding", "gzip, deflate");
+    }
+    return builder.build();
+  }
+
+  private static Response toResponse(Request request, HttpResponse<byte[]> httpResponse)
+      throws IOException {
+    String encoding = httpResponse.headers().firstValue("Content-Encoding").orElse("identity");
+    byte[] body = decompress(encoding, httpResponse.body());
+
+    Map<String, Collection<String>> headers = new LinkedHashMap<>();
+    httpResponse.headers().map().forEach((name, values) -> {
+      if (!name.startsWith(":") && !name.equalsIgnoreCase("Content-Encoding")
+          && !name.equalsIgnoreCase("Content-Length")) {
+        headers.put(name, values);
+      }
+    });
+
+    return Response.builder()
+        .request(request)
+        .protocolVersion(httpResponse.version() == HttpClient.Version.HTTP_2
+            ? Request.ProtocolVersion.HTTP_2 : Request.ProtocolVersion.HTTP_1_1)
+        .status(httpResponse.statusCode())
+        .headers(headers)
+        .body(body)
+        .build();
+  }
+
+  private static byte[] decompress(String encoding, byte[] body) throws IOException {
+    if (body.length == 0) {
+      return body;
+    }
+    InputStream decoded = switch (encoding.trim().toLowerCase()) {
+      case "gzip", "x-gzip" -> new GZIPInputStream(new ByteArrayInputStream(body));
+      case "deflate" -> new InflaterInputStream(new ByteArrayInputStream(body));
+      default -> null;
+    };
+    if (decoded == null) {
+      return body;
+    }
+    try (decoded) {
+      return decoded.readAllBytes();
+    }
+  }
+
+  private static Set<String> caseInsensitive(Collection<String> names) {
+    Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    set.addAll(names);
+    return set;
+  }
+}
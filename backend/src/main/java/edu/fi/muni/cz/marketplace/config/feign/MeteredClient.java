@@ -0,0 +1,59 @@
+package edu.fi.muni.cz.marketplace.config.feign;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Feign client recording every request of {@code delegate} in the {@code <name>.http.requests}
+ * timer.
+ * <p>
+ * The timer is tagged with the endpoint, i.e. the Feign interface method such as
+ * {@code Ship24ApiClient#createTracker(CreateTrackerRequest)}, the HTTP method and the response
+ * status, or {@code IO_ERROR} when no response was received. It publishes a percentile histogram,
+ * so latency percentiles can be aggregated per endpoint across instances.
+ * </p>
+ */
+public class MeteredClient implements Client {
+
+  private final String name;
+  private final Client delegate;
+  private final MeterRegistry meterRegistry;
+
+  public MeteredClient(String name, Client delegate, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.delegate = delegate;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Response execute(Request request, Request.Options options) throws IOException {
+    long start = System.nanoTime();
+    String status = "IO_ERROR";
+    try {
+      Response response = delegate.execute(request, options);
+      status = String.valueOf(response.status());
+      return response;
+    } finally {
+      Timer.builder(name + ".http.requests")
+          .tag("endpoint", endpoint(request))
+          .tag("method", request.httpMethod().name())
+          .tag("status", status)
+          .publishPercentileHistogram()
+          .register(meterRegistry)
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static String endpoint(Request request) {
+    MethodMetadata metadata = request.requestTemplate() == null ? null
+        : request.requestTemplate().methodMetadata();
+    return metadata == null ? "unknown" : metadata.configKey();
+  }
+}
@@ -0,0 +1,126 @@
+package edu.fi.muni.cz.marketplace.config.feign;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import edu.fi.muni.cz.marketplace.config.resilience.CallRejectedException;
+import edu.fi.muni.cz.marketplace.config.resilience.TokenBucket;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feign client keeping the requests of {@code delegate} within the quota of the provider.
+ * <p>
+ * Every request first takes a permit from the {@link TokenBucket}, waiting in line for at most
+ * {@code maxWait}. Requests that would wait longer fail right away with a
+ * {@link CallRejectedException}. When the provider answers {@code 429 Too Many Requests}
+ * nonetheless, the bucket is paused for the {@code Retry-After} it asked for and the request goes
+ * back into the queue, up to {@code maxThrottleRetries} times before the 429 is returned.
+ * </p>
+ * <p>
+ * Metrics are published under {@code name}: the {@code .rate-limit.wait} timer of the time spent
+ * waiting for a permit, the {@code .rate-limit.rejected} and {@code .rate-limit.throttled}
+ * counters of rejected requests and received 429s and the {@code .rate-limit.available} gauge.
+ * </p>
+ */
+@Slf4j
+public class RateLimitingClient implements Client {
+
+  private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+  private final String name;
+  private final Client delegate;
+  private final TokenBucket tokenBucket;
+  private final Duration maxWait;
+  private final int maxThrottleRetries;
+  private final Timer waitTimer;
+  private final Counter rejected;
+  private final Counter throttled;
+
+  public RateLimitingClient(String name, Client delegate, TokenBucket tokenBucket,
+      Duration maxWait, int maxThrottleRetries, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.delegate = delegate;
+    this.tokenBucket = tokenBucket;
+    this.maxWait = maxWait;
+    this.maxThrottleRetries = maxThrottleRetries;
+    this.waitTimer = Timer.builder(name + ".rate-limit.wait").register(meterRegistry);
+    this.rejected = Counter.builder(name + ".rate-limit.rejected").register(meterRegistry);
+    this.throttled = Counter.builder(name + ".rate-limit.throttled").register(meterRegistry);
+    Gauge.builder(name + ".rate-limit.available", tokenBucket, TokenBucket::getAvailableTokens)
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Response execute(Request request, Request.Options options) throws IOException {
+    for (int attempt = 0; ; attempt++) {
+      awaitPermit(request);
+      Response response = delegate.execute(request, options);
+      if (response.status() != 429 || attempt >= maxThrottleRetries) {
+        return response;
+      }
+
+      Duration retryAfter = retryAfter(response);
+      response.close();
+      throttled.increment();
+      log.warn("{} throttled {} {}, pausing requests for {}", name, request.httpMethod(),
+          request.url(), retryAfter);
+      tokenBucket.pause(retryAfter);
+    }
+  }
+
+  private void awaitPermit(Request request) throws InterruptedIOException {
+    long start = System.nanoTime();
+    try {
+      Duration wait;
+      do {
+        Duration remaining = maxWait.minusNanos(System.nanoTime() - start);
+        wait = remaining.isNegative() ? null : tokenBucket.reserve(remaining);
+        if (wait == null) {
+          rejected.increment();
+          throw new CallRejectedException("Call to " + name + " rejected, " + request.httpMethod()
+              + " " + request.url() + " would exceed the rate limit for longer than " + maxWait);
+        }
+        TimeUnit.NANOSECONDS.sleep(wait.toNanos());
+        // a 429 received meanwhile pauses the whole queue, including permits already handed out
+      } while (tokenBucket.getRemainingPause().isPositive());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for " + name + " rate limit");
+    } finally {
+      waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static Duration retryAfter(Response response) {
+    Collection<String> values = response.headers().get("Retry-After");
+    if (values == null || values.isEmpty()) {
+      return DEFAULT_RETRY_AFTER;
+    }
+
+    String value = values.iterator().next().trim();
+    try {
+      return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+    } catch (NumberFormatException e) {
+      try {
+        Duration untilDate = Duration.between(ZonedDateTime.now(),
+            ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+        return untilDate.isNegative() ? Duration.ZERO : untilDate;
+      } catch (DateTimeParseException invalid) {
+        return DEFAULT_RETRY_AFTER;
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package edu.fi.muni.cz.marketplace.config.resilience;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limit that adapts to the latency of the calls it admits.
+ * <p>
+ * Works like TCP congestion control (additive increase, multiplicative decrease): every call that
+ * completes within {@code targetLatency} while the limit is actually used raises the limit by one,
+ * every call that is slower or fails because the provider is unavailable multiplies it by
+ * {@code backoffRatio}. When a provider degrades, the number of calls waiting on it shrinks quickly
+ * and further calls are rejected instead of queuing up behind the slow ones.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long targetLatencyNanos;
+  private final double backoffRatio;
+
+  private int limit;
+  private int inFlight;
+
+  /**
+   * @param initialLimit  limit before any call completed
+   * @param minLimit      lowest limit reached by backing off
+   * @param maxLimit      highest limit reached by growing
+   * @param targetLatency latency above which a call counts as a sign of overload
+   * @param backoffRatio  factor applied to the limit on overload, between 0 and 1 exclusive
+   */
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+      Duration targetLatency, double backoffRatio) {
+    if (minLimit <= 0 || minLimit > maxLimit) {
+      throw new IllegalArgumentException("Limits must satisfy 0 < min <= max");
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.targetLatencyNanos = targetLatency.toNanos();
+    this.backoffRatio = backoffRatio;
+    this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+  }
+
+  public synchronized boolean tryAcquire() {
+    if (inFlight >= limit) {
+      return false;
+    }
+    inFlight++;
+    return true;
+  }
+
+  /**
+   * Releases a call admitted by {@link #tryAcquire()} and adapts the limit to its outcome.
+   *
+   * @param latencyNanos how long the call took
+   * @param overloaded   whether the call failed in a way that indicates provider overload
+   */
+  public synchronized void release(long latencyNanos, boolean overloaded) {
+    boolean utilized = inFlight * 2 >= limit;
+    inFlight--;
+    if (overloaded || latencyNanos > targetLatencyNanos) {
+      limit = Math.max(minLimit, (int) (limit * backoffRatio));
+    } else if (utilized) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+
+  /**
+   * Releases a call admitted by {@link #tryAcquire()} that was never made.
+   */
+  public synchronized void cancel() {
+    inFlight--;
+  }
+
+  public synchronized int getLimit() {
+    return limit;
+  }
+
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+}
@@ -0,0 +1,137 @@
+package edu.fi.muni.cz.marketplace.config.resilience;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Guards asynchronous calls to an external provider.
+ * <p>
+ * A call first has to pass the {@link CircuitBreaker}, then the bulkhead of its operation, then
+ * the {@link AdaptiveConcurrencyLimiter} shared by all operations. If any of them refuses, the
+ * call is not made and the returned future fails right away with a
+ * {@link CallRejectedException}. The bulkheads keep one operation from using up the concurrency
+ * of the others, e.g. a backlog of refunds from delaying fund reservations.
+ * </p>
+ * <p>
+ * Only failures matching {@code overload}, such as timeouts or server errors, count against the
+ * circuit breaker and shrink the concurrency limit. Declined payments and other client errors are
+ * regular answers of a healthy provider.
+ * </p>
+ * <p>
+ * Metrics are published under {@code name}: {@code .calls} timers by operation and outcome,
+ * {@code .calls.rejected} counters by operation and reason, and gauges for the concurrency limit,
+ * calls in flight, free bulkhead permits and the circuit state (0 closed, 1 open, 2 half-open).
+ * </p>
+ */
+@Slf4j
+public class CallGuard {
+
+  private final String name;
+  private final CircuitBreaker circuitBreaker;
+  private final AdaptiveConcurrencyLimiter limiter;
+  private final Map<String, Semaphore> bulkheads;
+  private final Predicate<Throwable> overload;
+  private final MeterRegistry meterRegistry;
+
+  public CallGuard(String name, CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimiter limiter,
+      Map<String, Integer> bulkheadSizes, Predicate<Throwable> overload,
+      MeterRegistry meterRegistry) {
+    this.name = name;
+    this.circuitBreaker = circuitBreaker;
+    this.limiter = limiter;
+    this.bulkheads = bulkheadSizes.entrySet().stream()
+        .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey,
+            entry -> new Semaphore(entry.getValue())));
+    this.overload = overload;
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder(name + ".concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+        .register(meterRegistry);
+    Gauge.builder(name + ".concurrency.in-flight", limiter,
+            AdaptiveConcurrencyLimiter::getInFlight)
+        .register(meterRegistry);
+    Gauge.builder(name + ".circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+        .description("0 closed, 1 open, 2 half-open")
+        .register(meterRegistry);
+    bulkheads.forEach((operation, bulkhead) ->
+        Gauge.builder(name + ".bulkhead.available", bulkhead, Semaphore::availablePermits)
+            .tag("operation", operation)
+            .register(meterRegistry));
+  }
+
+  /**
+   * Makes the call of {@code operation} unless one of the guards refuses it.
+   */
+  public <T> CompletableFuture<T> execute(String operation, Supplier<CompletableFuture<T>> call) {
+    Semaphore bulkhead = bulkheads.get(operation);
+    if (bulkhead == null) {
+      throw new IllegalArgumentException("No bulkhead configured for operation: " + operation);
+    }
+
+    if (!circuitBreaker.tryAcquire()) {
+      return reject(operation, "circuit-open", "circuit breaker is open");
+    }
+    if (!bulkhead.tryAcquire()) {
+      circuitBreaker.cancel();
+      return reject(operation, "bulkhead-full", "bulkhead of " + operation + " is full");
+    }
+    if (!limiter.tryAcquire()) {
+      bulkhead.release();
+      circuitBreaker.cancel();
+      return reject(operation, "concurrency-limit",
+          "concurrency limit of " + limiter.getLimit() + " is reached");
+    }
+
+    long start = System.nanoTime();
+    CompletableFuture<T> result;
+    try {
+      result = call.get();
+    } catch (RuntimeException e) {
+      result = CompletableFuture.failedFuture(e);
+    }
+    return result.whenComplete((value, error) -> {
+      long latency = System.nanoTime() - start;
+      boolean overloaded = error != null && overload.test(unwrap(error));
+      limiter.release(latency, overloaded);
+      bulkhead.release();
+      if (overloaded) {
+        circuitBreaker.onFailure();
+      } else {
+        circuitBreaker.onSuccess();
+      }
+      Timer.builder(name + ".calls")
+          .tag("operation", operation)
+          .tag("outcome", error == null ? "success" : overloaded ? "unavailable" : "error")
+          .register(meterRegistry)
+          .record(latency, TimeUnit.NANOSECONDS);
+    });
+  }
+
+  private <T> CompletableFuture<T> reject(String operation, String reason, String message) {
+    Counter.builder(name + ".calls.rejected")
+        .tag("operation", operation)
+        .tag("reason", reason)
+        .register(meterRegistry)
+        .increment();
+    log.debug("Rejected {} call to {}: {}", operation, name, message);
+    return CompletableFuture.failedFuture(
+        new CallRejectedException("Call to " + name + " rejected, " + message));
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null ? error.getCause()
+        : error;
+  }
+}
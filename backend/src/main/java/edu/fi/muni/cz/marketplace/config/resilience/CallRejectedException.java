@@ -0,0 +1,8 @@
+package edu.fi.muni.cz.marketplace.config.resilience;
+
+public class CallRejectedException extends RuntimeException {
+
+  public CallRejectedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,138 @@
+package edu.fi.muni.cz.marketplace.config.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * While {@link State#CLOSED}, the outcomes of the last {@code windowSize} calls are kept. Once at
+ * least {@code minimumCalls} were recorded and the share of failures reaches
+ * {@code failureRateThreshold}, the breaker opens and rejects every call for
+ * {@code openDuration}. It then lets {@code halfOpenCalls} trial calls through: it closes again
+ * when all of them succeed and reopens on the first failure.
+ * </p>
+ */
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final boolean[] window;
+  private final int minimumCalls;
+  private final double failureRateThreshold;
+  private final Duration openDuration;
+  private final int halfOpenCalls;
+  private final Clock clock;
+
+  private State state = State.CLOSED;
+  private int recorded;
+  private int next;
+  private int failures;
+  private Instant openedAt;
+  private int halfOpenPermits;
+  private int halfOpenSuccesses;
+
+  public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+      Duration openDuration, int halfOpenCalls, Clock clock) {
+    if (minimumCalls <= 0 || minimumCalls > windowSize) {
+      throw new IllegalArgumentException("Minimum calls must be between 1 and the window size");
+    }
+    if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+      throw new IllegalArgumentException("Failure rate threshold must be in (0, 1]");
+    }
+    if (halfOpenCalls <= 0) {
+      throw new IllegalArgumentException("Half-open calls must be positive");
+    }
+    this.window = new boolean[windowSize];
+    this.minimumCalls = minimumCalls;
+    this.failureRateThreshold = failureRateThreshold;
+    this.openDuration = openDuration;
+    this.halfOpenCalls = halfOpenCalls;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns whether a call may be made now. Every permitted call must be reported with
+   * {@link #onSuccess()}, {@link #onFailure()} or {@link #cancel()}.
+   */
+  public synchronized boolean tryAcquire() {
+    if (state == State.OPEN) {
+      if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+        return false;
+      }
+      state = State.HALF_OPEN;
+      halfOpenPermits = halfOpenCalls;
+      halfOpenSuccesses = 0;
+    }
+    if (state == State.HALF_OPEN) {
+      if (halfOpenPermits == 0) {
+        return false;
+      }
+      halfOpenPermits--;
+    }
+    return true;
+  }
+
+  public synchronized void onSuccess() {
+    if (state == State.HALF_OPEN) {
+      if (++halfOpenSuccesses == halfOpenCalls) {
+        reset(State.CLOSED);
+      }
+    } else if (state == State.CLOSED) {
+      record(false);
+    }
+  }
+
+  public synchronized void onFailure() {
+    if (state == State.HALF_OPEN) {
+      open();
+    } else if (state == State.CLOSED) {
+      record(true);
+    }
+  }
+
+  /**
+   * Gives back a permit of a call that was never made.
+   */
+  public synchronized void cancel() {
+    if (state == State.HALF_OPEN) {
+      halfOpenPermits++;
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  private void record(boolean failure) {
+    if (recorded == window.length && window[next]) {
+      failures--;
+    }
+    window[next] = failure;
+    next = (next + 1) % window.length;
+    recorded = Math.min(recorded + 1, window.length);
+    if (failure) {
+      failures++;
+    }
+    if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+      open();
+    }
+  }
+
+  private void open() {
+    reset(State.OPEN);
+    openedAt = clock.instant();
+  }
+
+  private void reset(State newState) {
+    state = newState;
+    recorded = 0;
+    next = 0;
+    failures = 0;
+  }
+}
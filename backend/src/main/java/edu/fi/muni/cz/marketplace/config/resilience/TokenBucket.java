@@ -0,0 +1,102 @@
+package edu.fi.muni.cz.marketplace.config.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket handing out permits at a steady rate with bursts of up to {@code capacity}.
+ * <p>
+ * Permits are reserved rather than polled: a caller is told how long to wait for its permit and
+ * the next caller queues behind it, so waiting callers are served in the order they arrived and
+ * the rate holds no matter how many of them there are. A reservation whose wait would exceed the
+ * caller's limit is refused without taking a permit.
+ * </p>
+ * <p>
+ * When the provider itself asks to back off, e.g. with {@code Retry-After}, {@link #pause} drops
+ * the saved up burst and moves the queue behind the end of the pause.
+ * </p>
+ */
+public class TokenBucket {
+
+  private final double capacity;
+  private final double nanosPerToken;
+  private final LongSupplier ticker;
+
+  private double storedTokens;
+  private long nextFreeNanos;
+  private long pausedUntilNanos;
+
+  public TokenBucket(int capacity, double tokensPerSecond) {
+    this(capacity, tokensPerSecond, System::nanoTime);
+  }
+
+  public TokenBucket(int capacity, double tokensPerSecond, LongSupplier ticker) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    if (tokensPerSecond <= 0) {
+      throw new IllegalArgumentException("Rate must be positive");
+    }
+    this.capacity = capacity;
+    this.nanosPerToken = Duration.ofSeconds(1).toNanos() / tokensPerSecond;
+    this.ticker = ticker;
+    this.storedTokens = capacity;
+    this.nextFreeNanos = ticker.getAsLong();
+    this.pausedUntilNanos = nextFreeNanos;
+  }
+
+  /**
+   * Reserves one permit.
+   *
+   * @param maxWait the longest the caller is willing to wait for the permit
+   * @return how long the caller has to wait before using the permit, or {@code null} if that
+   *     would take longer than {@code maxWait} and no permit was reserved
+   */
+  public synchronized Duration reserve(Duration maxWait) {
+    long now = ticker.getAsLong();
+    refill(now);
+    double taken = Math.min(1, storedTokens);
+    long ready = Math.max(nextFreeNanos, now) + (long) ((1 - taken) * nanosPerToken);
+    if (ready - now > maxWait.toNanos()) {
+      return null;
+    }
+
+    storedTokens -= taken;
+    nextFreeNanos = ready;
+    return Duration.ofNanos(ready - now);
+  }
+
+  /**
+   * Stops handing out permits for {@code duration} and forgets the saved up burst.
+   */
+  public synchronized void pause(Duration duration) {
+    long until = ticker.getAsLong() + duration.toNanos();
+    if (until - pausedUntilNanos > 0) {
+      pausedUntilNanos = until;
+    }
+    storedTokens = 0;
+    nextFreeNanos = Math.max(nextFreeNanos, pausedUntilNanos);
+  }
+
+  /**
+   * @return time left until the current pause ends, zero if the bucket is not paused
+   */
+  public synchronized Duration getRemainingPause() {
+    return Duration.ofNanos(Math.max(0, pausedUntilNanos - ticker.getAsLong()));
+  }
+
+  /**
+   * @return permits that can be taken right now without waiting
+   */
+  public synchronized double getAvailableTokens() {
+    refill(ticker.getAsLong());
+    return Math.floor(storedTokens);
+  }
+
+  private void refill(long now) {
+    if (now > nextFreeNanos) {
+      storedTokens = Math.min(capacity, storedTokens + (now - nextFreeNanos) / nanosPerToken);
+      nextFreeNanos = now;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package edu.fi.muni.cz.marketplace.config.scheduler;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.github.kagkarlsson.scheduler.Scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Wakes the db-scheduler {@link Scheduler} up when a task becomes due, instead of letting it find
+ * due tasks by polling.
+ * <p>
+ * A trigger on {@code scheduled_tasks} (see {@code 003-notify-scheduled-tasks.yaml}) sends the
+ * execution time of every task that is scheduled or rescheduled on the {@code scheduled_tasks}
+ * channel. This listener keeps one connection listening on the channel and arms a timer for the
+ * earliest execution time it heard of, which makes the scheduler check for due executions right
+ * when the task is due. A task that is due already wakes the scheduler immediately.
+ * </p>
+ * <p>
+ * When no notification arrives for {@code pollingInterval}, and after every wake-up, the next
+ * execution time is read from the table, so tasks scheduled while the connection was lost are
+ * not missed. The polling of the scheduler itself stays as a fallback heartbeat.
+ * </p>
+ * <p>
+ * Wake-ups are counted in {@code scheduler.wake-ups} by source.
+ * </p>
+ */
+@Slf4j
+public class ScheduledTaskNotificationListener implements SmartLifecycle {
+
+  static final String CHANNEL = "scheduled_tasks";
+
+  static final String NEXT_EXECUTION_TIME = "SELECT min(execution_time) "
+      + "FROM scheduled_tasks WHERE picked = false AND execution_time > ?";
+  private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+  private final DataSource dataSource;
+  private final JdbcTemplate jdbcTemplate;
+  private final Scheduler scheduler;
+  private final Clock clock;
+  private final Duration pollingInterval;
+  private final Counter notificationWakeUps;
+  private final Counter timerWakeUps;
+
+  private ScheduledExecutorService timer;
+  private ScheduledFuture<?> armed;
+  private long armedAt = Long.MAX_VALUE;
+  private Thread listener;
+  private volatile Connection connection;
+  private volatile boolean running;
+
+  public ScheduledTaskNotificationListener(DataSource dataSource, Scheduler scheduler,
+      Clock clock, Duration pollingInterval, MeterRegistry meterRegistry) {
+    this(dataSource, new JdbcTemplate(dataSource), scheduler, clock, pollingInterval,
+        meterRegistry);
+  }
+
+  ScheduledTaskNotificationListener(DataSource dataSource, JdbcTemplate jdbcTemplate,
+      Scheduler scheduler, Clock clock, Duration pollingInterval, MeterRegistry meterRegistry) {
+    this.dataSource = dataSource;
+    this.jdbcTemplate = jdbcTemplate;
+    this.scheduler = scheduler;
+    this.clock = clock;
+    this.pollingInterval = pollingInterval;
+    this.notificationWakeUps = Counter.builder("scheduler.wake-ups")
+        .tag("source", "notification")
+        .register(meterRegistry);
+    this.timerWakeUps = Counter.builder("scheduler.wake-ups")
+        .tag("source", "timer")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    timer = Executors.newSingleThreadScheduledExecutor(
+        runnable -> new Thread(runnable, "scheduler-wake-up"));
+    listener = new Thread(this::listen, "scheduled-tasks-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Connection listening = connection;
+    if (listening != null) {
+      try {
+        listening.close();
+      } catch (SQLException e) {
+        log.debug("Failed to close the listening connection", e);
+      }
+    }
+    listener.interrupt();
+    timer.shutdownNow();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection listening = dataSource.getConnection()) {
+        connection = listening;
+        try (Statement statement = listening.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        log.info("Listening for scheduled tasks on channel {}", CHANNEL);
+        PGConnection pgConnection = listening.unwrap(PGConnection.class);
+        armAtNextExecutionTime();
+        while (running) {
+          PGNotification[] notifications =
+              pgConnection.getNotifications(Math.toIntExact(pollingInterval.toMillis()));
+          if (notifications == null || notifications.length == 0) {
+            armAtNextExecutionTime();
+            continue;
+          }
+          long earliest = Long.MAX_VALUE;
+          for (PGNotification notification : notifications) {
+            earliest = Math.min(earliest, parseExecutionTime(notification.getParameter()));
+          }
+          wakeUpAt(earliest);
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (running) {
+          log.warn("Lost the connection listening for scheduled tasks, reconnecting in {}",
+              RECONNECT_DELAY, e);
+          sleep(RECONNECT_DELAY);
+        }
+      } finally {
+        connection = null;
+      }
+    }
+  }
+
+  synchronized void wakeUpAt(long executionTimeMillis) {
+    if (executionTimeMillis == Long.MAX_VALUE) {
+      return;
+    }
+    long delay = executionTimeMillis - clock.millis();
+    if (delay <= 0) {
+      notificationWakeUps.increment();
+      scheduler.triggerCheckForDueExecutions();
+      return;
+    }
+    if (armed != null && !armed.isDone() && armedAt <= executionTimeMillis) {
+      return;
+    }
+    if (armed != null) {
+      armed.cancel(false);
+    }
+    armedAt = executionTimeMillis;
+    armed = timer.schedule(this::onTimer, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void onTimer() {
+    timerWakeUps.increment();
+    scheduler.triggerCheckForDueExecutions();
+    synchronized (this) {
+      armedAt = Long.MAX_VALUE;
+    }
+    try {
+      armAtNextExecutionTime();
+    } catch (RuntimeException e) {
+      log.warn("Failed to read the next execution time of scheduled tasks", e);
+    }
+  }
+
+  private void armAtNextExecutionTime() {
+    Timestamp next = jdbcTemplate.queryForObject(NEXT_EXECUTION_TIME, Timestamp.class,
+        Timestamp.from(clock.instant()));
+    if (next != null) {
+      wakeUpAt(next.getTime());
+    }
+  }
+
+  static long parseExecutionTime(String payload) {
+    try {
+      return Long.parseLong(payload);
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring scheduled task notification with payload {}", payload);
+      return Long.MAX_VALUE;
+    }
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
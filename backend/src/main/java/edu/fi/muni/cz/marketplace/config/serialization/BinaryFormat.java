@@ -0,0 +1,321 @@
+package edu.fi.muni.cz.marketplace.config.serialization;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.axonframework.serialization.SerializationException;
+
+/**
+ * Wire format of {@link BinarySerializer}.
+ * <p>
+ * A payload starts with a magic byte and the format version, followed by the fields of the root
+ * record. Every field is its name and a tagged value. Integers use zig-zag varints, {@code UUID} is
+ * written as two raw longs, {@code Instant} as epoch seconds and nanos, and {@code BigDecimal} as
+ * scale and unscaled value.
+ * </p>
+ */
+final class BinaryFormat {
+
+  static final byte MAGIC = (byte) 0xB1;
+  static final byte FORMAT_VERSION = 1;
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte LONG = 2;
+  private static final byte TRUE = 3;
+  private static final byte FALSE = 4;
+  private static final byte DOUBLE = 5;
+  private static final byte UUID_VALUE = 6;
+  private static final byte INSTANT = 7;
+  private static final byte DECIMAL = 8;
+  private static final byte BIG_DECIMAL = 9;
+  private static final byte RECORD = 10;
+  private static final byte TYPED_RECORD = 11;
+  private static final byte LIST = 12;
+  private static final byte MAP = 13;
+
+  private BinaryFormat() {
+  }
+
+  static boolean isBinary(byte[] data) {
+    return data.length >= 2 && data[0] == MAGIC;
+  }
+
+  static byte[] write(BinaryRecord record) {
+    Output output = new Output();
+    output.writeByte(MAGIC);
+    output.writeByte(FORMAT_VERSION);
+    output.writeFields(record);
+    return output.toByteArray();
+  }
+
+  static BinaryRecord read(byte[] data) {
+    if (!isBinary(data)) {
+      throw new SerializationException("Data is not in the binary serializer format");
+    }
+    if (data[1] > FORMAT_VERSION) {
+      throw new SerializationException("Unsupported binary format version: " + data[1]);
+    }
+    Input input = new Input(data, 2);
+    return input.readFields(new BinaryRecord());
+  }
+
+  private static final class Output {
+
+    private byte[] buffer = new byte[128];
+    private int position;
+
+    void writeFields(BinaryRecord record) {
+      writeVarLong(record.size());
+      for (Map.Entry<String, Object> field : record.entries()) {
+        writeString(field.getKey());
+        writeValue(field.getValue());
+      }
+    }
+
+    void writeValue(Object value) {
+      switch (value) {
+        case null -> writeByte(NULL);
+        case String string -> {
+          writeByte(STRING);
+          writeString(string);
+        }
+        case Long number -> {
+          writeByte(LONG);
+          writeZigZag(number);
+        }
+        case Boolean bool -> writeByte(bool ? TRUE : FALSE);
+        case Double number -> {
+          writeByte(DOUBLE);
+          writeFixedLong(Double.doubleToLongBits(number));
+        }
+        case UUID uuid -> {
+          writeByte(UUID_VALUE);
+          writeFixedLong(uuid.getMostSignificantBits());
+          writeFixedLong(uuid.getLeastSignificantBits());
+        }
+        case Instant instant -> {
+          writeByte(INSTANT);
+          writeZigZag(instant.getEpochSecond());
+          writeVarLong(instant.getNano());
+        }
+        case BigDecimal decimal -> writeDecimal(decimal);
+        case BinaryRecord record -> {
+          if (record.getTypeName() == null) {
+            writeByte(RECORD);
+          } else {
+            writeByte(TYPED_RECORD);
+            writeString(record.getTypeName());
+          }
+          writeFields(record);
+        }
+        case List<?> list -> {
+          writeByte(LIST);
+          writeVarLong(list.size());
+          list.forEach(this::writeValue);
+        }
+        case Map<?, ?> map -> {
+          writeByte(MAP);
+          writeVarLong(map.size());
+          map.forEach((key, entry) -> {
+            writeValue(key);
+            writeValue(entry);
+          });
+        }
+        default -> throw new SerializationException(
+            "Unsupported value type in binary record: " + value.getClass().getName());
+      }
+    }
+
+    private void writeDecimal(BigDecimal decimal) {
+      BigInteger unscaled = decimal.unscaledValue();
+      if (unscaled.bitLength() < Long.SIZE) {
+        writeByte(DECIMAL);
+        writeZigZag(decimal.scale());
+        writeZigZag(unscaled.longValue());
+      } else {
+        byte[] bytes = unscaled.toByteArray();
+        writeByte(BIG_DECIMAL);
+        writeZigZag(decimal.scale());
+        writeVarLong(bytes.length);
+        writeBytes(bytes);
+      }
+    }
+
+    private void writeString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length);
+      writeBytes(bytes);
+    }
+
+    private void writeZigZag(long value) {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[position++] = (byte) value;
+    }
+
+    private void writeFixedLong(long value) {
+      ensureCapacity(Long.BYTES);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        buffer[position++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void writeByte(byte value) {
+      ensureCapacity(1);
+      buffer[position++] = value;
+    }
+
+    private void writeBytes(byte[] bytes) {
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+
+    private void ensureCapacity(int additional) {
+      if (position + additional > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, position);
+    }
+  }
+
+  private static final class Input {
+
+    private final byte[] data;
+    private int position;
+
+    Input(byte[] data, int position) {
+      this.data = data;
+      this.position = position;
+    }
+
+    BinaryRecord readFields(BinaryRecord record) {
+      int fieldCount = readLength();
+      for (int i = 0; i < fieldCount; i++) {
+        String name = readString();
+        record.put(name, readValue());
+      }
+      return record;
+    }
+
+    Object readValue() {
+      byte tag = readByte();
+      return switch (tag) {
+        case NULL -> null;
+        case STRING -> readString();
+        case LONG -> readZigZag();
+        case TRUE -> Boolean.TRUE;
+        case FALSE -> Boolean.FALSE;
+        case DOUBLE -> Double.longBitsToDouble(readFixedLong());
+        case UUID_VALUE -> new UUID(readFixedLong(), readFixedLong());
+        case INSTANT -> Instant.ofEpochSecond(readZigZag(), readVarLong());
+        case DECIMAL -> {
+          int scale = (int) readZigZag();
+          yield BigDecimal.valueOf(readZigZag(), scale);
+        }
+        case BIG_DECIMAL -> {
+          int scale = (int) readZigZag();
+          yield new BigDecimal(new BigInteger(readBytes(readLength())), scale);
+        }
+        case RECORD -> readFields(new BinaryRecord());
+        case TYPED_RECORD -> readFields(new BinaryRecord(readString()));
+        case LIST -> {
+          int size = readLength();
+          List<Object> list = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            list.add(readValue());
+          }
+          yield list;
+        }
+        case MAP -> {
+          int size = readLength();
+          Map<Object, Object> map = new LinkedHashMap<>();
+          for (int i = 0; i < size; i++) {
+            map.put(readValue(), readValue());
+          }
+          yield map;
+        }
+        default -> throw new SerializationException("Unknown binary value tag: " + tag);
+      };
+    }
+
+    private String readString() {
+      int length = readLength();
+      checkAvailable(length);
+      String value = new String(data, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+    private long readZigZag() {
+      long value = readVarLong();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readLength() {
+      long length = readVarLong();
+      if (length < 0 || length > data.length) {
+        throw new SerializationException("Corrupted binary data, invalid length: " + length);
+      }
+      return (int) length;
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      for (int shift = 0; shift < Long.SIZE; shift += 7) {
+        byte current = readByte();
+        value |= (long) (current & 0x7F) << shift;
+        if ((current & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new SerializationException("Corrupted binary data, varint too long");
+    }
+
+    private long readFixedLong() {
+      checkAvailable(Long.BYTES);
+      long value = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+        value = (value << 8) | (data[position++] & 0xFF);
+      }
+      return value;
+    }
+
+    private byte[] readBytes(int length) {
+      checkAvailable(length);
+      byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+      position += length;
+      return bytes;
+    }
+
+    private byte readByte() {
+      checkAvailable(1);
+      return data[position++];
+    }
+
+    private void checkAvailable(int length) {
+      if (position + length > data.length) {
+        throw new SerializationException("Corrupted binary data, unexpected end of input");
+      }
+    }
+  }
+}
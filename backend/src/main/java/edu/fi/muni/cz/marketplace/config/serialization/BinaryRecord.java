@@ -0,0 +1,82 @@
+package edu.fi.muni.cz.marketplace.config.serialization;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Field level view of an object written by {@link BinarySerializer}.
+ * <p>
+ * This is the intermediate representation upcasters work with. Values are kept decoded as
+ * {@code String}, {@code Long}, {@code Double}, {@code Boolean}, {@code UUID}, {@code Instant},
+ * {@code BigDecimal}, nested {@link BinaryRecord}s, {@code List}s and {@code Map}s of those. Enum
+ * constants are stored by name.
+ * </p>
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class BinaryRecord {
+
+  /**
+   * Type of a nested record, set only when it differs from the declared type of the field.
+   */
+  @Nullable
+  private final String typeName;
+
+  @Getter(lombok.AccessLevel.NONE)
+  private final Map<String, Object> fields = new LinkedHashMap<>();
+
+  public BinaryRecord() {
+    this(null);
+  }
+
+  public BinaryRecord(@Nullable String typeName) {
+    this.typeName = typeName;
+  }
+
+  public boolean has(String name) {
+    return fields.containsKey(name);
+  }
+
+  @Nullable
+  public Object get(String name) {
+    return fields.get(name);
+  }
+
+  public BinaryRecord put(String name, @Nullable Object value) {
+    fields.put(name, value);
+    return this;
+  }
+
+  @Nullable
+  public Object remove(String name) {
+    return fields.remove(name);
+  }
+
+  public BinaryRecord rename(String from, String to) {
+    if (fields.containsKey(from)) {
+      fields.put(to, fields.remove(from));
+    }
+    return this;
+  }
+
+  public Set<String> fieldNames() {
+    return Collections.unmodifiableSet(fields.keySet());
+  }
+
+  Set<Map.Entry<String, Object>> entries() {
+    return fields.entrySet();
+  }
+
+  int size() {
+    return fields.size();
+  }
+}
@@ -0,0 +1,222 @@
+package edu.fi.muni.cz.marketplace.config.serialization;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.axonframework.serialization.SerializationException;
+import org.springframework.objenesis.SpringObjenesis;
+
+/**
+ * Maps objects to {@link BinaryRecord}s and back by reflecting over their fields.
+ * <p>
+ * Static and transient fields are skipped. Classes are instantiated without calling a constructor,
+ * so the immutable {@code @Value} events and aggregate state can be restored as they are. Java
+ * records go through their canonical constructor instead.
+ * </p>
+ */
+class BinaryRecordMapper {
+
+  private final Function<String, Class<?>> classResolver;
+  private final SpringObjenesis objenesis = new SpringObjenesis();
+  private final ClassValue<List<Field>> fields = new ClassValue<>() {
+    @Override
+    protected List<Field> computeValue(Class<?> type) {
+      return persistentFields(type);
+    }
+  };
+
+  BinaryRecordMapper(Function<String, Class<?>> classResolver) {
+    this.classResolver = classResolver;
+  }
+
+  BinaryRecord toRecord(Object object) {
+    return toRecord(object, null);
+  }
+
+  <T> T fromRecord(BinaryRecord record, Class<T> type) {
+    try {
+      if (type.isRecord()) {
+        return instantiateRecord(record, type);
+      }
+
+      T instance = objenesis.newInstance(type);
+      for (Field field : fields.get(type)) {
+        if (!record.has(field.getName())) {
+          continue;
+        }
+        Object value = fromValue(record.get(field.getName()), field.getType(),
+            field.getGenericType());
+        if (value != null || !field.getType().isPrimitive()) {
+          field.set(instance, value);
+        }
+      }
+      return instance;
+    } catch (ReflectiveOperationException | IllegalArgumentException e) {
+      throw new SerializationException("Failed to restore " + type.getName(), e);
+    }
+  }
+
+  private BinaryRecord toRecord(Object object, String typeName) {
+    Class<?> type = object.getClass();
+    BinaryRecord record = new BinaryRecord(typeName);
+    try {
+      if (type.isRecord()) {
+        for (RecordComponent component : type.getRecordComponents()) {
+          Object value = component.getAccessor().invoke(object);
+          record.put(component.getName(), toValue(value, component.getType()));
+        }
+      } else {
+        for (Field field : fields.get(type)) {
+          record.put(field.getName(), toValue(field.get(object), field.getType()));
+        }
+      }
+    } catch (ReflectiveOperationException e) {
+      throw new SerializationException("Failed to read fields of " + type.getName(), e);
+    }
+    return record;
+  }
+
+  private Object toValue(Object value, Class<?> declaredType) {
+    return switch (value) {
+      case null -> null;
+      case String string -> string;
+      case UUID uuid -> uuid;
+      case Instant instant -> instant;
+      case BigDecimal decimal -> decimal;
+      case Boolean bool -> bool;
+      case Long number -> number;
+      case Integer number -> number.longValue();
+      case Short number -> number.longValue();
+      case Byte number -> number.longValue();
+      case Double number -> number;
+      case Float number -> number.doubleValue();
+      case Character character -> String.valueOf(character);
+      case Enum<?> constant -> constant.name();
+      case Collection<?> collection -> {
+        List<Object> values = new ArrayList<>(collection.size());
+        collection.forEach(element -> values.add(toValue(element, Object.class)));
+        yield values;
+      }
+      case Map<?, ?> map -> {
+        Map<Object, Object> values = new LinkedHashMap<>();
+        map.forEach((key, entry) -> values.put(toValue(key, Object.class),
+            toValue(entry, Object.class)));
+        yield values;
+      }
+      default -> {
+        Class<?> type = value.getClass();
+        if (type.getName().startsWith("java.")) {
+          throw new SerializationException("Unsupported type for binary serialization: "
+              + type.getName());
+        }
+        yield toRecord(value, type == declaredType ? null : type.getName());
+      }
+    };
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Object fromValue(Object value, Class<?> type, Type genericType) {
+    if (value == null) {
+      return null;
+    }
+    if (type.isEnum() && value instanceof String name) {
+      return Enum.valueOf((Class<? extends Enum>) type, name);
+    }
+    if (value instanceof Long number) {
+      return fromLong(number, type);
+    }
+    if (value instanceof Double number && (type == float.class || type == Float.class)) {
+      return number.floatValue();
+    }
+    if (value instanceof String string && (type == char.class || type == Character.class)) {
+      return string.charAt(0);
+    }
+    if (value instanceof BinaryRecord record) {
+      Class<?> target = record.getTypeName() == null ? type
+          : classResolver.apply(record.getTypeName());
+      return fromRecord(record, target);
+    }
+    if (value instanceof List<?> list) {
+      Class<?> elementType = typeArgument(genericType, 0);
+      List<Object> values = new ArrayList<>(list.size());
+      list.forEach(element -> values.add(fromValue(element, elementType, elementType)));
+      return values;
+    }
+    if (value instanceof Map<?, ?> map) {
+      Class<?> keyType = typeArgument(genericType, 0);
+      Class<?> valueType = typeArgument(genericType, 1);
+      Map<Object, Object> values = new LinkedHashMap<>();
+      map.forEach((key, entry) -> values.put(fromValue(key, keyType, keyType),
+          fromValue(entry, valueType, valueType)));
+      return values;
+    }
+    return value;
+  }
+
+  private static Object fromLong(Long number, Class<?> type) {
+    if (type == int.class || type == Integer.class) {
+      return number.intValue();
+    }
+    if (type == short.class || type == Short.class) {
+      return number.shortValue();
+    }
+    if (type == byte.class || type == Byte.class) {
+      return number.byteValue();
+    }
+    return number;
+  }
+
+  private static Class<?> typeArgument(Type genericType, int index) {
+    if (genericType instanceof ParameterizedType parameterized
+        && parameterized.getActualTypeArguments().length > index
+        && parameterized.getActualTypeArguments()[index] instanceof Class<?> argument) {
+      return argument;
+    }
+    return Object.class;
+  }
+
+  private <T> T instantiateRecord(BinaryRecord record, Class<T> type)
+      throws ReflectiveOperationException {
+    RecordComponent[] components = type.getRecordComponents();
+    Class<?>[] parameterTypes = new Class<?>[components.length];
+    Object[] arguments = new Object[components.length];
+    for (int i = 0; i < components.length; i++) {
+      parameterTypes[i] = components[i].getType();
+      arguments[i] = fromValue(record.get(components[i].getName()), components[i].getType(),
+          components[i].getGenericType());
+    }
+    Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+    constructor.setAccessible(true);
+    return constructor.newInstance(arguments);
+  }
+
+  private static List<Field> persistentFields(Class<?> type) {
+    List<Field> result = new ArrayList<>();
+    for (Class<?> current = type; current != null && current != Object.class;
+        current = current.getSuperclass()) {
+      for (Field field : current.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+            || field.isSynthetic()) {
+          continue;
+        }
+        field.setAccessible(true);
+        result.add(field);
+      }
+    }
+    return result;
+  }
+}
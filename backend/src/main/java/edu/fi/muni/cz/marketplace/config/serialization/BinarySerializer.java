@@ -0,0 +1,190 @@
+package edu.fi.muni.cz.marketplace.config.serialization;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.axonframework.common.ObjectUtils;
+import org.axonframework.serialization.ChainingConverter;
+import org.axonframework.serialization.ContentTypeConverter;
+import org.axonframework.serialization.Converter;
+import org.axonframework.serialization.RevisionResolver;
+import org.axonframework.serialization.SerializationException;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SerializedType;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.UnknownSerializedType;
+
+/**
+ * Compact binary {@link Serializer} for the application's own events, sagas and deadline
+ * payloads.
+ * <p>
+ * Only classes under {@code basePackage} are written in the binary format, everything else (meta
+ * data, scope descriptors, tokens) and all data that does not carry the binary header is handed to
+ * the {@code fallback} serializer. That keeps streams written before the switch readable.
+ * </p>
+ * <p>
+ * The schema version of a type is its Axon revision, resolved by the {@link RevisionResolver}, so
+ * {@code @Revision} and event upcasters work as with any other serializer. Upcasters can request
+ * {@link BinaryRecord} as the representation to read and rewrite fields.
+ * </p>
+ */
+public class BinarySerializer implements Serializer {
+
+  private final String basePackage;
+  private final Serializer fallback;
+  private final RevisionResolver revisionResolver;
+  private final ChainingConverter converter = new ChainingConverter();
+  private final BinaryRecordMapper mapper = new BinaryRecordMapper(this::requireClass);
+  private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+
+  public BinarySerializer(String basePackage, Serializer fallback,
+      RevisionResolver revisionResolver) {
+    this.basePackage = basePackage + ".";
+    this.fallback = fallback;
+    this.revisionResolver = revisionResolver;
+    converter.registerConverter(new BytesToRecordConverter());
+    converter.registerConverter(new RecordToBytesConverter());
+  }
+
+  /**
+   * @return whether {@code data} was written in the binary format, as opposed to by the fallback
+   */
+  public static boolean isBinary(byte[] data) {
+    return BinaryFormat.isBinary(data);
+  }
+
+  @Override
+  public <T> SerializedObject<T> serialize(Object object, Class<T> expectedRepresentation) {
+    if (object != null && !isBinaryType(object.getClass())) {
+      return fallback.serialize(object, expectedRepresentation);
+    }
+
+    byte[] data = object == null ? BinaryFormat.write(new BinaryRecord())
+        : BinaryFormat.write(mapper.toRecord(object));
+    return new SimpleSerializedObject<>(
+        converter.convert(data, expectedRepresentation),
+        expectedRepresentation,
+        typeForClass(ObjectUtils.nullSafeTypeOf(object)));
+  }
+
+  @Override
+  public <T> boolean canSerializeTo(Class<T> expectedRepresentation) {
+    return converter.canConvert(byte[].class, expectedRepresentation)
+        && fallback.canSerializeTo(expectedRepresentation);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <S, T> T deserialize(SerializedObject<S> serializedObject) {
+    SerializedType type = serializedObject.getType();
+    if (SerializedType.emptyType().equals(type)) {
+      return null;
+    }
+
+    BinaryRecord record;
+    if (serializedObject.getData() instanceof BinaryRecord upcasted) {
+      record = upcasted;
+    } else {
+      byte[] data = converter.convert(serializedObject, byte[].class).getData();
+      if (!BinaryFormat.isBinary(data)) {
+        return fallback.deserialize(serializedObject);
+      }
+      record = BinaryFormat.read(data);
+    }
+
+    Class<?> targetType = classForType(type);
+    if (UnknownSerializedType.class.isAssignableFrom(targetType)) {
+      return (T) new UnknownSerializedType(this, serializedObject);
+    }
+    return (T) mapper.fromRecord(record, targetType);
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public Class classForType(SerializedType type) {
+    if (SerializedType.emptyType().equals(type)) {
+      return Void.class;
+    }
+    Class<?> resolved = resolveClass(type.getName());
+    return resolved == null ? fallback.classForType(type) : resolved;
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes")
+  public SerializedType typeForClass(Class type) {
+    if (type == null || Void.TYPE.equals(type) || Void.class.equals(type)) {
+      return SimpleSerializedType.emptyType();
+    }
+    if (!isBinaryType(type)) {
+      return fallback.typeForClass(type);
+    }
+    return new SimpleSerializedType(type.getName(), revisionResolver.revisionOf(type));
+  }
+
+  @Override
+  public Converter getConverter() {
+    return converter;
+  }
+
+  private boolean isBinaryType(Class<?> type) {
+    return type.getName().startsWith(basePackage);
+  }
+
+  private Class<?> requireClass(String name) {
+    Class<?> resolved = resolveClass(name);
+    if (resolved == null) {
+      throw new SerializationException("Unknown type in binary record: " + name);
+    }
+    return resolved;
+  }
+
+  private Class<?> resolveClass(String name) {
+    return classes.computeIfAbsent(name, className -> {
+      try {
+        return Class.forName(className, false, BinarySerializer.class.getClassLoader());
+      } catch (ClassNotFoundException e) {
+        return null;
+      }
+    });
+  }
+
+  private static class BytesToRecordConverter
+      implements ContentTypeConverter<byte[], BinaryRecord> {
+
+    @Override
+    public Class<byte[]> expectedSourceType() {
+      return byte[].class;
+    }
+
+    @Override
+    public Class<BinaryRecord> targetType() {
+      return BinaryRecord.class;
+    }
+
+    @Override
+    public BinaryRecord convert(byte[] original) {
+      return BinaryFormat.read(original);
+    }
+  }
+
+  private static class RecordToBytesConverter
+      implements ContentTypeConverter<BinaryRecord, byte[]> {
+
+    @Override
+    public Class<BinaryRecord> expectedSourceType() {
+      return BinaryRecord.class;
+    }
+
+    @Override
+    public Class<byte[]> targetType() {
+      return byte[].class;
+    }
+
+    @Override
+    public byte[] convert(BinaryRecord original) {
+      return BinaryFormat.write(original);
+    }
+  }
+}
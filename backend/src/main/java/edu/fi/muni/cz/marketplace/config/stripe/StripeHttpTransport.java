@@ -0,0 +1,136 @@
+package edu.fi.muni.cz.marketplace.config.stripe;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.stripe.Stripe;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.StripeError;
+import com.stripe.model.StripeObject;
+import com.stripe.net.ApiMode;
+import com.stripe.net.ApiRequestParams;
+import com.stripe.net.ApiResource;
+import com.stripe.net.RequestOptions;
+import com.stripe.net.StripeRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends Stripe API requests asynchronously over a shared {@link HttpClient}.
+ * <p>
+ * Requests are built by the Stripe SDK, so parameters, idempotency keys and the API version are
+ * encoded exactly as by its static resource methods, but they are sent with
+ * {@link HttpClient#sendAsync}. No thread waits for the response, and concurrent calls share the
+ * client's kept-alive HTTP/2 connections.
+ * </p>
+ * <p>
+ * Each transport authenticates with its own API key instead of the global {@code Stripe.apiKey}.
+ * The read timeout of the call's {@link RequestOptions} bounds the whole request, falling back to
+ * {@code defaultTimeout}. Failures complete the returned future with a {@link StripeException}.
+ * </p>
+ */
+@Slf4j
+public class StripeHttpTransport {
+
+  private static final String USER_AGENT = "Stripe/v1 JavaBindings/" + Stripe.VERSION;
+
+  private final HttpClient httpClient;
+  private final String apiBase;
+  private final String apiKey;
+  private final Duration defaultTimeout;
+
+  public StripeHttpTransport(HttpClient httpClient, String apiBase, String apiKey,
+      Duration defaultTimeout) {
+    this.httpClient = httpClient;
+    this.apiBase = apiBase;
+    this.apiKey = apiKey;
+    this.defaultTimeout = defaultTimeout;
+  }
+
+  /**
+   * Creates the resource at {@code path}, e.g. {@code /v1/payment_intents}, and reads the response
+   * as {@code type}.
+   */
+  public <T extends StripeObject> CompletableFuture<T> post(String path, ApiRequestParams params,
+      RequestOptions options, Class<T> type) {
+    HttpRequest request;
+    try {
+      request = toHttpRequest(StripeRequest.create(ApiResource.RequestMethod.POST, apiBase + path,
+          params.toMap(), options.toBuilderFullCopy().setApiKey(apiKey).build(), ApiMode.V1));
+    } catch (StripeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    httpClient.sendAsync(request, BodyHandlers.ofString()).whenComplete((response, error) -> {
+      if (error != null) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        result.completeExceptionally(new ApiConnectionException(
+            "Request to Stripe " + path + " failed: " + cause.getMessage(), cause));
+        return;
+      }
+      try {
+        result.complete(readResponse(response, type));
+      } catch (StripeException e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  private HttpRequest toHttpRequest(StripeRequest request) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.url().toString()))
+        .timeout(timeout(request.options()))
+        .header("User-Agent", USER_AGENT)
+        .method(request.method().name(), request.content() == null
+            ? BodyPublishers.noBody()
+            : BodyPublishers.ofByteArray(request.content().byteArrayContent()));
+    request.headers().map()
+        .forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+    return builder.build();
+  }
+
+  private Duration timeout(RequestOptions options) {
+    return options.getReadTimeout() == null ? defaultTimeout
+        : Duration.ofMillis(options.getReadTimeout());
+  }
+
+  private static <T extends StripeObject> T readResponse(HttpResponse<String> response,
+      Class<T> type) throws StripeException {
+    String requestId = response.headers().firstValue("Request-Id").orElse(null);
+    if (response.statusCode() >= 200 && response.statusCode() < 300) {
+      log.debug("Stripe request {} to {} succeeded", requestId, response.uri().getPath());
+      return ApiResource.GSON.fromJson(response.body(), type);
+    }
+
+    StripeError error = parseError(response.body());
+    String message = error != null && error.getMessage() != null ? error.getMessage()
+        : "Stripe responded with HTTP " + response.statusCode();
+    ApiException exception = new ApiException(message, requestId,
+        error == null ? null : error.getCode(), response.statusCode(), null);
+    exception.setStripeError(error);
+    throw exception;
+  }
+
+  private static StripeError parseError(String body) {
+    try {
+      JsonElement error = JsonParser.parseString(body).getAsJsonObject().get("error");
+      return error == null ? null : ApiResource.GSON.fromJson(error, StripeError.class);
+    } catch (JsonParseException | IllegalStateException e) {
+      // not a Stripe error body, e.g. an HTML page of a proxy in between
+      return null;
+    }
+  }
+}
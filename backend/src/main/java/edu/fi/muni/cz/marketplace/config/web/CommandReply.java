@@ -0,0 +1,60 @@
+package edu.fi.muni.cz.marketplace.config.web;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import edu.fi.muni.cz.marketplace.config.exception.HttpException;
+
+/**
+ * Answers a request with the outcome of a command sent without blocking the request thread.
+ * <p>
+ * The request answers 504 when the command does not complete within the timeout, and stops
+ * waiting when the client goes away. Giving up on the request only cancels a future depending on
+ * the command's result, so the command itself is not interrupted and others waiting for it still
+ * see its outcome.
+ * </p>
+ */
+public final class CommandReply {
+
+  private CommandReply() {
+  }
+
+  /**
+   * Answers with {@code response} once {@code result} completes, or with its failure.
+   */
+  public static <T> DeferredResult<ResponseEntity<T>> of(CompletableFuture<?> result,
+      Duration timeout, Supplier<ResponseEntity<T>> response) {
+    return of(result, timeout, response, Function.identity());
+  }
+
+  /**
+   * Answers with {@code response} once {@code result} completes, or with its failure mapped by
+   * {@code failures}.
+   */
+  public static <T> DeferredResult<ResponseEntity<T>> of(CompletableFuture<?> result,
+      Duration timeout, Supplier<ResponseEntity<T>> response,
+      Function<Throwable, Throwable> failures) {
+    CompletableFuture<?> waiting = result.thenApply(Function.identity());
+    DeferredResult<ResponseEntity<T>> deferred = new DeferredResult<>(timeout.toMillis());
+    deferred.onTimeout(() -> {
+      deferred.setErrorResult(new HttpException(504, "The command did not complete in time"));
+      waiting.cancel(false);
+    });
+    deferred.onError(failure -> waiting.cancel(false));
+    waiting.whenComplete((ignored, failure) -> {
+      if (failure == null) {
+        deferred.setResult(response.get());
+      } else {
+        deferred.setErrorResult(failures.apply(
+            failure instanceof CompletionException ? failure.getCause() : failure));
+      }
+    });
+    return deferred;
+  }
+}
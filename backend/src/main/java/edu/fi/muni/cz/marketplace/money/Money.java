@@ -0,0 +1,149 @@
+package edu.fi.muni.cz.marketplace.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * Amount of money in the minor units of its currency, e.g. 1234.50 CZK is {@code 123450} CZK.
+ * <p>
+ * Arithmetic is done on the {@code long} amount, overflows throw {@link ArithmeticException}
+ * instead of wrapping. Amounts are only combined with amounts of the same currency. Conversions
+ * from decimal amounts are exact, an amount with more decimal places than the currency has minor
+ * units is rejected instead of truncated. The only operation that rounds is
+ * {@link #percentage(long, RoundingMode)}, and it rounds as told.
+ * </p>
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Money implements Comparable<Money> {
+
+  public static final String CZK = "CZK";
+
+  private static final long BASIS_POINTS = 10_000;
+
+  long minorUnits;
+
+  @Nonnull
+  String currency;
+
+  /**
+   * @param minorUnits amount in the minor units of {@code currency}
+   * @param currency   ISO 4217 currency code
+   */
+  public static Money of(long minorUnits, String currency) {
+    return new Money(minorUnits, Currency.getInstance(currency).getCurrencyCode());
+  }
+
+  /**
+   * @param amount   amount in the major units of {@code currency}, e.g. {@code 1234.50}
+   * @param currency ISO 4217 currency code
+   * @throws ArithmeticException if {@code amount} has more decimal places than the currency has
+   *                             minor units, or does not fit a {@code long} in minor units
+   */
+  public static Money ofMajor(BigDecimal amount, String currency) {
+    Currency resolved = Currency.getInstance(currency);
+    long minorUnits = amount.movePointRight(resolved.getDefaultFractionDigits())
+        .longValueExact();
+    return new Money(minorUnits, resolved.getCurrencyCode());
+  }
+
+  public static Money zero(String currency) {
+    return of(0, currency);
+  }
+
+  public Money plus(Money other) {
+    requireSameCurrency(other);
+    return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+  }
+
+  public Money minus(Money other) {
+    requireSameCurrency(other);
+    return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+  }
+
+  /**
+   * @param basisPoints  share in hundredths of a percent, {@code 1000} is 10 %
+   * @param roundingMode how to round a share that is not a whole number of minor units
+   * @return {@code basisPoints} of this amount
+   * @throws ArithmeticException if rounding is needed and {@code roundingMode} is
+   *                             {@link RoundingMode#UNNECESSARY}
+   */
+  public Money percentage(long basisPoints, RoundingMode roundingMode) {
+    return new Money(
+        divide(Math.multiplyExact(minorUnits, basisPoints), BASIS_POINTS, roundingMode),
+        currency);
+  }
+
+  public boolean isNegative() {
+    return minorUnits < 0;
+  }
+
+  public boolean isZero() {
+    return minorUnits == 0;
+  }
+
+  public BigDecimal toMajor() {
+    return BigDecimal.valueOf(minorUnits, fractionDigits());
+  }
+
+  /**
+   * Currency code as Stripe expects it, in lower case.
+   */
+  public String stripeCurrency() {
+    return currency.toLowerCase(Locale.ROOT);
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    requireSameCurrency(other);
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+
+  @Override
+  public String toString() {
+    return toMajor().toPlainString() + " " + currency;
+  }
+
+  private int fractionDigits() {
+    return Math.max(0, Currency.getInstance(currency).getDefaultFractionDigits());
+  }
+
+  private void requireSameCurrency(Money other) {
+    if (!currency.equals(other.currency)) {
+      throw new IllegalArgumentException(
+          "Cannot combine " + currency + " with " + other.currency);
+    }
+  }
+
+  static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+    long quotient = dividend / divisor;
+    long remainder = dividend % divisor;
+    if (remainder == 0) {
+      return quotient;
+    }
+
+    int sign = Long.signum(dividend) * Long.signum(divisor);
+    long twiceRemainder = Math.abs(remainder) * 2;
+    long absDivisor = Math.abs(divisor);
+    boolean awayFromZero = switch (roundingMode) {
+      case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+      case DOWN -> false;
+      case UP -> true;
+      case FLOOR -> sign < 0;
+      case CEILING -> sign > 0;
+      case HALF_UP -> twiceRemainder >= absDivisor;
+      case HALF_DOWN -> twiceRemainder > absDivisor;
+      case HALF_EVEN -> twiceRemainder > absDivisor
+          || (twiceRemainder == absDivisor && (quotient & 1) != 0);
+    };
+    return awayFromZero ? quotient + sign : quotient;
+  }
+}
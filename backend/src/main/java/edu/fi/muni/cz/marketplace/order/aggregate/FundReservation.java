@@ -1,6 +1,6 @@
 package edu.fi.muni.cz.marketplace.order.aggregate;
 
-import java.math.BigDecimal;
+import edu.fi.muni.cz.marketplace.money.Money;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -20,7 +20,7 @@ public class FundReservation {
   String deadlineId;
 
   @Nonnull
-  BigDecimal grossAmount;
+  Money grossAmount;
 
   @Nonnull
   Instant reservedAt;
@@ -2,12 +2,16 @@ package edu.fi.muni.cz.marketplace.order.aggregate;
 
 import static org.axonframework.modelling.command.AggregateLifecycle.apply;
 
+import edu.fi.muni.cz.marketplace.money.Money;
 import edu.fi.muni.cz.marketplace.order.command.AssignFundReservationCommand;
 import edu.fi.muni.cz.marketplace.order.command.AssignTrackingInfoCommand;
 import edu.fi.muni.cz.marketplace.order.command.CompleteOrderCommand;
 import edu.fi.muni.cz.marketplace.order.command.EnterTrackingNumberCommand;
 import edu.fi.muni.cz.marketplace.order.command.FinishRefundCommand;
+import edu.fi.muni.cz.marketplace.order.command.TrackingStatusUpdate;
+import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusBatchCommand;
 import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusCommand;
+import edu.fi.muni.cz.marketplace.order.commission.CommissionPolicy;
 import edu.fi.muni.cz.marketplace.order.deadline.ShippingDeadline;
 import edu.fi.muni.cz.marketplace.order.deadline.ShippingDeadlineNotMetPayload;
 import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
@@ -18,7 +22,7 @@ import edu.fi.muni.cz.marketplace.order.events.OrderRefundScheduledEvent;
 import edu.fi.muni.cz.marketplace.order.events.TrackingNumberEnteredEvent;
 import edu.fi.muni.cz.marketplace.order.events.TrackingNumberProvidedEvent;
 import edu.fi.muni.cz.marketplace.order.events.TrackingStatusUpdatedEvent;
-import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -33,14 +37,16 @@ import org.axonframework.deadline.DeadlineManager;
 import org.axonframework.deadline.annotation.DeadlineHandler;
 import org.axonframework.eventsourcing.EventSourcingHandler;
 import org.axonframework.modelling.command.AggregateIdentifier;
+import org.axonframework.serialization.Revision;
 import org.axonframework.spring.stereotype.Aggregate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 @Slf4j
 @Getter
-@Aggregate
+@Aggregate(snapshotTriggerDefinition = "orderSnapshotTriggerDefinition", cache = "orderCache")
 @NoArgsConstructor
+@Revision("1")
 public class Order {
 
   @Nonnull
@@ -50,8 +56,11 @@ public class Order {
   @Nonnull
   private OrderStatus status;
 
-  @Nonnull
-  private BigDecimal commissionMultiplier;
+  /**
+   * Commission in hundredths of a percent of the gross amount, as pinned when the funds were
+   * reserved.
+   */
+  private long commissionBasisPoints;
 
   @Nonnull
   private FundReservation fundReservation;
@@ -69,6 +78,7 @@ public class Order {
   public Order(AssignFundReservationCommand command,
       @Autowired DeadlineManager deadlineManager,
       @Autowired Clock clock,
+      @Autowired CommissionPolicy commissionPolicy,
       @Autowired @Value("${policy.refund-deadline-days}") Long refundPeriodDays) {
     Instant shippingDeadlineTime = clock.instant().plus(refundPeriodDays,
         ChronoUnit.DAYS);
@@ -84,15 +94,16 @@ public class Order {
         command.getGrossAmount(),
         command.getReservedAt(),
         command.getSellerId(),
-        command.getSellerStripeAccountId()));
+        command.getSellerStripeAccountId(),
+        commissionPolicy.basisPointsFor(command.getSellerId(), command.getCategory(),
+            command.getGrossAmount())));
   }
 
   @EventSourcingHandler
-  public void on(FundsReservedEvent event,
-      @Autowired @Value("${policy.commission-percentage}") String commissionPercentage) {
+  public void on(FundsReservedEvent event) {
     this.id = event.getOrderId();
     this.status = OrderStatus.FUNDS_RESERVED;
-    this.commissionMultiplier = new BigDecimal(commissionPercentage);
+    this.commissionBasisPoints = event.getCommissionBasisPoints();
     this.fundReservation = new FundReservation(
         event.getPaymentIntentId(),
         event.getPaymentMethodId(),
@@ -188,26 +199,53 @@ public class Order {
           "Cannot update tracking status for order " + this.id + " in state: " + status);
     }
 
-    apply(new TrackingStatusUpdatedEvent(
-        command.getOrderId(),
+    applyTrackingUpdate(new TrackingStatusUpdate(
         command.getEventId(),
         command.getStatusMilestone(),
         command.getEventStatus(),
         command.getEventOccurredAt()));
+  }
 
-    if (command.getStatusMilestone() == TrackingStatusMilestone.EXCEPTION) {
+  @CommandHandler
+  public void on(UpdateTrackingStatusBatchCommand command) {
+    if (status != OrderStatus.TRACKING_IN_PROGRESS) {
+      throw new IllegalStateException(
+          "Cannot update tracking status for order " + this.id + " in state: " + status);
+    }
+
+    for (TrackingStatusUpdate update : command.getUpdates()) {
+      if (status != OrderStatus.TRACKING_IN_PROGRESS) {
+        // delivery or an exception ends tracking, anything reported after it no longer applies
+        log.info("Order {} left tracking in state {}, skipping tracking event {}",
+            this.id, status, update.getEventId());
+        continue;
+      }
+      applyTrackingUpdate(update);
+    }
+  }
+
+  private void applyTrackingUpdate(TrackingStatusUpdate update) {
+    apply(new TrackingStatusUpdatedEvent(
+        this.id,
+        update.getEventId(),
+        update.getStatusMilestone(),
+        update.getEventStatus(),
+        update.getEventOccurredAt()));
+
+    if (update.getStatusMilestone() == TrackingStatusMilestone.EXCEPTION) {
       apply(new OrderRefundScheduledEvent(
-          command.getOrderId(),
+          this.id,
           this.fundReservation.getPaymentIntentId()));
     }
 
-    if (command.getStatusMilestone() == TrackingStatusMilestone.DELIVERED) {
+    if (update.getStatusMilestone() == TrackingStatusMilestone.DELIVERED) {
+      Money commission = this.commission();
       apply(new OrderDeliveredEvent(
-          command.getOrderId(),
+          this.id,
           this.getFundReservation().getSellerStripeAccountId(),
-          this.payout(),
-          this.commission(),
-          command.getEventOccurredAt()));
+          this.fundReservation.getGrossAmount().minus(commission),
+          commission,
+          update.getEventOccurredAt()));
     }
   }
 
@@ -246,12 +284,12 @@ public class Order {
         event.getCompletedAt(), event.getPayoutTransferId(), event.getCommissionTransferId());
   }
 
-  private BigDecimal commission() {
-    return this.fundReservation.getGrossAmount().multiply(this.commissionMultiplier);
-  }
-
-  private BigDecimal payout() {
+  /**
+   * The commission is rounded half up to whole minor units, the seller gets the rest of the gross
+   * amount, so both always add up to it.
+   */
+  private Money commission() {
     return this.fundReservation.getGrossAmount()
-        .multiply(BigDecimal.ONE.subtract(this.commissionMultiplier));
+        .percentage(this.commissionBasisPoints, RoundingMode.HALF_UP);
   }
 }
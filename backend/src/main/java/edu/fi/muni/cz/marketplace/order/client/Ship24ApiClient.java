@@ -1,7 +1,9 @@
 package edu.fi.muni.cz.marketplace.order.client;
 
+import edu.fi.muni.cz.marketplace.order.client.dto.BulkCreateTrackersResponse;
 import edu.fi.muni.cz.marketplace.order.client.dto.CreateTrackerRequest;
 import edu.fi.muni.cz.marketplace.order.client.dto.CreateTrackerResponse;
+import java.util.List;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -11,4 +13,7 @@ public interface Ship24ApiClient {
 
   @PostMapping("/trackers")
   CreateTrackerResponse createTracker(@RequestBody CreateTrackerRequest request);
+
+  @PostMapping("/trackers/bulk")
+  BulkCreateTrackersResponse createTrackers(@RequestBody List<CreateTrackerRequest> requests);
 }
@@ -1,6 +1,16 @@
 package edu.fi.muni.cz.marketplace.order.client;
 
+import edu.fi.muni.cz.marketplace.config.feign.Http2Client;
+import edu.fi.muni.cz.marketplace.config.feign.MeteredClient;
+import edu.fi.muni.cz.marketplace.config.feign.RateLimitingClient;
+import edu.fi.muni.cz.marketplace.config.resilience.TokenBucket;
+import feign.Client;
+import feign.Request;
 import feign.RequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 
@@ -13,4 +23,35 @@ public class Ship24ClientConfig {
   public RequestInterceptor ship24AuthInterceptor() {
     return requestTemplate -> requestTemplate.header("Authorization", "Bearer " + apiKey);
   }
+
+  @Bean
+  public Request.Options ship24RequestOptions(
+      @Value("${ship24.http.connect-timeout}") Duration connectTimeout,
+      @Value("${ship24.http.read-timeout}") Duration readTimeout) {
+    return new Request.Options(connectTimeout.toMillis(), TimeUnit.MILLISECONDS,
+        readTimeout.toMillis(), TimeUnit.MILLISECONDS, true);
+  }
+
+  /**
+   * Keeps Ship24 requests within the quota of our plan instead of running into 429s, and sends
+   * them over kept-alive HTTP/2 connections.
+   */
+  @Bean
+  public Client ship24FeignClient(
+      MeterRegistry meterRegistry,
+      @Value("${ship24.http.connect-timeout}") Duration connectTimeout,
+      @Value("${ship24.http.max-concurrent-requests}") int maxConcurrentRequests,
+      @Value("${ship24.rate-limit.requests-per-second}") double requestsPerSecond,
+      @Value("${ship24.rate-limit.burst}") int burst,
+      @Value("${ship24.rate-limit.max-wait}") Duration maxWait,
+      @Value("${ship24.rate-limit.max-throttle-retries}") int maxThrottleRetries) {
+    HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(connectTimeout)
+        .build();
+    Client transport = new MeteredClient("ship24",
+        new Http2Client(httpClient, maxConcurrentRequests), meterRegistry);
+    return new RateLimitingClient("ship24", transport, new TokenBucket(burst, requestsPerSecond),
+        maxWait, maxThrottleRetries, meterRegistry);
+  }
 }
@@ -1,7 +1,5 @@
 package edu.fi.muni.cz.marketplace.order.client;
 
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
 import com.stripe.model.BalanceTransaction;
 import com.stripe.model.Charge;
 import com.stripe.model.PaymentIntent;
@@ -12,10 +10,15 @@ import com.stripe.param.PaymentIntentCreateParams;
 import com.stripe.param.PaymentIntentRetrieveParams;
 import com.stripe.param.RefundCreateParams;
 import com.stripe.param.TransferCreateParams;
+import edu.fi.muni.cz.marketplace.config.resilience.CallGuard;
+import edu.fi.muni.cz.marketplace.config.stripe.StripeHttpTransport;
+import edu.fi.muni.cz.marketplace.money.Money;
 import edu.fi.muni.cz.marketplace.order.client.dto.FundReservationResult;
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -24,59 +27,71 @@ import org.springframework.stereotype.Component;
 @Component
 public class StripeFundsApiClient {
 
-  public StripeFundsApiClient(@Value("${stripe.api-key}") String stripeApiKey) {
-    Stripe.apiKey = stripeApiKey;
+  private final StripeHttpTransport stripeTransport;
+  private final CallGuard stripeCallGuard;
+  private final Duration reserveFundsTimeout;
+  private final Duration transferTimeout;
+  private final Duration refundTimeout;
+
+  public StripeFundsApiClient(StripeHttpTransport stripeTransport, CallGuard stripeCallGuard,
+      @Value("${stripe.timeouts.reserve-funds}") Duration reserveFundsTimeout,
+      @Value("${stripe.timeouts.transfer}") Duration transferTimeout,
+      @Value("${stripe.timeouts.refund}") Duration refundTimeout) {
+    this.stripeTransport = stripeTransport;
+    this.stripeCallGuard = stripeCallGuard;
+    this.reserveFundsTimeout = reserveFundsTimeout;
+    this.transferTimeout = transferTimeout;
+    this.refundTimeout = refundTimeout;
   }
 
   /**
-   * Reserves funds from a payment method by creating a PaymentIntent. Uses CZK
-   * currency and
-   * automatically captures the payment.
+   * Reserves funds from a payment method by creating a PaymentIntent in the currency of the
+   * amount and automatically captures the payment.
    *
    * @param customerId      the Stripe customer ID
    * @param paymentMethodId the Stripe payment method ID to charge
-   * @param amount          the amount to reserve in CZK
+   * @param amount          the amount to reserve
    * @param idempotencyKey  unique key to ensure idempotent creation
-   * @return the result containing PaymentIntent ID and net amount after Stripe
-   *         fees
-   * @throws StripeFundsApiClientException if payment intent creation fails
+   * @return future of the result containing PaymentIntent ID and net amount after
+   *         Stripe fees, failed with {@link StripeFundsApiClientException} if payment
+   *         intent creation fails
    */
-  public FundReservationResult reserveFunds(String customerId, String paymentMethodId,
-      BigDecimal amount,
+  public CompletableFuture<FundReservationResult> reserveFunds(String customerId,
+      String paymentMethodId,
+      Money amount,
       UUID idempotencyKey) {
-    log.info("Reserving funds for customer {} with payment method {} and amount {} CZK",
+    log.info("Reserving funds for customer {} with payment method {} and amount {}",
         customerId, paymentMethodId, amount);
 
-    long amountInCents = amount.multiply(BigDecimal.valueOf(100)).longValue();
-
-    try {
-      PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-          .setAmount(amountInCents)
-          .setCurrency("czk")
-          .setCustomer(customerId)
-          .setPaymentMethod(paymentMethodId)
-          .setConfirm(true)
-          .setAutomaticPaymentMethods(
-              PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
-                  .setEnabled(true)
-                  .setAllowRedirects(
-                      PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
-                  .build())
-          .build();
-
-      RequestOptions requestOptions = RequestOptions.builder()
-          .setIdempotencyKey("pay_" + idempotencyKey.toString())
-          .build();
-
-      PaymentIntent paymentIntent = PaymentIntent.create(params, requestOptions);
-
-      log.info("Successfully reserved funds with PaymentIntent: {}, gross amount: {} CZK",
-          paymentIntent.getId(), amount);
-      return new FundReservationResult(paymentIntent.getId(), amount);
-    } catch (StripeException e) {
-      throw new StripeFundsApiClientException(
-          "Failed to reserve funds: " + e.getMessage(), e);
-    }
+    PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+        .setAmount(amount.getMinorUnits())
+        .setCurrency(amount.stripeCurrency())
+        .setCustomer(customerId)
+        .setPaymentMethod(paymentMethodId)
+        .setConfirm(true)
+        .setAutomaticPaymentMethods(
+            PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                .setEnabled(true)
+                .setAllowRedirects(
+                    PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
+                .build())
+        .build();
+
+    RequestOptions requestOptions = RequestOptions.builder()
+        .setIdempotencyKey("pay_" + idempotencyKey.toString())
+        .setReadTimeout(Math.toIntExact(reserveFundsTimeout.toMillis()))
+        .build();
+
+    return stripeCallGuard.execute("reserve", () -> stripeTransport.post("/v1/payment_intents",
+            params, requestOptions, PaymentIntent.class))
+        .handle((paymentIntent, error) -> {
+          if (error != null) {
+            throw failure("Failed to reserve funds", error);
+          }
+          log.info("Successfully reserved funds with PaymentIntent: {}, gross amount: {}",
+              paymentIntent.getId(), amount);
+          return new FundReservationResult(paymentIntent.getId(), amount);
+        });
   }
 
   /**
@@ -84,69 +99,74 @@ public class StripeFundsApiClient {
    *
    * @param paymentIntentId the Stripe payment intent ID to refund
    * @param orderId         the order ID used for idempotency key
-   * @return the Stripe Refund ID
-   * @throws StripeFundsApiClientException if refund creation fails
+   * @return future of the Stripe Refund ID, failed with
+   *         {@link StripeFundsApiClientException} if refund creation fails
    */
-  public String refundPayment(String paymentIntentId, UUID orderId) {
+  public CompletableFuture<String> refundPayment(String paymentIntentId, UUID orderId) {
     log.info("Refunding payment intent {} for order {}", paymentIntentId, orderId);
 
-    try {
-      RefundCreateParams params = RefundCreateParams.builder()
-          .setPaymentIntent(paymentIntentId)
-          .build();
-
-      RequestOptions requestOptions = RequestOptions.builder()
-          .setIdempotencyKey("refund_" + orderId.toString())
-          .build();
-
-      Refund refund = Refund.create(params, requestOptions);
-
-      log.info("Successfully refunded payment with Refund: {}", refund.getId());
-      return refund.getId();
-    } catch (StripeException e) {
-      throw new StripeFundsApiClientException(
-          "Failed to refund payment: " + e.getMessage(), e);
-    }
+    RefundCreateParams params = RefundCreateParams.builder()
+        .setPaymentIntent(paymentIntentId)
+        .build();
+
+    RequestOptions requestOptions = RequestOptions.builder()
+        .setIdempotencyKey("refund_" + orderId.toString())
+        .setReadTimeout(Math.toIntExact(refundTimeout.toMillis()))
+        .build();
+
+    return stripeCallGuard.execute("refund",
+            () -> stripeTransport.post("/v1/refunds", params, requestOptions, Refund.class))
+        .handle((refund, error) -> {
+          if (error != null) {
+            throw failure("Failed to refund payment", error);
+          }
+          log.info("Successfully refunded payment with Refund: {}", refund.getId());
+          return refund.getId();
+        });
   }
 
   /**
-   * Transfers funds to a connected Stripe account. Used for payouts to sellers or
-   * commission
-   * transfers to platform.
+   * Transfers funds to a connected Stripe account. Used to settle payouts to sellers or
+   * commission transfers to platform.
    *
-   * @param amount     the amount to transfer in CZK
+   * @param amount     the amount to transfer
    * @param receiverId the destination connected Stripe account ID
-   * @param orderId    the order ID used for idempotency key
+   * @param batchId    the settlement batch ID used for idempotency key
    * @param type       the transfer type (PAYOUT for sellers, COMMISSION for
    *                   platform)
-   * @return the Stripe Transfer ID
-   * @throws StripeFundsApiClientException if transfer creation fails
+   * @return future of the Stripe Transfer ID, failed with
+   *         {@link StripeFundsApiClientException} if transfer creation fails
    */
-  public String transfer(BigDecimal amount, String receiverId, UUID orderId, TransferType type) {
-    log.info("Transferring {} CZK to account {} for order {} (type: {})",
-        amount, receiverId, orderId, type);
-
-    long amountInCents = amount.multiply(BigDecimal.valueOf(100)).longValue();
-
-    try {
-      TransferCreateParams params = TransferCreateParams.builder()
-          .setAmount(amountInCents)
-          .setCurrency("czk")
-          .setDestination(receiverId)
-          .build();
-
-      RequestOptions requestOptions = RequestOptions.builder()
-          .setIdempotencyKey(type.name().toLowerCase() + "_" + orderId.toString())
-          .build();
-
-      Transfer transfer = Transfer.create(params, requestOptions);
-
-      log.info("Successfully transferred funds with Transfer: {}", transfer.getId());
-      return transfer.getId();
-    } catch (StripeException e) {
-      throw new StripeFundsApiClientException(
-          "Failed to transfer funds: " + e.getMessage(), e);
-    }
+  public CompletableFuture<String> transfer(Money amount, String receiverId, UUID batchId,
+      TransferType type) {
+    log.info("Transferring {} to account {} for settlement batch {} (type: {})",
+        amount, receiverId, batchId, type);
+
+    TransferCreateParams params = TransferCreateParams.builder()
+        .setAmount(amount.getMinorUnits())
+        .setCurrency(amount.stripeCurrency())
+        .setDestination(receiverId)
+        .build();
+
+    RequestOptions requestOptions = RequestOptions.builder()
+        .setIdempotencyKey("settlement_" + type.name().toLowerCase() + "_" + batchId)
+        .setReadTimeout(Math.toIntExact(transferTimeout.toMillis()))
+        .build();
+
+    return stripeCallGuard.execute("transfer",
+            () -> stripeTransport.post("/v1/transfers", params, requestOptions, Transfer.class))
+        .handle((transfer, error) -> {
+          if (error != null) {
+            throw failure("Failed to transfer funds", error);
+          }
+          log.info("Successfully transferred funds with Transfer: {}", transfer.getId());
+          return transfer.getId();
+        });
+  }
+
+  private static StripeFundsApiClientException failure(String message, Throwable error) {
+    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+    return new StripeFundsApiClientException(message + ": " + cause.getMessage(), cause);
   }
 
   public enum TransferType {
@@ -0,0 +1,28 @@
+package edu.fi.muni.cz.marketplace.order.client.dto;
+
+import java.util.List;
+
+/**
+ * Response of the Ship24 bulk tracker endpoint. Items are reported per request item, identified by
+ * {@code itemIndex}, and either carry the created (or already existing) tracker or the errors that
+ * prevented its creation.
+ */
+public record BulkCreateTrackersResponse(
+    String status,
+    List<Item> data
+) {
+
+  public record Item(
+      int itemIndex,
+      String status,
+      CreateTrackerResponse.Tracker tracker,
+      List<Error> errors
+  ) {
+  }
+
+  public record Error(
+      String code,
+      String message
+  ) {
+  }
+}
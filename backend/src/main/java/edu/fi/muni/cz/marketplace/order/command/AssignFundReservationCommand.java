@@ -1,8 +1,9 @@
 package edu.fi.muni.cz.marketplace.order.command;
 
-import java.math.BigDecimal;
+import edu.fi.muni.cz.marketplace.money.Money;
 import java.time.Instant;
 import java.util.UUID;
+import javax.annotation.Nullable;
 import lombok.Value;
 import org.axonframework.modelling.command.TargetAggregateIdentifier;
 
@@ -13,8 +14,10 @@ public class AssignFundReservationCommand {
   UUID orderId;
   String paymentIntentId;
   String paymentMethodId;
-  BigDecimal grossAmount;
+  Money grossAmount;
   Instant reservedAt;
   UUID sellerId;
   String sellerStripeAccountId;
+  @Nullable
+  String category;
 }
@@ -1,6 +1,6 @@
 package edu.fi.muni.cz.marketplace.order.command;
 
-import java.math.BigDecimal;
+import edu.fi.muni.cz.marketplace.money.Money;
 import java.util.UUID;
 import lombok.Value;
 import org.axonframework.modelling.command.TargetAggregateIdentifier;
@@ -10,5 +10,5 @@ public class DeductCommissionCommand {
 
   @TargetAggregateIdentifier
   private UUID orderId;
-  private BigDecimal commision;
+  private Money commision;
 }
@@ -1,7 +1,8 @@
 package edu.fi.muni.cz.marketplace.order.command;
 
-import java.math.BigDecimal;
+import edu.fi.muni.cz.marketplace.money.Money;
 import java.util.UUID;
+import javax.annotation.Nullable;
 import lombok.Value;
 import org.axonframework.modelling.command.TargetAggregateIdentifier;
 
@@ -12,8 +13,10 @@ public class ReserveFundsCommand {
   UUID id;
   String customerId;
   String paymentMethodId;
-  BigDecimal amount;
+  Money amount;
   UUID sellerId;
   String sellerStripeAccountId;
+  @Nullable
+  String category;
 
 }
@@ -0,0 +1,14 @@
+package edu.fi.muni.cz.marketplace.order.command;
+
+import edu.fi.muni.cz.marketplace.order.aggregate.TrackingStatusMilestone;
+import java.time.Instant;
+import lombok.Value;
+
+@Value
+public class TrackingStatusUpdate {
+
+  String eventId;
+  TrackingStatusMilestone statusMilestone;
+  String eventStatus;
+  Instant eventOccurredAt;
+}
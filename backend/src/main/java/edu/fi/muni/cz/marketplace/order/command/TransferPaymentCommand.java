@@ -1,6 +1,6 @@
 package edu.fi.muni.cz.marketplace.order.command;
 
-import java.math.BigDecimal;
+import edu.fi.muni.cz.marketplace.money.Money;
 import java.util.UUID;
 import lombok.Value;
 import org.axonframework.modelling.command.TargetAggregateIdentifier;
@@ -11,5 +11,5 @@ public class TransferPaymentCommand {
   @TargetAggregateIdentifier
   private UUID orderId;
   private String stripeAccountId;
-  private BigDecimal amount;
+  private Money amount;
 }
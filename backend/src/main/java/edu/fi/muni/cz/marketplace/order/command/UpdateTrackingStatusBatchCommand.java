@@ -0,0 +1,18 @@
+package edu.fi.muni.cz.marketplace.order.command;
+
+import java.util.List;
+import java.util.UUID;
+import lombok.Value;
+import org.axonframework.modelling.command.TargetAggregateIdentifier;
+
+/**
+ * All tracking updates received for one order in a single webhook delivery, ordered by the time
+ * they occurred and free of duplicate event ids.
+ */
+@Value
+public class UpdateTrackingStatusBatchCommand {
+
+  @TargetAggregateIdentifier
+  UUID orderId;
+  List<TrackingStatusUpdate> updates;
+}
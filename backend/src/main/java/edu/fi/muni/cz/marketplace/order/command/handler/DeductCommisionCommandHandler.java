@@ -1,12 +1,10 @@
 package edu.fi.muni.cz.marketplace.order.command.handler;
 
-import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient;
 import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient.TransferType;
 import edu.fi.muni.cz.marketplace.order.command.DeductCommissionCommand;
-import edu.fi.muni.cz.marketplace.order.events.CommissionDeductedEvent;
+import edu.fi.muni.cz.marketplace.order.settlement.SettlementEngine;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.CommandHandler;
-import org.axonframework.eventhandling.gateway.EventGateway;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -15,27 +13,21 @@ import org.springframework.stereotype.Component;
 @Component
 public class DeductCommisionCommandHandler {
 
-  private final EventGateway eventGateway;
-  private final StripeFundsApiClient stripeFundsApiClient;
+  private final SettlementEngine settlementEngine;
   private final String platformAccountId;
 
   @Autowired
-  public DeductCommisionCommandHandler(EventGateway eventGateway,
-      StripeFundsApiClient stripeFundsApiClient,
+  public DeductCommisionCommandHandler(SettlementEngine settlementEngine,
       @Value("${stripe.platform-account-id}") String platformAccountId) {
-    this.eventGateway = eventGateway;
-    this.stripeFundsApiClient = stripeFundsApiClient;
+    this.settlementEngine = settlementEngine;
     this.platformAccountId = platformAccountId;
   }
 
   @CommandHandler
   public void on(DeductCommissionCommand command) {
-    String transferId = stripeFundsApiClient.transfer(command.getCommision(), platformAccountId,
-        command.getOrderId(),
-        TransferType.COMMISSION);
+    settlementEngine.record(TransferType.COMMISSION, command.getOrderId(), platformAccountId,
+        command.getCommision());
 
-    eventGateway.publish(new CommissionDeductedEvent(command.getOrderId(), transferId));
-
-    log.info("Commission deducted for order: {}", command.getOrderId());
+    log.info("Commission recorded for settlement for order: {}", command.getOrderId());
   }
 }
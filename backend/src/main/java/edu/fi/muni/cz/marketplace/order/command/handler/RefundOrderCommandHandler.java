@@ -1,5 +1,6 @@
 package edu.fi.muni.cz.marketplace.order.command.handler;
 
+import edu.fi.muni.cz.marketplace.config.command.ExternalIo;
 import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient;
 import edu.fi.muni.cz.marketplace.order.command.FinishRefundCommand;
 import edu.fi.muni.cz.marketplace.order.command.RefundOrderCommand;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
+@ExternalIo("stripe")
 @RequiredArgsConstructor
 public class RefundOrderCommandHandler {
 
@@ -22,7 +24,7 @@ public class RefundOrderCommandHandler {
     log.info("Handling RefundOrderCommand for order: {}", command.getOrderId());
 
     String refundId = stripeFundsApiClient.refundPayment(command.getPaymentIntentId(),
-        command.getOrderId());
+        command.getOrderId()).join();
 
     commandGateway.send(
         new FinishRefundCommand(command.getOrderId(), command.getPaymentIntentId()));
@@ -1,5 +1,6 @@
 package edu.fi.muni.cz.marketplace.order.command.handler;
 
+import edu.fi.muni.cz.marketplace.config.command.ExternalIo;
 import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient;
 import edu.fi.muni.cz.marketplace.order.client.dto.FundReservationResult;
 import edu.fi.muni.cz.marketplace.order.command.AssignFundReservationCommand;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
+@ExternalIo("stripe")
 @RequiredArgsConstructor
 public class ReserveFundsCommandHandler {
 
@@ -27,11 +29,13 @@ public class ReserveFundsCommandHandler {
         command.getCustomerId(),
         command.getPaymentMethodId(),
         command.getAmount(),
-        command.getId());
+        command.getId()).join();
 
-    log.debug("Successfully reserved funds on Stripe. PaymentIntent: {}, gross amount: {} CZK",
+    log.debug("Successfully reserved funds on Stripe. PaymentIntent: {}, gross amount: {}",
         result.paymentIntentId(), result.grossAmount());
 
+    // waits for the order, so the result of this command covers both steps and a failed
+    // assignment fails the reservation too
     commandGateway.send(new AssignFundReservationCommand(
         command.getId(),
         result.paymentIntentId(),
@@ -39,7 +43,8 @@ public class ReserveFundsCommandHandler {
         result.grossAmount(),
         Instant.now(),
         command.getSellerId(),
-        command.getSellerStripeAccountId()));
+        command.getSellerStripeAccountId(),
+        command.getCategory())).join();
 
     log.debug("Successfully assigned fund reservation to order: {}", command.getId());
   }
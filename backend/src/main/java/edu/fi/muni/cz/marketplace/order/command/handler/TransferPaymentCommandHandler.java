@@ -1,13 +1,11 @@
 package edu.fi.muni.cz.marketplace.order.command.handler;
 
-import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient;
 import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient.TransferType;
 import edu.fi.muni.cz.marketplace.order.command.TransferPaymentCommand;
-import edu.fi.muni.cz.marketplace.order.events.PaymentTransferredEvent;
+import edu.fi.muni.cz.marketplace.order.settlement.SettlementEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.CommandHandler;
-import org.axonframework.eventhandling.gateway.EventGateway;
 import org.springframework.stereotype.Component;
 
 @Slf4j
@@ -15,18 +13,13 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class TransferPaymentCommandHandler {
 
-  private final EventGateway eventGateway;
-  private final StripeFundsApiClient stripeFundsApiClient;
+  private final SettlementEngine settlementEngine;
 
   @CommandHandler
   public void on(TransferPaymentCommand command) {
-    String transferId = stripeFundsApiClient.transfer(command.getAmount(),
-        command.getStripeAccountId(),
-        command.getOrderId(),
-        TransferType.PAYOUT);
+    settlementEngine.record(TransferType.PAYOUT, command.getOrderId(),
+        command.getStripeAccountId(), command.getAmount());
 
-    eventGateway.publish(new PaymentTransferredEvent(command.getOrderId(), transferId));
-
-    log.info("Funds transferred for order for order: {}", command.getOrderId());
+    log.info("Payout recorded for settlement for order: {}", command.getOrderId());
   }
 }
@@ -0,0 +1,134 @@
+package edu.fi.muni.cz.marketplace.order.commission;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Commission rates of the marketplace, compiled once from the {@code policy.commission} rules into
+ * immutable lookup tables.
+ * <p>
+ * The rate of an order is the first that applies of: the override of its seller, the rate of its
+ * category, the rate of the amount band its gross amount falls into, and the default rate. A band
+ * applies to the whole gross amount, not only to the part of it above the band's floor.
+ * </p>
+ * <p>
+ * Rules are written as {@code key:rate}, with rates as fractions of the gross amount, e.g.
+ * {@code 0.08} for 8 %. Band keys are the floors in major units of the policy currency, seller
+ * keys are seller ids and category keys are category names. Rates are kept in basis points, a
+ * rate finer than a basis point, outside of {@code 0} to {@code 1}, or a key given twice fails the
+ * compilation.
+ * </p>
+ */
+public final class CommissionPolicy {
+
+  private static final long MAX_BASIS_POINTS = 10_000;
+
+  private final String currency;
+  private final long defaultBasisPoints;
+  private final long[] bandFloors;
+  private final long[] bandBasisPoints;
+  private final Map<UUID, Long> sellerBasisPoints;
+  private final Map<String, Long> categoryBasisPoints;
+
+  private CommissionPolicy(String currency, long defaultBasisPoints, long[] bandFloors,
+      long[] bandBasisPoints, Map<UUID, Long> sellerBasisPoints,
+      Map<String, Long> categoryBasisPoints) {
+    this.currency = currency;
+    this.defaultBasisPoints = defaultBasisPoints;
+    this.bandFloors = bandFloors;
+    this.bandBasisPoints = bandBasisPoints;
+    this.sellerBasisPoints = sellerBasisPoints;
+    this.categoryBasisPoints = categoryBasisPoints;
+  }
+
+  /**
+   * @param currency    currency of the band floors, orders in other currencies are rejected
+   * @param defaultRate rate of orders no other rule applies to
+   * @param bands       {@code floor:rate} rules of the amount bands
+   * @param sellers     {@code sellerId:rate} overrides
+   * @param categories  {@code category:rate} rules
+   * @throws IllegalArgumentException if a rule is malformed
+   */
+  public static CommissionPolicy compile(String currency, String defaultRate, List<String> bands,
+      List<String> sellers, List<String> categories) {
+    TreeMap<Long, Long> bandRates = new TreeMap<>(
+        rules(bands, floor -> Money.ofMajor(new BigDecimal(floor), currency).getMinorUnits()));
+
+    return new CommissionPolicy(
+        Money.zero(currency).getCurrency(),
+        basisPoints(defaultRate),
+        bandRates.keySet().stream().mapToLong(Long::longValue).toArray(),
+        bandRates.values().stream().mapToLong(Long::longValue).toArray(),
+        Map.copyOf(rules(sellers, UUID::fromString)),
+        Map.copyOf(rules(categories, Function.identity())));
+  }
+
+  /**
+   * @param sellerId    seller of the order
+   * @param category    category of the order, if it has one
+   * @param grossAmount gross amount of the order
+   * @return commission rate of the order in basis points
+   * @throws IllegalArgumentException if {@code grossAmount} is not in the policy currency
+   */
+  public long basisPointsFor(UUID sellerId, @Nullable String category, Money grossAmount) {
+    if (!currency.equals(grossAmount.getCurrency())) {
+      throw new IllegalArgumentException(
+          "Commission policy is in " + currency + ", not " + grossAmount.getCurrency());
+    }
+
+    Long sellerOverride = sellerBasisPoints.get(sellerId);
+    if (sellerOverride != null) {
+      return sellerOverride;
+    }
+
+    Long categoryRate = category == null ? null : categoryBasisPoints.get(category);
+    if (categoryRate != null) {
+      return categoryRate;
+    }
+
+    int band = Arrays.binarySearch(bandFloors, grossAmount.getMinorUnits());
+    if (band < 0) {
+      // not a floor itself, the band is the one with the closest lower floor
+      band = -band - 2;
+    }
+    return band < 0 ? defaultBasisPoints : bandBasisPoints[band];
+  }
+
+  private static <K> Map<K, Long> rules(List<String> rules, Function<String, K> key) {
+    Map<K, Long> compiled = new HashMap<>();
+    for (String rule : rules) {
+      if (rule.isBlank()) {
+        continue;
+      }
+      int separator = rule.lastIndexOf(':');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Commission rule '" + rule + "' is not key:rate");
+      }
+      try {
+        K parsed = key.apply(rule.substring(0, separator).trim());
+        if (compiled.put(parsed, basisPoints(rule.substring(separator + 1))) != null) {
+          throw new IllegalArgumentException("Commission rule for '" + parsed + "' is repeated");
+        }
+      } catch (IllegalArgumentException | ArithmeticException e) {
+        throw new IllegalArgumentException("Invalid commission rule '" + rule + "'", e);
+      }
+    }
+    return compiled;
+  }
+
+  private static long basisPoints(String rate) {
+    long basisPoints = new BigDecimal(rate.trim()).movePointRight(4).longValueExact();
+    if (basisPoints < 0 || basisPoints > MAX_BASIS_POINTS) {
+      throw new IllegalArgumentException("Commission rate " + rate + " is not between 0 and 1");
+    }
+    return basisPoints;
+  }
+}
@@ -0,0 +1,20 @@
+package edu.fi.muni.cz.marketplace.order.commission;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CommissionPolicyConfig {
+
+  @Bean
+  public CommissionPolicy commissionPolicy(
+      @Value("${policy.commission.default-rate}") String defaultRate,
+      @Value("${policy.commission.bands}") List<String> bands,
+      @Value("${policy.commission.sellers}") List<String> sellers,
+      @Value("${policy.commission.categories}") List<String> categories) {
+    return CommissionPolicy.compile(Money.CZK, defaultRate, bands, sellers, categories);
+  }
+}
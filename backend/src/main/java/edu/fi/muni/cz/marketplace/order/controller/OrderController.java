@@ -1,23 +1,48 @@
 package edu.fi.muni.cz.marketplace.order.controller;
 
+import edu.fi.muni.cz.marketplace.config.exception.HttpException;
+import edu.fi.muni.cz.marketplace.config.web.CommandReply;
+import edu.fi.muni.cz.marketplace.money.Money;
 import edu.fi.muni.cz.marketplace.order.command.EnterTrackingNumberCommand;
 import edu.fi.muni.cz.marketplace.order.command.ReserveFundsCommand;
 import edu.fi.muni.cz.marketplace.order.dto.EnterTrackingNumberRequest;
 import edu.fi.muni.cz.marketplace.order.dto.EnterTrackingNumberResponse;
+import edu.fi.muni.cz.marketplace.order.dto.FundReservationStatusResponse;
 import edu.fi.muni.cz.marketplace.order.dto.ReserveFundsRequest;
 import edu.fi.muni.cz.marketplace.order.dto.ReserveFundsResponse;
+import edu.fi.muni.cz.marketplace.order.service.FundReservationTracker;
+import java.net.URI;
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
+/**
+ * Order endpoints.
+ * <p>
+ * Commands are sent without blocking the request thread, the response is written once the
+ * command completes. When it does not complete within {@code order-api.command-timeout} the
+ * request answers 504, and when the client goes away it stops waiting. The command itself is not
+ * interrupted, a fund reservation that completes late can still be polled.
+ * </p>
+ * <p>
+ * {@code POST /fund-reservation/async} does not wait for the reservation at all. It answers 202
+ * with the order id right away, and {@code GET /{orderId}/fund-reservation} reports whether the
+ * funds were reserved.
+ * </p>
+ */
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -25,35 +50,79 @@ import org.springframework.web.bind.annotation.RestController;
 public class OrderController {
 
   private final CommandGateway commandGateway;
+  private final FundReservationTracker fundReservationTracker;
+
+  @Value("${order-api.command-timeout}")
+  private Duration commandTimeout;
 
   @PostMapping("/fund-reservation")
-  public ResponseEntity<ReserveFundsResponse> fundReservation(
+  public DeferredResult<ResponseEntity<ReserveFundsResponse>> fundReservation(
       @RequestBody ReserveFundsRequest request) {
     UUID orderId = UUID.randomUUID();
 
     log.info("Reserving funds for new order: {}", orderId);
 
-    commandGateway.sendAndWait(new ReserveFundsCommand(
-        orderId,
-        request.customerId(),
-        request.paymentMethodId(),
-        request.amount(),
-        request.sellerId(),
-        request.sellerStripeAccountId()));
+    CompletableFuture<Object> result = commandGateway.send(reserveFunds(orderId, request));
+    fundReservationTracker.track(orderId, result);
+
+    return CommandReply.of(result, commandTimeout, () -> ResponseEntity.status(HttpStatus.CREATED)
+        .body(new ReserveFundsResponse(orderId)));
+  }
+
+  @PostMapping("/fund-reservation/async")
+  public ResponseEntity<ReserveFundsResponse> fundReservationAsync(
+      @RequestBody ReserveFundsRequest request) {
+    UUID orderId = UUID.randomUUID();
+
+    log.info("Accepted fund reservation for new order: {}", orderId);
 
-    return ResponseEntity.status(HttpStatus.CREATED)
+    fundReservationTracker.track(orderId,
+        commandGateway.send(reserveFunds(orderId, request)));
+
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/v1/orders/" + orderId + "/fund-reservation"))
         .body(new ReserveFundsResponse(orderId));
   }
 
+  @GetMapping("/{orderId}/fund-reservation")
+  public ResponseEntity<FundReservationStatusResponse> fundReservationStatus(
+      @PathVariable UUID orderId) {
+    return fundReservationTracker.status(orderId)
+        .map(ResponseEntity::ok)
+        .orElseThrow(() -> new HttpException(404,
+            String.format("No fund reservation for order '%s'", orderId)));
+  }
+
   @PostMapping("/{orderId}/tracking-number")
-  public ResponseEntity<EnterTrackingNumberResponse> trackingNumber(
+  public DeferredResult<ResponseEntity<EnterTrackingNumberResponse>> trackingNumber(
       @PathVariable UUID orderId,
       @RequestBody EnterTrackingNumberRequest request) {
 
-    commandGateway.sendAndWait(new EnterTrackingNumberCommand(
+    CompletableFuture<Object> result = commandGateway.send(new EnterTrackingNumberCommand(
         orderId,
         request.trackingNumber()));
 
-    return ResponseEntity.ok(new EnterTrackingNumberResponse(orderId));
+    return CommandReply.of(result, commandTimeout,
+        () -> ResponseEntity.ok(new EnterTrackingNumberResponse(orderId)));
+  }
+
+  private static ReserveFundsCommand reserveFunds(UUID orderId, ReserveFundsRequest request) {
+    return new ReserveFundsCommand(
+        orderId,
+        request.customerId(),
+        request.paymentMethodId(),
+        amount(request),
+        request.sellerId(),
+        request.sellerStripeAccountId(),
+        request.category());
+  }
+
+  private static Money amount(ReserveFundsRequest request) {
+    try {
+      return Money.ofMajor(request.amount(), Money.CZK);
+    } catch (ArithmeticException e) {
+      throw new HttpException(400, "Amount has more decimal places than CZK allows: "
+          + request.amount());
+    }
   }
 }
@@ -1,12 +1,9 @@
 package edu.fi.muni.cz.marketplace.order.controller;
 
-import edu.fi.muni.cz.marketplace.order.aggregate.TrackingStatusMilestone;
-import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusCommand;
-import edu.fi.muni.cz.marketplace.order.dto.Ship24WebhookPayload;
-import java.util.UUID;
+import edu.fi.muni.cz.marketplace.order.intake.IntakeLogException;
+import edu.fi.muni.cz.marketplace.order.intake.Ship24WebhookIntake;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,7 +19,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class OrderWebHookController {
 
-  private final CommandGateway commandGateway;
+  private final Ship24WebhookIntake ship24WebhookIntake;
 
   @Value("${ship24.webhook-secret}")
   private String webhookSecret;
@@ -30,38 +27,23 @@ public class OrderWebHookController {
   @PostMapping("/ship24")
   public ResponseEntity<String> handleShip24Webhook(
       @RequestHeader(value = "Authorization", required = false) String authHeader,
-      @RequestBody Ship24WebhookPayload payload) {
+      @RequestBody byte[] payload) {
     if (!isValidWebhookSecret(authHeader)) {
       log.warn("Invalid webhook secret received");
       return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid webhook secret");
     }
 
-    log.info("Received Ship24 webhook with {} tracking updates", payload.trackings().size());
-
-    payload.trackings().forEach(trackingUpdate -> {
-      try {
-        UUID orderId = UUID.fromString(trackingUpdate.tracker().shipmentReference());
-
-        trackingUpdate.events().forEach(event -> {
-          TrackingStatusMilestone milestone = event.statusMilestone().toTrackingStatusMilestone();
-
-          log.info("Processing tracking event {} for order {}: {} - {}",
-              event.eventId(), orderId, milestone, event.status());
-
-          commandGateway.send(new UpdateTrackingStatusCommand(
-              orderId,
-              event.eventId(),
-              milestone,
-              event.status(),
-              event.occurrenceDatetime()));
-        });
-      } catch (IllegalArgumentException e) {
-        log.error("Invalid shipmentReference (not a valid UUID): {}",
-            trackingUpdate.tracker().shipmentReference());
-      }
-    });
+    try {
+      long offset = ship24WebhookIntake.accept(payload);
+      log.debug("Stored Ship24 webhook at intake offset {}", offset);
+    } catch (IntakeLogException e) {
+      // not acknowledged, Ship24 delivers the webhook again
+      log.error("Failed to store Ship24 webhook", e);
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .body("Webhook could not be stored");
+    }
 
-    return ResponseEntity.ok("Webhook processed successfully");
+    return ResponseEntity.accepted().body("Webhook accepted");
   }
 
   private boolean isValidWebhookSecret(String authHeader) {
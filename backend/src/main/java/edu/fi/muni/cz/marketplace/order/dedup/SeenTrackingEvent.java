@@ -0,0 +1,31 @@
+package edu.fi.muni.cz.marketplace.order.dedup;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "seen_tracking_event",
+    indexes = @Index(name = "seen_tracking_event_seen_at_idx", columnList = "seen_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeenTrackingEvent {
+
+  @Id
+  private String eventId;
+
+  @Column(nullable = false)
+  private UUID orderId;
+
+  @Column(nullable = false)
+  private Instant seenAt;
+}
@@ -0,0 +1,35 @@
+package edu.fi.muni.cz.marketplace.order.dedup;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SeenTrackingEventRepository extends JpaRepository<SeenTrackingEvent, String> {
+
+  @Query("select e.eventId from SeenTrackingEvent e where e.eventId in :eventIds")
+  Set<String> findExistingEventIds(Collection<String> eventIds);
+
+  @Query("select e.eventId from SeenTrackingEvent e")
+  Stream<String> streamAllEventIds();
+
+  /**
+   * Inserts all eventIds in one statement, skipping the ones already stored.
+   */
+  @Modifying
+  @Query(value = "insert into seen_tracking_event (event_id, order_id, seen_at) "
+      + "select event_id, :orderId, :seenAt "
+      + "from unnest(cast(:eventIds as text[])) as ids(event_id) on conflict do nothing", nativeQuery = true)
+  void insertAllIfAbsent(String[] eventIds, UUID orderId, Instant seenAt);
+
+  @Modifying
+  @Query("delete from SeenTrackingEvent e where e.seenAt < :cutoff")
+  int deleteSeenBefore(Instant cutoff);
+}
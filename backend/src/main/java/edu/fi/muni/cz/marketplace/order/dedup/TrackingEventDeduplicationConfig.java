@@ -0,0 +1,21 @@
+package edu.fi.muni.cz.marketplace.order.dedup;
+
+import com.github.kagkarlsson.scheduler.task.helper.RecurringTask;
+import com.github.kagkarlsson.scheduler.task.helper.Tasks;
+import com.github.kagkarlsson.scheduler.task.schedule.FixedDelay;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TrackingEventDeduplicationConfig {
+
+  @Bean
+  public RecurringTask<Void> seenTrackingEventCleanupTask(
+      TrackingEventDeduplicator deduplicator,
+      @Value("${tracking-event-dedup.cleanup-interval}") Duration cleanupInterval) {
+    return Tasks.recurring("seen-tracking-event-cleanup", FixedDelay.of(cleanupInterval))
+        .execute((taskInstance, executionContext) -> deduplicator.cleanUp());
+  }
+}
@@ -0,0 +1,181 @@
+package edu.fi.muni.cz.marketplace.order.dedup;
+
+import edu.fi.muni.cz.marketplace.config.cache.BloomFilter;
+import edu.fi.muni.cz.marketplace.order.command.TrackingStatusUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rejects Ship24 tracking events that were already dispatched to an order.
+ * <p>
+ * Dispatched eventIds are persisted in {@code seen_tracking_event}. An in-memory
+ * {@link BloomFilter} over the stored ids sits in front of the table, so only ids the filter
+ * reports as possibly seen cost a database lookup, the vast majority of new events do not. The
+ * filter is loaded when the application is ready and rebuilt after every cleanup, which removes
+ * ids older than the retention period.
+ * </p>
+ * <p>
+ * The filter is local to the instance. Ids stored by another instance are only caught by this one
+ * after its next rebuild.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TrackingEventDeduplicator {
+
+  private final SeenTrackingEventRepository repository;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final Clock clock;
+  private final long expectedEvents;
+  private final double falsePositiveRate;
+  private final Duration retention;
+  private final Counter acceptedEvents;
+  private final Counter duplicateEvents;
+
+  private volatile BloomFilter filter;
+  private volatile BloomFilter rebuilding;
+
+  public TrackingEventDeduplicator(
+      SeenTrackingEventRepository repository,
+      PlatformTransactionManager transactionManager,
+      Clock clock,
+      MeterRegistry meterRegistry,
+      @Value("${tracking-event-dedup.expected-events}") long expectedEvents,
+      @Value("${tracking-event-dedup.false-positive-rate}") double falsePositiveRate,
+      @Value("${tracking-event-dedup.retention}") Duration retention) {
+    this.repository = repository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.clock = clock;
+    this.expectedEvents = expectedEvents;
+    this.falsePositiveRate = falsePositiveRate;
+    this.retention = retention;
+    this.filter = new BloomFilter(expectedEvents, falsePositiveRate);
+
+    this.acceptedEvents = Counter.builder("ship24.webhook.events")
+        .description("Ship24 tracking events received by outcome")
+        .tag("outcome", "accepted")
+        .register(meterRegistry);
+    this.duplicateEvents = Counter.builder("ship24.webhook.events")
+        .description("Ship24 tracking events received by outcome")
+        .tag("outcome", "duplicate")
+        .register(meterRegistry);
+    Gauge.builder("ship24.webhook.events.duplicate.ratio", this,
+            TrackingEventDeduplicator::duplicateRatio)
+        .description("Share of received Ship24 tracking events that were duplicates")
+        .register(meterRegistry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    rebuildFilter();
+  }
+
+  /**
+   * Removes updates whose eventId was already dispatched.
+   *
+   * @param updates updates of one order
+   * @return the updates not seen before, in their original order
+   */
+  public List<TrackingStatusUpdate> filterNew(List<TrackingStatusUpdate> updates) {
+    BloomFilter current = filter;
+    List<String> candidates = updates.stream()
+        .map(TrackingStatusUpdate::getEventId)
+        .filter(current::mightContain)
+        .toList();
+
+    Set<String> seen = candidates.isEmpty() ? Set.of()
+        : repository.findExistingEventIds(candidates);
+    List<TrackingStatusUpdate> fresh = seen.isEmpty() ? updates
+        : updates.stream().filter(update -> !seen.contains(update.getEventId())).toList();
+
+    acceptedEvents.increment(fresh.size());
+    recordDuplicates(updates.size() - fresh.size());
+    return fresh;
+  }
+
+  /**
+   * Counts duplicates that were dropped before reaching the deduplicator, e.g. repeated within a
+   * single delivery.
+   */
+  public void recordDuplicates(int count) {
+    duplicateEvents.increment(count);
+  }
+
+  /**
+   * Remembers the eventIds of updates that were successfully dispatched to an order.
+   */
+  public void markSeen(UUID orderId, List<TrackingStatusUpdate> updates) {
+    Instant seenAt = clock.instant();
+    String[] eventIds = updates.stream()
+        .map(TrackingStatusUpdate::getEventId)
+        .toArray(String[]::new);
+    transactionTemplate.executeWithoutResult(
+        status -> repository.insertAllIfAbsent(eventIds, orderId, seenAt));
+
+    BloomFilter current = filter;
+    BloomFilter next = rebuilding;
+    for (String eventId : eventIds) {
+      current.put(eventId);
+      if (next != null) {
+        next.put(eventId);
+      }
+    }
+  }
+
+  /**
+   * Deletes eventIds older than the retention period and rebuilds the filter without them.
+   *
+   * @return number of deleted eventIds
+   */
+  public int cleanUp() {
+    Instant cutoff = clock.instant().minus(retention);
+    Integer deleted = transactionTemplate.execute(status -> repository.deleteSeenBefore(cutoff));
+    log.info("Deleted {} tracking event ids seen before {}", deleted, cutoff);
+    rebuildFilter();
+    return deleted == null ? 0 : deleted;
+  }
+
+  private synchronized void rebuildFilter() {
+    // ids marked while the table is read are added to both filters, see markSeen
+    BloomFilter next = new BloomFilter(expectedEvents, falsePositiveRate);
+    rebuilding = next;
+    try {
+      long[] loaded = {0};
+      readOnlyTransactionTemplate.executeWithoutResult(status -> {
+        try (Stream<String> eventIds = repository.streamAllEventIds()) {
+          eventIds.forEach(eventId -> {
+            next.put(eventId);
+            loaded[0]++;
+          });
+        }
+      });
+      filter = next;
+      log.info("Loaded {} seen tracking event ids into the filter", loaded[0]);
+    } finally {
+      rebuilding = null;
+    }
+  }
+
+  private double duplicateRatio() {
+    double total = acceptedEvents.count() + duplicateEvents.count();
+    return total == 0 ? 0 : duplicateEvents.count() / total;
+  }
+}
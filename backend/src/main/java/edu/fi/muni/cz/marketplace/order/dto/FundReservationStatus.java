@@ -0,0 +1,7 @@
+package edu.fi.muni.cz.marketplace.order.dto;
+
+public enum FundReservationStatus {
+  PENDING,
+  RESERVED,
+  FAILED
+}
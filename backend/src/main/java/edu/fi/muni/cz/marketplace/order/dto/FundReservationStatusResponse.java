@@ -0,0 +1,9 @@
+package edu.fi.muni.cz.marketplace.order.dto;
+
+import java.util.UUID;
+
+public record FundReservationStatusResponse(
+    UUID orderId,
+    FundReservationStatus status,
+    String error) {
+}
@@ -2,11 +2,13 @@ package edu.fi.muni.cz.marketplace.order.dto;
 
 import java.math.BigDecimal;
 import java.util.UUID;
+import javax.annotation.Nullable;
 
 public record ReserveFundsRequest(
     String customerId,
     String paymentMethodId,
     BigDecimal amount,
     UUID sellerId,
-    String sellerStripeAccountId) {
+    String sellerStripeAccountId,
+    @Nullable String category) {
 }
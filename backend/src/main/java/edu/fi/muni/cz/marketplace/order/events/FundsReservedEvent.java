@@ -1,20 +1,27 @@
 package edu.fi.muni.cz.marketplace.order.events;
 
-import java.math.BigDecimal;
+import edu.fi.muni.cz.marketplace.money.Money;
 import java.time.Instant;
 import java.util.UUID;
 import lombok.Value;
+import org.axonframework.serialization.Revision;
 
 @Value
+@Revision("2")
 public class FundsReservedEvent {
 
   UUID orderId;
   String paymentIntentId;
   String paymentMethodId;
   String deadlineId;
-  BigDecimal amount;
+  Money amount;
   Instant reservedAt;
 
   UUID sellerId;
   String sellerAccountId;
+
+  /**
+   * Commission rate the order was placed with, in hundredths of a percent of the amount.
+   */
+  long commissionBasisPoints;
 }
@@ -1,16 +1,18 @@
 package edu.fi.muni.cz.marketplace.order.events;
 
-import java.math.BigDecimal;
+import edu.fi.muni.cz.marketplace.money.Money;
 import java.time.Instant;
 import java.util.UUID;
 import lombok.Value;
+import org.axonframework.serialization.Revision;
 
 @Value
+@Revision("1")
 public class OrderDeliveredEvent {
 
   UUID orderId;
   String sellerStripeAccountId;
-  BigDecimal payoutAmount;
-  BigDecimal commission;
+  Money payoutAmount;
+  Money commission;
   Instant deliveredAt;
 }
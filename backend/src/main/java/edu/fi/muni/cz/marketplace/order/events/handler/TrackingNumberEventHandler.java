@@ -2,31 +2,71 @@ package edu.fi.muni.cz.marketplace.order.events.handler;
 
 import edu.fi.muni.cz.marketplace.order.command.AssignTrackingInfoCommand;
 import edu.fi.muni.cz.marketplace.order.events.TrackingNumberProvidedEvent;
-import edu.fi.muni.cz.marketplace.order.service.Ship24Service;
+import edu.fi.muni.cz.marketplace.order.service.TrackerRegistrationBatcher;
+import edu.fi.muni.cz.marketplace.order.service.TrackerRejectedException;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
 import org.springframework.stereotype.Component;
 
+/**
+ * Registers a Ship24 tracker for every provided tracking number.
+ * <p>
+ * Trackers are registered in bulk by {@link TrackerRegistrationBatcher}. The handler only queues
+ * the registration and waits for the tracker ID when the unit of work commits, so all events of an
+ * event processor batch end up in the same bulk request. A failed bulk request rolls the batch
+ * back and the events are handled again.
+ * </p>
+ * <p>
+ * A tracker Ship24 rejects would be rejected on every retry, so it is logged and its order is left
+ * without a Ship24 tracker. The other events of the batch are committed.
+ * </p>
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class TrackingNumberEventHandler {
 
-  private final Ship24Service ship24Service;
+  private final TrackerRegistrationBatcher trackerRegistrationBatcher;
   private final CommandGateway commandGateway;
 
   @EventHandler
   public void on(TrackingNumberProvidedEvent event) {
-    log.info("Creating Ship24 tracker for order: {}", event.getOrderId());
+    log.info("Registering Ship24 tracker for order: {}", event.getOrderId());
 
-    String ship24TrackerId = ship24Service.createTracker(
+    CompletableFuture<String> ship24TrackerId = trackerRegistrationBatcher.register(
         event.getTrackingNumber(),
         event.getOrderId().toString()
     );
 
+    if (CurrentUnitOfWork.isStarted()) {
+      CurrentUnitOfWork.get().onPrepareCommit(unitOfWork ->
+          assignTrackingInfo(event, ship24TrackerId));
+    } else {
+      assignTrackingInfo(event, ship24TrackerId);
+    }
+  }
+
+  private void assignTrackingInfo(TrackingNumberProvidedEvent event,
+      CompletableFuture<String> registration) {
+    String ship24TrackerId;
+    try {
+      ship24TrackerId = registration.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof TrackerRejectedException rejected) {
+        log.error("Ship24 rejected the tracker of tracking number {} for order {}, the order is "
+            + "not tracked: {}", event.getTrackingNumber(), event.getOrderId(),
+            rejected.getMessage());
+        return;
+      }
+      throw e;
+    }
+
     log.info("Ship24 tracker created with ID: {} for order: {}", ship24TrackerId,
         event.getOrderId());
 
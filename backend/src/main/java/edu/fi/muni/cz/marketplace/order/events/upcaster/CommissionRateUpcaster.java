@@ -0,0 +1,58 @@
+package edu.fi.muni.cz.marketplace.order.events.upcaster;
+
+import edu.fi.muni.cz.marketplace.config.serialization.BinaryRecord;
+import edu.fi.muni.cz.marketplace.config.serialization.BinarySerializer;
+import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pins the commission rate into {@link FundsReservedEvent}s stored before the rate was part of
+ * the event, revision {@code 1} to {@code 2}.
+ * <p>
+ * Those orders were charged the single rate the marketplace had then, 10 %. The rate is a
+ * constant rather than {@code policy.commission.default-rate}, so changing the policy later does
+ * not change the commission of those orders when they are replayed.
+ * </p>
+ */
+@Order(1)
+@Component
+public class CommissionRateUpcaster extends SingleEventUpcaster {
+
+  private static final String SOURCE_REVISION = "1";
+  private static final String TARGET_REVISION = "2";
+  private static final String FIELD = "commissionBasisPoints";
+  /**
+   * {@code policy.commission-percentage} of 0.1 before commission policies.
+   */
+  static final long LEGACY_BASIS_POINTS = 1000;
+
+  @Override
+  protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+    return SOURCE_REVISION.equals(intermediateRepresentation.getType().getRevision())
+        && FundsReservedEvent.class.getName()
+        .equals(intermediateRepresentation.getType().getName());
+  }
+
+  @Override
+  protected IntermediateEventRepresentation doUpcast(
+      IntermediateEventRepresentation intermediateRepresentation) {
+    SimpleSerializedType target = new SimpleSerializedType(
+        intermediateRepresentation.getType().getName(), TARGET_REVISION);
+
+    byte[] data = intermediateRepresentation.getData(byte[].class).getData();
+    if (BinarySerializer.isBinary(data)) {
+      return intermediateRepresentation.upcastPayload(target, BinaryRecord.class,
+          record -> record.put(FIELD, LEGACY_BASIS_POINTS));
+    }
+    return intermediateRepresentation.upcastPayload(target, String.class, xml -> {
+      int rootEnd = xml.lastIndexOf("</");
+      return xml.substring(0, rootEnd)
+          + "<" + FIELD + ">" + LEGACY_BASIS_POINTS + "</" + FIELD + ">"
+          + xml.substring(rootEnd);
+    });
+  }
+}
@@ -0,0 +1,93 @@
+package edu.fi.muni.cz.marketplace.order.events.upcaster;
+
+import edu.fi.muni.cz.marketplace.config.serialization.BinaryRecord;
+import edu.fi.muni.cz.marketplace.config.serialization.BinarySerializer;
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
+import edu.fi.muni.cz.marketplace.order.events.OrderDeliveredEvent;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Upcasts the amounts of events stored before {@link Money} from {@code BigDecimal} CZK to
+ * {@link Money}, revision {@code null} to {@code 1}.
+ * <p>
+ * Events written by the binary serializer get their decimal fields replaced in the
+ * {@link BinaryRecord}, events written as XStream XML get the elements rewritten. Amounts with
+ * fractions of a heller, which the commission split used to produce, are truncated the same way
+ * as they were when sent to Stripe.
+ * </p>
+ */
+@Order(0)
+@Component
+public class MoneyUpcaster extends SingleEventUpcaster {
+
+  private static final String TARGET_REVISION = "1";
+
+  private static final Map<String, List<String>> AMOUNT_FIELDS = Map.of(
+      FundsReservedEvent.class.getName(), List.of("amount"),
+      OrderDeliveredEvent.class.getName(), List.of("payoutAmount", "commission"));
+
+  private static final Map<String, Pattern> XML_ELEMENTS = Map.of(
+      FundsReservedEvent.class.getName(), xmlElements(List.of("amount")),
+      OrderDeliveredEvent.class.getName(), xmlElements(List.of("payoutAmount", "commission")));
+
+  @Override
+  protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+    return intermediateRepresentation.getType().getRevision() == null
+        && AMOUNT_FIELDS.containsKey(intermediateRepresentation.getType().getName());
+  }
+
+  @Override
+  protected IntermediateEventRepresentation doUpcast(
+      IntermediateEventRepresentation intermediateRepresentation) {
+    String type = intermediateRepresentation.getType().getName();
+    SimpleSerializedType target = new SimpleSerializedType(type, TARGET_REVISION);
+
+    byte[] data = intermediateRepresentation.getData(byte[].class).getData();
+    if (BinarySerializer.isBinary(data)) {
+      return intermediateRepresentation.upcastPayload(target, BinaryRecord.class, record -> {
+        for (String field : AMOUNT_FIELDS.get(type)) {
+          if (record.get(field) instanceof BigDecimal amount) {
+            record.put(field, new BinaryRecord()
+                .put("minorUnits", minorUnits(amount))
+                .put("currency", Money.CZK));
+          }
+        }
+        return record;
+      });
+    }
+    return intermediateRepresentation.upcastPayload(target, String.class,
+        xml -> rewriteXml(xml, XML_ELEMENTS.get(type)));
+  }
+
+  private static String rewriteXml(String xml, Pattern elements) {
+    Matcher matcher = elements.matcher(xml);
+    StringBuilder result = new StringBuilder(xml.length() + 64);
+    while (matcher.find()) {
+      String field = matcher.group(1);
+      long minorUnits = minorUnits(new BigDecimal(matcher.group(2).trim()));
+      matcher.appendReplacement(result, "<" + field + "><minorUnits>" + minorUnits
+          + "</minorUnits><currency>" + Money.CZK + "</currency></" + field + ">");
+    }
+    matcher.appendTail(result);
+    return result.toString();
+  }
+
+  private static long minorUnits(BigDecimal amount) {
+    return amount.movePointRight(2).setScale(0, RoundingMode.DOWN).longValueExact();
+  }
+
+  private static Pattern xmlElements(List<String> fields) {
+    return Pattern.compile("<(" + String.join("|", fields) + ")>([^<]*)</\\1>");
+  }
+}
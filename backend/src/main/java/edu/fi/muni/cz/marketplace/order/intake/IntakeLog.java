@@ -0,0 +1,268 @@
+package edu.fi.muni.cz.marketplace.order.intake;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of raw payloads kept in memory-mapped segment files.
+ * <p>
+ * Every record is written as its length, a CRC32 of the data and the data itself, and is
+ * addressed by a global offset. A segment file is named after the offset of its first byte. When
+ * the next record does not fit into the current segment, the segment is closed with an end marker
+ * and the log continues in a new one. On open the last segment is scanned up to the first empty or
+ * corrupt record, so a record torn by a crash before it was acknowledged is dropped.
+ * </p>
+ * <p>
+ * The position up to which records were processed is stored in a separate checkpoint file.
+ * Segments lying entirely before the checkpoint are deleted.
+ * </p>
+ */
+public class IntakeLog implements Closeable {
+
+  private static final int HEADER_SIZE = Integer.BYTES * 2;
+  private static final int END_OF_SEGMENT = -1;
+  private static final String SEGMENT_SUFFIX = ".log";
+  private static final String CHECKPOINT_FILE = "checkpoint";
+
+  private final Path directory;
+  private final int segmentSize;
+  private final boolean fsync;
+  private final ConcurrentNavigableMap<Long, MappedByteBuffer> segments =
+      new ConcurrentSkipListMap<>();
+  private final MappedByteBuffer checkpointBuffer;
+  private final Object checkpointLock = new Object();
+
+  private MappedByteBuffer head;
+  private volatile long headBase;
+  private volatile long writeOffset;
+  private volatile long checkpoint;
+
+  /**
+   * Opens the log in the given directory, creating it if needed.
+   *
+   * @param directory   directory holding the segment and checkpoint files
+   * @param segmentSize size of newly created segment files in bytes, also the maximum record size
+   * @param fsync       whether every append is forced to the storage device before it returns
+   * @throws IntakeLogException if the files cannot be opened
+   */
+  public IntakeLog(Path directory, int segmentSize, boolean fsync) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.fsync = fsync;
+
+    try {
+      Files.createDirectories(directory);
+      checkpointBuffer = map(directory.resolve(CHECKPOINT_FILE), Long.BYTES);
+      checkpoint = checkpointBuffer.getLong(0);
+
+      for (Path file : segmentFiles()) {
+        String name = file.getFileName().toString();
+        long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        segments.put(base, map(file, Files.size(file)));
+      }
+    } catch (IOException | NumberFormatException e) {
+      throw new IntakeLogException("Failed to open intake log in " + directory, e);
+    }
+
+    if (segments.isEmpty()) {
+      segments.put(checkpoint, mapSegment(checkpoint));
+    }
+    headBase = segments.lastKey();
+    head = segments.lastEntry().getValue();
+    writeOffset = headBase + recover(head);
+  }
+
+  /**
+   * Appends a record to the log.
+   *
+   * @param data the payload, must not be empty
+   * @return offset of the appended record
+   * @throws IntakeLogException if the record does not fit into a segment or a new segment cannot
+   *                            be created
+   */
+  public synchronized long append(byte[] data) {
+    if (data.length == 0) {
+      throw new IllegalArgumentException("Cannot append an empty record");
+    }
+    int recordSize = HEADER_SIZE + data.length;
+    if (recordSize > segmentSize) {
+      throw new IntakeLogException("Record of " + data.length
+          + " bytes exceeds the intake segment size of " + segmentSize + " bytes");
+    }
+
+    int position = (int) (writeOffset - headBase);
+    if (position + recordSize > head.capacity()) {
+      if (position + Integer.BYTES <= head.capacity()) {
+        head.putInt(position, END_OF_SEGMENT);
+      }
+      roll();
+      position = 0;
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    head.put(position + HEADER_SIZE, data);
+    head.putInt(position + Integer.BYTES, (int) crc.getValue());
+    head.putInt(position, data.length);
+    if (fsync) {
+      head.force(position, recordSize);
+    }
+
+    long offset = headBase + position;
+    writeOffset = offset + recordSize;
+    return offset;
+  }
+
+  /**
+   * Reads the record at the given offset.
+   *
+   * @param offset offset of a record, as returned by {@link #append} or
+   *               {@link IntakeRecord#nextOffset()}
+   * @return the record, or {@code null} if nothing was appended at the offset yet
+   * @throws IntakeLogException if the offset lies in an already deleted segment
+   */
+  public IntakeRecord read(long offset) {
+    while (offset < writeOffset) {
+      Map.Entry<Long, MappedByteBuffer> entry = segments.floorEntry(offset);
+      if (entry == null) {
+        throw new IntakeLogException("Offset " + offset + " is no longer in the intake log");
+      }
+      MappedByteBuffer segment = entry.getValue();
+      int position = (int) (offset - entry.getKey());
+
+      int length = position + HEADER_SIZE > segment.capacity()
+          ? END_OF_SEGMENT : segment.getInt(position);
+      if (length == END_OF_SEGMENT) {
+        offset = entry.getKey() + segment.capacity();
+        continue;
+      }
+
+      byte[] data = new byte[length];
+      segment.get(position + HEADER_SIZE, data);
+      return new IntakeRecord(offset, offset + HEADER_SIZE + length, data);
+    }
+    return null;
+  }
+
+  /**
+   * @return offset from which records have not been processed yet
+   */
+  public long getCheckpoint() {
+    return checkpoint;
+  }
+
+  /**
+   * Moves the checkpoint forward and deletes segments that lie entirely before it. Offsets lower
+   * than the current checkpoint are ignored.
+   *
+   * @param offset offset up to which all records were processed
+   */
+  public void commit(long offset) {
+    synchronized (checkpointLock) {
+      if (offset <= checkpoint) {
+        return;
+      }
+      checkpointBuffer.putLong(0, offset);
+      checkpoint = offset;
+
+      for (Map.Entry<Long, MappedByteBuffer> entry : segments.headMap(headBase).entrySet()) {
+        if (entry.getKey() + entry.getValue().capacity() > offset) {
+          break;
+        }
+        segments.remove(entry.getKey());
+        try {
+          Files.deleteIfExists(segmentPath(entry.getKey()));
+        } catch (IOException e) {
+          throw new IntakeLogException("Failed to delete processed intake segment", e);
+        }
+      }
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    head.force();
+    synchronized (checkpointLock) {
+      checkpointBuffer.force();
+    }
+  }
+
+  private void roll() {
+    head.force();
+    long base = headBase + head.capacity();
+    MappedByteBuffer segment = mapSegment(base);
+    segments.put(base, segment);
+    head = segment;
+    headBase = base;
+  }
+
+  /**
+   * Finds the end of the last complete record in a segment and clears the header of a torn record
+   * following it.
+   */
+  private static int recover(MappedByteBuffer segment) {
+    int position = 0;
+    while (position + HEADER_SIZE <= segment.capacity()) {
+      int length = segment.getInt(position);
+      if (length == END_OF_SEGMENT) {
+        return segment.capacity();
+      }
+      if (length <= 0 || position + HEADER_SIZE + length > segment.capacity()) {
+        break;
+      }
+
+      byte[] data = new byte[length];
+      segment.get(position + HEADER_SIZE, data);
+      CRC32 crc = new CRC32();
+      crc.update(data);
+      if ((int) crc.getValue() != segment.getInt(position + Integer.BYTES)) {
+        break;
+      }
+      position += HEADER_SIZE + length;
+    }
+
+    if (position + HEADER_SIZE <= segment.capacity()) {
+      segment.putLong(position, 0L);
+    }
+    return position;
+  }
+
+  private MappedByteBuffer mapSegment(long base) {
+    try {
+      return map(segmentPath(base), segmentSize);
+    } catch (IOException e) {
+      throw new IntakeLogException("Failed to create intake segment at offset " + base, e);
+    }
+  }
+
+  private Path segmentPath(long base) {
+    return directory.resolve("%020d%s".formatted(base, SEGMENT_SUFFIX));
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .toList();
+    }
+  }
+
+  private static MappedByteBuffer map(Path file, long size) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return channel.map(MapMode.READ_WRITE, 0, size);
+    }
+  }
+}
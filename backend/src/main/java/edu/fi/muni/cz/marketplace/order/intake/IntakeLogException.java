@@ -0,0 +1,12 @@
+package edu.fi.muni.cz.marketplace.order.intake;
+
+public class IntakeLogException extends RuntimeException {
+
+  public IntakeLogException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public IntakeLogException(String message) {
+    super(message);
+  }
+}
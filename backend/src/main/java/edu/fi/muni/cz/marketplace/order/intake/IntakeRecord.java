@@ -0,0 +1,15 @@
+package edu.fi.muni.cz.marketplace.order.intake;
+
+/**
+ * A record read from the {@link IntakeLog}.
+ *
+ * @param offset     position of the record in the log
+ * @param nextOffset position of the record following this one
+ * @param data       the stored payload
+ */
+public record IntakeRecord(
+    long offset,
+    long nextOffset,
+    byte[] data
+) {
+}
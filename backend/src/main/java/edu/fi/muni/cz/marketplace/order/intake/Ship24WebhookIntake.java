@@ -0,0 +1,206 @@
+package edu.fi.muni.cz.marketplace.order.intake;
+
+import edu.fi.muni.cz.marketplace.order.service.Ship24ServiceException;
+import edu.fi.muni.cz.marketplace.order.service.Ship24WebhookService;
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.core.JacksonException;
+
+/**
+ * Durable intake for Ship24 webhooks.
+ * <p>
+ * The webhook endpoint only appends the raw request body to an {@link IntakeLog} and answers
+ * straight away, so Ship24's latency budget does not depend on how busy the command side is. A
+ * pool of consumers drains the log: each consumer claims the next record and hands it to
+ * {@link Ship24WebhookService}. A record is completed only once all its commands were handled,
+ * and the checkpoint is moved to the oldest record not completed yet, so after a restart everything
+ * that was not fully processed is replayed. Delivery is therefore at least once.
+ * </p>
+ * <p>
+ * A record whose commands failed is processed again after {@code retry.initial-delay}, doubling
+ * up to {@code retry.max-delay}, until they succeed. Events applied by an earlier attempt are
+ * dropped as duplicates. Only a record that cannot be parsed is logged and skipped, a retry would
+ * fail the same way.
+ * </p>
+ */
+@Slf4j
+@Component
+public class Ship24WebhookIntake implements SmartLifecycle {
+
+  private static final long POLL_INTERVAL_MILLIS = 1000;
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private final IntakeLog intakeLog;
+  private final Ship24WebhookService ship24WebhookService;
+  private final int consumers;
+  private final Duration retryInitialDelay;
+  private final Duration retryMaxDelay;
+
+  private final TreeSet<Long> inFlight = new TreeSet<>();
+  private long nextOffset;
+  private ExecutorService executor;
+  private volatile boolean running;
+
+  public Ship24WebhookIntake(
+      Ship24WebhookService ship24WebhookService,
+      @Value("${webhook-intake.directory}") Path directory,
+      @Value("${webhook-intake.segment-size}") DataSize segmentSize,
+      @Value("${webhook-intake.fsync}") boolean fsync,
+      @Value("${webhook-intake.consumers}") int consumers,
+      @Value("${webhook-intake.retry.initial-delay}") Duration retryInitialDelay,
+      @Value("${webhook-intake.retry.max-delay}") Duration retryMaxDelay) {
+    this.ship24WebhookService = ship24WebhookService;
+    this.consumers = consumers;
+    this.retryInitialDelay = retryInitialDelay;
+    this.retryMaxDelay = retryMaxDelay;
+    this.intakeLog = new IntakeLog(directory, Math.toIntExact(segmentSize.toBytes()), fsync);
+    this.nextOffset = intakeLog.getCheckpoint();
+  }
+
+  /**
+   * Stores a webhook body for processing.
+   *
+   * @param body the raw request body
+   * @return offset of the stored record
+   * @throws IntakeLogException if the body could not be stored
+   */
+  public long accept(byte[] body) {
+    long offset = intakeLog.append(body);
+    synchronized (this) {
+      notifyAll();
+    }
+    return offset;
+  }
+
+  @Override
+  public void start() {
+    log.info("Starting {} webhook intake consumers from offset {}", consumers, nextOffset);
+    running = true;
+    AtomicInteger threadNumber = new AtomicInteger();
+    executor = Executors.newFixedThreadPool(consumers,
+        runnable -> new Thread(runnable, "webhook-intake-" + threadNumber.incrementAndGet()));
+    for (int i = 0; i < consumers; i++) {
+      executor.execute(this::consume);
+    }
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    synchronized (this) {
+      notifyAll();
+    }
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @PreDestroy
+  public void close() {
+    intakeLog.close();
+  }
+
+  private void consume() {
+    while (running) {
+      IntakeRecord record;
+      try {
+        record = claim();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (record == null) {
+        continue;
+      }
+
+      try {
+        if (process(record)) {
+          complete(record);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Processes the record until its commands succeeded or it turned out to be malformed.
+   *
+   * @return false if the intake was stopped before, the record stays in the log to be replayed
+   */
+  private boolean process(IntakeRecord record) throws InterruptedException {
+    Duration retryDelay = retryInitialDelay;
+    while (running) {
+      try {
+        int commands = ship24WebhookService.process(record.data()).join();
+        log.info("Processed Ship24 webhook at intake offset {} into {} commands",
+            record.offset(), commands);
+        return true;
+      } catch (Ship24ServiceException | JacksonException e) {
+        log.error("Skipping malformed Ship24 webhook at intake offset {}", record.offset(), e);
+        return true;
+      } catch (RuntimeException e) {
+        Throwable failure = e instanceof CompletionException ? e.getCause() : e;
+        log.warn("Failed to process Ship24 webhook at intake offset {}, retrying in {}",
+            record.offset(), retryDelay, failure);
+      }
+      awaitRetry(retryDelay);
+      Duration doubled = retryDelay.multipliedBy(2);
+      retryDelay = doubled.compareTo(retryMaxDelay) < 0 ? doubled : retryMaxDelay;
+    }
+    return false;
+  }
+
+  private synchronized void awaitRetry(Duration delay) throws InterruptedException {
+    long deadline = System.nanoTime() + delay.toNanos();
+    long remaining = delay.toNanos();
+    while (running && remaining > 0) {
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      remaining = deadline - System.nanoTime();
+    }
+  }
+
+  private synchronized IntakeRecord claim() throws InterruptedException {
+    IntakeRecord record = intakeLog.read(nextOffset);
+    if (record == null) {
+      wait(POLL_INTERVAL_MILLIS);
+      return null;
+    }
+    nextOffset = record.nextOffset();
+    inFlight.add(record.offset());
+    return record;
+  }
+
+  private void complete(IntakeRecord record) {
+    long processedUpTo;
+    synchronized (this) {
+      inFlight.remove(record.offset());
+      processedUpTo = inFlight.isEmpty() ? nextOffset : inFlight.first();
+    }
+    intakeLog.commit(processedUpTo);
+  }
+}
@@ -6,6 +6,7 @@ import edu.fi.muni.cz.marketplace.order.command.TransferPaymentCommand;
 import edu.fi.muni.cz.marketplace.order.events.CommissionDeductedEvent;
 import edu.fi.muni.cz.marketplace.order.events.OrderDeliveredEvent;
 import edu.fi.muni.cz.marketplace.order.events.PaymentTransferredEvent;
+import edu.fi.muni.cz.marketplace.order.settlement.SettlementEngine;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.axonframework.modelling.saga.SagaEventHandler;
@@ -14,6 +15,20 @@ import org.axonframework.modelling.saga.StartSaga;
 import org.axonframework.spring.stereotype.Saga;
 import org.springframework.beans.factory.annotation.Autowired;
 
+/**
+ * Settles a delivered order: deducts the commission, pays the seller out and completes the order
+ * once both transfers are done.
+ * <p>
+ * The commands only record the payout and the commission in the settlement ledger, the transfers
+ * happen in the next run of the {@link SettlementEngine}, which sends the transfer ids back as
+ * {@link CommissionDeductedEvent} and {@link PaymentTransferredEvent}.
+ * </p>
+ * <p>
+ * Events of an order are always handled by the same segment of the saga processor, so orders are
+ * settled in parallel while each saga sees its events in order. Each order is recorded once per
+ * transfer type, so events handled again after a failed batch do not move money twice.
+ * </p>
+ */
 @Saga
 @Slf4j
 public class FinalizeOrderSaga {
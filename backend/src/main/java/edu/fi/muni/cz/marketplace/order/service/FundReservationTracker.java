@@ -0,0 +1,80 @@
+package edu.fi.muni.cz.marketplace.order.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.fi.muni.cz.marketplace.order.dto.FundReservationStatus;
+import edu.fi.muni.cz.marketplace.order.dto.FundReservationStatusResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks fund reservations accepted for asynchronous processing, so clients can poll for their
+ * outcome.
+ * <p>
+ * Outcomes of the reservations dispatched by this instance are kept in a bounded cache until
+ * {@code retention} after they were accepted. An order that is not in the cache is reserved once
+ * its events are in the event store, so a reservation accepted by another instance or evicted
+ * from the cache is still reported as reserved. Failures are only known to the instance that
+ * dispatched the reservation.
+ * </p>
+ */
+@Slf4j
+@Component
+public class FundReservationTracker {
+
+  private final EventStore eventStore;
+  private final Cache<UUID, FundReservationStatusResponse> reservations;
+
+  public FundReservationTracker(
+      EventStore eventStore,
+      @Value("${order-api.fund-reservations.maximum-size}") long maximumSize,
+      @Value("${order-api.fund-reservations.retention}") Duration retention) {
+    this.eventStore = eventStore;
+    this.reservations = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(retention)
+        .build();
+  }
+
+  /**
+   * Records the reservation of an order as pending until {@code result} completes.
+   */
+  public void track(UUID orderId, CompletableFuture<?> result) {
+    reservations.put(orderId,
+        new FundReservationStatusResponse(orderId, FundReservationStatus.PENDING, null));
+    result.whenComplete((ignored, failure) -> {
+      if (failure == null) {
+        // reserved on Stripe and assigned to the order
+        return;
+      }
+      Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+      log.warn("Fund reservation for order {} failed", orderId, cause);
+      reservations.put(orderId,
+          new FundReservationStatusResponse(orderId, FundReservationStatus.FAILED,
+              cause.getMessage()));
+    });
+  }
+
+  /**
+   * @return status of the reservation, empty if the order is neither tracked nor stored
+   */
+  public Optional<FundReservationStatusResponse> status(UUID orderId) {
+    FundReservationStatusResponse tracked = reservations.getIfPresent(orderId);
+    if (tracked != null && tracked.status() == FundReservationStatus.FAILED) {
+      return Optional.of(tracked);
+    }
+    if (eventStore.lastSequenceNumberFor(orderId.toString()).isPresent()) {
+      reservations.invalidate(orderId);
+      return Optional.of(
+          new FundReservationStatusResponse(orderId, FundReservationStatus.RESERVED, null));
+    }
+    return Optional.ofNullable(tracked);
+  }
+}
@@ -1,9 +1,14 @@
 package edu.fi.muni.cz.marketplace.order.service;
 
+import edu.fi.muni.cz.marketplace.config.resilience.CallRejectedException;
 import edu.fi.muni.cz.marketplace.order.client.Ship24ApiClient;
+import edu.fi.muni.cz.marketplace.order.client.dto.BulkCreateTrackersResponse;
 import edu.fi.muni.cz.marketplace.order.client.dto.CreateTrackerRequest;
 import edu.fi.muni.cz.marketplace.order.client.dto.CreateTrackerResponse;
 import feign.FeignException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -54,28 +59,83 @@ public class Ship24Service {
 
       return trackerId;
 
-    } catch (FeignException.BadRequest e) {
-      log.error("Invalid request to Ship24 API: {}", e.getMessage());
-      throw new Ship24ServiceException(
-          "Invalid tracking number or shipment reference: " + e.getMessage(), e);
+    } catch (Ship24ServiceException e) {
+      throw e;
+    } catch (Exception e) {
+      throw translate(e, "create tracker");
+    }
+  }
 
-    } catch (FeignException.Unauthorized e) {
-      log.error("Ship24 API authentication failed: {}", e.getMessage());
-      throw new Ship24ServiceException("Ship24 authentication failed", e);
+  /**
+   * Creates shipment trackers in Ship24 for several tracking numbers with a single request.
+   * <p>
+   * Ship24 reports the outcome per item, so a bulk request may partially succeed. Items that
+   * failed are logged and left out of the result, the caller decides how to handle them.
+   * </p>
+   *
+   * @param requests the trackers to create, at most 100 per request
+   * @return the Ship24 tracker ID of every request in request order, {@code null} where the
+   *     tracker was neither created nor found existing
+   * @throws Ship24ServiceException if the whole request fails due to API errors or network issues
+   */
+  public List<String> createTrackers(List<CreateTrackerRequest> requests) {
+    log.info("Creating {} Ship24 trackers in bulk", requests.size());
 
-    } catch (FeignException.TooManyRequests e) {
-      log.error("Ship24 API rate limit exceeded: {}", e.getMessage());
-      throw new Ship24ServiceException("Ship24 rate limit exceeded, try again later", e);
+    try {
+      BulkCreateTrackersResponse response = ship24ApiClient.createTrackers(requests);
 
-    } catch (FeignException e) {
-      log.error("Ship24 API error (status {}): {}", e.status(), e.getMessage());
-      throw new Ship24ServiceException(
-          "Ship24 API error: " + e.getMessage(), e);
+      if (response == null || response.data() == null) {
+        throw new Ship24ServiceException("Ship24 API returned empty response");
+      }
 
+      List<String> trackerIds = new ArrayList<>(Collections.nCopies(requests.size(), null));
+      int created = 0;
+      for (BulkCreateTrackersResponse.Item item : response.data()) {
+        if (item.itemIndex() < 0 || item.itemIndex() >= requests.size()) {
+          log.warn("Ignoring Ship24 bulk item with unknown index: {}", item.itemIndex());
+        } else if (item.tracker() == null) {
+          log.error("Ship24 rejected tracker for shipment reference {}: {}",
+              requests.get(item.itemIndex()).shipmentReference(), item.errors());
+        } else {
+          trackerIds.set(item.itemIndex(), item.tracker().trackerId());
+          created++;
+        }
+      }
+      log.info("Ship24 bulk request finished with status {}, created {} of {} trackers",
+          response.status(), created, requests.size());
+
+      return trackerIds;
+
+    } catch (Ship24ServiceException e) {
+      throw e;
     } catch (Exception e) {
-      log.error("Unexpected error creating Ship24 tracker: {}", e.getMessage());
-      throw new Ship24ServiceException(
-          "Failed to create tracker: " + e.getMessage(), e);
+      throw translate(e, "create trackers");
+    }
+  }
+
+  private static Ship24ServiceException translate(Exception e, String action) {
+    if (e instanceof CallRejectedException) {
+      log.warn("Ship24 request not sent: {}", e.getMessage());
+      return new Ship24ServiceException("Ship24 rate limit reached, try again later", e);
+    }
+    if (e instanceof FeignException.BadRequest) {
+      log.error("Invalid request to Ship24 API: {}", e.getMessage());
+      return new Ship24ServiceException(
+          "Invalid tracking number or shipment reference: " + e.getMessage(), e);
+    }
+    if (e instanceof FeignException.Unauthorized) {
+      log.error("Ship24 API authentication failed: {}", e.getMessage());
+      return new Ship24ServiceException("Ship24 authentication failed", e);
+    }
+    if (e instanceof FeignException.TooManyRequests) {
+      log.error("Ship24 API rate limit exceeded: {}", e.getMessage());
+      return new Ship24ServiceException("Ship24 rate limit exceeded, try again later", e);
+    }
+    if (e instanceof FeignException feignException) {
+      log.error("Ship24 API error (status {}): {}", feignException.status(), e.getMessage());
+      return new Ship24ServiceException("Ship24 API error: " + e.getMessage(), e);
     }
+    log.error("Unexpected error trying to {} in Ship24: {}", action, e.getMessage());
+    return new Ship24ServiceException("Failed to " + action + ": " + e.getMessage(), e);
   }
 }
@@ -0,0 +1,113 @@
+package edu.fi.muni.cz.marketplace.order.service;
+
+import edu.fi.muni.cz.marketplace.order.dto.Ship24WebhookPayload.TrackingEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+/**
+ * Streaming parser for Ship24 webhook bodies.
+ * <p>
+ * Instead of binding the whole body into a {@code Ship24WebhookPayload}, the body is walked token
+ * by token and only a single {@link TrackingEvent} is bound at a time, so memory does not grow with
+ * the number of events in a delivery. Events are emitted together with the shipment reference of
+ * their tracker. Events listed before their tracker are held back until the tracker is read.
+ * Unknown properties are skipped.
+ * </p>
+ */
+@Component
+public class Ship24WebhookParser {
+
+  private final ObjectMapper objectMapper;
+  private final ObjectReader eventReader;
+
+  public Ship24WebhookParser(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    // events are bound one at a time from the middle of the body
+    this.eventReader = objectMapper.readerFor(TrackingEvent.class)
+        .without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+  }
+
+  /**
+   * Parses a webhook body and emits its tracking events in the order they appear.
+   *
+   * @param body  the raw webhook body
+   * @param event receives the shipment reference of the tracker and one of its events
+   * @throws Ship24ServiceException       if the body is not a JSON object
+   * @throws tools.jackson.core.JacksonException if the body is not valid JSON or an event cannot be
+   *                                      bound
+   */
+  public void parse(byte[] body, BiConsumer<String, TrackingEvent> event) {
+    try (JsonParser parser = objectMapper.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new Ship24ServiceException("Ship24 webhook body is not a JSON object");
+      }
+
+      while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+        String name = parser.currentName();
+        if (parser.nextToken() == JsonToken.START_ARRAY && "trackings".equals(name)) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            parseTracking(parser, event);
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  private void parseTracking(JsonParser parser, BiConsumer<String, TrackingEvent> event) {
+    String shipmentReference = null;
+    boolean trackerRead = false;
+    List<TrackingEvent> pending = new ArrayList<>();
+
+    while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+      String name = parser.currentName();
+      JsonToken token = parser.nextToken();
+
+      if ("tracker".equals(name) && token == JsonToken.START_OBJECT) {
+        shipmentReference = parseShipmentReference(parser);
+        trackerRead = true;
+        for (TrackingEvent trackingEvent : pending) {
+          event.accept(shipmentReference, trackingEvent);
+        }
+        pending.clear();
+      } else if ("events".equals(name) && token == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          TrackingEvent trackingEvent = eventReader.readValue(parser);
+          if (trackerRead) {
+            event.accept(shipmentReference, trackingEvent);
+          } else {
+            pending.add(trackingEvent);
+          }
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    for (TrackingEvent trackingEvent : pending) {
+      event.accept(shipmentReference, trackingEvent);
+    }
+  }
+
+  private static String parseShipmentReference(JsonParser parser) {
+    String shipmentReference = null;
+    while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+      String name = parser.currentName();
+      JsonToken token = parser.nextToken();
+      if ("shipmentReference".equals(name) && token == JsonToken.VALUE_STRING) {
+        shipmentReference = parser.getString();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return shipmentReference;
+  }
+}
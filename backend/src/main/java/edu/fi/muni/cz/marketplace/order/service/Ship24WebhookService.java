@@ -0,0 +1,119 @@
+package edu.fi.muni.cz.marketplace.order.service;
+
+import edu.fi.muni.cz.marketplace.order.command.TrackingStatusUpdate;
+import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusBatchCommand;
+import edu.fi.muni.cz.marketplace.order.dedup.TrackingEventDeduplicator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.common.AxonNonTransientException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Turns Ship24 webhook deliveries into tracking update commands.
+ * <p>
+ * Rather than one command per tracking event, the events of a delivery are coalesced by
+ * {@link TrackingUpdateCoalescer} so every affected order is loaded and locked once and applies
+ * all its updates in a single unit of work. Events that were already applied in an earlier
+ * delivery are dropped by {@link TrackingEventDeduplicator} before they reach the command bus.
+ * </p>
+ * <p>
+ * The body is read by the streaming {@link Ship24WebhookParser}. Once {@code maxPendingUpdates}
+ * updates are collected they are dispatched before parsing continues, which keeps memory bounded
+ * for very large deliveries at the cost of splitting an order's updates into several commands.
+ * </p>
+ * <p>
+ * A command the order rejects, e.g. because the order does not exist or does not accept tracking
+ * updates, is logged and dropped, it would be rejected again. Any other failure fails the result
+ * of {@link #process(byte[])}, so that the delivery is retried. Retrying is safe, the events that
+ * were applied are dropped as duplicates.
+ * </p>
+ */
+@Slf4j
+@Service
+public class Ship24WebhookService {
+
+  private final CommandGateway commandGateway;
+  private final Ship24WebhookParser ship24WebhookParser;
+  private final TrackingEventDeduplicator trackingEventDeduplicator;
+  private final int maxPendingUpdates;
+
+  public Ship24WebhookService(
+      CommandGateway commandGateway,
+      Ship24WebhookParser ship24WebhookParser,
+      TrackingEventDeduplicator trackingEventDeduplicator,
+      @Value("${webhook-intake.max-pending-updates}") int maxPendingUpdates) {
+    this.commandGateway = commandGateway;
+    this.ship24WebhookParser = ship24WebhookParser;
+    this.trackingEventDeduplicator = trackingEventDeduplicator;
+    this.maxPendingUpdates = maxPendingUpdates;
+  }
+
+  /**
+   * Dispatches one {@link UpdateTrackingStatusBatchCommand} per order referenced in the body.
+   *
+   * @param body the webhook body as received from Ship24
+   * @return number of dispatched commands, once all of them were handled, or the failure of a
+   *     command that may succeed when retried
+   * @throws Ship24ServiceException if the body is not a JSON object
+   * @throws tools.jackson.core.JacksonException if the body is not valid JSON
+   */
+  public CompletableFuture<Integer> process(byte[] body) {
+    TrackingUpdateCoalescer coalescer = new TrackingUpdateCoalescer();
+    List<CompletableFuture<Void>> dispatched = new ArrayList<>();
+    ship24WebhookParser.parse(body, (shipmentReference, event) -> {
+      coalescer.add(shipmentReference, event);
+      if (coalescer.getPending() >= maxPendingUpdates) {
+        dispatch(coalescer.drain(), dispatched);
+      }
+    });
+    dispatch(coalescer.drain(), dispatched);
+
+    if (coalescer.getDuplicates() > 0) {
+      log.info("Dropped {} duplicate tracking events", coalescer.getDuplicates());
+      trackingEventDeduplicator.recordDuplicates(coalescer.getDuplicates());
+    }
+    return CompletableFuture.allOf(dispatched.toArray(CompletableFuture[]::new))
+        .thenApply(ignored -> dispatched.size());
+  }
+
+  private void dispatch(List<UpdateTrackingStatusBatchCommand> commands,
+      List<CompletableFuture<Void>> dispatched) {
+    for (UpdateTrackingStatusBatchCommand command : commands) {
+      UUID orderId = command.getOrderId();
+      List<TrackingStatusUpdate> updates =
+          trackingEventDeduplicator.filterNew(command.getUpdates());
+      if (updates.isEmpty()) {
+        log.info("All {} tracking events for order {} were already processed",
+            command.getUpdates().size(), orderId);
+        continue;
+      }
+
+      log.info("Processing {} tracking events for order {}", updates.size(), orderId);
+      dispatched.add(commandGateway.send(new UpdateTrackingStatusBatchCommand(orderId, updates))
+          .handle((result, failure) -> {
+            if (failure == null) {
+              trackingEventDeduplicator.markSeen(orderId, updates);
+              return null;
+            }
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (!isRejection(cause)) {
+              throw new CompletionException(cause);
+            }
+            log.warn("Tracking events for order {} were rejected: {}", orderId,
+                cause.getMessage());
+            return null;
+          }));
+    }
+  }
+
+  private static boolean isRejection(Throwable failure) {
+    return failure instanceof IllegalStateException || failure instanceof IllegalArgumentException
+        || AxonNonTransientException.isCauseOf(failure);
+  }
+}
@@ -0,0 +1,140 @@
+package edu.fi.muni.cz.marketplace.order.service;
+
+import edu.fi.muni.cz.marketplace.order.client.dto.CreateTrackerRequest;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers Ship24 trackers in micro-batches instead of one request per tracking number.
+ * <p>
+ * Registrations are collected until {@code maxBatchSize} are pending or {@code window} has passed
+ * since the first of them, then sent with a single bulk request. Every caller gets a future of
+ * its own tracker ID, which fails with {@link Ship24ServiceException} if the bulk request failed,
+ * or with {@link TrackerRejectedException} if Ship24 rejected that particular item. Registering
+ * the same tracking number and reference again while it is still pending joins the pending
+ * registration.
+ * </p>
+ * <p>
+ * Bulk requests are sent one at a time from a single thread, so a burst of shipments turns into a
+ * steady sequence of requests of up to {@code maxBatchSize} trackers each.
+ * </p>
+ */
+@Slf4j
+@Component
+public class TrackerRegistrationBatcher {
+
+  private final Ship24Service ship24Service;
+  private final int maxBatchSize;
+  private final Duration window;
+  private final ScheduledExecutorService scheduler;
+
+  private Map<CreateTrackerRequest, CompletableFuture<String>> pending = new LinkedHashMap<>();
+  private ScheduledFuture<?> scheduledFlush;
+
+  public TrackerRegistrationBatcher(
+      Ship24Service ship24Service,
+      @Value("${ship24.tracker-batch.max-size}") int maxBatchSize,
+      @Value("${ship24.tracker-batch.window}") Duration window) {
+    if (maxBatchSize < 1 || maxBatchSize > 100) {
+      throw new IllegalArgumentException("Tracker batch size must be between 1 and 100");
+    }
+    this.ship24Service = ship24Service;
+    this.maxBatchSize = maxBatchSize;
+    this.window = window;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("ship24-tracker-batch").daemon().factory());
+  }
+
+  /**
+   * Queues a tracker for the next bulk request.
+   *
+   * @param trackingNumber    the carrier's tracking number
+   * @param shipmentReference the internal reference of the shipment, the order ID
+   * @return future of the Ship24 tracker ID
+   */
+  public CompletableFuture<String> register(String trackingNumber, String shipmentReference) {
+    CreateTrackerRequest request = new CreateTrackerRequest(trackingNumber, shipmentReference);
+    CompletableFuture<String> trackerId;
+    Map<CreateTrackerRequest, CompletableFuture<String>> batch = null;
+    synchronized (this) {
+      trackerId = pending.computeIfAbsent(request, key -> new CompletableFuture<>());
+      if (pending.size() >= maxBatchSize) {
+        batch = drain();
+      } else if (scheduledFlush == null) {
+        scheduledFlush = scheduler.schedule(this::flushPending, window.toNanos(),
+            TimeUnit.NANOSECONDS);
+      }
+    }
+    if (batch != null) {
+      Map<CreateTrackerRequest, CompletableFuture<String>> full = batch;
+      scheduler.execute(() -> send(full));
+    }
+    return trackerId;
+  }
+
+  /**
+   * Sends the pending registrations before the service is stopped.
+   */
+  @PreDestroy
+  public void shutdown() {
+    flushPending();
+    scheduler.shutdown();
+  }
+
+  private void flushPending() {
+    Map<CreateTrackerRequest, CompletableFuture<String>> batch;
+    synchronized (this) {
+      batch = drain();
+    }
+    send(batch);
+  }
+
+  private Map<CreateTrackerRequest, CompletableFuture<String>> drain() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    Map<CreateTrackerRequest, CompletableFuture<String>> batch = pending;
+    pending = new LinkedHashMap<>();
+    return batch;
+  }
+
+  private void send(Map<CreateTrackerRequest, CompletableFuture<String>> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    List<CreateTrackerRequest> requests = new ArrayList<>(batch.keySet());
+    List<String> trackerIds;
+    try {
+      trackerIds = ship24Service.createTrackers(requests);
+    } catch (RuntimeException e) {
+      log.error("Failed to register {} Ship24 trackers: {}", requests.size(), e.getMessage());
+      batch.values().forEach(trackerId -> trackerId.completeExceptionally(e));
+      return;
+    }
+
+    for (int i = 0; i < requests.size(); i++) {
+      CompletableFuture<String> trackerId = batch.get(requests.get(i));
+      if (trackerIds.get(i) != null) {
+        trackerId.complete(trackerIds.get(i));
+      } else {
+        trackerId.completeExceptionally(new TrackerRejectedException(
+            "Ship24 did not create tracker for shipment reference: "
+                + requests.get(i).shipmentReference()));
+      }
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package edu.fi.muni.cz.marketplace.order.service;
+
+/**
+ * Ship24 refused to create the tracker of one shipment of a bulk request. Registering the same
+ * tracker again fails the same way, unlike a failure of the whole request.
+ */
+public class TrackerRejectedException extends Ship24ServiceException {
+
+  public TrackerRejectedException(String message) {
+    super(message);
+  }
+}
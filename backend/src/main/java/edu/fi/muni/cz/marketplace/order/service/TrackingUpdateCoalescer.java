@@ -0,0 +1,112 @@
+package edu.fi.muni.cz.marketplace.order.service;
+
+import edu.fi.muni.cz.marketplace.order.command.TrackingStatusUpdate;
+import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusBatchCommand;
+import edu.fi.muni.cz.marketplace.order.dto.Ship24WebhookPayload.TrackingEvent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects Ship24 tracking events and coalesces them into one batch command per order.
+ * <p>
+ * Events are grouped by the shipment reference (the order ID), events repeating an already seen
+ * eventId are dropped and every batch is sorted by occurrence time, so the aggregate sees the
+ * updates in the order they happened regardless of how Ship24 delivered them. Orders keep the
+ * order in which they first appeared. Instances are not thread-safe and are meant to be used for a
+ * single webhook delivery, which may be drained in several parts to bound memory.
+ * </p>
+ */
+@Slf4j
+public class TrackingUpdateCoalescer {
+
+  private static final Comparator<TrackingStatusUpdate> BY_OCCURRENCE = Comparator.comparing(
+      TrackingStatusUpdate::getEventOccurredAt, Comparator.nullsLast(Comparator.naturalOrder()));
+
+  private final Map<UUID, Map<String, TrackingStatusUpdate>> updatesByOrder =
+      new LinkedHashMap<>();
+  private int pending;
+  private int duplicates;
+  private String lastShipmentReference;
+  private UUID lastOrderId;
+
+  /**
+   * Adds a single tracking event to the batch of the referenced order.
+   *
+   * @param shipmentReference the shipment reference of the tracker, expected to be an order ID
+   * @param event             the tracking event reported for the shipment
+   * @return {@code false} if the shipment reference is not a valid order ID and the event was
+   *     ignored
+   */
+  public boolean add(String shipmentReference, TrackingEvent event) {
+    UUID orderId = resolveOrderId(shipmentReference);
+    if (orderId == null) {
+      return false;
+    }
+
+    TrackingStatusUpdate update = new TrackingStatusUpdate(
+        event.eventId(),
+        event.statusMilestone().toTrackingStatusMilestone(),
+        event.status(),
+        event.occurrenceDatetime());
+    if (updatesByOrder.computeIfAbsent(orderId, id -> new LinkedHashMap<>())
+        .putIfAbsent(event.eventId(), update) != null) {
+      duplicates++;
+    } else {
+      pending++;
+    }
+    return true;
+  }
+
+  /**
+   * @return number of collected updates not drained yet
+   */
+  public int getPending() {
+    return pending;
+  }
+
+  /**
+   * @return number of events dropped so far because their eventId was already collected
+   */
+  public int getDuplicates() {
+    return duplicates;
+  }
+
+  /**
+   * Returns the collected updates and starts over with an empty batch. Events drained earlier are
+   * no longer recognized as duplicates.
+   *
+   * @return one command per order with its updates sorted by {@link Instant occurrence time}
+   */
+  public List<UpdateTrackingStatusBatchCommand> drain() {
+    List<UpdateTrackingStatusBatchCommand> commands = new ArrayList<>(updatesByOrder.size());
+    updatesByOrder.forEach((orderId, updates) -> {
+      List<TrackingStatusUpdate> sorted = new ArrayList<>(updates.values());
+      sorted.sort(BY_OCCURRENCE);
+      commands.add(new UpdateTrackingStatusBatchCommand(orderId, List.copyOf(sorted)));
+    });
+    updatesByOrder.clear();
+    pending = 0;
+    return commands;
+  }
+
+  private UUID resolveOrderId(String shipmentReference) {
+    if (shipmentReference != null && shipmentReference.equals(lastShipmentReference)) {
+      return lastOrderId;
+    }
+
+    lastShipmentReference = shipmentReference;
+    try {
+      lastOrderId = UUID.fromString(shipmentReference);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      log.error("Invalid shipmentReference (not a valid UUID): {}", shipmentReference);
+      lastOrderId = null;
+    }
+    return lastOrderId;
+  }
+}
@@ -0,0 +1,69 @@
+package edu.fi.muni.cz.marketplace.order.settlement;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient.TransferType;
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Obligations of one receiver settled by a single Stripe transfer of their total.
+ * <p>
+ * The batch id is the idempotency key of the transfer, a batch whose transfer failed or whose
+ * transfer id was not stored is transferred again with the same key and gets the same transfer.
+ * </p>
+ */
+@Entity
+@Table(name = "settlement_batch")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementBatch {
+
+  /**
+   * Transfer id of batches with nothing to transfer, Stripe does not accept zero amounts.
+   */
+  public static final String NO_TRANSFER = "none";
+
+  @Id
+  private UUID id;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private TransferType type;
+
+  @Column(nullable = false)
+  private String destinationAccountId;
+
+  @Column(nullable = false)
+  private long amountMinorUnits;
+
+  @Column(nullable = false)
+  private String currency;
+
+  @Column(nullable = false)
+  private int obligationCount;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  /**
+   * {@code null} until the transfer is done.
+   */
+  private String transferId;
+
+  private Instant settledAt;
+
+  public Money amount() {
+    return Money.of(amountMinorUnits, currency);
+  }
+}
@@ -0,0 +1,15 @@
+package edu.fi.muni.cz.marketplace.order.settlement;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SettlementBatchRepository extends JpaRepository<SettlementBatch, UUID> {
+
+  @Query("select b from SettlementBatch b where b.transferId is null order by b.createdAt")
+  List<SettlementBatch> findUnsettled();
+}
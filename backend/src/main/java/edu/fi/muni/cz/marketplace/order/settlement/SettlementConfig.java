@@ -0,0 +1,21 @@
+package edu.fi.muni.cz.marketplace.order.settlement;
+
+import com.github.kagkarlsson.scheduler.task.helper.RecurringTask;
+import com.github.kagkarlsson.scheduler.task.helper.Tasks;
+import com.github.kagkarlsson.scheduler.task.schedule.FixedDelay;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SettlementConfig {
+
+  @Bean
+  public RecurringTask<Void> settlementTask(
+      SettlementEngine settlementEngine,
+      @Value("${settlement.interval}") Duration interval) {
+    return Tasks.recurring("settlement", FixedDelay.of(interval))
+        .execute((taskInstance, executionContext) -> settlementEngine.settle());
+  }
+}
@@ -0,0 +1,172 @@
+package edu.fi.muni.cz.marketplace.order.settlement;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient;
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient.TransferType;
+import edu.fi.muni.cz.marketplace.order.events.CommissionDeductedEvent;
+import edu.fi.muni.cz.marketplace.order.events.PaymentTransferredEvent;
+import java.time.Clock;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.eventhandling.gateway.EventGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Settles what delivered orders owe with one Stripe transfer per receiver and run instead of one
+ * per order.
+ * <p>
+ * Payouts and commissions are recorded as {@link SettlementObligation}s in the ledger. Every run
+ * claims the unclaimed obligations of each receiver into {@link SettlementBatch}es of at most
+ * {@code settlement.max-batch-size}, transfers the total of each batch, and publishes the transfer
+ * id to every order of the batch as {@link PaymentTransferredEvent} or
+ * {@link CommissionDeductedEvent}, which the order's {@code FinalizeOrderSaga} is waiting for.
+ * </p>
+ * <p>
+ * The events go to the event store, which does not take part in the database transaction that
+ * marks the batch settled. They are published before that transaction commits, so a batch is never
+ * settled without its events. If the commit fails after publishing, the batch is transferred again
+ * under the same idempotency key and its events are published a second time with the same
+ * transfer id. Such duplicates are harmless: a saga that already ended no longer has the order
+ * associated and ignores them, and one still waiting only records the same transfer id again.
+ * </p>
+ * <p>
+ * A batch whose transfer fails stays unsettled and is transferred again at the start of the next
+ * run, under the same idempotency key. The remaining obligations of its receiver wait for that
+ * run as well.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SettlementEngine {
+
+  private final SettlementObligationRepository obligationRepository;
+  private final SettlementBatchRepository batchRepository;
+  private final StripeFundsApiClient stripeFundsApiClient;
+  private final EventGateway eventGateway;
+  private final TransactionTemplate transactionTemplate;
+  private final Clock clock;
+  private final int maxBatchSize;
+
+  public SettlementEngine(
+      SettlementObligationRepository obligationRepository,
+      SettlementBatchRepository batchRepository,
+      StripeFundsApiClient stripeFundsApiClient,
+      EventGateway eventGateway,
+      PlatformTransactionManager transactionManager,
+      Clock clock,
+      @Value("${settlement.max-batch-size}") int maxBatchSize) {
+    this.obligationRepository = obligationRepository;
+    this.batchRepository = batchRepository;
+    this.stripeFundsApiClient = stripeFundsApiClient;
+    this.eventGateway = eventGateway;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.clock = clock;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Records what an order owes to a receiver. Recording the same type for an order again has no
+   * effect.
+   */
+  public void record(TransferType type, UUID orderId, String destinationAccountId,
+      Money amount) {
+    transactionTemplate.executeWithoutResult(status -> obligationRepository.insertIfAbsent(
+        SettlementObligation.idOf(type, orderId),
+        orderId,
+        type.name(),
+        destinationAccountId,
+        amount.getMinorUnits(),
+        amount.getCurrency(),
+        clock.instant()));
+  }
+
+  /**
+   * Transfers the unsettled batches and batches up the unclaimed obligations.
+   *
+   * @return number of settled batches
+   */
+  public int settle() {
+    int settled = 0;
+    for (SettlementBatch batch : batchRepository.findUnsettled()) {
+      if (transfer(batch)) {
+        settled++;
+      }
+    }
+
+    for (SettlementGroup group : obligationRepository.findPendingGroups()) {
+      SettlementBatch batch = claim(group);
+      while (batch != null && transfer(batch)) {
+        settled++;
+        batch = claim(group);
+      }
+    }
+
+    log.info("Settlement run settled {} batches", settled);
+    return settled;
+  }
+
+  private SettlementBatch claim(SettlementGroup group) {
+    return transactionTemplate.execute(status -> {
+      UUID batchId = UUID.randomUUID();
+      int claimed = obligationRepository.claim(batchId, group.type().name(),
+          group.destinationAccountId(), group.currency(), maxBatchSize);
+      if (claimed == 0) {
+        return null;
+      }
+      return batchRepository.save(new SettlementBatch(
+          batchId,
+          group.type(),
+          group.destinationAccountId(),
+          obligationRepository.sumAmountOfBatch(batchId),
+          group.currency(),
+          claimed,
+          clock.instant(),
+          null,
+          null));
+    });
+  }
+
+  private boolean transfer(SettlementBatch batch) {
+    String transferId;
+    if (batch.getAmountMinorUnits() == 0) {
+      transferId = SettlementBatch.NO_TRANSFER;
+    } else {
+      try {
+        transferId = stripeFundsApiClient.transfer(batch.amount(),
+            batch.getDestinationAccountId(), batch.getId(), batch.getType()).join();
+      } catch (CompletionException e) {
+        log.warn("Transfer of settlement batch {} failed, retrying on the next run: {}",
+            batch.getId(), e.getCause().getMessage());
+        return false;
+      }
+    }
+
+    transactionTemplate.executeWithoutResult(status -> {
+      batch.setTransferId(transferId);
+      batch.setSettledAt(clock.instant());
+      batchRepository.save(batch);
+
+      List<UUID> orderIds = obligationRepository.findOrderIdsOfBatch(batch.getId());
+      eventGateway.publish(orderIds.stream()
+          .map(orderId -> settledEvent(batch.getType(), orderId, transferId))
+          .toList());
+    });
+
+    log.info("Settled batch {} of {} obligations with transfer {} of {} to {}",
+        batch.getId(), batch.getObligationCount(), transferId, batch.amount(),
+        batch.getDestinationAccountId());
+    return true;
+  }
+
+  private static Object settledEvent(TransferType type, UUID orderId, String transferId) {
+    return switch (type) {
+      case PAYOUT -> new PaymentTransferredEvent(orderId, transferId);
+      case COMMISSION -> new CommissionDeductedEvent(orderId, transferId);
+    };
+  }
+}
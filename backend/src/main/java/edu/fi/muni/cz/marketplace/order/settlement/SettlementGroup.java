@@ -0,0 +1,9 @@
+package edu.fi.muni.cz.marketplace.order.settlement;
+
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient.TransferType;
+
+/**
+ * Obligations settled by the same transfers, those of one type to one account in one currency.
+ */
+public record SettlementGroup(TransferType type, String destinationAccountId, String currency) {
+}
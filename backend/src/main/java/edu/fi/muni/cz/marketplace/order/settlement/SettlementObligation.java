@@ -0,0 +1,64 @@
+package edu.fi.muni.cz.marketplace.order.settlement;
+
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient.TransferType;
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Amount the platform owes for one order, either the payout to the seller or the commission to
+ * the platform account. It is settled together with the other obligations of the same receiver
+ * by the transfer of the {@link SettlementBatch} it is claimed by.
+ */
+@Entity
+@Table(name = "settlement_obligation",
+    indexes = @Index(name = "settlement_obligation_batch_id_idx", columnList = "batch_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementObligation {
+
+  /**
+   * {@code <type>_<orderId>}, an order owes each type only once.
+   */
+  @Id
+  private String id;
+
+  @Column(nullable = false)
+  private UUID orderId;
+
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private TransferType type;
+
+  @Column(nullable = false)
+  private String destinationAccountId;
+
+  @Column(nullable = false)
+  private long amountMinorUnits;
+
+  @Column(nullable = false)
+  private String currency;
+
+  @Column(nullable = false)
+  private Instant recordedAt;
+
+  /**
+   * Batch settling the obligation, {@code null} until it is claimed.
+   */
+  private UUID batchId;
+
+  public static String idOf(TransferType type, UUID orderId) {
+    return type.name().toLowerCase() + "_" + orderId;
+  }
+}
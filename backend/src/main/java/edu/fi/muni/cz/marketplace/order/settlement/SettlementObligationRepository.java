@@ -0,0 +1,48 @@
+package edu.fi.muni.cz.marketplace.order.settlement;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SettlementObligationRepository
+    extends JpaRepository<SettlementObligation, String> {
+
+  @Modifying
+  @Query(value = "insert into settlement_obligation (id, order_id, type, destination_account_id, "
+      + "amount_minor_units, currency, recorded_at) values (:id, :orderId, :type, "
+      + ":destinationAccountId, :amountMinorUnits, :currency, :recordedAt) on conflict do nothing",
+      nativeQuery = true)
+  void insertIfAbsent(String id, UUID orderId, String type, String destinationAccountId,
+      long amountMinorUnits, String currency, Instant recordedAt);
+
+  @Query("select distinct new edu.fi.muni.cz.marketplace.order.settlement.SettlementGroup("
+      + "o.type, o.destinationAccountId, o.currency) "
+      + "from SettlementObligation o where o.batchId is null")
+  List<SettlementGroup> findPendingGroups();
+
+  /**
+   * Assigns up to {@code limit} of the oldest unclaimed obligations of a group to a batch. Rows
+   * locked by a concurrent claim are skipped instead of waited for.
+   *
+   * @return number of claimed obligations
+   */
+  @Modifying
+  @Query(value = "update settlement_obligation set batch_id = :batchId where id in ("
+      + "select id from settlement_obligation where batch_id is null and type = :type "
+      + "and destination_account_id = :destinationAccountId and currency = :currency "
+      + "order by recorded_at limit :limit for update skip locked)", nativeQuery = true)
+  int claim(UUID batchId, String type, String destinationAccountId, String currency, int limit);
+
+  @Query("select coalesce(sum(o.amountMinorUnits), 0) from SettlementObligation o "
+      + "where o.batchId = :batchId")
+  long sumAmountOfBatch(UUID batchId);
+
+  @Query("select o.orderId from SettlementObligation o where o.batchId = :batchId")
+  List<UUID> findOrderIdsOfBatch(UUID batchId);
+}
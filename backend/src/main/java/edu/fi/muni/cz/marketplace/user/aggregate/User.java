@@ -8,8 +8,10 @@ import org.axonframework.commandhandling.CommandHandler;
 import org.axonframework.eventsourcing.EventSourcingHandler;
 import org.axonframework.modelling.command.AggregateIdentifier;
 import org.axonframework.spring.stereotype.Aggregate;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import edu.fi.muni.cz.marketplace.user.command.AssignStripeCustomerIdCommand;
+import edu.fi.muni.cz.marketplace.user.command.KeycloakUserIdClaims;
 import edu.fi.muni.cz.marketplace.user.command.RegisterUserCommand;
 import edu.fi.muni.cz.marketplace.user.event.StripeCustomerCreatedEvent;
 import edu.fi.muni.cz.marketplace.user.event.UserRegisteredEvent;
@@ -19,7 +21,7 @@ import lombok.Setter;
 
 @Getter
 @Setter
-@Aggregate
+@Aggregate(snapshotTriggerDefinition = "userSnapshotTriggerDefinition", cache = "userCache")
 @NoArgsConstructor
 public class User {
 
@@ -63,7 +65,9 @@ public class User {
   private String stripeSellerAccountId;
 
   @CommandHandler
-  public User(RegisterUserCommand command) {
+  public User(RegisterUserCommand command,
+      @Autowired KeycloakUserIdClaims keycloakUserIdClaims) {
+    keycloakUserIdClaims.claim(command.getKeycloakUserId(), command.getId());
     apply(new UserRegisteredEvent(
         command.getId(), command.getKeycloakUserId()));
   }
@@ -4,10 +4,12 @@ import org.axonframework.commandhandling.CommandHandler;
 import org.axonframework.commandhandling.gateway.CommandGateway;
 import org.springframework.stereotype.Service;
 
+import edu.fi.muni.cz.marketplace.config.command.ExternalIo;
 import edu.fi.muni.cz.marketplace.user.service.StripeApiClient;
 import lombok.RequiredArgsConstructor;
 
 @Service
+@ExternalIo("stripe")
 @RequiredArgsConstructor
 public class CreateStripeCustomerCommandHandler {
 
@@ -18,7 +20,7 @@ public class CreateStripeCustomerCommandHandler {
   @CommandHandler
   public void on(CreateStripeCustomerCommand command) {
     String customerId = stripeClient.createCustomer(command.getId(), command.getEmail(), command.getName(),
-        command.getPhone(), command.getShippingAddress());
+        command.getPhone(), command.getShippingAddress()).join();
 
     commandGateway.send(new AssignStripeCustomerIdCommand(command.getId(), customerId));
   }
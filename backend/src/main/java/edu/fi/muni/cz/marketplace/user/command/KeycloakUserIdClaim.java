@@ -0,0 +1,28 @@
+package edu.fi.muni.cz.marketplace.user.command;
+
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Keycloak user id taken by a registered user, see {@link KeycloakUserIdClaims}.
+ */
+@Entity
+@Table(name = "keycloak_user_id_claim")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeycloakUserIdClaim {
+
+  @Id
+  private String keycloakUserId;
+
+  @Column(nullable = false)
+  private UUID userId;
+}
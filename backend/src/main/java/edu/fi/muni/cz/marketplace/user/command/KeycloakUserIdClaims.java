@@ -0,0 +1,61 @@
+package edu.fi.muni.cz.marketplace.user.command;
+
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import edu.fi.muni.cz.marketplace.config.exception.HttpException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes sure a Keycloak user id is registered only once.
+ * <p>
+ * {@link RegisterUserCommandInterceptor} rejects most duplicates early, but it asks the
+ * {@code keycloak_user_ids} projection, which lags behind registrations. The {@code User}
+ * aggregate therefore claims the id in {@code keycloak_user_id_claim}, whose primary key is the
+ * id, in the transaction of the registration. Of two concurrent registrations of the same id only
+ * one claim is inserted, and a registration that fails later rolls its claim back.
+ * </p>
+ * <p>
+ * Ids registered before the claims existed are copied from {@code keycloak_user_id_lookup} when
+ * the application is ready.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KeycloakUserIdClaims {
+
+  private static final String CLAIM = "INSERT INTO keycloak_user_id_claim (keycloak_user_id, "
+      + "user_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+  private static final String COPY_REGISTERED = "INSERT INTO keycloak_user_id_claim "
+      + "(keycloak_user_id, user_id) SELECT keycloak_user_id, id FROM keycloak_user_id_lookup "
+      + "ON CONFLICT DO NOTHING";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Claims {@code keycloakUserId} for the user.
+   *
+   * @throws HttpException with status 409 if another user claimed the id
+   */
+  public void claim(String keycloakUserId, UUID userId) {
+    if (jdbcTemplate.update(CLAIM, keycloakUserId, userId) == 0) {
+      log.warn("Keycloak user ID {} is already claimed", keycloakUserId);
+      throw new HttpException(409,
+          String.format("User with Keycloak user ID '%s' already exists", keycloakUserId));
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void claimRegistered() {
+    int copied = jdbcTemplate.update(COPY_REGISTERED);
+    if (copied > 0) {
+      log.info("Claimed {} Keycloak user IDs of users registered before", copied);
+    }
+  }
+}
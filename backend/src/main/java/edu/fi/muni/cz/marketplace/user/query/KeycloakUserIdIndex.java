@@ -0,0 +1,132 @@
+package edu.fi.muni.cz.marketplace.user.query;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.fi.muni.cz.marketplace.config.cache.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers whether a Keycloak user id is already registered without asking the database for ids
+ * that are not.
+ * <p>
+ * A {@link BloomFilter} over the registered ids answers most checks for new ids on its own, and
+ * a bounded cache remembers ids confirmed as registered, so repeated checks for the same id do
+ * not reach the database either. Only ids the filter reports as possibly registered and the
+ * cache does not hold are looked up in {@code keycloak_user_id_lookup}.
+ * </p>
+ * <p>
+ * The filter is loaded from the table when the application is ready, until then every check goes
+ * to the database. {@link KeycloakUserIdProjection} adds the ids it stores. Ids stored by the
+ * projection on another instance are only known to this one after a restart.
+ * </p>
+ * <p>
+ * Checks are counted in {@code users.keycloak-id.checks} by the component that answered them.
+ * </p>
+ */
+@Slf4j
+@Component
+public class KeycloakUserIdIndex {
+
+  private final KeycloakUserIdRepository repository;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final BloomFilter filter;
+  private final Cache<String, Boolean> registered;
+  private final Counter filterAnswers;
+  private final Counter cacheAnswers;
+  private final Counter databaseAnswers;
+
+  private volatile boolean loaded;
+
+  public KeycloakUserIdIndex(
+      KeycloakUserIdRepository repository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${keycloak-user-id-index.expected-users}") long expectedUsers,
+      @Value("${keycloak-user-id-index.false-positive-rate}") double falsePositiveRate,
+      @Value("${keycloak-user-id-index.cache.maximum-size}") long cacheMaximumSize,
+      @Value("${keycloak-user-id-index.cache.expire-after-access}")
+      Duration cacheExpireAfterAccess) {
+    this.repository = repository;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.filter = new BloomFilter(expectedUsers, falsePositiveRate);
+    this.registered = Caffeine.newBuilder()
+        .maximumSize(cacheMaximumSize)
+        .expireAfterAccess(cacheExpireAfterAccess)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, registered, "keycloakUserIdCache");
+
+    this.filterAnswers = checks(meterRegistry, "filter");
+    this.cacheAnswers = checks(meterRegistry, "cache");
+    this.databaseAnswers = checks(meterRegistry, "database");
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    long[] count = {0};
+    readOnlyTransactionTemplate.executeWithoutResult(status -> {
+      try (Stream<String> keycloakUserIds = repository.streamAllKeycloakUserIds()) {
+        keycloakUserIds.forEach(keycloakUserId -> {
+          filter.put(keycloakUserId);
+          count[0]++;
+        });
+      }
+    });
+    loaded = true;
+    log.info("Loaded {} Keycloak user ids into the filter", count[0]);
+  }
+
+  public boolean exists(String keycloakUserId) {
+    if (loaded && !filter.mightContain(keycloakUserId)) {
+      filterAnswers.increment();
+      return false;
+    }
+    if (registered.getIfPresent(keycloakUserId) != null) {
+      cacheAnswers.increment();
+      return true;
+    }
+    databaseAnswers.increment();
+    boolean exists = repository.existsByKeycloakUserId(keycloakUserId);
+    if (exists) {
+      registered.put(keycloakUserId, Boolean.TRUE);
+    }
+    return exists;
+  }
+
+  /**
+   * Remembers a registered id. Within a unit of work the id is cached only once it commits, the
+   * filter learns it right away since a false positive merely costs a lookup.
+   */
+  public void add(String keycloakUserId) {
+    filter.put(keycloakUserId);
+    if (CurrentUnitOfWork.isStarted()) {
+      CurrentUnitOfWork.get().afterCommit(
+          unitOfWork -> registered.put(keycloakUserId, Boolean.TRUE));
+    } else {
+      registered.put(keycloakUserId, Boolean.TRUE);
+    }
+  }
+
+  private static Counter checks(MeterRegistry meterRegistry, String answeredBy) {
+    return Counter.builder("users.keycloak-id.checks")
+        .description("Keycloak user id existence checks by the component that answered them")
+        .tag("answered-by", answeredBy)
+        .register(meterRegistry);
+  }
+}
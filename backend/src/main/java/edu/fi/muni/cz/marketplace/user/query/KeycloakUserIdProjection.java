@@ -1,31 +1,97 @@
 package edu.fi.muni.cz.marketplace.user.query;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.axonframework.config.ProcessingGroup;
 import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.eventhandling.ResetHandler;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import edu.fi.muni.cz.marketplace.user.event.UserRegisteredEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Stores the Keycloak user id of every registered user in {@code keycloak_user_id_lookup}.
+ * <p>
+ * Runs on the pooled {@code keycloak_user_ids} processor. The rows of an event batch are
+ * collected in its unit of work and written right before it commits, with multi-row inserts in
+ * the transaction of the batch, so a batch costs a few statements instead of a select and an
+ * insert per event. Rows already present are skipped, which makes a batch handled again after a
+ * failure, as well as a replay, safe to write.
+ * </p>
+ * <p>
+ * The table only serves lookups and may lag behind registrations. That a Keycloak user id is
+ * registered once is guaranteed by the claim the {@code User} aggregate takes through
+ * {@code KeycloakUserIdClaims} in the transaction of the registration.
+ * </p>
+ */
 @Slf4j
 @Component
 @ProcessingGroup("keycloak_user_ids")
 @RequiredArgsConstructor
 public class KeycloakUserIdProjection {
 
-  private final KeycloakUserIdRepository repository;
+  private static final String ROWS = KeycloakUserIdProjection.class.getName() + ".rows";
+  private static final int ROWS_PER_STATEMENT = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final KeycloakUserIdIndex index;
 
   @EventHandler
   public void on(UserRegisteredEvent event) {
-    log.info("Processing UserRegisteredEvent for Keycloak user ID: {}", event.getKeycloakUserId());
+    log.debug("Processing UserRegisteredEvent for Keycloak user ID: {}",
+        event.getKeycloakUserId());
 
     KeycloakUserIdReadModel readModel = new KeycloakUserIdReadModel(
         event.getId(),
         event.getKeycloakUserId()
     );
 
-    repository.save(readModel);
-    log.info("Saved Keycloak user ID lookup for aggregate ID: {}", event.getId());
+    if (CurrentUnitOfWork.isStarted()) {
+      CurrentUnitOfWork.get().root().getOrComputeResource(ROWS, key -> {
+        List<KeycloakUserIdReadModel> rows = new ArrayList<>();
+        CurrentUnitOfWork.get().root().onPrepareCommit(unitOfWork -> insert(rows));
+        return rows;
+      }).add(readModel);
+    } else {
+      insert(List.of(readModel));
+    }
+    index.add(event.getKeycloakUserId());
+  }
+
+  @ResetHandler
+  public void onReset() {
+    log.info("Clearing Keycloak user ID lookups before replay");
+    jdbcTemplate.update("DELETE FROM keycloak_user_id_lookup");
+  }
+
+  private void insert(List<KeycloakUserIdReadModel> rows) {
+    int inserted = 0;
+    for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+      List<KeycloakUserIdReadModel> chunk =
+          rows.subList(from, Math.min(rows.size(), from + ROWS_PER_STATEMENT));
+      Object[] arguments = new Object[chunk.size() * 2];
+      for (int i = 0; i < chunk.size(); i++) {
+        arguments[2 * i] = chunk.get(i).getId();
+        arguments[2 * i + 1] = chunk.get(i).getKeycloakUserId();
+      }
+      inserted += jdbcTemplate.update(insertStatement(chunk.size()), arguments);
+    }
+    if (inserted < rows.size()) {
+      log.warn("Skipped {} Keycloak user ID lookups that were already stored",
+          rows.size() - inserted);
+    }
+    log.info("Saved {} Keycloak user ID lookups", inserted);
+  }
+
+  private static String insertStatement(int rows) {
+    return "INSERT INTO keycloak_user_id_lookup (id, keycloak_user_id) VALUES "
+        + String.join(", ", Collections.nCopies(rows, "(?, ?)"))
+        + " ON CONFLICT DO NOTHING";
   }
 }
@@ -1,12 +1,17 @@
 package edu.fi.muni.cz.marketplace.user.query;
 
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface KeycloakUserIdRepository extends JpaRepository<KeycloakUserIdReadModel, UUID> {
 
   boolean existsByKeycloakUserId(String keycloakUserId);
+
+  @Query("select k.keycloakUserId from KeycloakUserIdReadModel k")
+  Stream<String> streamAllKeycloakUserIds();
 }
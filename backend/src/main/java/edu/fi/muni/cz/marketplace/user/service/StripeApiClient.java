@@ -1,12 +1,13 @@
 package edu.fi.muni.cz.marketplace.user.service;
 
+import java.time.Duration;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
 import com.stripe.model.Account;
 import com.stripe.model.Customer;
 import com.stripe.model.SetupIntent;
@@ -15,6 +16,8 @@ import com.stripe.param.AccountCreateParams;
 import com.stripe.param.CustomerCreateParams;
 import com.stripe.param.SetupIntentCreateParams;
 
+import edu.fi.muni.cz.marketplace.config.resilience.CallGuard;
+import edu.fi.muni.cz.marketplace.config.stripe.StripeHttpTransport;
 import edu.fi.muni.cz.marketplace.user.dto.Address;
 import edu.fi.muni.cz.marketplace.user.service.dto.ConnectedAccountResponse;
 import edu.fi.muni.cz.marketplace.user.service.dto.SetupIntentResponse;
@@ -24,8 +27,15 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class StripeApiClient {
 
-  public StripeApiClient(@Value("${stripe.api-key}") String stripeApiKey) {
-    Stripe.apiKey = stripeApiKey;
+  private final StripeHttpTransport stripeTransport;
+  private final CallGuard stripeCallGuard;
+  private final Duration timeout;
+
+  public StripeApiClient(StripeHttpTransport stripeTransport, CallGuard stripeCallGuard,
+      @Value("${stripe.timeouts.account}") Duration timeout) {
+    this.stripeTransport = stripeTransport;
+    this.stripeCallGuard = stripeCallGuard;
+    this.timeout = timeout;
   }
 
   /**
@@ -37,10 +47,10 @@ public class StripeApiClient {
    * @param name            customer name from Keycloak
    * @param phone           customer phone from Keycloak
    * @param shippingAddress customer shipping address from request
-   * @return the Stripe customer ID
-   * @throws StripeApiClientException if customer creation fails
+   * @return future of the Stripe customer ID, failed with
+   *         {@link StripeApiClientException} if customer creation fails
    */
-  public String createCustomer(
+  public CompletableFuture<String> createCustomer(
       UUID aggregateId,
       String email,
       String name,
@@ -49,73 +59,64 @@ public class StripeApiClient {
 
     log.info("Creating Stripe customer with idempotency key: {}", aggregateId);
 
-    try {
-      CustomerCreateParams.Builder builder = CustomerCreateParams.builder()
-          .setEmail(email)
-          .setName(name)
-          .setPhone(phone);
-
-      if (shippingAddress != null) {
-        CustomerCreateParams.Shipping shipping = CustomerCreateParams.Shipping.builder()
-            .setName(name)
-            .setPhone(phone)
-            .setAddress(CustomerCreateParams.Shipping.Address.builder()
-                .setLine1(shippingAddress.getLine1())
-                .setLine2(shippingAddress.getLine2())
-                .setCity(shippingAddress.getCity())
-                .setState(shippingAddress.getState())
-                .setPostalCode(shippingAddress.getPostalCode())
-                .setCountry(shippingAddress.getCountry())
-                .build())
-            .build();
-
-        builder.setShipping(shipping);
-      }
+    CustomerCreateParams.Builder builder = CustomerCreateParams.builder()
+        .setEmail(email)
+        .setName(name)
+        .setPhone(phone);
 
-      CustomerCreateParams params = builder.build();
-
-      RequestOptions requestOptions = RequestOptions.builder()
-          .setIdempotencyKey(aggregateId.toString())
+    if (shippingAddress != null) {
+      CustomerCreateParams.Shipping shipping = CustomerCreateParams.Shipping.builder()
+          .setName(name)
+          .setPhone(phone)
+          .setAddress(CustomerCreateParams.Shipping.Address.builder()
+              .setLine1(shippingAddress.getLine1())
+              .setLine2(shippingAddress.getLine2())
+              .setCity(shippingAddress.getCity())
+              .setState(shippingAddress.getState())
+              .setPostalCode(shippingAddress.getPostalCode())
+              .setCountry(shippingAddress.getCountry())
+              .build())
           .build();
 
-      Customer customer = Customer.create(params, requestOptions);
-
-      log.info("Successfully created Stripe customer: {}", customer.getId());
-      return customer.getId();
-
-    } catch (StripeException e) {
-      throw new StripeApiClientException(
-          "Failed to create Stripe customer: " + e.getMessage(), e);
+      builder.setShipping(shipping);
     }
+
+    CustomerCreateParams params = builder.build();
+
+    return stripeCallGuard.execute("customer", () -> stripeTransport.post("/v1/customers",
+            params, requestOptions(aggregateId), Customer.class))
+        .handle((customer, error) -> {
+          if (error != null) {
+            throw failure("Failed to create Stripe customer", error);
+          }
+          log.info("Successfully created Stripe customer: {}", customer.getId());
+          return customer.getId();
+        });
   }
 
   /**
    * Creates a Stripe SetupIntent for saving payment method details.
    *
    * @param idempotencyKey unique key to ensure idempotent creation
-   * @return SetupIntentResponse containing the intent ID and client secret
-   * @throws StripeApiClientException if setup intent creation fails
+   * @return future of the SetupIntentResponse containing the intent ID and client
+   *         secret, failed with {@link StripeApiClientException} if setup intent
+   *         creation fails
    */
-  public SetupIntentResponse createSetupIntent(UUID idempotencyKey) {
+  public CompletableFuture<SetupIntentResponse> createSetupIntent(UUID idempotencyKey) {
     log.info("Creating Stripe SetupIntent with idempotency key: {}", idempotencyKey);
 
-    try {
-      SetupIntentCreateParams params = SetupIntentCreateParams.builder()
-          .build();
-
-      RequestOptions requestOptions = RequestOptions.builder()
-          .setIdempotencyKey(idempotencyKey.toString())
-          .build();
-
-      SetupIntent setupIntent = SetupIntent.create(params, requestOptions);
-
-      log.info("Successfully created Stripe SetupIntent: {}", setupIntent.getId());
-      return new SetupIntentResponse(setupIntent.getId(), setupIntent.getClientSecret());
-
-    } catch (StripeException e) {
-      throw new StripeApiClientException(
-          "Failed to create Stripe SetupIntent: " + e.getMessage(), e);
-    }
+    SetupIntentCreateParams params = SetupIntentCreateParams.builder()
+        .build();
+
+    return stripeCallGuard.execute("customer", () -> stripeTransport.post("/v1/setup_intents",
+            params, requestOptions(idempotencyKey), SetupIntent.class))
+        .handle((setupIntent, error) -> {
+          if (error != null) {
+            throw failure("Failed to create Stripe SetupIntent", error);
+          }
+          log.info("Successfully created Stripe SetupIntent: {}", setupIntent.getId());
+          return new SetupIntentResponse(setupIntent.getId(), setupIntent.getClientSecret());
+        });
   }
 
   /**
@@ -123,36 +124,44 @@ public class StripeApiClient {
    *
    * @param idempotencyKey unique key to ensure idempotent creation
    * @param email          the seller's email address
-   * @return ConnectedAccountResponse containing the account ID
-   * @throws StripeApiClientException if account creation fails
+   * @return future of the ConnectedAccountResponse containing the account ID,
+   *         failed with {@link StripeApiClientException} if account creation fails
    */
-  public ConnectedAccountResponse createConnectedAccount(UUID idempotencyKey, String email) {
+  public CompletableFuture<ConnectedAccountResponse> createConnectedAccount(
+      UUID idempotencyKey, String email) {
     log.info("Creating Stripe Connected Account with idempotency key: {}", idempotencyKey);
 
-    try {
-      AccountCreateParams params = AccountCreateParams.builder()
-          .setType(AccountCreateParams.Type.EXPRESS)
-          .setCountry("CZ")
-          .setEmail(email)
-          .setCapabilities(AccountCreateParams.Capabilities.builder()
-              .setTransfers(AccountCreateParams.Capabilities.Transfers.builder()
-                  .setRequested(true)
-                  .build())
-              .build())
-          .build();
-
-      RequestOptions requestOptions = RequestOptions.builder()
-          .setIdempotencyKey(idempotencyKey.toString())
-          .build();
-
-      Account account = Account.create(params, requestOptions);
+    AccountCreateParams params = AccountCreateParams.builder()
+        .setType(AccountCreateParams.Type.EXPRESS)
+        .setCountry("CZ")
+        .setEmail(email)
+        .setCapabilities(AccountCreateParams.Capabilities.builder()
+            .setTransfers(AccountCreateParams.Capabilities.Transfers.builder()
+                .setRequested(true)
+                .build())
+            .build())
+        .build();
+
+    return stripeCallGuard.execute("customer", () -> stripeTransport.post("/v1/accounts",
+            params, requestOptions(idempotencyKey), Account.class))
+        .handle((account, error) -> {
+          if (error != null) {
+            throw failure("Failed to create Stripe Connected Account", error);
+          }
+          log.info("Successfully created Stripe Connected Account: {}", account.getId());
+          return new ConnectedAccountResponse(account.getId());
+        });
+  }
 
-      log.info("Successfully created Stripe Connected Account: {}", account.getId());
-      return new ConnectedAccountResponse(account.getId());
+  private RequestOptions requestOptions(UUID idempotencyKey) {
+    return RequestOptions.builder()
+        .setIdempotencyKey(idempotencyKey.toString())
+        .setReadTimeout(Math.toIntExact(timeout.toMillis()))
+        .build();
+  }
 
-    } catch (StripeException e) {
-      throw new StripeApiClientException(
-          "Failed to create Stripe Connected Account: " + e.getMessage(), e);
-    }
+  private static StripeApiClientException failure(String message, Throwable error) {
+    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+    return new StripeApiClientException(message + ": " + cause.getMessage(), cause);
   }
 }
@@ -0,0 +1,130 @@
+package edu.fi.muni.cz.marketplace.auction.aggregate;
+
+import static org.axonframework.test.matchers.Matchers.exactSequenceOf;
+import static org.axonframework.test.matchers.Matchers.messageWithPayload;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import org.axonframework.test.aggregate.AggregateTestFixture;
+import org.axonframework.test.aggregate.FixtureConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.fi.muni.cz.marketplace.auction.command.CreateAuctionCommand;
+import edu.fi.muni.cz.marketplace.auction.command.RecordBidCommand;
+import edu.fi.muni.cz.marketplace.auction.deadline.AuctionDeadline;
+import edu.fi.muni.cz.marketplace.auction.events.AuctionClosedEvent;
+import edu.fi.muni.cz.marketplace.auction.events.AuctionCreatedEvent;
+import edu.fi.muni.cz.marketplace.auction.events.BidPlacedEvent;
+import edu.fi.muni.cz.marketplace.money.Money;
+
+class AuctionTest {
+
+  private static final Instant FIXED_TIME = Instant.parse("2026-01-10T12:00:00Z");
+  private static final Instant ENDS_AT = FIXED_TIME.plus(Duration.ofHours(1));
+  private static final UUID SELLER_ID = UUID.randomUUID();
+
+  private FixtureConfiguration<Auction> fixture;
+
+  @BeforeEach
+  void setUp() {
+    fixture = new AggregateTestFixture<>(Auction.class);
+    fixture.registerInjectableResource(Clock.fixed(FIXED_TIME, ZoneOffset.UTC));
+  }
+
+  @Test
+  void createAuction_endsInTheFuture_shouldEmitEventAndScheduleEnd() {
+    UUID auctionId = UUID.randomUUID();
+
+    fixture.givenCurrentTime(FIXED_TIME)
+        .when(createAuction(auctionId))
+        .expectSuccessfulHandlerExecution()
+        .expectEventsMatching(exactSequenceOf(
+            messageWithPayload(instanceOf(AuctionCreatedEvent.class))))
+        .expectScheduledDeadlineWithName(Duration.ofHours(1), AuctionDeadline.AUCTION_ENDED)
+        .expectState(auction -> {
+          assertEquals(AuctionStatus.OPEN, auction.getStatus());
+          assertNull(auction.getHighBid());
+        });
+  }
+
+  @Test
+  void recordBid_acceptedBidsOutOfOrder_shouldStoreBothAndKeepTheHighest() {
+    UUID auctionId = UUID.randomUUID();
+    UUID highBidder = UUID.randomUUID();
+
+    fixture.given(created(auctionId),
+            bid(auctionId, highBidder, Money.of(20_000, Money.CZK)))
+        .when(new RecordBidCommand(auctionId, UUID.randomUUID(), "cus_1", "pm_1",
+            Money.of(15_000, Money.CZK), FIXED_TIME))
+        .expectSuccessfulHandlerExecution()
+        .expectEventsMatching(exactSequenceOf(
+            messageWithPayload(instanceOf(BidPlacedEvent.class))))
+        .expectState(auction -> {
+          assertEquals(2, auction.getBidCount());
+          assertEquals(highBidder, auction.getHighBid().getBidderId());
+        });
+  }
+
+  @Test
+  void recordBid_placedAfterTheEnd_shouldBeRejected() {
+    UUID auctionId = UUID.randomUUID();
+
+    fixture.given(created(auctionId))
+        .when(new RecordBidCommand(auctionId, UUID.randomUUID(), "cus_1", "pm_1",
+            Money.of(15_000, Money.CZK), ENDS_AT))
+        .expectException(IllegalStateException.class)
+        .expectNoEvents();
+  }
+
+  @Test
+  void auctionEnded_withBids_shouldCloseWithTheHighestBidAndItsOrder() {
+    UUID auctionId = UUID.randomUUID();
+    UUID winnerId = UUID.randomUUID();
+
+    fixture.givenCurrentTime(FIXED_TIME)
+        .andGivenCommands(createAuction(auctionId),
+            new RecordBidCommand(auctionId, winnerId, "cus_winner", "pm_winner",
+                Money.of(25_000, Money.CZK), FIXED_TIME),
+            new RecordBidCommand(auctionId, UUID.randomUUID(), "cus_2", "pm_2",
+                Money.of(20_000, Money.CZK), FIXED_TIME))
+        .whenTimeAdvancesTo(ENDS_AT)
+        .expectTriggeredDeadlinesWithName(AuctionDeadline.AUCTION_ENDED)
+        .expectEvents(new AuctionClosedEvent(auctionId, FIXED_TIME, SELLER_ID, "acct_seller",
+            "books", Auction.orderIdOf(auctionId), winnerId, "cus_winner", "pm_winner",
+            Money.of(25_000, Money.CZK)))
+        .expectState(auction -> assertEquals(AuctionStatus.CLOSED, auction.getStatus()));
+  }
+
+  @Test
+  void auctionEnded_withoutBids_shouldCloseWithoutOrder() {
+    UUID auctionId = UUID.randomUUID();
+
+    fixture.givenCurrentTime(FIXED_TIME)
+        .andGivenCommands(createAuction(auctionId))
+        .whenTimeAdvancesTo(ENDS_AT)
+        .expectEvents(new AuctionClosedEvent(auctionId, FIXED_TIME, SELLER_ID, "acct_seller",
+            "books", null, null, null, null, null));
+  }
+
+  private static CreateAuctionCommand createAuction(UUID auctionId) {
+    return new CreateAuctionCommand(auctionId, SELLER_ID, "acct_seller", "books",
+        Money.of(10_000, Money.CZK), Money.of(500, Money.CZK), ENDS_AT);
+  }
+
+  private static AuctionCreatedEvent created(UUID auctionId) {
+    return new AuctionCreatedEvent(auctionId, SELLER_ID, "acct_seller", "books",
+        Money.of(10_000, Money.CZK), Money.of(500, Money.CZK), ENDS_AT, "deadline-1");
+  }
+
+  private static BidPlacedEvent bid(UUID auctionId, UUID bidderId, Money amount) {
+    return new BidPlacedEvent(auctionId, bidderId, "cus_1", "pm_1", amount, FIXED_TIME);
+  }
+}
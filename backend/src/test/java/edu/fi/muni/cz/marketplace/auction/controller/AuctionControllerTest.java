@@ -0,0 +1,92 @@
+package edu.fi.muni.cz.marketplace.auction.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import edu.fi.muni.cz.marketplace.auction.command.RecordBidCommand;
+import edu.fi.muni.cz.marketplace.auction.orderbook.AuctionOrderBook;
+import edu.fi.muni.cz.marketplace.auction.orderbook.BidDecision;
+import edu.fi.muni.cz.marketplace.auction.orderbook.BidOutcome;
+import edu.fi.muni.cz.marketplace.money.Money;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(value = AuctionController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = "auction-api.command-timeout=5s")
+class AuctionControllerTest {
+
+  private static final UUID AUCTION_ID = UUID.randomUUID();
+  private static final String PLACE_BID_REQUEST = """
+      {
+        "bidderId": "%s",
+        "customerId": "cus_1",
+        "paymentMethodId": "pm_1",
+        "amount": 150.00
+      }
+      """.formatted(UUID.randomUUID());
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private CommandGateway commandGateway;
+
+  @MockitoBean
+  private AuctionOrderBook orderBook;
+
+  @Test
+  void placeBid_acceptedByTheBook_answersCreatedOnceStored() throws Exception {
+    BidDecision decision = new BidDecision(AUCTION_ID, BidOutcome.ACCEPTED, null,
+        Instant.now(), System.nanoTime());
+    when(orderBook.offer(eq(AUCTION_ID), any(), eq(Money.of(15_000, Money.CZK))))
+        .thenReturn(decision);
+    when(commandGateway.send(any(RecordBidCommand.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    MvcResult pending = mockMvc.perform(post("/api/v1/auctions/{id}/bids", AUCTION_ID)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(PLACE_BID_REQUEST))
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(pending))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.amount").value(150.00));
+    verify(orderBook).stored(decision);
+  }
+
+  @Test
+  void placeBid_outbid_answersConflictWithoutStoring() throws Exception {
+    when(orderBook.offer(eq(AUCTION_ID), any(), any())).thenReturn(new BidDecision(AUCTION_ID,
+        BidOutcome.TOO_LOW, Money.of(16_000, Money.CZK), Instant.now(), System.nanoTime()));
+
+    mockMvc.perform(post("/api/v1/auctions/{id}/bids", AUCTION_ID)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(PLACE_BID_REQUEST))
+        .andExpect(status().isConflict());
+    verify(commandGateway, never()).send(any(RecordBidCommand.class));
+  }
+}
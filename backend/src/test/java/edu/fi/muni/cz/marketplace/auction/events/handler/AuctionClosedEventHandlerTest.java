@@ -0,0 +1,100 @@
+package edu.fi.muni.cz.marketplace.auction.events.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.fi.muni.cz.marketplace.auction.events.AuctionClosedEvent;
+import edu.fi.muni.cz.marketplace.auction.orderbook.AuctionOrderBook;
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.command.ReserveFundsCommand;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuctionClosedEventHandlerTest {
+
+  private static final UUID AUCTION_ID = UUID.randomUUID();
+
+  private CommandGateway commandGateway;
+  private AuctionOrderBook orderBook;
+  private SimpleMeterRegistry meterRegistry;
+  private AuctionClosedEventHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    commandGateway = mock(CommandGateway.class);
+    orderBook = mock(AuctionOrderBook.class);
+    meterRegistry = new SimpleMeterRegistry();
+    handler = new AuctionClosedEventHandler(commandGateway, orderBook, meterRegistry, 3,
+        Duration.ofMillis(10), Duration.ofMillis(20));
+  }
+
+  @Test
+  void on_withWinner_reservesTheWinningAmount() {
+    when(commandGateway.send(any(ReserveFundsCommand.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    handler.on(wonAuction());
+
+    verify(orderBook).close(AUCTION_ID);
+    verify(commandGateway, after(100).times(1)).send(any(ReserveFundsCommand.class));
+    assertEquals(0, failedHandOffs());
+  }
+
+  @Test
+  void on_withFailedReservation_retriesUntilItSucceeds() {
+    when(commandGateway.send(any(ReserveFundsCommand.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Stripe is down")),
+            CompletableFuture.completedFuture(null));
+
+    handler.on(wonAuction());
+
+    verify(commandGateway, timeout(2_000).times(2)).send(any(ReserveFundsCommand.class));
+    verify(commandGateway, after(100).times(2)).send(any(ReserveFundsCommand.class));
+    assertEquals(0, failedHandOffs());
+  }
+
+  @Test
+  void on_withReservationFailingEveryAttempt_countsTheFailedHandOff() {
+    when(commandGateway.send(any(ReserveFundsCommand.class)))
+        .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Card declined")));
+
+    handler.on(wonAuction());
+
+    verify(commandGateway, timeout(2_000).times(3)).send(any(ReserveFundsCommand.class));
+    verify(commandGateway, after(100).times(3)).send(any(ReserveFundsCommand.class));
+    assertEquals(1, failedHandOffs());
+  }
+
+  @Test
+  void on_withoutBids_reservesNothing() {
+    handler.on(new AuctionClosedEvent(AUCTION_ID, Instant.now(), UUID.randomUUID(), "acct_1",
+        null, null, null, null, null, null));
+
+    verify(orderBook).close(AUCTION_ID);
+    verify(commandGateway, never()).send(any());
+  }
+
+  private static AuctionClosedEvent wonAuction() {
+    return new AuctionClosedEvent(AUCTION_ID, Instant.now(), UUID.randomUUID(), "acct_1",
+        "art", UUID.randomUUID(), UUID.randomUUID(), "cus_1", "pm_1",
+        Money.of(15_000, Money.CZK));
+  }
+
+  private double failedHandOffs() {
+    return meterRegistry.get("auction.hand-offs.failed").counter().count();
+  }
+}
@@ -0,0 +1,87 @@
+package edu.fi.muni.cz.marketplace.auction.orderbook;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.fi.muni.cz.marketplace.auction.events.AuctionCreatedEvent;
+import edu.fi.muni.cz.marketplace.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Measures bids per second and decision latency of {@link AuctionOrderBook} on a single hot
+ * auction, with bidders on all threads outbidding the high bid they last saw by the minimum
+ * increment, so most of them race for the same compare-and-set. Storing accepted bids is not part
+ * of the measurement. Run with {@code main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class AuctionOrderBookBenchmark {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+  private static final long INCREMENT = 100;
+
+  private AuctionOrderBook orderBook;
+  private UUID auctionId;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+    auctionId = UUID.randomUUID();
+    eventStore.publish(new GenericDomainEventMessage<>("Auction", auctionId.toString(), 0,
+        new AuctionCreatedEvent(auctionId, UUID.randomUUID(), "acct_seller", null,
+            Money.of(INCREMENT, Money.CZK), Money.of(INCREMENT, Money.CZK),
+            NOW.plus(Duration.ofDays(1)), "deadline")));
+    orderBook = new AuctionOrderBook(eventStore, Clock.fixed(NOW, ZoneOffset.UTC),
+        new SimpleMeterRegistry(), 100, Duration.ofHours(1));
+  }
+
+  @State(Scope.Thread)
+  public static class Bidder {
+
+    private final UUID bidderId = UUID.randomUUID();
+  }
+
+  @Benchmark
+  public BidDecision outbid(Bidder bidder) {
+    long current = orderBook.highBid(auctionId).map(Money::getMinorUnits).orElse(0L);
+    return orderBook.offer(auctionId, bidder.bidderId,
+        Money.of(current + INCREMENT, Money.CZK));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(AuctionOrderBookBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
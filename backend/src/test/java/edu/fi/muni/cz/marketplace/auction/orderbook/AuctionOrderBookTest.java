@@ -0,0 +1,166 @@
+package edu.fi.muni.cz.marketplace.auction.orderbook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.fi.muni.cz.marketplace.auction.events.AuctionClosedEvent;
+import edu.fi.muni.cz.marketplace.auction.events.AuctionCreatedEvent;
+import edu.fi.muni.cz.marketplace.auction.events.BidPlacedEvent;
+import edu.fi.muni.cz.marketplace.money.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuctionOrderBookTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+  private EmbeddedEventStore eventStore;
+  private AuctionOrderBook orderBook;
+  private UUID auctionId;
+
+  @BeforeEach
+  void setUp() {
+    eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+    orderBook = newOrderBook();
+    auctionId = UUID.randomUUID();
+    publish(0, new AuctionCreatedEvent(auctionId, UUID.randomUUID(), "acct_seller", null,
+        Money.of(10_000, Money.CZK), Money.of(500, Money.CZK), NOW.plusSeconds(3600), "d-1"));
+  }
+
+  @Test
+  void offer_belowStartingPriceOrIncrement_isRejectedWithTheMinimum() {
+    BidDecision belowStart = orderBook.offer(auctionId, UUID.randomUUID(),
+        Money.of(9_999, Money.CZK));
+    BidDecision accepted = orderBook.offer(auctionId, UUID.randomUUID(),
+        Money.of(10_000, Money.CZK));
+    BidDecision belowIncrement = orderBook.offer(auctionId, UUID.randomUUID(),
+        Money.of(10_499, Money.CZK));
+
+    assertEquals(BidOutcome.TOO_LOW, belowStart.outcome());
+    assertEquals(Money.of(10_000, Money.CZK), belowStart.minimumBid());
+    assertEquals(BidOutcome.ACCEPTED, accepted.outcome());
+    assertEquals(BidOutcome.TOO_LOW, belowIncrement.outcome());
+    assertEquals(Money.of(10_500, Money.CZK), belowIncrement.minimumBid());
+  }
+
+  @Test
+  void offer_storedBidsAndClose_areLoadedFromTheEvents() {
+    publish(1, new BidPlacedEvent(auctionId, UUID.randomUUID(), "cus_1", "pm_1",
+        Money.of(12_000, Money.CZK), NOW));
+
+    assertEquals(Optional.of(Money.of(12_000, Money.CZK)), orderBook.highBid(auctionId));
+    assertEquals(BidOutcome.TOO_LOW,
+        orderBook.offer(auctionId, UUID.randomUUID(), Money.of(12_400, Money.CZK)).outcome());
+
+    publish(2, new AuctionClosedEvent(auctionId, NOW, UUID.randomUUID(), "acct_seller", null,
+        null, null, null, null, null));
+    orderBook = newOrderBook();
+
+    assertEquals(BidOutcome.CLOSED,
+        orderBook.offer(auctionId, UUID.randomUUID(), Money.of(50_000, Money.CZK)).outcome());
+    assertEquals(BidOutcome.UNKNOWN_AUCTION,
+        orderBook.offer(UUID.randomUUID(), UUID.randomUUID(), Money.of(50_000, Money.CZK))
+            .outcome());
+  }
+
+  @Test
+  void storingFailed_ofTheHighBid_restoresTheBidItReplaced() {
+    orderBook.stored(bid(10_000));
+    orderBook.storingFailed(bid(11_000));
+
+    assertEquals(Optional.of(Money.of(10_000, Money.CZK)), orderBook.highBid(auctionId));
+    assertEquals(BidOutcome.ACCEPTED, bid(10_500).outcome());
+  }
+
+  @Test
+  void storingFailed_ofAnOutbidBid_keepsTheNewHighBid() {
+    BidDecision outbid = bid(10_000);
+    bid(11_000);
+
+    orderBook.storingFailed(outbid);
+
+    assertEquals(Optional.of(Money.of(11_000, Money.CZK)), orderBook.highBid(auctionId));
+  }
+
+  @Test
+  void storingFailed_afterAnEarlierFailure_skipsTheFailedBids() {
+    orderBook.stored(bid(10_000));
+    BidDecision first = bid(11_000);
+    BidDecision second = bid(12_000);
+
+    orderBook.storingFailed(first);
+    orderBook.storingFailed(second);
+
+    assertEquals(Optional.of(Money.of(10_000, Money.CZK)), orderBook.highBid(auctionId));
+  }
+
+  @Test
+  void storingFailed_ofTheFirstBid_leavesTheAuctionWithoutBids() {
+    orderBook.storingFailed(bid(10_000));
+
+    assertEquals(Optional.empty(), orderBook.highBid(auctionId));
+  }
+
+  @Test
+  void offer_concurrentBidsOverTheSameHighBid_acceptsOnlyOne() throws Exception {
+    int bidders = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(bidders);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<BidDecision>> decisions = new ArrayList<>();
+    try {
+      for (int i = 0; i < bidders; i++) {
+        decisions.add(executor.submit(() -> {
+          start.await();
+          return orderBook.offer(auctionId, UUID.randomUUID(), Money.of(10_000, Money.CZK));
+        }));
+      }
+      start.countDown();
+
+      int accepted = 0;
+      for (Future<BidDecision> decision : decisions) {
+        if (decision.get().outcome() == BidOutcome.ACCEPTED) {
+          accepted++;
+        }
+      }
+      assertEquals(1, accepted);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private AuctionOrderBook newOrderBook() {
+    return new AuctionOrderBook(eventStore, Clock.fixed(NOW, ZoneOffset.UTC),
+        new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+  }
+
+  private BidDecision bid(long minorUnits) {
+    BidDecision decision = orderBook.offer(auctionId, UUID.randomUUID(),
+        Money.of(minorUnits, Money.CZK));
+    assertEquals(BidOutcome.ACCEPTED, decision.outcome());
+    return decision;
+  }
+
+  private void publish(long sequenceNumber, Object payload) {
+    eventStore.publish(new GenericDomainEventMessage<>("Auction", auctionId.toString(),
+        sequenceNumber, payload));
+  }
+}
@@ -0,0 +1,58 @@
+package edu.fi.muni.cz.marketplace.config.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+  private static final int EXPECTED_INSERTIONS = 100_000;
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  @Test
+  void mightContain_addedKeys_hasNoFalseNegatives() {
+    BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+    for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+      filter.put("evt-" + i);
+    }
+
+    for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+      assertTrue(filter.mightContain("evt-" + i), "evt-" + i + " was added");
+    }
+  }
+
+  @Test
+  void mightContain_keysNotAdded_falsePositiveRateIsNearTheConfiguredRate() {
+    BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+    for (int i = 0; i < EXPECTED_INSERTIONS; i++) {
+      filter.put("evt-" + i);
+    }
+
+    int probes = 200_000;
+    int falsePositives = 0;
+    for (int i = 0; i < probes; i++) {
+      if (filter.mightContain("other-" + i)) {
+        falsePositives++;
+      }
+    }
+
+    double rate = (double) falsePositives / probes;
+    assertTrue(rate < FALSE_POSITIVE_RATE * 1.5, "false positive rate was " + rate);
+    assertTrue(rate > FALSE_POSITIVE_RATE / 2, "false positive rate was " + rate);
+  }
+
+  @Test
+  void mightContain_emptyFilter_containsNothing() {
+    BloomFilter filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+
+    assertFalse(filter.mightContain("evt-1"));
+  }
+
+  @Test
+  void constructor_invalidSizing_isRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, FALSE_POSITIVE_RATE));
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(EXPECTED_INSERTIONS, 1));
+  }
+}
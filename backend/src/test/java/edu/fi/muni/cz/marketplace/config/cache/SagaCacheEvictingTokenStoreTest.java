@@ -0,0 +1,55 @@
+package edu.fi.muni.cz.marketplace.config.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.axonframework.eventhandling.tokenstore.inmemory.InMemoryTokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SagaCacheEvictingTokenStoreTest {
+
+  private static final String SAGA_PROCESSOR = "FinalizeOrderSagaProcessor";
+  private static final String OTHER_PROCESSOR = "keycloak_user_ids";
+
+  private CaffeineCacheAdapter sagaCache;
+  private SagaCacheEvictingTokenStore tokenStore;
+
+  @BeforeEach
+  void setUp() {
+    sagaCache = new CaffeineCacheAdapter(100, Duration.ofMinutes(30));
+    InMemoryTokenStore delegate = new InMemoryTokenStore();
+    delegate.initializeTokenSegments(SAGA_PROCESSOR, 1);
+    delegate.initializeTokenSegments(OTHER_PROCESSOR, 1);
+    tokenStore = new SagaCacheEvictingTokenStore(delegate, Set.of(SAGA_PROCESSOR),
+        List.of(sagaCache));
+    sagaCache.put("saga-1", "cached");
+  }
+
+  @Test
+  void fetchToken_ofSagaProcessor_emptiesTheSagaCaches() {
+    tokenStore.fetchToken(SAGA_PROCESSOR, 0);
+
+    assertFalse(sagaCache.containsKey("saga-1"));
+  }
+
+  @Test
+  void releaseClaim_ofSagaProcessor_emptiesTheSagaCaches() {
+    tokenStore.releaseClaim(SAGA_PROCESSOR, 0);
+
+    assertFalse(sagaCache.containsKey("saga-1"));
+  }
+
+  @Test
+  void claimsOfOtherProcessors_keepTheSagaCaches() {
+    tokenStore.fetchToken(OTHER_PROCESSOR, 0);
+    tokenStore.extendClaim(SAGA_PROCESSOR, 0);
+    tokenStore.releaseClaim(OTHER_PROCESSOR, 0);
+
+    assertTrue(sagaCache.containsKey("saga-1"));
+  }
+}
@@ -0,0 +1,65 @@
+package edu.fi.muni.cz.marketplace.config.command;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.axonframework.commandhandling.CommandResultMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.callbacks.FutureCallback;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ForwardingCommandBusTest {
+
+  private static final String FORWARDED_COMMAND = String.class.getName();
+  private static final String LOCAL_COMMAND = Integer.class.getName();
+
+  private ForwardingCommandBus commandBus;
+  private SimpleCommandBus otherBus;
+
+  @BeforeEach
+  void setUp() {
+    commandBus = ForwardingCommandBus.builder().build();
+    otherBus = SimpleCommandBus.builder().build();
+  }
+
+  @Test
+  void dispatch_forwardedCommand_isHandledByTheOtherBus() {
+    commandBus.subscribe(FORWARDED_COMMAND, command -> "handled");
+    commandBus.forward(FORWARDED_COMMAND, otherBus);
+
+    assertEquals("handled", dispatch("reserve").getPayload());
+    assertEquals("handled", dispatchOnOtherBus("reserve").getPayload());
+  }
+
+  @Test
+  void forward_beforeSubscribing_subscribesTheHandlerOnTheOtherBus() {
+    commandBus.forward(FORWARDED_COMMAND, otherBus);
+    commandBus.subscribe(FORWARDED_COMMAND, command -> "handled");
+
+    assertEquals("handled", dispatchOnOtherBus("reserve").getPayload());
+  }
+
+  @Test
+  void dispatch_notForwardedCommand_isHandledOnDispatchingThread() {
+    Thread dispatcher = Thread.currentThread();
+    commandBus.subscribe(LOCAL_COMMAND, command -> Thread.currentThread() == dispatcher);
+    commandBus.forward(FORWARDED_COMMAND, otherBus);
+
+    assertEquals(true, dispatch(1).getPayload());
+  }
+
+  private CommandResultMessage<?> dispatch(Object payload) {
+    FutureCallback<Object, Object> callback = new FutureCallback<>();
+    commandBus.dispatch(asCommandMessage(payload), callback);
+    return callback.getResult(5, TimeUnit.SECONDS);
+  }
+
+  private CommandResultMessage<?> dispatchOnOtherBus(Object payload) {
+    FutureCallback<Object, Object> callback = new FutureCallback<>();
+    otherBus.dispatch(asCommandMessage(payload), callback);
+    return callback.getResult(5, TimeUnit.SECONDS);
+  }
+}
@@ -0,0 +1,177 @@
+package edu.fi.muni.cz.marketplace.config.command;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.common.caching.Cache;
+import org.axonframework.deadline.SimpleDeadlineManager;
+import org.axonframework.disruptor.commandhandling.DisruptorCommandBus;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.annotation.ClasspathParameterResolverFactory;
+import org.axonframework.messaging.annotation.MultiParameterResolverFactory;
+import org.axonframework.messaging.annotation.ParameterResolverFactory;
+import org.axonframework.messaging.annotation.SimpleResourceParameterResolverFactory;
+import org.axonframework.modelling.command.AggregateAnnotationCommandHandler;
+import org.axonframework.modelling.command.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.fi.muni.cz.marketplace.config.cache.CaffeineCacheAdapter;
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.aggregate.Order;
+import edu.fi.muni.cz.marketplace.order.aggregate.TrackingStatusMilestone;
+import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusCommand;
+import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
+import edu.fi.muni.cz.marketplace.order.events.TrackingNumberEnteredEvent;
+import edu.fi.muni.cz.marketplace.order.events.TrackingNumberProvidedEvent;
+
+/**
+ * Measures how many {@link UpdateTrackingStatusCommand}s per second the {@link Order} aggregate
+ * handles, dispatching them in bursts across orders with tracking in progress.
+ * <p>
+ * {@code local} handles them on {@link VirtualThreadCommandBus}, which runs them on the
+ * dispatching thread through a caching event-sourcing repository, so it uses one core.
+ * {@code disruptor} handles them on a {@link DisruptorCommandBus} with one invoker and one
+ * publisher thread, so per core it is the score divided by the busy threads. Events go to an
+ * in-memory event store, the measured cost is the command handling pipeline itself. Run with
+ * {@code main} from the test classpath.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderCommandBusBenchmark {
+
+  private static final int ORDERS = 1024;
+  private static final int COMMANDS = 4096;
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+  @Param({"local", "disruptor"})
+  private String bus;
+
+  private CommandBus commandBus;
+  private List<UUID> orderIds;
+  private final AtomicInteger eventNumber = new AtomicInteger();
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+    orderIds = Stream.generate(UUID::randomUUID).limit(ORDERS).toList();
+    orderIds.forEach(orderId -> eventStore.publish(
+        event(orderId, 0, new FundsReservedEvent(orderId, "pi_1", "pm_1", "deadline",
+            Money.of(10_000, Money.CZK), NOW, UUID.randomUUID(), "acct_1", 1000)),
+        event(orderId, 1, new TrackingNumberProvidedEvent(orderId, "TN" + orderId)),
+        event(orderId, 2, new TrackingNumberEnteredEvent(orderId, "TN" + orderId, "tr_1", NOW))));
+
+    ParameterResolverFactory parameterResolverFactory = MultiParameterResolverFactory.ordered(
+        ClasspathParameterResolverFactory.forClass(Order.class),
+        new SimpleResourceParameterResolverFactory(List.of(30L, Clock.systemUTC(),
+            SimpleDeadlineManager.builder()
+                .scopeAwareProvider(scope -> Stream.empty())
+                .build())));
+    Cache cache = new CaffeineCacheAdapter(ORDERS * 2L, Duration.ofMinutes(10));
+
+    Repository<Order> repository;
+    if ("disruptor".equals(bus)) {
+      DisruptorCommandBus disruptorBus = DisruptorCommandBus.builder()
+          .cache(cache)
+          .invokerThreadCount(1)
+          .publisherThreadCount(1)
+          .bufferSize(4096)
+          .build();
+      repository = disruptorBus.createRepository(eventStore,
+          new GenericAggregateFactory<>(Order.class), parameterResolverFactory);
+      commandBus = disruptorBus;
+    } else {
+      repository = EventSourcingRepository.builder(Order.class)
+          .eventStore(eventStore)
+          .cache(cache)
+          .parameterResolverFactory(parameterResolverFactory)
+          .build();
+      commandBus = VirtualThreadCommandBus.builder().build();
+    }
+    AggregateAnnotationCommandHandler.<Order>builder()
+        .aggregateType(Order.class)
+        .repository(repository)
+        .parameterResolverFactory(parameterResolverFactory)
+        .build()
+        .subscribe(commandBus);
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    if (commandBus instanceof DisruptorCommandBus disruptorBus) {
+      disruptorBus.stop();
+    } else {
+      ((VirtualThreadCommandBus) commandBus).shutdown();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COMMANDS)
+  public void updateTrackingStatus() throws InterruptedException {
+    CountDownLatch handled = new CountDownLatch(COMMANDS);
+    for (int i = 0; i < COMMANDS; i++) {
+      commandBus.dispatch(asCommandMessage(new UpdateTrackingStatusCommand(
+              orderIds.get(i % ORDERS),
+              "ev_" + eventNumber.incrementAndGet(),
+              TrackingStatusMilestone.IN_TRANSIT,
+              "in_transit",
+              NOW)),
+          (command, result) -> {
+            if (result.isExceptional()) {
+              throw new IllegalStateException(result.exceptionResult());
+            }
+            handled.countDown();
+          });
+    }
+    handled.await();
+  }
+
+  private static GenericDomainEventMessage<?> event(UUID orderId, long sequenceNumber,
+      Object payload) {
+    return new GenericDomainEventMessage<>(Order.class.getSimpleName(), orderId.toString(),
+        sequenceNumber, payload);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(OrderCommandBusBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
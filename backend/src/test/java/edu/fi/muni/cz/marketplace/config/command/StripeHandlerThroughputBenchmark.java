@@ -0,0 +1,106 @@
+package edu.fi.muni.cz.marketplace.config.command;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.axonframework.commandhandling.AsynchronousCommandBus;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how many Stripe-bound commands per second are handled when every handler blocks
+ * for a simulated Stripe round trip, dispatching them in bursts.
+ * <p>
+ * {@code platform} handles them on a fixed pool of platform threads the size of Axon Server's
+ * default command thread pool, {@code virtual} on {@link VirtualThreadCommandBus} with the
+ * configured Stripe permits. Run with {@code main} from the test classpath.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StripeHandlerThroughputBenchmark {
+
+  private static final String COMMAND_NAME = String.class.getName();
+  private static final int PLATFORM_THREADS = 10;
+  private static final int STRIPE_PERMITS = 64;
+  private static final int COMMANDS = 256;
+
+  @Param({"platform", "virtual"})
+  private String threads;
+
+  @Param({"20", "150"})
+  private long latencyMillis;
+
+  private ExecutorService platformExecutor;
+  private SimpleCommandBus commandBus;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    if ("virtual".equals(threads)) {
+      VirtualThreadCommandBus virtualBus = VirtualThreadCommandBus.builder()
+          .downstreamPermits(Map.of("stripe", STRIPE_PERMITS))
+          .build();
+      virtualBus.route(COMMAND_NAME, "stripe");
+      commandBus = virtualBus;
+    } else {
+      platformExecutor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+      commandBus = AsynchronousCommandBus.builder().executor(platformExecutor).build();
+    }
+    commandBus.subscribe(COMMAND_NAME, command -> {
+      Thread.sleep(latencyMillis);
+      return null;
+    });
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (commandBus instanceof VirtualThreadCommandBus virtualBus) {
+      virtualBus.shutdown();
+    } else {
+      platformExecutor.shutdown();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COMMANDS)
+  public void handleBurst() throws InterruptedException {
+    CountDownLatch handled = new CountDownLatch(COMMANDS);
+    for (int i = 0; i < COMMANDS; i++) {
+      commandBus.dispatch(asCommandMessage("reserve-" + i),
+          (command, result) -> handled.countDown());
+    }
+    handled.await();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(StripeHandlerThroughputBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
@@ -0,0 +1,107 @@
+package edu.fi.muni.cz.marketplace.config.command;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.axonframework.commandhandling.CommandResultMessage;
+import org.axonframework.commandhandling.callbacks.FutureCallback;
+import org.axonframework.common.AxonConfigurationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadCommandBusTest {
+
+  private static final String BLOCKING_COMMAND = String.class.getName();
+  private static final String LOCAL_COMMAND = Integer.class.getName();
+
+  private VirtualThreadCommandBus commandBus;
+
+  @BeforeEach
+  void setUp() {
+    commandBus = VirtualThreadCommandBus.builder()
+        .downstreamPermits(Map.of("stripe", 2))
+        .build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    commandBus.shutdown();
+  }
+
+  @Test
+  void dispatch_routedCommand_isHandledOnVirtualThread() {
+    commandBus.subscribe(BLOCKING_COMMAND, command -> Thread.currentThread().isVirtual());
+    commandBus.route(BLOCKING_COMMAND, "stripe");
+
+    assertEquals(true, dispatch("reserve").getPayload());
+  }
+
+  @Test
+  void dispatch_unroutedCommand_isHandledOnDispatchingThread() {
+    Thread dispatcher = Thread.currentThread();
+    commandBus.subscribe(LOCAL_COMMAND, command -> Thread.currentThread() == dispatcher);
+
+    assertEquals(true, dispatch(1).getPayload());
+  }
+
+  @Test
+  void dispatch_moreCommandsThanPermits_limitsConcurrentHandlers() throws InterruptedException {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch handled = new CountDownLatch(10);
+    commandBus.subscribe(BLOCKING_COMMAND, command -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      Thread.sleep(20);
+      running.decrementAndGet();
+      return null;
+    });
+    commandBus.route(BLOCKING_COMMAND, "stripe");
+
+    for (int i = 0; i < 10; i++) {
+      commandBus.dispatch(asCommandMessage("reserve-" + i),
+          (command, result) -> handled.countDown());
+    }
+
+    assertTrue(handled.await(5, TimeUnit.SECONDS));
+    assertEquals(2, maxRunning.get());
+  }
+
+  @Test
+  void dispatch_failingRoutedHandler_reportsExceptionalResult() {
+    commandBus.subscribe(BLOCKING_COMMAND, command -> {
+      throw new IllegalStateException("Stripe unavailable");
+    });
+    commandBus.route(BLOCKING_COMMAND, "stripe");
+
+    CommandResultMessage<?> result = dispatch("reserve");
+
+    assertTrue(result.isExceptional());
+    assertEquals("Stripe unavailable", result.exceptionResult().getMessage());
+  }
+
+  @Test
+  void route_unknownDownstream_isRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> commandBus.route(BLOCKING_COMMAND, "ship24"));
+  }
+
+  @Test
+  void builder_nonPositivePermits_isRejected() {
+    assertThrows(AxonConfigurationException.class,
+        () -> VirtualThreadCommandBus.builder().downstreamPermits(Map.of("stripe", 0)));
+  }
+
+  private CommandResultMessage<?> dispatch(Object payload) {
+    FutureCallback<Object, Object> callback = new FutureCallback<>();
+    commandBus.dispatch(asCommandMessage(payload), callback);
+    return callback.getResult(5, TimeUnit.SECONDS);
+  }
+}
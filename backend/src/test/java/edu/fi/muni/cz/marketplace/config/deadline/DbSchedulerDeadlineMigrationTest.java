@@ -0,0 +1,73 @@
+package edu.fi.muni.cz.marketplace.config.deadline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+import org.axonframework.deadline.dbscheduler.DbSchedulerBinaryDeadlineDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.github.kagkarlsson.scheduler.ScheduledExecution;
+import com.github.kagkarlsson.scheduler.SchedulerClient;
+import com.github.kagkarlsson.scheduler.task.TaskInstance;
+
+class DbSchedulerDeadlineMigrationTest {
+
+  private SchedulerClient scheduler;
+  private TimingWheelDeadlineManager deadlineManager;
+  private DbSchedulerDeadlineMigration migration;
+
+  @BeforeEach
+  void setUp() {
+    scheduler = mock(SchedulerClient.class);
+    deadlineManager = mock(TimingWheelDeadlineManager.class);
+    migration = new DbSchedulerDeadlineMigration(scheduler, deadlineManager);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void migrate_adoptsEveryScheduledDeadlineBeforeCancellingIt() {
+    DbSchedulerBinaryDeadlineDetails details = new DbSchedulerBinaryDeadlineDetails(
+        "ShippingDeadlineNotMet", new byte[0], "scope", new byte[0], "payload", null,
+        new byte[0]);
+    Instant executionTime = Instant.parse("2026-11-01T10:00:00Z");
+    TaskInstance<DbSchedulerBinaryDeadlineDetails> instance =
+        new TaskInstance<>(DbSchedulerDeadlineMigration.TASK_NAME, "token-1", details);
+    ScheduledExecution<DbSchedulerBinaryDeadlineDetails> execution =
+        mock(ScheduledExecution.class);
+    when(execution.getTaskInstance()).thenReturn(instance);
+    when(execution.getData()).thenReturn(details);
+    when(execution.getExecutionTime()).thenReturn(executionTime);
+    doAnswer(invocation -> {
+      invocation.<Consumer<ScheduledExecution<DbSchedulerBinaryDeadlineDetails>>>getArgument(2)
+          .accept(execution);
+      return null;
+    }).when(scheduler).fetchScheduledExecutionsForTask(eq(DbSchedulerDeadlineMigration.TASK_NAME),
+        eq(DbSchedulerBinaryDeadlineDetails.class), any(Consumer.class));
+
+    assertEquals(1, migration.migrate());
+
+    InOrder order = inOrder(deadlineManager, scheduler);
+    order.verify(deadlineManager).adopt("token-1", details, executionTime);
+    order.verify(scheduler).cancel(instance);
+  }
+
+  @Test
+  void migrate_withNothingScheduled_movesNothing() {
+    assertEquals(0, migration.migrate());
+
+    verify(deadlineManager, never()).adopt(any(), any(), any());
+    verify(scheduler, never()).cancel(any());
+  }
+}
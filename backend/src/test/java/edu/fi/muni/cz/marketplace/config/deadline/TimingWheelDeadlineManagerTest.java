@@ -0,0 +1,316 @@
+package edu.fi.muni.cz.marketplace.config.deadline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.axonframework.common.transaction.NoTransactionManager;
+import org.axonframework.deadline.DeadlineMessage;
+import org.axonframework.deadline.dbscheduler.DbSchedulerBinaryDeadlineDetails;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.ScopeAware;
+import org.axonframework.messaging.ScopeAwareProvider;
+import org.axonframework.messaging.ScopeDescriptor;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.thoughtworks.xstream.XStream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TimingWheelDeadlineManagerTest {
+
+  private static final Duration WINDOW = Duration.ofMinutes(1);
+  private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+  private static final Duration RETRY_DELAY = Duration.ofMinutes(5);
+  private static final TestScope SCOPE = new TestScope("order-1");
+
+  private final Clock clock = Clock.systemUTC();
+  private JdbcTemplate jdbcTemplate;
+  private ScopeAware component;
+  private ScopeAwareProvider scopeAwareProvider;
+  private XStreamSerializer serializer;
+  private SimpleMeterRegistry meterRegistry;
+  private TimingWheelDeadlineManager manager;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    when(jdbcTemplate.update(eq(TimingWheelDeadlineManager.DELETE_CLAIMED), any(Object[].class)))
+        .thenReturn(1);
+    component = mock(ScopeAware.class);
+    when(component.canResolve(any())).thenReturn(true);
+    scopeAwareProvider = mock(ScopeAwareProvider.class);
+    when(scopeAwareProvider.provideScopeAwareStream(any()))
+        .thenAnswer(invocation -> Stream.of(component));
+
+    XStream xStream = new XStream();
+    xStream.allowTypesByWildcard(new String[] {"edu.fi.muni.cz.**", "org.axonframework.**"});
+    serializer = XStreamSerializer.builder().xStream(xStream).build();
+    meterRegistry = new SimpleMeterRegistry();
+
+    manager = newManager(Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    manager.stop();
+  }
+
+  @Test
+  void schedule_withinLoadedWindow_isClaimedAndFiresOnItsTriggerTime() throws Exception {
+    startAndAwaitLoad();
+
+    String deadlineId = manager.schedule(clock.instant().plusMillis(50), "urgent", "payload",
+        SCOPE);
+
+    verify(jdbcTemplate).update(eq(TimingWheelDeadlineManager.INSERT), eq(deadlineId),
+        any(byte[].class), any(Timestamp.class), eq(true), anyString(), any(Timestamp.class),
+        eq(10));
+    verify(jdbcTemplate, timeout(2_000)).update(eq(TimingWheelDeadlineManager.DELETE_CLAIMED),
+        eq(deadlineId), anyString());
+    verify(component, timeout(2_000)).send(
+        argThat(message -> "payload".equals(((DeadlineMessage<?>) message).getPayload())),
+        eq(SCOPE));
+    assertEquals(0, pendingDeadlines());
+  }
+
+  @Test
+  void schedule_beyondLoadedWindow_isOnlyStoredForALaterLoad() throws Exception {
+    startAndAwaitLoad();
+
+    String deadlineId = manager.schedule(clock.instant().plus(WINDOW.multipliedBy(2)), "bulk",
+        "payload", SCOPE);
+
+    verify(jdbcTemplate).update(eq(TimingWheelDeadlineManager.INSERT), eq(deadlineId),
+        any(byte[].class), any(Timestamp.class), eq(false), isNull(), isNull(), eq(0));
+    assertEquals(0, pendingDeadlines());
+  }
+
+  @Test
+  void cancelSchedule_deletesTheRowAndUnlinksTheWheelEntry() throws Exception {
+    startAndAwaitLoad();
+    String deadlineId = manager.schedule(clock.instant().plusMillis(200), "bulk", "payload",
+        SCOPE);
+    assertEquals(1, pendingDeadlines());
+
+    manager.cancelSchedule("bulk", deadlineId);
+
+    verify(jdbcTemplate).update(TimingWheelDeadlineManager.CANCEL, deadlineId);
+    assertEquals(0, pendingDeadlines());
+    verify(component, after(400).never()).send(any(), any());
+  }
+
+  @Test
+  void adopt_storesTheDeadlineUnclaimedUnderItsNameAndScheduleId() {
+    Instant triggerTime = clock.instant().plusSeconds(30);
+
+    manager.adopt("token-1", details("urgent", "payload"), triggerTime);
+
+    verify(jdbcTemplate).update(eq(TimingWheelDeadlineManager.ADOPT), eq("urgent:token-1"),
+        any(byte[].class), eq(Timestamp.from(triggerTime)), eq(10));
+  }
+
+  @Test
+  void cancelSchedule_ofAnAdoptedDeadline_deletesItByItsPrefixedId() {
+    manager.cancelSchedule("urgent", "token-1");
+
+    verify(jdbcTemplate).update(TimingWheelDeadlineManager.CANCEL, "urgent:token-1");
+  }
+
+  @Test
+  void failingDeadline_isReleasedToBeRetriedAfterTheRetryDelay() throws Exception {
+    doThrow(new IllegalStateException("handler failed")).when(component).send(any(), any());
+    startAndAwaitLoad();
+
+    String deadlineId = manager.schedule(clock.instant().plusMillis(20), "bulk", "payload",
+        SCOPE);
+
+    ArgumentCaptor<Timestamp> failedAt = ArgumentCaptor.forClass(Timestamp.class);
+    ArgumentCaptor<Timestamp> retryAt = ArgumentCaptor.forClass(Timestamp.class);
+    verify(jdbcTemplate, timeout(2_000)).update(eq(TimingWheelDeadlineManager.RETRY_LATER),
+        failedAt.capture(), retryAt.capture(), eq(deadlineId), anyString());
+    assertEquals(RETRY_DELAY, Duration.between(failedAt.getValue().toInstant(),
+        retryAt.getValue().toInstant()));
+  }
+
+  @Test
+  void load_releasesStaleClaimsAndFiresTheClaimedDeadlines() throws Exception {
+    ResultSet row = claimedRow("bulk:claimed", "claimed", clock.instant().plusMillis(50));
+    when(jdbcTemplate.query(eq(TimingWheelDeadlineManager.CLAIM), any(RowMapper.class),
+        any(Object[].class)))
+        .thenAnswer(invocation ->
+            List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(row, 0)));
+    Instant startedAt = clock.instant();
+
+    manager.start();
+
+    ArgumentCaptor<Timestamp> staleBefore = ArgumentCaptor.forClass(Timestamp.class);
+    verify(jdbcTemplate, timeout(2_000)).update(eq(TimingWheelDeadlineManager.RELEASE_STALE),
+        staleBefore.capture());
+    Duration claimAge = Duration.between(staleBefore.getValue().toInstant(), startedAt);
+    assertTrue(claimAge.compareTo(CLAIM_TIMEOUT.minusSeconds(1)) > 0
+        && claimAge.compareTo(CLAIM_TIMEOUT) <= 0, "stale claims are older than the timeout");
+    verify(jdbcTemplate, timeout(2_000)).update(eq(TimingWheelDeadlineManager.DELETE_CLAIMED),
+        eq("bulk:claimed"), anyString());
+    verify(component, timeout(2_000)).send(
+        argThat(message -> "claimed".equals(((DeadlineMessage<?>) message).getPayload())),
+        eq(SCOPE));
+  }
+
+  @Test
+  void stop_releasesTheClaimsOfThisNode() {
+    manager.start();
+
+    manager.stop();
+
+    verify(jdbcTemplate).update(eq(TimingWheelDeadlineManager.RELEASE_OWN), anyString());
+    verify(jdbcTemplate, never()).update(eq(TimingWheelDeadlineManager.CANCEL), anyString());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void restart_withRowsStillClaimedByTheCrashedRun_onlyRenewsItsOwnClaims() throws Exception {
+    Instant triggerTime = clock.instant().plusSeconds(30);
+    ResultSet crashedRunRow = claimedRow("bulk:crashed", "crashed", triggerTime);
+    ResultSet restartedRunRow = claimedRow("bulk:new", "new", triggerTime);
+    when(jdbcTemplate.query(eq(TimingWheelDeadlineManager.CLAIM), any(RowMapper.class),
+        any(Object[].class)))
+        .thenAnswer(invocation ->
+            List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(crashedRunRow, 0)))
+        .thenAnswer(invocation ->
+            List.of(invocation.<RowMapper<?>>getArgument(1).mapRow(restartedRunRow, 0)))
+        .thenReturn(List.of());
+    ArgumentCaptor<Object[]> claims = ArgumentCaptor.forClass(Object[].class);
+    manager.start();
+    verify(jdbcTemplate, timeout(2_000)).query(eq(TimingWheelDeadlineManager.CLAIM),
+        any(RowMapper.class), claims.capture());
+    String crashedNode = (String) claims.getValue()[0];
+
+    // the process died without releasing its claims and came back with the same pid and host
+    TimingWheelDeadlineManager restarted = newManager(Duration.ofMillis(20));
+    try {
+      restarted.start();
+      verify(jdbcTemplate, timeout(2_000).times(2)).query(eq(TimingWheelDeadlineManager.CLAIM),
+          any(RowMapper.class), claims.capture());
+      String restartedNode = (String) claims.getValue()[0];
+      assertNotEquals(crashedNode, restartedNode);
+
+      ArgumentCaptor<List<Object[]>> heartbeats = ArgumentCaptor.forClass(List.class);
+      verify(jdbcTemplate, timeout(2_000).atLeastOnce())
+          .batchUpdate(eq(TimingWheelDeadlineManager.HEARTBEAT), heartbeats.capture());
+      heartbeats.getAllValues().forEach(batch -> {
+        assertEquals(1, batch.size());
+        assertEquals("bulk:new", batch.get(0)[1]);
+        assertEquals(restartedNode, batch.get(0)[2]);
+      });
+      verify(jdbcTemplate, never()).update(eq(TimingWheelDeadlineManager.RELEASE_OWN),
+          eq(crashedNode));
+    } finally {
+      restarted.stop();
+    }
+  }
+
+  @Test
+  void heartbeat_withNothingClaimed_renewsNoRows() {
+    TimingWheelDeadlineManager idle = newManager(Duration.ofMillis(20));
+    try {
+      idle.start();
+
+      verify(jdbcTemplate, after(200).never()).batchUpdate(
+          eq(TimingWheelDeadlineManager.HEARTBEAT), anyList());
+    } finally {
+      idle.stop();
+    }
+  }
+
+  private TimingWheelDeadlineManager newManager(Duration heartbeatInterval) {
+    return new TimingWheelDeadlineManager(jdbcTemplate, scopeAwareProvider, serializer,
+        NoTransactionManager.INSTANCE, meterRegistry, clock,
+        new TimingWheelDeadlineManager.Settings(Duration.ofMillis(10), 64, WINDOW, 100,
+            heartbeatInterval, CLAIM_TIMEOUT, RETRY_DELAY, List.of(
+                new TimingWheelDeadlineManager.Lane("urgent", 10, Set.of("urgent"), 1),
+                new TimingWheelDeadlineManager.Lane("bulk", 0, Set.of(), 1))));
+  }
+
+  private ResultSet claimedRow(String deadlineId, Object payload, Instant triggerTime)
+      throws Exception {
+    ResultSet row = mock(ResultSet.class);
+    when(row.getString("deadline_id")).thenReturn(deadlineId);
+    when(row.getBytes("deadline_data"))
+        .thenReturn(TimingWheelDeadlineManager.encode(details("bulk", payload)));
+    when(row.getTimestamp("execution_time")).thenReturn(Timestamp.from(triggerTime));
+    return row;
+  }
+
+  private void startAndAwaitLoad() {
+    manager.start();
+    verify(jdbcTemplate, timeout(2_000)).query(eq(TimingWheelDeadlineManager.CLAIM),
+        any(RowMapper.class), any(Object[].class));
+  }
+
+  private double pendingDeadlines() {
+    return meterRegistry.get("deadlines.wheel.pending").gauge().value();
+  }
+
+  private DbSchedulerBinaryDeadlineDetails details(String deadlineName, Object payload) {
+    SerializedObject<byte[]> scope = serializer.serialize(SCOPE, byte[].class);
+    SerializedObject<byte[]> serializedPayload = serializer.serialize(payload, byte[].class);
+    return new DbSchedulerBinaryDeadlineDetails(deadlineName, scope.getData(),
+        scope.getType().getName(), serializedPayload.getData(),
+        serializedPayload.getType().getName(), serializedPayload.getType().getRevision(),
+        serializer.serialize(MetaData.emptyInstance(), byte[].class).getData());
+  }
+
+  private static final class TestScope implements ScopeDescriptor {
+
+    private final String id;
+
+    private TestScope(String id) {
+      this.id = id;
+    }
+
+    @Override
+    public String scopeDescription() {
+      return "TestScope " + id;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof TestScope scope && id.equals(scope.id);
+    }
+
+    @Override
+    public int hashCode() {
+      return id.hashCode();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package edu.fi.muni.cz.marketplace.config.deadline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+  private static final long START = 1_700_000_000_000L;
+
+  @Test
+  void advance_expiresEntriesOnlyOnceTheirDeadlinePassed() {
+    TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 8, START);
+    wheel.add(START + 250, "b");
+    wheel.add(START + 100, "a");
+
+    assertEquals(List.of(), wheel.advance(START + 99));
+    assertEquals(List.of("a"), wheel.advance(START + 249));
+    assertEquals(List.of("b"), wheel.advance(START + 300));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void add_pastDeadline_expiresOnNextTick() {
+    TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 8, START);
+
+    wheel.add(START - 5_000, "overdue");
+
+    assertEquals(List.of(), wheel.advance(START + 50));
+    assertEquals(List.of("overdue"), wheel.advance(START + 100));
+  }
+
+  @Test
+  void cancel_removesEntryFromItsBucket() {
+    TimingWheel<String> wheel = new TimingWheel<>(Duration.ofMillis(100), 8, START);
+    TimingWheel.Timeout<String> cancelled = wheel.add(START + 500, "cancelled");
+    wheel.add(START + 500, "kept");
+
+    assertTrue(wheel.cancel(cancelled));
+    assertFalse(wheel.cancel(cancelled));
+    assertEquals(1, wheel.size());
+    assertEquals(List.of("kept"), wheel.advance(START + 1_000));
+  }
+
+  @Test
+  void advance_cascadesDistantDeadlinesThroughHigherLevels() {
+    TimingWheel<Long> wheel = new TimingWheel<>(Duration.ofMillis(1), 4, START);
+    Random random = new Random(42);
+    List<Long> deadlines = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      long deadline = START + 1 + random.nextInt(100_000);
+      deadlines.add(deadline);
+      wheel.add(deadline, deadline);
+    }
+    deadlines.sort(Comparator.naturalOrder());
+
+    List<Long> expired = new ArrayList<>();
+    for (long now = START; now <= START + 100_000; now += 1 + random.nextInt(700)) {
+      for (long deadline : wheel.advance(now)) {
+        assertTrue(deadline <= now, "expired early: " + deadline + " at " + now);
+        expired.add(deadline);
+      }
+    }
+    expired.addAll(wheel.advance(START + 100_001));
+
+    assertEquals(deadlines, expired);
+    assertEquals(0, wheel.size());
+  }
+}
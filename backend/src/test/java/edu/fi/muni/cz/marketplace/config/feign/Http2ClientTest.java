@@ -0,0 +1,129 @@
+package edu.fi.muni.cz.marketplace.config.feign;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class Http2ClientTest {
+
+  private static final Request.Options OPTIONS =
+      new Request.Options(1, TimeUnit.SECONDS, 1, TimeUnit.SECONDS, true);
+
+  private HttpServer server;
+  private String baseUrl;
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicReference<HttpExchange> lastExchange = new AtomicReference<>();
+  private final AtomicReference<String> lastBody = new AtomicReference<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void execute_gzipResponse_isDecompressed() throws Exception {
+    server.createContext("/trackers", exchange -> {
+      record(exchange);
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+        gzip.write("{\"data\": {}}".getBytes(UTF_8));
+      }
+      exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+      exchange.sendResponseHeaders(201, compressed.size());
+      exchange.getResponseBody().write(compressed.toByteArray());
+      exchange.close();
+    });
+
+    Response response = client().execute(request("/trackers", "{\"trackingNumber\": \"TN1\"}"),
+        OPTIONS);
+
+    assertEquals(201, response.status());
+    assertEquals("{\"data\": {}}", new String(response.body().asInputStream().readAllBytes(),
+        UTF_8));
+    assertFalse(response.headers().containsKey("Content-Encoding"));
+    HttpExchange exchange = lastExchange.get();
+    assertEquals("POST", exchange.getRequestMethod());
+    assertEquals("Bearer key", exchange.getRequestHeaders().getFirst("Authorization"));
+    assertEquals("gzip, deflate", exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+    assertEquals("{\"trackingNumber\": \"TN1\"}", lastBody.get());
+  }
+
+  @Test
+  void execute_recordsTimerByEndpointAndStatus() throws Exception {
+    server.createContext("/trackers", exchange -> {
+      record(exchange);
+      exchange.sendResponseHeaders(429, -1);
+      exchange.close();
+    });
+
+    client().execute(request("/trackers", "{}"), OPTIONS);
+
+    assertEquals(1, meterRegistry.get("ship24.http.requests")
+        .tag("method", "POST").tag("status", "429").timer().count());
+  }
+
+  @Test
+  void execute_readTimeout_recordsIoError() {
+    server.createContext("/trackers", exchange -> {
+      record(exchange);
+      try {
+        Thread.sleep(3000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.close();
+    });
+
+    assertThrows(IOException.class, () -> client().execute(request("/trackers", "{}"), OPTIONS));
+    assertEquals(1, meterRegistry.get("ship24.http.requests")
+        .tag("status", "IO_ERROR").timer().count());
+  }
+
+  private MeteredClient client() {
+    return new MeteredClient("ship24", new Http2Client(HttpClient.newHttpClient(), 4),
+        meterRegistry);
+  }
+
+  private Request request(String path, String body) {
+    return Request.create(Request.HttpMethod.POST, baseUrl + path,
+        Map.of("Authorization", List.of("Bearer key"), "Content-Length",
+            List.of(String.valueOf(body.length()))),
+        body.getBytes(UTF_8), UTF_8, null);
+  }
+
+  private void record(HttpExchange exchange) throws IOException {
+    lastExchange.set(exchange);
+    lastBody.set(new String(exchange.getRequestBody().readAllBytes(), UTF_8));
+  }
+}
@@ -0,0 +1,108 @@
+package edu.fi.muni.cz.marketplace.config.feign;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import edu.fi.muni.cz.marketplace.config.resilience.CallRejectedException;
+import edu.fi.muni.cz.marketplace.config.resilience.TokenBucket;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitingClientTest {
+
+  private static final Request REQUEST = Request.create(Request.HttpMethod.POST,
+      "https://api.ship24.com/public/v1/trackers", Map.of(), new byte[0], StandardCharsets.UTF_8,
+      null);
+  private static final Request.Options OPTIONS = new Request.Options();
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void tokenBucket_burstExhausted_spacesPermitsAtRate() {
+    AtomicLong now = new AtomicLong();
+    TokenBucket bucket = new TokenBucket(2, 10, now::get);
+
+    assertEquals(Duration.ZERO, bucket.reserve(Duration.ofSeconds(1)));
+    assertEquals(Duration.ZERO, bucket.reserve(Duration.ofSeconds(1)));
+    assertEquals(Duration.ofMillis(100), bucket.reserve(Duration.ofSeconds(1)));
+    assertEquals(Duration.ofMillis(200), bucket.reserve(Duration.ofSeconds(1)));
+
+    now.addAndGet(Duration.ofMillis(200).toNanos());
+    assertEquals(Duration.ofMillis(100), bucket.reserve(Duration.ofSeconds(1)));
+  }
+
+  @Test
+  void tokenBucket_waitBeyondLimit_refusesWithoutTakingPermit() {
+    AtomicLong now = new AtomicLong();
+    TokenBucket bucket = new TokenBucket(1, 10, now::get);
+    bucket.reserve(Duration.ZERO);
+
+    assertNull(bucket.reserve(Duration.ofMillis(50)));
+    assertEquals(Duration.ofMillis(100), bucket.reserve(Duration.ofMillis(100)));
+  }
+
+  @Test
+  void tokenBucket_paused_queuesBehindPause() {
+    AtomicLong now = new AtomicLong();
+    TokenBucket bucket = new TokenBucket(5, 10, now::get);
+
+    bucket.pause(Duration.ofSeconds(2));
+
+    assertEquals(Duration.ofSeconds(2), bucket.getRemainingPause());
+    assertEquals(Duration.ofMillis(2100), bucket.reserve(Duration.ofSeconds(5)));
+  }
+
+  @Test
+  void execute_throttled_retriesAfterRetryAfter() throws Exception {
+    Deque<Response> responses = new ArrayDeque<>(List.of(
+        response(429, Map.of("Retry-After", List.of("0"))), response(200, Map.of())));
+    RateLimitingClient client = new RateLimitingClient("ship24",
+        (request, options) -> responses.pop(), new TokenBucket(5, 100), Duration.ofSeconds(1), 3,
+        meterRegistry);
+
+    assertEquals(200, client.execute(REQUEST, OPTIONS).status());
+    assertEquals(1.0, meterRegistry.get("ship24.rate-limit.throttled").counter().count());
+  }
+
+  @Test
+  void execute_throttledTooOften_returnsTooManyRequests() throws Exception {
+    RateLimitingClient client = new RateLimitingClient("ship24",
+        (request, options) -> response(429, Map.of("Retry-After", List.of("0"))),
+        new TokenBucket(5, 100), Duration.ofSeconds(1), 2, meterRegistry);
+
+    assertEquals(429, client.execute(REQUEST, OPTIONS).status());
+    assertEquals(2.0, meterRegistry.get("ship24.rate-limit.throttled").counter().count());
+  }
+
+  @Test
+  void execute_waitExceedsMaxWait_rejects() throws Exception {
+    RateLimitingClient client = new RateLimitingClient("ship24",
+        (request, options) -> response(200, Map.of()), new TokenBucket(1, 0.1),
+        Duration.ofMillis(100), 0, meterRegistry);
+    client.execute(REQUEST, OPTIONS);
+
+    assertThrows(CallRejectedException.class, () -> client.execute(REQUEST, OPTIONS));
+    assertEquals(1.0, meterRegistry.get("ship24.rate-limit.rejected").counter().count());
+  }
+
+  private static Response response(int status, Map<String, Collection<String>> headers) {
+    return Response.builder()
+        .request(REQUEST)
+        .status(status)
+        .headers(headers)
+        .build();
+  }
+}
@@ -0,0 +1,127 @@
+package edu.fi.muni.cz.marketplace.config.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CallGuardTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AdaptiveConcurrencyLimiter limiter;
+  private CircuitBreaker circuitBreaker;
+  private CallGuard callGuard;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    limiter = new AdaptiveConcurrencyLimiter(4, 1, 8, Duration.ofSeconds(1), 0.5);
+    circuitBreaker = new CircuitBreaker(4, 4, 0.5, Duration.ofMinutes(1), 1, Clock.systemUTC());
+    callGuard = new CallGuard("stripe", circuitBreaker, limiter,
+        Map.of("reserve", 2, "refund", 1), IOException.class::isInstance, meterRegistry);
+  }
+
+  @Test
+  void execute_bulkheadFull_rejectsOnlyThatOperation() {
+    CompletableFuture<String> pendingRefund = new CompletableFuture<>();
+    callGuard.execute("refund", () -> pendingRefund);
+
+    CompletableFuture<String> refund = callGuard.execute("refund",
+        () -> CompletableFuture.completedFuture("re_2"));
+    CompletableFuture<String> reserve = callGuard.execute("reserve",
+        () -> CompletableFuture.completedFuture("pi_1"));
+
+    assertRejected(refund);
+    assertEquals("pi_1", reserve.join());
+    assertEquals(1.0, meterRegistry.get("stripe.calls.rejected")
+        .tag("operation", "refund").tag("reason", "bulkhead-full").counter().count());
+  }
+
+  @Test
+  void execute_providerFailures_openCircuitAndFailFast() {
+    for (int i = 0; i < 2; i++) {
+      callGuard.execute("reserve", () -> CompletableFuture.completedFuture("pi_1"));
+      callGuard.execute("reserve",
+          () -> CompletableFuture.failedFuture(new IOException("timeout")));
+    }
+    AtomicInteger calls = new AtomicInteger();
+
+    CompletableFuture<String> rejected = callGuard.execute("reserve", () -> {
+      calls.incrementAndGet();
+      return CompletableFuture.completedFuture("pi_3");
+    });
+
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    assertRejected(rejected);
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void execute_clientErrors_doNotCountAgainstProvider() {
+    for (int i = 0; i < 4; i++) {
+      callGuard.execute("reserve",
+          () -> CompletableFuture.failedFuture(new IllegalArgumentException("card declined")));
+    }
+
+    assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    assertEquals(4, limiter.getLimit());
+  }
+
+  @Test
+  void execute_providerFailure_shrinksConcurrencyLimit() {
+    callGuard.execute("reserve", () -> CompletableFuture.failedFuture(new IOException("timeout")));
+
+    assertEquals(2, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void execute_concurrencyLimitReached_rejectsAndReleasesBulkhead() {
+    limiter = new AdaptiveConcurrencyLimiter(1, 1, 8, Duration.ofSeconds(1), 0.5);
+    callGuard = new CallGuard("stripe", circuitBreaker, limiter, Map.of("reserve", 2, "refund", 1),
+        IOException.class::isInstance, new SimpleMeterRegistry());
+    callGuard.execute("reserve", CompletableFuture::new);
+
+    assertRejected(callGuard.execute("refund", () -> CompletableFuture.completedFuture("re_1")));
+    limiter.cancel();
+    assertEquals("re_1",
+        callGuard.execute("refund", () -> CompletableFuture.completedFuture("re_1")).join());
+  }
+
+  @Test
+  void circuitBreaker_halfOpen_closesAfterSuccessfulTrialAndReopensOnFailure() {
+    CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, Duration.ZERO, 1, Clock.systemUTC());
+    breaker.onFailure();
+    breaker.onFailure();
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+    assertTrue(breaker.tryAcquire());
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertFalse(breaker.tryAcquire());
+    breaker.onFailure();
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+    assertTrue(breaker.tryAcquire());
+    breaker.onSuccess();
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  private static void assertRejected(CompletableFuture<?> future) {
+    ExecutionException failure = assertThrows(ExecutionException.class, future::get);
+    assertInstanceOf(CallRejectedException.class, failure.getCause());
+  }
+}
@@ -0,0 +1,129 @@
+package edu.fi.muni.cz.marketplace.config.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.github.kagkarlsson.scheduler.Scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ScheduledTaskNotificationListenerTest {
+
+  private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+  private Scheduler scheduler;
+  private JdbcTemplate jdbcTemplate;
+  private SimpleMeterRegistry meterRegistry;
+  private ScheduledTaskNotificationListener listener;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    scheduler = mock(Scheduler.class);
+    jdbcTemplate = mock(JdbcTemplate.class);
+    // the listening connection keeps failing, the tests drive the wake-ups directly
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenThrow(new SQLException("No database in tests"));
+    meterRegistry = new SimpleMeterRegistry();
+    listener = new ScheduledTaskNotificationListener(dataSource, jdbcTemplate, scheduler,
+        Clock.fixed(NOW, ZoneOffset.UTC), Duration.ofMinutes(1), meterRegistry);
+    listener.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    listener.stop();
+  }
+
+  @Test
+  void wakeUpAt_futureExecutionTime_triggersTheSchedulerWhenItIsDue() {
+    listener.wakeUpAt(NOW.plusMillis(50).toEpochMilli());
+
+    verify(scheduler, never()).triggerCheckForDueExecutions();
+    verify(scheduler, timeout(2_000)).triggerCheckForDueExecutions();
+    assertEquals(1, wakeUps("timer"));
+  }
+
+  @Test
+  void wakeUpAt_earlierExecutionTime_rearmsTheTimer() {
+    listener.wakeUpAt(NOW.plusSeconds(30).toEpochMilli());
+
+    listener.wakeUpAt(NOW.plusMillis(50).toEpochMilli());
+
+    verify(scheduler, timeout(2_000)).triggerCheckForDueExecutions();
+  }
+
+  @Test
+  void wakeUpAt_laterExecutionTime_keepsTheEarlierTimer() {
+    listener.wakeUpAt(NOW.plusMillis(50).toEpochMilli());
+
+    listener.wakeUpAt(NOW.plusSeconds(30).toEpochMilli());
+
+    verify(scheduler, timeout(2_000)).triggerCheckForDueExecutions();
+  }
+
+  @Test
+  void wakeUpAt_pastExecutionTime_triggersTheSchedulerImmediately() {
+    listener.wakeUpAt(NOW.minusSeconds(1).toEpochMilli());
+
+    verify(scheduler).triggerCheckForDueExecutions();
+    assertEquals(1, wakeUps("notification"));
+    assertEquals(0, wakeUps("timer"));
+  }
+
+  @Test
+  void onTimer_readsTheNextExecutionTimeAndArmsAgain() {
+    when(jdbcTemplate.queryForObject(eq(ScheduledTaskNotificationListener.NEXT_EXECUTION_TIME),
+        eq(Timestamp.class), any(Object[].class)))
+        .thenReturn(Timestamp.from(NOW.plusMillis(100)), (Timestamp) null);
+
+    listener.wakeUpAt(NOW.plusMillis(50).toEpochMilli());
+
+    verify(scheduler, timeout(2_000).times(2)).triggerCheckForDueExecutions();
+    verify(jdbcTemplate, timeout(2_000).times(2)).queryForObject(
+        eq(ScheduledTaskNotificationListener.NEXT_EXECUTION_TIME), eq(Timestamp.class),
+        any(Object[].class));
+    assertEquals(2, wakeUps("timer"));
+  }
+
+  @Test
+  void badPayload_isIgnored() {
+    long executionTime = ScheduledTaskNotificationListener.parseExecutionTime("not-a-time");
+
+    listener.wakeUpAt(executionTime);
+
+    assertEquals(Long.MAX_VALUE, executionTime);
+    verify(scheduler, after(200).never()).triggerCheckForDueExecutions();
+  }
+
+  @Test
+  void parseExecutionTime_readsEpochMillis() {
+    assertEquals(NOW.toEpochMilli(),
+        ScheduledTaskNotificationListener.parseExecutionTime(
+            Long.toString(NOW.toEpochMilli())));
+  }
+
+  private double wakeUps(String source) {
+    return meterRegistry.get("scheduler.wake-ups").tag("source", source).counter().count();
+  }
+}
@@ -0,0 +1,110 @@
+package edu.fi.muni.cz.marketplace.config.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.AnnotationRevisionResolver;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.SimpleSerializedObject;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.thoughtworks.xstream.XStream;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.aggregate.TrackingStatusMilestone;
+import edu.fi.muni.cz.marketplace.order.deadline.ShippingDeadlineNotMetPayload;
+import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
+import edu.fi.muni.cz.marketplace.order.events.TrackingStatusUpdatedEvent;
+
+class BinarySerializerTest {
+
+  private XStreamSerializer xStreamSerializer;
+  private BinarySerializer serializer;
+
+  @BeforeEach
+  void setUp() {
+    XStream xStream = new XStream();
+    xStream.allowTypesByWildcard(new String[] {"edu.fi.muni.cz.**", "org.axonframework.**"});
+    xStreamSerializer = XStreamSerializer.builder().xStream(xStream).build();
+    serializer = new BinarySerializer("edu.fi.muni.cz.marketplace", xStreamSerializer,
+        new AnnotationRevisionResolver());
+  }
+
+  @Test
+  void serialize_fundsReservedEvent_roundTripsNativeTypes() {
+    FundsReservedEvent event = new FundsReservedEvent(UUID.randomUUID(), "pi_1", "pm_1",
+        "deadline-1", Money.of(123_450, Money.CZK), Instant.parse("2026-01-10T12:00:00.123456789Z"),
+        UUID.randomUUID(), "acct_1", 1000);
+
+    SerializedObject<byte[]> serialized = serializer.serialize(event, byte[].class);
+
+    assertEquals(FundsReservedEvent.class.getName(), serialized.getType().getName());
+    assertTrue(BinaryFormat.isBinary(serialized.getData()));
+    assertEquals(event, serializer.deserialize(serialized));
+  }
+
+  @Test
+  void serialize_nullFields_areRestoredAsNull() {
+    TrackingStatusUpdatedEvent event = new TrackingStatusUpdatedEvent(UUID.randomUUID(), "event-1",
+        TrackingStatusMilestone.IN_TRANSIT, null, Instant.now());
+
+    TrackingStatusUpdatedEvent restored = serializer.deserialize(
+        serializer.serialize(event, byte[].class));
+
+    assertEquals(event, restored);
+    assertNull(restored.getEventStatus());
+  }
+
+  @Test
+  void serialize_binaryPayload_isSmallerThanXStream() {
+    ShippingDeadlineNotMetPayload payload = new ShippingDeadlineNotMetPayload(UUID.randomUUID(),
+        "pi_1");
+
+    int binarySize = serializer.serialize(payload, byte[].class).getData().length;
+    int xStreamSize = xStreamSerializer.serialize(payload, byte[].class).getData().length;
+
+    assertTrue(binarySize < xStreamSize / 2,
+        "binary " + binarySize + " bytes, xstream " + xStreamSize + " bytes");
+  }
+
+  @Test
+  void deserialize_legacyXStreamData_isReadThroughFallback() {
+    TrackingStatusUpdatedEvent event = new TrackingStatusUpdatedEvent(UUID.randomUUID(), "event-1",
+        TrackingStatusMilestone.DELIVERED, "Delivered", Instant.now());
+    SerializedObject<byte[]> legacy = xStreamSerializer.serialize(event, byte[].class);
+
+    assertEquals(event, serializer.deserialize(legacy));
+  }
+
+  @Test
+  void serialize_frameworkTypes_areDelegatedToFallback() {
+    MetaData metaData = MetaData.with("traceId", "abc");
+
+    SerializedObject<byte[]> serialized = serializer.serialize(metaData, byte[].class);
+
+    assertFalse(BinaryFormat.isBinary(serialized.getData()));
+    assertEquals(metaData, serializer.deserialize(serialized));
+  }
+
+  @Test
+  void deserialize_upcastedRecord_appliesRenamedField() {
+    UUID orderId = UUID.randomUUID();
+    BinaryRecord record = new BinaryRecord()
+        .put("orderId", orderId)
+        .put("paymentId", "pi_1");
+    record.rename("paymentId", "paymentIntentId");
+
+    ShippingDeadlineNotMetPayload restored = serializer.deserialize(new SimpleSerializedObject<>(
+        record, BinaryRecord.class, serializer.typeForClass(ShippingDeadlineNotMetPayload.class)));
+
+    assertEquals(new ShippingDeadlineNotMetPayload(orderId, "pi_1"), restored);
+  }
+}
@@ -0,0 +1,105 @@
+package edu.fi.muni.cz.marketplace.config.serialization;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.axonframework.serialization.AnnotationRevisionResolver;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.thoughtworks.xstream.XStream;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.aggregate.TrackingStatusMilestone;
+import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
+import edu.fi.muni.cz.marketplace.order.events.OrderDeliveredEvent;
+import edu.fi.muni.cz.marketplace.order.events.TrackingStatusUpdatedEvent;
+import edu.fi.muni.cz.marketplace.user.event.UserRegisteredEvent;
+
+/**
+ * Compares {@link BinarySerializer} with the XStream serializer Axon uses by default, on the event
+ * shapes stored for every order. Payload sizes are printed once per trial. Run with {@code main}
+ * from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializerBenchmark {
+
+  @Param({"xstream", "binary"})
+  private String format;
+
+  @Param({"FundsReservedEvent", "TrackingStatusUpdatedEvent", "OrderDeliveredEvent",
+      "UserRegisteredEvent"})
+  private String event;
+
+  private Serializer serializer;
+  private Object payload;
+  private SerializedObject<byte[]> serialized;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    XStream xStream = new XStream();
+    xStream.allowTypesByWildcard(new String[] {"edu.fi.muni.cz.**"});
+    Serializer xStreamSerializer = XStreamSerializer.builder().xStream(xStream).build();
+    serializer = "binary".equals(format)
+        ? new BinarySerializer("edu.fi.muni.cz.marketplace", xStreamSerializer,
+            new AnnotationRevisionResolver())
+        : xStreamSerializer;
+
+    UUID orderId = UUID.randomUUID();
+    Instant now = Instant.now();
+    payload = switch (event) {
+      case "FundsReservedEvent" -> new FundsReservedEvent(orderId, "pi_3QxYz2EEAhhOCf0h1a2b3c4d",
+          "pm_1QxYz2EEAhhOCf0hVisa", "3f9a1c2e-6b7d-4e8f-9a0b-1c2d3e4f5a6b",
+          Money.of(149_990, Money.CZK), now, UUID.randomUUID(), "acct_1SjJEWEEAhhOCf0h",
+          1000);
+      case "TrackingStatusUpdatedEvent" -> new TrackingStatusUpdatedEvent(orderId,
+          "e726b49a-bea6-26a8-4610-553548ca765b", TrackingStatusMilestone.IN_TRANSIT,
+          "Arrived in destination country", now);
+      case "OrderDeliveredEvent" -> new OrderDeliveredEvent(orderId, "acct_1SjJEWEEAhhOCf0h",
+          Money.of(134_991, Money.CZK), Money.of(14_999, Money.CZK), now);
+      default -> new UserRegisteredEvent(UUID.randomUUID(),
+          "8c6f3c7a-1d2e-4b5f-9a8b-7c6d5e4f3a2b");
+    };
+    serialized = serializer.serialize(payload, byte[].class);
+    System.out.printf("%n%s %s: %d bytes%n", format, event, serialized.getData().length);
+  }
+
+  @Benchmark
+  public SerializedObject<byte[]> serialize() {
+    return serializer.serialize(payload, byte[].class);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(serialized);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(EventSerializerBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
@@ -0,0 +1,123 @@
+package edu.fi.muni.cz.marketplace.config.stripe;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class StripeHttpTransportTest {
+
+  private static final String API_KEY = "sk_test_instance";
+
+  private HttpServer server;
+  private StripeHttpTransport transport;
+  private final AtomicReference<HttpExchange> lastExchange = new AtomicReference<>();
+  private final AtomicReference<String> lastBody = new AtomicReference<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    server.start();
+    transport = new StripeHttpTransport(HttpClient.newHttpClient(),
+        "http://localhost:" + server.getAddress().getPort(), API_KEY, Duration.ofSeconds(5));
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void post_successfulResponse_isDeserialized() throws Exception {
+    respond(200, "{\"id\": \"pi_1\", \"object\": \"payment_intent\", \"amount\": 150000}", 0);
+
+    PaymentIntent paymentIntent = transport.post("/v1/payment_intents", paymentIntentParams(),
+            RequestOptions.builder().setIdempotencyKey("pay_1").build(), PaymentIntent.class)
+        .get(5, TimeUnit.SECONDS);
+
+    assertEquals("pi_1", paymentIntent.getId());
+    assertEquals(150000L, paymentIntent.getAmount());
+    HttpExchange exchange = lastExchange.get();
+    assertEquals("POST", exchange.getRequestMethod());
+    assertEquals("Bearer " + API_KEY, exchange.getRequestHeaders().getFirst("Authorization"));
+    assertEquals("pay_1", exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+    assertTrue(lastBody.get().contains("amount=150000"), lastBody.get());
+  }
+
+  @Test
+  void post_errorResponse_failsWithStripeError() {
+    respond(402, "{\"error\": {\"type\": \"card_error\", \"code\": \"card_declined\","
+        + " \"message\": \"Your card was declined.\"}}", 0);
+
+    ExecutionException failure = assertThrows(ExecutionException.class,
+        () -> transport.post("/v1/payment_intents", paymentIntentParams(),
+            RequestOptions.getDefault(), PaymentIntent.class).get(5, TimeUnit.SECONDS));
+
+    ApiException exception = assertInstanceOf(ApiException.class, failure.getCause());
+    assertEquals(402, exception.getStatusCode());
+    assertEquals("card_declined", exception.getCode());
+    assertTrue(exception.getMessage().startsWith("Your card was declined."));
+  }
+
+  @Test
+  void post_slowerThanCallTimeout_failsWithConnectionError() {
+    respond(200, "{\"id\": \"pi_1\"}", 1000);
+
+    ExecutionException failure = assertThrows(ExecutionException.class,
+        () -> transport.post("/v1/payment_intents", paymentIntentParams(),
+            RequestOptions.builder().setReadTimeout(100).build(), PaymentIntent.class)
+            .get(5, TimeUnit.SECONDS));
+
+    ApiConnectionException exception = assertInstanceOf(ApiConnectionException.class,
+        failure.getCause());
+    assertInstanceOf(HttpTimeoutException.class, exception.getCause());
+  }
+
+  private void respond(int status, String body, long delayMillis) {
+    server.createContext("/v1/payment_intents", exchange -> {
+      lastExchange.set(exchange);
+      lastBody.set(new String(exchange.getRequestBody().readAllBytes(), UTF_8));
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] response = body.getBytes(UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(status, response.length);
+      exchange.getResponseBody().write(response);
+      exchange.close();
+    });
+  }
+
+  private static PaymentIntentCreateParams paymentIntentParams() {
+    return PaymentIntentCreateParams.builder()
+        .setAmount(150000L)
+        .setCurrency("czk")
+        .build();
+  }
+}
@@ -0,0 +1,59 @@
+package edu.fi.muni.cz.marketplace.money;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+  @Test
+  void ofMajor_exactAmount_isStoredInMinorUnits() {
+    Money money = Money.ofMajor(new BigDecimal("1234.5"), Money.CZK);
+
+    assertEquals(123_450, money.getMinorUnits());
+    assertEquals(new BigDecimal("1234.50"), money.toMajor());
+    assertEquals("1234.50 CZK", money.toString());
+  }
+
+  @Test
+  void ofMajor_fractionOfMinorUnit_isRejectedInsteadOfTruncated() {
+    assertThrows(ArithmeticException.class,
+        () -> Money.ofMajor(new BigDecimal("10.005"), Money.CZK));
+  }
+
+  @Test
+  void percentage_roundsAsRequested() {
+    Money amount = Money.of(99_999, Money.CZK);
+
+    assertEquals(Money.of(10_000, Money.CZK), amount.percentage(1000, RoundingMode.HALF_UP));
+    assertEquals(Money.of(9_999, Money.CZK), amount.percentage(1000, RoundingMode.DOWN));
+    assertThrows(ArithmeticException.class,
+        () -> amount.percentage(1000, RoundingMode.UNNECESSARY));
+  }
+
+  @Test
+  void divide_matchesBigDecimalForEveryRoundingMode() {
+    long[] dividends = {-25, -15, -11, -10, -5, 0, 5, 10, 11, 15, 25, 35};
+    for (RoundingMode mode : RoundingMode.values()) {
+      if (mode == RoundingMode.UNNECESSARY) {
+        continue;
+      }
+      for (long dividend : dividends) {
+        long expected = BigDecimal.valueOf(dividend)
+            .divide(BigDecimal.TEN, 0, mode)
+            .longValueExact();
+        assertEquals(expected, Money.divide(dividend, 10, mode), dividend + " " + mode);
+      }
+    }
+  }
+
+  @Test
+  void plus_otherCurrency_isRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> Money.of(100, Money.CZK).plus(Money.of(100, "EUR")));
+  }
+}
@@ -0,0 +1,142 @@
+package edu.fi.muni.cz.marketplace.order.aggregate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.AggregateSnapshotter;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.annotation.ClasspathParameterResolverFactory;
+import org.axonframework.messaging.annotation.ParameterResolverFactory;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
+import edu.fi.muni.cz.marketplace.order.events.TrackingNumberEnteredEvent;
+import edu.fi.muni.cz.marketplace.order.events.TrackingNumberProvidedEvent;
+import edu.fi.muni.cz.marketplace.order.events.TrackingStatusUpdatedEvent;
+
+/**
+ * Measures how long it takes to load an {@link Order} as its stream of
+ * {@link TrackingStatusUpdatedEvent}s grows, with and without a snapshot at the head of the
+ * stream.
+ *
+ * <p>
+ * Uses the in-memory storage engine, so the numbers cover event sourcing handler replay and not
+ * serialization. Run with {@code main} from the test classpath.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderLoadBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int trackingUpdates;
+
+  @Param({"false", "true"})
+  private boolean snapshotted;
+
+  private EmbeddedEventStore eventStore;
+  private EventSourcingRepository<Order> repository;
+  private String orderId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+
+    ParameterResolverFactory parameterResolverFactory =
+        ClasspathParameterResolverFactory.forClass(Order.class);
+
+    repository = EventSourcingRepository.builder(Order.class)
+        .eventStore(eventStore)
+        .parameterResolverFactory(parameterResolverFactory)
+        .build();
+
+    UUID id = UUID.randomUUID();
+    orderId = id.toString();
+    eventStore.publish(orderStream(id, trackingUpdates));
+
+    if (snapshotted) {
+      AggregateSnapshotter.builder()
+          .eventStore(eventStore)
+          .aggregateFactories(new GenericAggregateFactory<>(Order.class))
+          .parameterResolverFactory(parameterResolverFactory)
+          .build()
+          .scheduleSnapshot(Order.class, orderId);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    eventStore.shutDown();
+  }
+
+  @Benchmark
+  public Order load() {
+    UnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    try {
+      return repository.load(orderId).invoke(order -> order);
+    } finally {
+      unitOfWork.rollback();
+    }
+  }
+
+  private static List<DomainEventMessage<?>> orderStream(UUID orderId, int trackingUpdates) {
+    String aggregateId = orderId.toString();
+    Instant now = Instant.now();
+    List<Object> payloads = new ArrayList<>();
+
+    payloads.add(new FundsReservedEvent(orderId, "pi_bench", "pm_bench", "deadline-bench",
+        Money.of(10_000, Money.CZK), now, UUID.randomUUID(), "acct_bench", 1000));
+    payloads.add(new TrackingNumberProvidedEvent(orderId, "TRACK-BENCH"));
+    payloads.add(new TrackingNumberEnteredEvent(orderId, "TRACK-BENCH", "tracker-bench", now));
+    for (int i = 0; i < trackingUpdates; i++) {
+      payloads.add(new TrackingStatusUpdatedEvent(orderId, "event-" + i,
+          TrackingStatusMilestone.IN_TRANSIT, "In transit", now.plusSeconds(i)));
+    }
+
+    List<DomainEventMessage<?>> messages = new ArrayList<>(payloads.size());
+    for (int sequence = 0; sequence < payloads.size(); sequence++) {
+      messages.add(new GenericDomainEventMessage<>(
+          Order.class.getSimpleName(), aggregateId, sequence, payloads.get(sequence)));
+    }
+    return messages;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(OrderLoadBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
@@ -6,11 +6,11 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
-import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.UUID;
 
 import org.axonframework.test.aggregate.AggregateTestFixture;
@@ -18,12 +18,16 @@ import org.axonframework.test.aggregate.FixtureConfiguration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import edu.fi.muni.cz.marketplace.money.Money;
 import edu.fi.muni.cz.marketplace.order.command.AssignFundReservationCommand;
 import edu.fi.muni.cz.marketplace.order.command.AssignTrackingInfoCommand;
 import edu.fi.muni.cz.marketplace.order.command.EnterTrackingNumberCommand;
 import edu.fi.muni.cz.marketplace.order.command.CompleteOrderCommand;
 import edu.fi.muni.cz.marketplace.order.command.FinishRefundCommand;
+import edu.fi.muni.cz.marketplace.order.command.TrackingStatusUpdate;
+import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusBatchCommand;
 import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusCommand;
+import edu.fi.muni.cz.marketplace.order.commission.CommissionPolicy;
 import edu.fi.muni.cz.marketplace.order.deadline.ShippingDeadline;
 import edu.fi.muni.cz.marketplace.order.deadline.ShippingDeadlineNotMetPayload;
 import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
@@ -38,7 +42,8 @@ import edu.fi.muni.cz.marketplace.order.events.TrackingStatusUpdatedEvent;
 class OrderTest {
 
   private static final Long REFUND_DEADLINE_DAYS = 7L;
-  private static final String COMMISSION_PERCENTAGE = "0.1";
+  private static final long COMMISSION_BASIS_POINTS = 1000;
+  private static final UUID DISCOUNTED_SELLER_ID = UUID.randomUUID();
   private static final Instant FIXED_TIME = Instant.parse("2026-01-10T12:00:00Z");
   private static final Clock FIXED_CLOCK = Clock.fixed(FIXED_TIME, ZoneOffset.UTC);
 
@@ -48,7 +53,8 @@ class OrderTest {
   void setUp() {
     fixture = new AggregateTestFixture<>(Order.class);
     fixture.registerInjectableResource(REFUND_DEADLINE_DAYS);
-    fixture.registerInjectableResource(COMMISSION_PERCENTAGE);
+    fixture.registerInjectableResource(CommissionPolicy.compile(
+        Money.CZK, "0.1", List.of(), List.of(DISCOUNTED_SELLER_ID + ":0.05"), List.of()));
     fixture.registerInjectableResource(FIXED_CLOCK);
   }
 
@@ -57,7 +63,7 @@ class OrderTest {
     UUID orderId = UUID.randomUUID();
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = Instant.now();
     UUID sellerId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
@@ -70,7 +76,8 @@ class OrderTest {
             amount,
             reservedAt,
             sellerId,
-            sellerStripeAccountId))
+            sellerStripeAccountId,
+            null))
         .expectSuccessfulHandlerExecution()
         .expectEventsMatching(exactSequenceOf(
             messageWithPayload(instanceOf(FundsReservedEvent.class))))
@@ -98,7 +105,7 @@ class OrderTest {
     UUID orderId = UUID.randomUUID();
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
@@ -111,7 +118,8 @@ class OrderTest {
             amount,
             reservedAt,
             sellerId,
-            sellerStripeAccountId))
+            sellerStripeAccountId,
+            null))
         .whenTimeElapses(Duration.ofDays(REFUND_DEADLINE_DAYS))
         .expectTriggeredDeadlinesWithName(ShippingDeadline.SHIPING_DEADLINE_NOT_MET)
         .expectEvents(new OrderRefundScheduledEvent(orderId, paymentIntentId))
@@ -127,7 +135,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -142,7 +150,8 @@ class OrderTest {
             amount,
             reservedAt,
             sellerId,
-            sellerAccountId),
+            sellerAccountId,
+            COMMISSION_BASIS_POINTS),
         new OrderRefundScheduledEvent(orderId, paymentIntentId))
         .when(new FinishRefundCommand(orderId, refundId))
         .expectSuccessfulHandlerExecution()
@@ -160,7 +169,7 @@ class OrderTest {
     UUID orderId = UUID.randomUUID();
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
@@ -174,7 +183,8 @@ class OrderTest {
             amount,
             reservedAt,
             sellerId,
-            sellerStripeAccountId))
+            sellerStripeAccountId,
+            null))
         .andGiven(new TrackingNumberProvidedEvent(orderId, trackingNumber))
         .whenTimeElapses(Duration.ofDays(REFUND_DEADLINE_DAYS))
         .expectSuccessfulHandlerExecution()
@@ -190,7 +200,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -205,7 +215,8 @@ class OrderTest {
             amount,
             reservedAt,
             sellerId,
-            sellerAccountId))
+            sellerAccountId,
+            COMMISSION_BASIS_POINTS))
         .when(new FinishRefundCommand(orderId, refundId))
         .expectException(IllegalStateException.class)
         .expectNoEvents();
@@ -216,7 +227,7 @@ class OrderTest {
     UUID orderId = UUID.randomUUID();
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
@@ -231,7 +242,8 @@ class OrderTest {
                 amount,
                 reservedAt,
                 sellerId,
-                sellerStripeAccountId),
+                sellerStripeAccountId,
+                null),
             new EnterTrackingNumberCommand(orderId, trackingNumber))
         .whenTimeElapses(Duration.ofDays(REFUND_DEADLINE_DAYS))
         .expectNoScheduledDeadlines()
@@ -248,7 +260,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -263,7 +275,8 @@ class OrderTest {
             amount,
             reservedAt,
             sellerId,
-            sellerAccountId),
+            sellerAccountId,
+            COMMISSION_BASIS_POINTS),
         new OrderRefundScheduledEvent(orderId, paymentIntentId))
         .when(new EnterTrackingNumberCommand(orderId, trackingNumber))
         .expectException(IllegalStateException.class)
@@ -276,7 +289,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -293,7 +306,8 @@ class OrderTest {
             amount,
             reservedAt,
             sellerId,
-            sellerAccountId),
+            sellerAccountId,
+            COMMISSION_BASIS_POINTS),
         new TrackingNumberProvidedEvent(orderId, trackingNumber))
         .when(new AssignTrackingInfoCommand(orderId, trackingNumber, ship24TrackerId, enteredAt))
         .expectSuccessfulHandlerExecution()
@@ -313,7 +327,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -330,7 +344,8 @@ class OrderTest {
             amount,
             reservedAt,
             sellerId,
-            sellerAccountId))
+            sellerAccountId,
+            COMMISSION_BASIS_POINTS))
         .when(new AssignTrackingInfoCommand(orderId, trackingNumber, ship24TrackerId, enteredAt))
         .expectException(IllegalStateException.class)
         .expectNoEvents();
@@ -342,7 +357,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -355,7 +370,7 @@ class OrderTest {
     fixture.given(
         new FundsReservedEvent(
             orderId, paymentIntentId, paymentMethodId, deadlineId,
-            amount, reservedAt, sellerId, sellerAccountId),
+            amount, reservedAt, sellerId, sellerAccountId, COMMISSION_BASIS_POINTS),
         new TrackingNumberProvidedEvent(orderId, trackingNumber),
         new TrackingNumberEnteredEvent(orderId, trackingNumber, ship24TrackerId, enteredAt))
         .when(new UpdateTrackingStatusCommand(
@@ -376,7 +391,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal(100);
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -389,7 +404,7 @@ class OrderTest {
     fixture.given(
         new FundsReservedEvent(
             orderId, paymentIntentId, paymentMethodId, deadlineId,
-            amount, reservedAt, sellerId, sellerAccountId),
+            amount, reservedAt, sellerId, sellerAccountId, COMMISSION_BASIS_POINTS),
         new TrackingNumberProvidedEvent(orderId, trackingNumber),
         new TrackingNumberEnteredEvent(orderId, trackingNumber, ship24TrackerId, enteredAt))
         .when(new UpdateTrackingStatusCommand(
@@ -400,8 +415,8 @@ class OrderTest {
                 orderId, eventId, TrackingStatusMilestone.DELIVERED, "Delivered", eventOccurredAt),
             new OrderDeliveredEvent(
                 orderId, sellerAccountId,
-                amount.multiply(BigDecimal.valueOf(0.9)),
-                amount.multiply(BigDecimal.valueOf(0.1)),
+                Money.of(9_000, Money.CZK),
+                Money.of(1_000, Money.CZK),
                 eventOccurredAt))
         .expectState(order -> {
           assertEquals(orderId, order.getId());
@@ -409,13 +424,129 @@ class OrderTest {
         });
   }
 
+
+  @Test
+  void assignFundReservation_sellerWithOverride_shouldPinSellerRate() {
+    UUID orderId = UUID.randomUUID();
+
+    fixture.givenCurrentTime(FIXED_TIME)
+        .when(new AssignFundReservationCommand(
+            orderId,
+            "pi_test123",
+            "pm_test456",
+            Money.of(10_000, Money.CZK),
+            FIXED_TIME,
+            DISCOUNTED_SELLER_ID,
+            "acct_seller123",
+            null))
+        .expectSuccessfulHandlerExecution()
+        .expectState(order -> assertEquals(500, order.getCommissionBasisPoints()));
+  }
+
+  @Test
+  void updateTrackingStatus_delivered_shouldSplitByPinnedRateNotCurrentPolicy() {
+    UUID orderId = UUID.randomUUID();
+    String sellerAccountId = "acct_seller123";
+    Instant eventOccurredAt = FIXED_TIME.plusSeconds(7200);
+
+    fixture.given(
+        new FundsReservedEvent(
+            orderId, "pi_test123", "pm_test456", "deadline-123", Money.of(10_000, Money.CZK),
+            FIXED_TIME, UUID.randomUUID(), sellerAccountId, 250),
+        new TrackingNumberProvidedEvent(orderId, "TRACK123456"),
+        new TrackingNumberEnteredEvent(orderId, "TRACK123456", "ship24-tracker-789",
+            FIXED_TIME.plusSeconds(3600)))
+        .when(new UpdateTrackingStatusCommand(
+            orderId, "event-002", TrackingStatusMilestone.DELIVERED, "Delivered", eventOccurredAt))
+        .expectSuccessfulHandlerExecution()
+        .expectEvents(
+            new TrackingStatusUpdatedEvent(
+                orderId, "event-002", TrackingStatusMilestone.DELIVERED, "Delivered",
+                eventOccurredAt),
+            new OrderDeliveredEvent(
+                orderId, sellerAccountId,
+                Money.of(9_750, Money.CZK),
+                Money.of(250, Money.CZK),
+                eventOccurredAt));
+  }
+  @Test
+  void updateTrackingStatusBatch_multipleUpdates_shouldEmitEventsInOrder() {
+    UUID orderId = UUID.randomUUID();
+    Money amount = Money.of(10_000, Money.CZK);
+    String sellerAccountId = "acct_seller123";
+    String trackingNumber = "TRACK123456";
+    Instant inTransitAt = FIXED_TIME.plusSeconds(7200);
+    Instant outForDeliveryAt = FIXED_TIME.plusSeconds(10800);
+
+    fixture.given(
+        new FundsReservedEvent(
+            orderId, "pi_test123", "pm_test456", "deadline-123",
+            amount, FIXED_TIME, UUID.randomUUID(), sellerAccountId, COMMISSION_BASIS_POINTS),
+        new TrackingNumberProvidedEvent(orderId, trackingNumber),
+        new TrackingNumberEnteredEvent(
+            orderId, trackingNumber, "ship24-tracker-789", FIXED_TIME.plusSeconds(3600)))
+        .when(new UpdateTrackingStatusBatchCommand(orderId, List.of(
+            new TrackingStatusUpdate(
+                "event-001", TrackingStatusMilestone.IN_TRANSIT, "In transit", inTransitAt),
+            new TrackingStatusUpdate(
+                "event-002", TrackingStatusMilestone.OUT_FOR_DELIVERY, "Out for delivery",
+                outForDeliveryAt))))
+        .expectSuccessfulHandlerExecution()
+        .expectEvents(
+            new TrackingStatusUpdatedEvent(
+                orderId, "event-001", TrackingStatusMilestone.IN_TRANSIT, "In transit",
+                inTransitAt),
+            new TrackingStatusUpdatedEvent(
+                orderId, "event-002", TrackingStatusMilestone.OUT_FOR_DELIVERY,
+                "Out for delivery", outForDeliveryAt))
+        .expectState(order -> {
+          assertEquals(OrderStatus.TRACKING_IN_PROGRESS, order.getStatus());
+          assertEquals(TrackingStatusMilestone.OUT_FOR_DELIVERY,
+              order.getTrackingInfo().getStatusMilestone());
+        });
+  }
+
+  @Test
+  void updateTrackingStatusBatch_updatesAfterDelivery_shouldBeSkipped() {
+    UUID orderId = UUID.randomUUID();
+    Money amount = Money.of(10_000, Money.CZK);
+    String sellerAccountId = "acct_seller123";
+    String trackingNumber = "TRACK123456";
+    Instant deliveredAt = FIXED_TIME.plusSeconds(7200);
+
+    fixture.given(
+        new FundsReservedEvent(
+            orderId, "pi_test123", "pm_test456", "deadline-123",
+            amount, FIXED_TIME, UUID.randomUUID(), sellerAccountId, COMMISSION_BASIS_POINTS),
+        new TrackingNumberProvidedEvent(orderId, trackingNumber),
+        new TrackingNumberEnteredEvent(
+            orderId, trackingNumber, "ship24-tracker-789", FIXED_TIME.plusSeconds(3600)))
+        .when(new UpdateTrackingStatusBatchCommand(orderId, List.of(
+            new TrackingStatusUpdate(
+                "event-001", TrackingStatusMilestone.DELIVERED, "Delivered", deliveredAt),
+            new TrackingStatusUpdate(
+                "event-002", TrackingStatusMilestone.EXCEPTION, "Exception",
+                deliveredAt.plusSeconds(60)))))
+        .expectSuccessfulHandlerExecution()
+        .expectEvents(
+            new TrackingStatusUpdatedEvent(
+                orderId, "event-001", TrackingStatusMilestone.DELIVERED, "Delivered",
+                deliveredAt),
+            new OrderDeliveredEvent(
+                orderId, sellerAccountId,
+                Money.of(9_000, Money.CZK),
+                Money.of(1_000, Money.CZK),
+                deliveredAt))
+        .expectState(order -> assertEquals(OrderStatus.DELIVERED, order.getStatus()));
+  }
+
   @Test
   void updateTrackingStatus_exception_shouldEmitEventsAndScheduleRefund() {
     UUID orderId = UUID.randomUUID();
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -428,7 +559,7 @@ class OrderTest {
     fixture.given(
         new FundsReservedEvent(
             orderId, paymentIntentId, paymentMethodId, deadlineId,
-            amount, reservedAt, sellerId, sellerAccountId),
+            amount, reservedAt, sellerId, sellerAccountId, COMMISSION_BASIS_POINTS),
         new TrackingNumberProvidedEvent(orderId, trackingNumber),
         new TrackingNumberEnteredEvent(orderId, trackingNumber, ship24TrackerId, enteredAt))
         .when(new UpdateTrackingStatusCommand(
@@ -450,7 +581,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal(100);
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -461,11 +592,11 @@ class OrderTest {
     fixture.given(
         new FundsReservedEvent(
             orderId, paymentIntentId, paymentMethodId, deadlineId,
-            amount, reservedAt, sellerId, sellerAccountId),
+            amount, reservedAt, sellerId, sellerAccountId, COMMISSION_BASIS_POINTS),
         new OrderDeliveredEvent(
             orderId, sellerAccountId,
-            amount.multiply(BigDecimal.valueOf(0.9)),
-            amount.multiply(BigDecimal.valueOf(0.1)),
+            Money.of(9_000, Money.CZK),
+            Money.of(1_000, Money.CZK),
             deliveredAt))
         .when(new CompleteOrderCommand(orderId, paymentTransferId, commissionTransferId))
         .expectSuccessfulHandlerExecution()
@@ -486,7 +617,7 @@ class OrderTest {
     String paymentIntentId = "pi_test123";
     String paymentMethodId = "pm_test456";
     String deadlineId = "deadline-123";
-    BigDecimal amount = new BigDecimal("100.00");
+    Money amount = Money.of(10_000, Money.CZK);
     Instant reservedAt = FIXED_TIME;
     UUID sellerId = UUID.randomUUID();
     String sellerAccountId = "acct_seller123";
@@ -496,7 +627,7 @@ class OrderTest {
     fixture.given(
         new FundsReservedEvent(
             orderId, paymentIntentId, paymentMethodId, deadlineId,
-            amount, reservedAt, sellerId, sellerAccountId))
+            amount, reservedAt, sellerId, sellerAccountId, COMMISSION_BASIS_POINTS))
         .when(new CompleteOrderCommand(orderId, paymentTransferId, commissionTransferId))
         .expectException(IllegalStateException.class)
         .expectNoEvents();
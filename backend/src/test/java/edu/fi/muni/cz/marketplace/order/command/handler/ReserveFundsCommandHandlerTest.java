@@ -0,0 +1,73 @@
+package edu.fi.muni.cz.marketplace.order.command.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient;
+import edu.fi.muni.cz.marketplace.order.client.dto.FundReservationResult;
+import edu.fi.muni.cz.marketplace.order.command.AssignFundReservationCommand;
+import edu.fi.muni.cz.marketplace.order.command.ReserveFundsCommand;
+
+class ReserveFundsCommandHandlerTest {
+
+  private static final UUID ORDER_ID = UUID.randomUUID();
+  private static final Money AMOUNT = Money.of(15_000, Money.CZK);
+
+  private StripeFundsApiClient stripeFundsApiClient;
+  private CommandGateway commandGateway;
+  private ReserveFundsCommandHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    stripeFundsApiClient = mock(StripeFundsApiClient.class);
+    commandGateway = mock(CommandGateway.class);
+    handler = new ReserveFundsCommandHandler(stripeFundsApiClient, commandGateway);
+    when(stripeFundsApiClient.reserveFunds("cus_1", "pm_1", AMOUNT, ORDER_ID))
+        .thenReturn(CompletableFuture.completedFuture(new FundReservationResult("pi_1", AMOUNT)));
+  }
+
+  @Test
+  void on_reservedFunds_assignsThemToTheOrder() {
+    when(commandGateway.send(any(AssignFundReservationCommand.class)))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    handler.on(command());
+
+    ArgumentCaptor<AssignFundReservationCommand> assign =
+        ArgumentCaptor.forClass(AssignFundReservationCommand.class);
+    verify(commandGateway).send(assign.capture());
+    assertEquals(ORDER_ID, assign.getValue().getOrderId());
+    assertEquals("pi_1", assign.getValue().getPaymentIntentId());
+  }
+
+  @Test
+  void on_failedAssignment_failsTheReservation() {
+    IllegalStateException failure = new IllegalStateException("Order already exists");
+    when(commandGateway.send(any(AssignFundReservationCommand.class)))
+        .thenReturn(CompletableFuture.failedFuture(failure));
+
+    CompletionException thrown = assertThrows(CompletionException.class,
+        () -> handler.on(command()));
+
+    assertEquals(failure, thrown.getCause());
+  }
+
+  private static ReserveFundsCommand command() {
+    return new ReserveFundsCommand(ORDER_ID, "cus_1", "pm_1", AMOUNT, UUID.randomUUID(),
+        "acct_seller", null);
+  }
+}
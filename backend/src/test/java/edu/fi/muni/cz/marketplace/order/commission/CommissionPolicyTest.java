@@ -0,0 +1,57 @@
+package edu.fi.muni.cz.marketplace.order.commission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+
+class CommissionPolicyTest {
+
+  private static final UUID SELLER_ID = UUID.randomUUID();
+  private static final UUID OVERRIDDEN_SELLER_ID = UUID.randomUUID();
+
+  private final CommissionPolicy policy = CommissionPolicy.compile(Money.CZK, "0.1",
+      List.of("100000:0.06", "10000:0.08"),
+      List.of(OVERRIDDEN_SELLER_ID + ":0.05"),
+      List.of("books:0.07", "electronics:0.0925"));
+
+  @Test
+  void basisPointsFor_amountBands_appliesBandOfWholeAmount() {
+    assertEquals(1000, policy.basisPointsFor(SELLER_ID, null, Money.of(999_999, Money.CZK)));
+    assertEquals(800, policy.basisPointsFor(SELLER_ID, null, Money.of(1_000_000, Money.CZK)));
+    assertEquals(800, policy.basisPointsFor(SELLER_ID, null, Money.of(9_999_999, Money.CZK)));
+    assertEquals(600, policy.basisPointsFor(SELLER_ID, null, Money.of(10_000_000, Money.CZK)));
+  }
+
+  @Test
+  void basisPointsFor_sellerOverrideAndCategory_takePrecedenceOverBands() {
+    Money amount = Money.of(10_000_000, Money.CZK);
+
+    assertEquals(925, policy.basisPointsFor(SELLER_ID, "electronics", amount));
+    assertEquals(600, policy.basisPointsFor(SELLER_ID, "toys", amount));
+    assertEquals(500, policy.basisPointsFor(OVERRIDDEN_SELLER_ID, "books", amount));
+  }
+
+  @Test
+  void basisPointsFor_otherCurrency_throws() {
+    assertThrows(IllegalArgumentException.class,
+        () -> policy.basisPointsFor(SELLER_ID, null, Money.of(100, "EUR")));
+  }
+
+  @Test
+  void compile_malformedRules_fail() {
+    assertThrows(IllegalArgumentException.class, () -> CommissionPolicy.compile(Money.CZK,
+        "0.1", List.of("1000:0.08", "1000.00:0.07"), List.of(), List.of()));
+    assertThrows(IllegalArgumentException.class, () -> CommissionPolicy.compile(Money.CZK,
+        "0.1", List.of(), List.of(), List.of("books:0.000125")));
+    assertThrows(IllegalArgumentException.class, () -> CommissionPolicy.compile(Money.CZK,
+        "1.5", List.of(), List.of(), List.of()));
+    assertThrows(IllegalArgumentException.class, () -> CommissionPolicy.compile(Money.CZK,
+        "0.1", List.of(), List.of("not-a-seller:0.05"), List.of()));
+  }
+}
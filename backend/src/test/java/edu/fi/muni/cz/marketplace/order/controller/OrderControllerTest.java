@@ -0,0 +1,155 @@
+package edu.fi.muni.cz.marketplace.order.controller;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import edu.fi.muni.cz.marketplace.config.exception.HttpException;
+import edu.fi.muni.cz.marketplace.order.command.ReserveFundsCommand;
+import edu.fi.muni.cz.marketplace.order.dto.FundReservationStatus;
+import edu.fi.muni.cz.marketplace.order.dto.FundReservationStatusResponse;
+import edu.fi.muni.cz.marketplace.order.service.FundReservationTracker;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(value = OrderController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@TestPropertySource(properties = "order-api.command-timeout=5s")
+class OrderControllerTest {
+
+  private static final String RESERVE_FUNDS_REQUEST = """
+      {
+        "customerId": "cus_1",
+        "paymentMethodId": "pm_1",
+        "amount": 100.00,
+        "sellerId": "%s",
+        "sellerStripeAccountId": "acct_1"
+      }
+      """.formatted(UUID.randomUUID());
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private CommandGateway commandGateway;
+
+  @MockitoBean
+  private FundReservationTracker fundReservationTracker;
+
+  @Test
+  void fundReservation_commandCompletes_answersCreatedWithoutBlocking() throws Exception {
+    CompletableFuture<Object> result = new CompletableFuture<>();
+    when(commandGateway.send(any(ReserveFundsCommand.class))).thenReturn(result);
+
+    MvcResult pending = mockMvc.perform(post("/api/v1/orders/fund-reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(RESERVE_FUNDS_REQUEST))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    result.complete(null);
+
+    mockMvc.perform(asyncDispatch(pending))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.orderId").exists());
+  }
+
+  @Test
+  void fundReservation_commandFails_answersWithItsStatus() throws Exception {
+    when(commandGateway.send(any(ReserveFundsCommand.class)))
+        .thenReturn(CompletableFuture.failedFuture(new HttpException(402, "Card declined")));
+
+    MvcResult pending = mockMvc.perform(post("/api/v1/orders/fund-reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(RESERVE_FUNDS_REQUEST))
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(pending))
+        .andExpect(status().isPaymentRequired())
+        .andExpect(jsonPath("$.message").value("Card declined"));
+  }
+
+  @Test
+  void fundReservation_requestTimesOut_leavesTheTrackedReservationRunning() throws Exception {
+    CompletableFuture<Object> result = new CompletableFuture<>();
+    when(commandGateway.send(any(ReserveFundsCommand.class))).thenReturn(result);
+
+    MvcResult pending = mockMvc.perform(post("/api/v1/orders/fund-reservation")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(RESERVE_FUNDS_REQUEST))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    MockAsyncContext asyncContext = (MockAsyncContext) pending.getRequest().getAsyncContext();
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onTimeout(new AsyncEvent(asyncContext));
+    }
+
+    mockMvc.perform(asyncDispatch(pending))
+        .andExpect(status().isGatewayTimeout());
+    assertFalse(result.isCancelled());
+    verify(fundReservationTracker).track(any(UUID.class), eq(result));
+  }
+
+  @Test
+  void fundReservationAsync_answersAcceptedWithStatusLocation() throws Exception {
+    when(commandGateway.send(any(ReserveFundsCommand.class)))
+        .thenReturn(new CompletableFuture<>());
+
+    mockMvc.perform(post("/api/v1/orders/fund-reservation/async")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(RESERVE_FUNDS_REQUEST))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location",
+            matchesPattern("/api/v1/orders/[0-9a-f-]+/fund-reservation")));
+
+    verify(fundReservationTracker).track(any(UUID.class), any());
+  }
+
+  @Test
+  void fundReservationStatus_trackedOrder_answersItsStatus() throws Exception {
+    UUID orderId = UUID.randomUUID();
+    when(fundReservationTracker.status(eq(orderId))).thenReturn(Optional.of(
+        new FundReservationStatusResponse(orderId, FundReservationStatus.PENDING, null)));
+
+    mockMvc.perform(get("/api/v1/orders/" + orderId + "/fund-reservation"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("PENDING"));
+  }
+
+  @Test
+  void fundReservationStatus_unknownOrder_answersNotFound() throws Exception {
+    when(fundReservationTracker.status(any())).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/api/v1/orders/" + UUID.randomUUID() + "/fund-reservation"))
+        .andExpect(status().isNotFound());
+  }
+}
@@ -2,38 +2,62 @@ package edu.fi.muni.cz.marketplace.order.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import edu.fi.muni.cz.marketplace.order.aggregate.TrackingStatusMilestone;
-import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusCommand;
+import edu.fi.muni.cz.marketplace.order.command.TrackingStatusUpdate;
+import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusBatchCommand;
+import edu.fi.muni.cz.marketplace.order.dedup.TrackingEventDeduplicator;
+import edu.fi.muni.cz.marketplace.order.intake.Ship24WebhookIntake;
+import edu.fi.muni.cz.marketplace.order.service.Ship24WebhookParser;
+import edu.fi.muni.cz.marketplace.order.service.Ship24WebhookService;
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(value = OrderWebHookController.class)
+@Import({Ship24WebhookIntake.class, Ship24WebhookService.class, Ship24WebhookParser.class})
 @AutoConfigureMockMvc(addFilters = false)
-@TestPropertySource(properties = "ship24.webhook-secret=test-secret-123")
+@TestPropertySource(properties = {
+    "ship24.webhook-secret=test-secret-123",
+    "webhook-intake.segment-size=1MB",
+    "webhook-intake.fsync=false",
+    "webhook-intake.consumers=2",
+    "webhook-intake.retry.initial-delay=10ms",
+    "webhook-intake.retry.max-delay=100ms"
+})
 class OrderWebHookControllerTest {
 
   @Autowired
@@ -42,8 +66,27 @@ class OrderWebHookControllerTest {
   @MockitoBean
   private CommandGateway commandGateway;
 
+  @MockitoBean
+  private TrackingEventDeduplicator trackingEventDeduplicator;
+
   private static final String VALID_SECRET = "test-secret-123";
   private static final String WEBHOOK_ENDPOINT = "/api/v1/webhooks/orders/ship24";
+  private static final long PROCESSING_TIMEOUT_MILLIS = 5000;
+
+  @TempDir
+  static Path intakeDirectory;
+
+  @DynamicPropertySource
+  static void intakeProperties(DynamicPropertyRegistry registry) {
+    registry.add("webhook-intake.directory", () -> intakeDirectory.toString());
+  }
+
+  @BeforeEach
+  void setUp() {
+    when(commandGateway.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+    when(trackingEventDeduplicator.filterNew(any()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+  }
 
   @Test
   void handleShip24Webhook_validRequestWithSingleEvent_dispatchesCommand() throws Exception {
@@ -79,19 +122,22 @@ class OrderWebHookControllerTest {
         .header("Authorization", "Bearer " + VALID_SECRET)
         .contentType(MediaType.APPLICATION_JSON)
         .content(payload))
-        .andExpect(status().isOk())
-        .andExpect(content().string("Webhook processed successfully"));
+        .andExpect(status().isAccepted())
+        .andExpect(content().string("Webhook accepted"));
 
-    ArgumentCaptor<UpdateTrackingStatusCommand> commandCaptor = ArgumentCaptor
-        .forClass(UpdateTrackingStatusCommand.class);
-    verify(commandGateway, times(1)).send(commandCaptor.capture());
+    ArgumentCaptor<UpdateTrackingStatusBatchCommand> commandCaptor = ArgumentCaptor
+        .forClass(UpdateTrackingStatusBatchCommand.class);
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(1)).send(commandCaptor.capture());
 
-    UpdateTrackingStatusCommand command = commandCaptor.getValue();
+    UpdateTrackingStatusBatchCommand command = commandCaptor.getValue();
     assertEquals(orderId, command.getOrderId());
-    assertEquals(eventId, command.getEventId());
-    assertEquals(TrackingStatusMilestone.DELIVERED, command.getStatusMilestone());
-    assertEquals("Delivered to the addressee", command.getEventStatus());
-    assertEquals(Instant.parse("2025-03-04T17:12:57Z"), command.getEventOccurredAt());
+    assertEquals(1, command.getUpdates().size());
+
+    TrackingStatusUpdate update = command.getUpdates().get(0);
+    assertEquals(eventId, update.getEventId());
+    assertEquals(TrackingStatusMilestone.DELIVERED, update.getStatusMilestone());
+    assertEquals("Delivered to the addressee", update.getEventStatus());
+    assertEquals(Instant.parse("2025-03-04T17:12:57Z"), update.getEventOccurredAt());
   }
 
   @Test
@@ -145,26 +191,28 @@ class OrderWebHookControllerTest {
         .header("Authorization", "Bearer " + VALID_SECRET)
         .contentType(MediaType.APPLICATION_JSON)
         .content(payload))
-        .andExpect(status().isOk());
+        .andExpect(status().isAccepted());
 
-    ArgumentCaptor<UpdateTrackingStatusCommand> commandCaptor = ArgumentCaptor
-        .forClass(UpdateTrackingStatusCommand.class);
-    verify(commandGateway, times(2)).send(commandCaptor.capture());
+    ArgumentCaptor<UpdateTrackingStatusBatchCommand> commandCaptor = ArgumentCaptor
+        .forClass(UpdateTrackingStatusBatchCommand.class);
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(2)).send(commandCaptor.capture());
 
-    List<UpdateTrackingStatusCommand> commands = commandCaptor.getAllValues();
+    List<UpdateTrackingStatusBatchCommand> commands = commandCaptor.getAllValues();
     assertEquals(2, commands.size());
 
     assertEquals(orderId1, commands.get(0).getOrderId());
-    assertEquals("event-001", commands.get(0).getEventId());
-    assertEquals(TrackingStatusMilestone.DELIVERED, commands.get(0).getStatusMilestone());
+    assertEquals("event-001", commands.get(0).getUpdates().get(0).getEventId());
+    assertEquals(TrackingStatusMilestone.DELIVERED,
+        commands.get(0).getUpdates().get(0).getStatusMilestone());
 
     assertEquals(orderId2, commands.get(1).getOrderId());
-    assertEquals("event-002", commands.get(1).getEventId());
-    assertEquals(TrackingStatusMilestone.IN_TRANSIT, commands.get(1).getStatusMilestone());
+    assertEquals("event-002", commands.get(1).getUpdates().get(0).getEventId());
+    assertEquals(TrackingStatusMilestone.IN_TRANSIT,
+        commands.get(1).getUpdates().get(0).getStatusMilestone());
   }
 
   @Test
-  void handleShip24Webhook_sameShipmentMultipleEvents_dispatchesCommandForEachEvent()
+  void handleShip24Webhook_sameShipmentMultipleTrackings_dispatchesSingleBatch()
       throws Exception {
     UUID orderId = UUID.randomUUID();
 
@@ -215,22 +263,21 @@ class OrderWebHookControllerTest {
         .header("Authorization", "Bearer " + VALID_SECRET)
         .contentType(MediaType.APPLICATION_JSON)
         .content(payload))
-        .andExpect(status().isOk());
+        .andExpect(status().isAccepted());
 
-    ArgumentCaptor<UpdateTrackingStatusCommand> commandCaptor = ArgumentCaptor
-        .forClass(UpdateTrackingStatusCommand.class);
-    verify(commandGateway, times(2)).send(commandCaptor.capture());
+    ArgumentCaptor<UpdateTrackingStatusBatchCommand> commandCaptor = ArgumentCaptor
+        .forClass(UpdateTrackingStatusBatchCommand.class);
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(1)).send(commandCaptor.capture());
 
-    List<UpdateTrackingStatusCommand> commands = commandCaptor.getAllValues();
-    assertEquals(2, commands.size());
-
-    assertEquals(orderId, commands.get(0).getOrderId());
-    assertEquals("event-001", commands.get(0).getEventId());
-    assertEquals(TrackingStatusMilestone.IN_TRANSIT, commands.get(0).getStatusMilestone());
+    UpdateTrackingStatusBatchCommand command = commandCaptor.getValue();
+    assertEquals(orderId, command.getOrderId());
 
-    assertEquals(orderId, commands.get(1).getOrderId());
-    assertEquals("event-002", commands.get(1).getEventId());
-    assertEquals(TrackingStatusMilestone.OUT_FOR_DELIVERY, commands.get(1).getStatusMilestone());
+    List<TrackingStatusUpdate> updates = command.getUpdates();
+    assertEquals(2, updates.size());
+    assertEquals("event-001", updates.get(0).getEventId());
+    assertEquals(TrackingStatusMilestone.IN_TRANSIT, updates.get(0).getStatusMilestone());
+    assertEquals("event-002", updates.get(1).getEventId());
+    assertEquals(TrackingStatusMilestone.OUT_FOR_DELIVERY, updates.get(1).getStatusMilestone());
   }
 
   @Test
@@ -361,16 +408,17 @@ class OrderWebHookControllerTest {
         .header("Authorization", "Bearer " + VALID_SECRET)
         .contentType(MediaType.APPLICATION_JSON)
         .content(payload))
-        .andExpect(status().isOk())
-        .andExpect(content().string("Webhook processed successfully"));
+        .andExpect(status().isAccepted())
+        .andExpect(content().string("Webhook accepted"));
 
-    ArgumentCaptor<UpdateTrackingStatusCommand> commandCaptor = ArgumentCaptor
-        .forClass(UpdateTrackingStatusCommand.class);
-    verify(commandGateway, times(1)).send(commandCaptor.capture());
+    ArgumentCaptor<UpdateTrackingStatusBatchCommand> commandCaptor = ArgumentCaptor
+        .forClass(UpdateTrackingStatusBatchCommand.class);
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(1)).send(commandCaptor.capture());
 
-    UpdateTrackingStatusCommand command = commandCaptor.getValue();
+    UpdateTrackingStatusBatchCommand command = commandCaptor.getValue();
     assertEquals(validOrderId, command.getOrderId());
-    assertEquals("event-002", command.getEventId());
+    assertEquals(1, command.getUpdates().size());
+    assertEquals("event-002", command.getUpdates().get(0).getEventId());
   }
 
   @Test
@@ -423,24 +471,24 @@ class OrderWebHookControllerTest {
         .header("Authorization", "Bearer " + VALID_SECRET)
         .contentType(MediaType.APPLICATION_JSON)
         .content(payload))
-        .andExpect(status().isOk());
+        .andExpect(status().isAccepted());
 
-    ArgumentCaptor<UpdateTrackingStatusCommand> commandCaptor = ArgumentCaptor
-        .forClass(UpdateTrackingStatusCommand.class);
-    verify(commandGateway, times(8)).send(commandCaptor.capture());
+    ArgumentCaptor<UpdateTrackingStatusBatchCommand> commandCaptor = ArgumentCaptor
+        .forClass(UpdateTrackingStatusBatchCommand.class);
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(1)).send(commandCaptor.capture());
 
-    List<UpdateTrackingStatusCommand> commands = commandCaptor.getAllValues();
-    assertEquals(8, commands.size());
+    List<TrackingStatusUpdate> updates = commandCaptor.getValue().getUpdates();
+    assertEquals(8, updates.size());
 
-    assertEquals(TrackingStatusMilestone.INFO_RECEIVED, commands.get(0).getStatusMilestone());
-    assertEquals(TrackingStatusMilestone.IN_TRANSIT, commands.get(1).getStatusMilestone());
-    assertEquals(TrackingStatusMilestone.OUT_FOR_DELIVERY, commands.get(2).getStatusMilestone());
-    assertEquals(TrackingStatusMilestone.FAILED_ATTEMPT, commands.get(3).getStatusMilestone());
+    assertEquals(TrackingStatusMilestone.INFO_RECEIVED, updates.get(0).getStatusMilestone());
+    assertEquals(TrackingStatusMilestone.IN_TRANSIT, updates.get(1).getStatusMilestone());
+    assertEquals(TrackingStatusMilestone.OUT_FOR_DELIVERY, updates.get(2).getStatusMilestone());
+    assertEquals(TrackingStatusMilestone.FAILED_ATTEMPT, updates.get(3).getStatusMilestone());
     assertEquals(TrackingStatusMilestone.AVAILABLE_FOR_PICKUP,
-        commands.get(4).getStatusMilestone());
-    assertEquals(TrackingStatusMilestone.DELIVERED, commands.get(5).getStatusMilestone());
-    assertEquals(TrackingStatusMilestone.EXCEPTION, commands.get(6).getStatusMilestone());
-    assertEquals(TrackingStatusMilestone.PENDING, commands.get(7).getStatusMilestone());
+        updates.get(4).getStatusMilestone());
+    assertEquals(TrackingStatusMilestone.DELIVERED, updates.get(5).getStatusMilestone());
+    assertEquals(TrackingStatusMilestone.EXCEPTION, updates.get(6).getStatusMilestone());
+    assertEquals(TrackingStatusMilestone.PENDING, updates.get(7).getStatusMilestone());
   }
 
   @Test
@@ -514,32 +562,196 @@ class OrderWebHookControllerTest {
         .header("Authorization", "Bearer " + VALID_SECRET)
         .contentType(MediaType.APPLICATION_JSON)
         .content(payload))
-        .andExpect(status().isOk())
-        .andExpect(content().string("Webhook processed successfully"));
+        .andExpect(status().isAccepted())
+        .andExpect(content().string("Webhook accepted"));
 
-    ArgumentCaptor<UpdateTrackingStatusCommand> commandCaptor = ArgumentCaptor
-        .forClass(UpdateTrackingStatusCommand.class);
-    verify(commandGateway, times(3)).send(commandCaptor.capture());
+    ArgumentCaptor<UpdateTrackingStatusBatchCommand> commandCaptor = ArgumentCaptor
+        .forClass(UpdateTrackingStatusBatchCommand.class);
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(2)).send(commandCaptor.capture());
 
-    List<UpdateTrackingStatusCommand> commands = commandCaptor.getAllValues();
-    assertEquals(3, commands.size());
+    List<UpdateTrackingStatusBatchCommand> commands = commandCaptor.getAllValues();
+    assertEquals(2, commands.size());
 
     assertEquals(orderId1, commands.get(0).getOrderId());
-    assertEquals("ee8ebe96-4eae-4a91-9a99-8f3afa6a0f46", commands.get(0).getEventId());
-    assertEquals(TrackingStatusMilestone.DELIVERED, commands.get(0).getStatusMilestone());
-    assertEquals("Delivered to the addressee", commands.get(0).getEventStatus());
-    assertEquals(Instant.parse("2025-03-04T17:12:57Z"), commands.get(0).getEventOccurredAt());
+    TrackingStatusUpdate delivered = commands.get(0).getUpdates().get(0);
+    assertEquals("ee8ebe96-4eae-4a91-9a99-8f3afa6a0f46", delivered.getEventId());
+    assertEquals(TrackingStatusMilestone.DELIVERED, delivered.getStatusMilestone());
+    assertEquals("Delivered to the addressee", delivered.getEventStatus());
+    assertEquals(Instant.parse("2025-03-04T17:12:57Z"), delivered.getEventOccurredAt());
 
+    // events of the second order are applied in the order they occurred, not as delivered
     assertEquals(orderId2, commands.get(1).getOrderId());
-    assertEquals("e726b49a-bea6-26a8-4610-553548ca765b", commands.get(1).getEventId());
-    assertEquals(TrackingStatusMilestone.IN_TRANSIT, commands.get(1).getStatusMilestone());
-    assertEquals("Arrived in destination country", commands.get(1).getEventStatus());
-    assertEquals(Instant.parse("2025-02-03T12:17:00Z"), commands.get(1).getEventOccurredAt());
-
-    assertEquals(orderId2, commands.get(2).getOrderId());
-    assertEquals("bbc4af45-9c99-749b-4945-e3211568ddb7", commands.get(2).getEventId());
-    assertEquals(TrackingStatusMilestone.IN_TRANSIT, commands.get(2).getStatusMilestone());
-    assertEquals("In transit", commands.get(2).getEventStatus());
-    assertEquals(Instant.parse("2025-02-02T20:10:00Z"), commands.get(2).getEventOccurredAt());
+    List<TrackingStatusUpdate> updates = commands.get(1).getUpdates();
+    assertEquals(2, updates.size());
+
+    assertEquals("bbc4af45-9c99-749b-4945-e3211568ddb7", updates.get(0).getEventId());
+    assertEquals(TrackingStatusMilestone.IN_TRANSIT, updates.get(0).getStatusMilestone());
+    assertEquals("In transit", updates.get(0).getEventStatus());
+    assertEquals(Instant.parse("2025-02-02T20:10:00Z"), updates.get(0).getEventOccurredAt());
+
+    assertEquals("e726b49a-bea6-26a8-4610-553548ca765b", updates.get(1).getEventId());
+    assertEquals(TrackingStatusMilestone.IN_TRANSIT, updates.get(1).getStatusMilestone());
+    assertEquals("Arrived in destination country", updates.get(1).getEventStatus());
+    assertEquals(Instant.parse("2025-02-03T12:17:00Z"), updates.get(1).getEventOccurredAt());
+  }
+
+  @Test
+  void handleShip24Webhook_duplicateEventIds_dispatchesEachEventOnce() throws Exception {
+    UUID orderId = UUID.randomUUID();
+
+    String payload = """
+        {
+          "trackings": [
+            {
+              "tracker": {"trackerId": "t1", "trackingNumber": "TRACK001", "shipmentReference": "%s"},
+              "events": [
+                {"eventId": "event-002", "status": "Out for delivery", "occurrenceDatetime": "2025-03-04T18:30:00Z", "statusCode": "OD", "statusCategory": "out_for_delivery", "statusMilestone": "out_for_delivery"},
+                {"eventId": "event-001", "status": "In transit", "occurrenceDatetime": "2025-03-04T17:12:57Z", "statusCode": "IT", "statusCategory": "in_transit", "statusMilestone": "in_transit"}
+              ]
+            },
+            {
+              "tracker": {"trackerId": "t1", "trackingNumber": "TRACK001", "shipmentReference": "%s"},
+              "events": [
+                {"eventId": "event-001", "status": "In transit", "occurrenceDatetime": "2025-03-04T17:12:57Z", "statusCode": "IT", "statusCategory": "in_transit", "statusMilestone": "in_transit"}
+              ]
+            }
+          ]
+        }
+        """.formatted(orderId, orderId);
+
+    mockMvc.perform(post(WEBHOOK_ENDPOINT)
+        .with(csrf())
+        .header("Authorization", "Bearer " + VALID_SECRET)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(payload))
+        .andExpect(status().isAccepted());
+
+    ArgumentCaptor<UpdateTrackingStatusBatchCommand> commandCaptor = ArgumentCaptor
+        .forClass(UpdateTrackingStatusBatchCommand.class);
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(1)).send(commandCaptor.capture());
+
+    List<TrackingStatusUpdate> updates = commandCaptor.getValue().getUpdates();
+    assertEquals(2, updates.size());
+    assertEquals("event-001", updates.get(0).getEventId());
+    assertEquals("event-002", updates.get(1).getEventId());
+  }
+
+  @Test
+  void handleShip24Webhook_eventsBeforeTrackerAndUnknownFields_dispatchesCommand()
+      throws Exception {
+    UUID orderId = UUID.randomUUID();
+
+    String payload = """
+        {
+          "trackings": [
+            {
+              "shipment": {"statusCode": "in_transit", "delivery": {"service": null}},
+              "events": [
+                {"eventId": "event-001", "status": "In transit", "occurrenceDatetime": "2025-03-04T17:12:57Z", "location": "Prague", "statusCode": "IT", "statusCategory": "in_transit", "statusMilestone": "in_transit"}
+              ],
+              "tracker": {"trackerId": "t1", "trackingNumber": "TRACK001", "shipmentReference": "%s", "isSubscribed": true}
+            }
+          ]
+        }
+        """.formatted(orderId);
+
+    mockMvc.perform(post(WEBHOOK_ENDPOINT)
+        .with(csrf())
+        .header("Authorization", "Bearer " + VALID_SECRET)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(payload))
+        .andExpect(status().isAccepted());
+
+    ArgumentCaptor<UpdateTrackingStatusBatchCommand> commandCaptor = ArgumentCaptor
+        .forClass(UpdateTrackingStatusBatchCommand.class);
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(1))
+        .send(commandCaptor.capture());
+
+    UpdateTrackingStatusBatchCommand command = commandCaptor.getValue();
+    assertEquals(orderId, command.getOrderId());
+    assertEquals("event-001", command.getUpdates().get(0).getEventId());
+    assertEquals(TrackingStatusMilestone.IN_TRANSIT,
+        command.getUpdates().get(0).getStatusMilestone());
+  }
+
+  @Test
+  void handleShip24Webhook_alreadyProcessedEvents_areNotDispatched() throws Exception {
+    UUID orderId = UUID.randomUUID();
+    when(trackingEventDeduplicator.filterNew(any())).thenReturn(List.of());
+
+    String payload = """
+        {
+          "trackings": [
+            {
+              "tracker": {"trackerId": "t1", "trackingNumber": "TRACK001", "shipmentReference": "%s"},
+              "events": [
+                {"eventId": "event-001", "status": "In transit", "occurrenceDatetime": "2025-03-04T17:12:57Z", "statusCode": "IT", "statusCategory": "in_transit", "statusMilestone": "in_transit"}
+              ]
+            }
+          ]
+        }
+        """.formatted(orderId);
+
+    mockMvc.perform(post(WEBHOOK_ENDPOINT)
+        .with(csrf())
+        .header("Authorization", "Bearer " + VALID_SECRET)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(payload))
+        .andExpect(status().isAccepted());
+
+    verify(trackingEventDeduplicator, timeout(PROCESSING_TIMEOUT_MILLIS)).filterNew(any());
+    verify(commandGateway, never()).send(any());
+  }
+
+  @Test
+  void handleShip24Webhook_commandFailsTransiently_retriesUntilApplied() throws Exception {
+    UUID orderId = UUID.randomUUID();
+    when(commandGateway.send(any()))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("bus unavailable")))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    mockMvc.perform(post(WEBHOOK_ENDPOINT)
+        .with(csrf())
+        .header("Authorization", "Bearer " + VALID_SECRET)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(singleEventPayload(orderId)))
+        .andExpect(status().isAccepted());
+
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS).times(2)).send(any());
+    verify(trackingEventDeduplicator, timeout(PROCESSING_TIMEOUT_MILLIS).times(1))
+        .markSeen(eq(orderId), any());
+  }
+
+  @Test
+  void handleShip24Webhook_commandRejectedByOrder_isNotRetried() throws Exception {
+    UUID orderId = UUID.randomUUID();
+    when(commandGateway.send(any())).thenReturn(CompletableFuture.failedFuture(
+        new IllegalStateException("Order does not accept tracking updates")));
+
+    mockMvc.perform(post(WEBHOOK_ENDPOINT)
+        .with(csrf())
+        .header("Authorization", "Bearer " + VALID_SECRET)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(singleEventPayload(orderId)))
+        .andExpect(status().isAccepted());
+
+    verify(commandGateway, timeout(PROCESSING_TIMEOUT_MILLIS)).send(any());
+    verify(commandGateway, after(500).times(1)).send(any());
+    verify(trackingEventDeduplicator, never()).markSeen(any(), any());
+  }
+
+  private static String singleEventPayload(UUID orderId) {
+    return """
+        {
+          "trackings": [
+            {
+              "tracker": {"trackerId": "t1", "trackingNumber": "TRACK001", "shipmentReference": "%s"},
+              "events": [
+                {"eventId": "event-001", "status": "In transit", "occurrenceDatetime": "2025-03-04T17:12:57Z", "statusCode": "IT", "statusCategory": "in_transit", "statusMilestone": "in_transit"}
+              ]
+            }
+          ]
+        }
+        """.formatted(orderId);
   }
 }
@@ -0,0 +1,69 @@
+package edu.fi.muni.cz.marketplace.order.events.handler;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.fi.muni.cz.marketplace.order.command.AssignTrackingInfoCommand;
+import edu.fi.muni.cz.marketplace.order.events.TrackingNumberProvidedEvent;
+import edu.fi.muni.cz.marketplace.order.service.Ship24ServiceException;
+import edu.fi.muni.cz.marketplace.order.service.TrackerRegistrationBatcher;
+import edu.fi.muni.cz.marketplace.order.service.TrackerRejectedException;
+
+class TrackingNumberEventHandlerTest {
+
+  private TrackerRegistrationBatcher batcher;
+  private CommandGateway commandGateway;
+  private TrackingNumberEventHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    batcher = mock(TrackerRegistrationBatcher.class);
+    commandGateway = mock(CommandGateway.class);
+    handler = new TrackingNumberEventHandler(batcher, commandGateway);
+  }
+
+  @Test
+  void on_trackerRejected_commitsTheRestOfTheBatch() {
+    TrackingNumberProvidedEvent rejected = new TrackingNumberProvidedEvent(UUID.randomUUID(), "bad");
+    TrackingNumberProvidedEvent accepted =
+        new TrackingNumberProvidedEvent(UUID.randomUUID(), "TN1");
+    when(batcher.register("bad", rejected.getOrderId().toString())).thenReturn(
+        CompletableFuture.failedFuture(new TrackerRejectedException("rejected")));
+    when(batcher.register("TN1", accepted.getOrderId().toString()))
+        .thenReturn(CompletableFuture.completedFuture("tracker-TN1"));
+    UnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+
+    handler.on(rejected);
+    handler.on(accepted);
+    unitOfWork.commit();
+
+    verify(commandGateway).send(any(AssignTrackingInfoCommand.class));
+  }
+
+  @Test
+  void on_bulkRequestFailed_rollsTheBatchBack() {
+    TrackingNumberProvidedEvent event = new TrackingNumberProvidedEvent(UUID.randomUUID(), "TN1");
+    when(batcher.register(anyString(), anyString())).thenReturn(
+        CompletableFuture.failedFuture(new Ship24ServiceException("connection reset")));
+    UnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+
+    handler.on(event);
+
+    assertThrows(RuntimeException.class, unitOfWork::commit);
+    verify(commandGateway, never()).send(any());
+  }
+}
@@ -0,0 +1,81 @@
+package edu.fi.muni.cz.marketplace.order.events.upcaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.AnnotationRevisionResolver;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.thoughtworks.xstream.XStream;
+
+import edu.fi.muni.cz.marketplace.config.serialization.BinaryRecord;
+import edu.fi.muni.cz.marketplace.config.serialization.BinarySerializer;
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
+
+class CommissionRateUpcasterTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+  private XStreamSerializer xStreamSerializer;
+  private BinarySerializer serializer;
+  private FundsReservedEvent event;
+
+  @BeforeEach
+  void setUp() {
+    XStream xStream = new XStream();
+    xStream.allowTypesByWildcard(new String[] {"edu.fi.muni.cz.**", "org.axonframework.**"});
+    xStreamSerializer = XStreamSerializer.builder().xStream(xStream).build();
+    serializer = new BinarySerializer("edu.fi.muni.cz.marketplace", xStreamSerializer,
+        new AnnotationRevisionResolver());
+    event = new FundsReservedEvent(UUID.randomUUID(), "pi_1", "pm_1", "deadline-1",
+        Money.of(123_450, Money.CZK), NOW, UUID.randomUUID(), "acct_1",
+        CommissionRateUpcaster.LEGACY_BASIS_POINTS);
+  }
+
+  @Test
+  void upcast_binaryEventWithoutRate_pinsLegacyRate() {
+    BinaryRecord record = serializer.getConverter().convert(
+        serializer.serialize(event, byte[].class).getData(), BinaryRecord.class);
+    record.remove("commissionBasisPoints");
+    byte[] legacy = serializer.getConverter().convert(record, byte[].class);
+
+    FundsReservedEvent upcasted = upcast(legacy);
+
+    assertEquals(1000, upcasted.getCommissionBasisPoints());
+    assertEquals(event, upcasted);
+  }
+
+  @Test
+  void upcast_xStreamEventWithoutRate_pinsLegacyRate() {
+    String legacy = xStreamSerializer.serialize(event, String.class).getData()
+        .replaceAll("<commissionBasisPoints>\\d+</commissionBasisPoints>", "");
+
+    FundsReservedEvent upcasted = upcast(legacy.getBytes());
+
+    assertEquals(event, upcasted);
+  }
+
+  private FundsReservedEvent upcast(byte[] data) {
+    GenericDomainEventEntry<byte[]> entry = new GenericDomainEventEntry<>("Order",
+        UUID.randomUUID().toString(), 0, UUID.randomUUID().toString(), NOW,
+        FundsReservedEvent.class.getName(), "1", data,
+        xStreamSerializer.serialize(MetaData.emptyInstance(), byte[].class).getData());
+    List<IntermediateEventRepresentation> upcasted = new CommissionRateUpcaster()
+        .upcast(Stream.of(new InitialEventRepresentation(entry, serializer)))
+        .toList();
+    assertEquals(1, upcasted.size());
+    assertEquals("2", upcasted.get(0).getType().getRevision());
+    return serializer.deserialize(upcasted.get(0).getData());
+  }
+}
@@ -0,0 +1,108 @@
+package edu.fi.muni.cz.marketplace.order.events.upcaster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.AnnotationRevisionResolver;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.upcasting.event.EventUpcasterChain;
+import org.axonframework.serialization.upcasting.event.InitialEventRepresentation;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.thoughtworks.xstream.XStream;
+
+import edu.fi.muni.cz.marketplace.config.serialization.BinaryRecord;
+import edu.fi.muni.cz.marketplace.config.serialization.BinarySerializer;
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.events.FundsReservedEvent;
+import edu.fi.muni.cz.marketplace.order.events.OrderDeliveredEvent;
+
+class MoneyUpcasterTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+  private XStreamSerializer xStreamSerializer;
+  private BinarySerializer serializer;
+
+  @BeforeEach
+  void setUp() {
+    XStream xStream = new XStream();
+    xStream.allowTypesByWildcard(new String[] {"edu.fi.muni.cz.**", "org.axonframework.**"});
+    xStreamSerializer = XStreamSerializer.builder().xStream(xStream).build();
+    serializer = new BinarySerializer("edu.fi.muni.cz.marketplace", xStreamSerializer,
+        new AnnotationRevisionResolver());
+  }
+
+  @Test
+  void upcast_legacyBinaryEvent_convertsDecimalsToMoney() {
+    UUID orderId = UUID.randomUUID();
+    BinaryRecord legacy = new BinaryRecord()
+        .put("orderId", orderId)
+        .put("sellerStripeAccountId", "acct_1")
+        .put("payoutAmount", new BigDecimal("1349.910"))
+        .put("commission", new BigDecimal("149.99"))
+        .put("deliveredAt", NOW);
+    byte[] data = serializer.getConverter().convert(legacy, byte[].class);
+
+    OrderDeliveredEvent upcasted = upcast(OrderDeliveredEvent.class, data);
+
+    assertEquals(new OrderDeliveredEvent(orderId, "acct_1", Money.of(134_991, Money.CZK),
+        Money.of(14_999, Money.CZK), NOW), upcasted);
+  }
+
+  @Test
+  void upcast_legacyXStreamEvent_convertsDecimalsToMoney() {
+    FundsReservedEvent event = new FundsReservedEvent(UUID.randomUUID(), "pi_1", "pm_1",
+        "deadline-1", Money.of(123_450, Money.CZK), NOW, UUID.randomUUID(), "acct_1", 1000);
+    String xml = xStreamSerializer.serialize(event, String.class).getData()
+        .replaceAll("(?s)<amount>.*</amount>", "<amount>1234.50</amount>")
+        .replaceAll("<commissionBasisPoints>\\d+</commissionBasisPoints>", "");
+
+    FundsReservedEvent upcasted = upcast(FundsReservedEvent.class, xml.getBytes());
+
+    assertEquals(event, upcasted);
+  }
+
+  @Test
+  void upcast_currentRevision_isLeftAlone() {
+    FundsReservedEvent event = new FundsReservedEvent(UUID.randomUUID(), "pi_1", "pm_1",
+        "deadline-1", Money.of(100, Money.CZK), NOW, UUID.randomUUID(), "acct_1", 1000);
+    SerializedObject<byte[]> serialized = serializer.serialize(event, byte[].class);
+
+    IntermediateEventRepresentation result = upcastRepresentation(
+        FundsReservedEvent.class.getName(), "2", serialized.getData());
+
+    assertEquals("2", result.getType().getRevision());
+    assertEquals(event, serializer.deserialize(result.getData()));
+  }
+
+  private <T> T upcast(Class<T> type, byte[] data) {
+    IntermediateEventRepresentation result = upcastRepresentation(type.getName(), null, data);
+    assertEquals(new AnnotationRevisionResolver().revisionOf(type),
+        result.getType().getRevision());
+    return serializer.deserialize(result.getData());
+  }
+
+  private IntermediateEventRepresentation upcastRepresentation(String type, String revision,
+      byte[] data) {
+    GenericDomainEventEntry<byte[]> entry = new GenericDomainEventEntry<>("Order",
+        UUID.randomUUID().toString(), 0, UUID.randomUUID().toString(), NOW, type, revision,
+        data, xStreamSerializer.serialize(MetaData.emptyInstance(), byte[].class).getData());
+    List<IntermediateEventRepresentation> upcasted =
+        new EventUpcasterChain(new MoneyUpcaster(), new CommissionRateUpcaster())
+            .upcast(Stream.of(new InitialEventRepresentation(entry, serializer)))
+            .toList();
+    assertEquals(1, upcasted.size());
+    return upcasted.get(0);
+  }
+}
@@ -0,0 +1,113 @@
+package edu.fi.muni.cz.marketplace.order.intake;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IntakeLogTest {
+
+  private static final int SEGMENT_SIZE = 64;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void read_appendedRecords_areReturnedInOrder() {
+    IntakeLog log = new IntakeLog(directory, SEGMENT_SIZE, false);
+
+    long first = log.append(bytes("first"));
+    long second = log.append(bytes("second"));
+
+    IntakeRecord record = log.read(first);
+    assertArrayEquals(bytes("first"), record.data());
+    assertEquals(second, record.nextOffset());
+    assertArrayEquals(bytes("second"), log.read(second).data());
+    assertNull(log.read(log.read(second).nextOffset()));
+  }
+
+  @Test
+  void append_recordNotFittingSegment_continuesInNextSegment() throws IOException {
+    IntakeLog log = new IntakeLog(directory, SEGMENT_SIZE, false);
+    byte[] payload = new byte[40];
+
+    long first = log.append(payload);
+    long second = log.append(payload);
+
+    assertEquals(SEGMENT_SIZE, second);
+    assertEquals(second, log.read(log.read(first).nextOffset()).offset());
+    assertEquals(2, segmentCount());
+  }
+
+  @Test
+  void reopen_afterRestart_replaysFromCheckpoint() {
+    IntakeLog log = new IntakeLog(directory, SEGMENT_SIZE, false);
+    log.append(bytes("processed"));
+    long second = log.append(bytes("pending"));
+    log.commit(second);
+    log.close();
+
+    IntakeLog reopened = new IntakeLog(directory, SEGMENT_SIZE, false);
+
+    assertEquals(second, reopened.getCheckpoint());
+    assertArrayEquals(bytes("pending"), reopened.read(reopened.getCheckpoint()).data());
+    assertEquals(reopened.read(second).nextOffset(), reopened.append(bytes("next")));
+  }
+
+  @Test
+  void reopen_tornRecord_isDropped() throws IOException {
+    IntakeLog log = new IntakeLog(directory, SEGMENT_SIZE, false);
+    long first = log.append(bytes("complete"));
+    long torn = log.append(bytes("torn"));
+    log.close();
+
+    Path segment = directory.resolve("%020d.log".formatted(0));
+    byte[] content = Files.readAllBytes(segment);
+    content[(int) torn + 8] ^= 0x7f;
+    Files.write(segment, content);
+
+    IntakeLog reopened = new IntakeLog(directory, SEGMENT_SIZE, false);
+
+    assertArrayEquals(bytes("complete"), reopened.read(first).data());
+    assertNull(reopened.read(torn));
+    assertEquals(torn, reopened.append(bytes("retried")));
+  }
+
+  @Test
+  void commit_pastSegment_deletesProcessedSegment() throws IOException {
+    IntakeLog log = new IntakeLog(directory, SEGMENT_SIZE, false);
+    log.append(new byte[40]);
+    long second = log.append(new byte[40]);
+
+    log.commit(second);
+
+    assertEquals(1, segmentCount());
+    assertThrows(IntakeLogException.class, () -> log.read(0));
+  }
+
+  @Test
+  void append_recordLargerThanSegment_isRejected() {
+    IntakeLog log = new IntakeLog(directory, SEGMENT_SIZE, false);
+
+    assertThrows(IntakeLogException.class, () -> log.append(new byte[SEGMENT_SIZE]));
+  }
+
+  private long segmentCount() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(file -> file.toString().endsWith(".log")).count();
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,273 @@
+package edu.fi.muni.cz.marketplace.order.saga;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericEventMessage;
+import org.axonframework.eventhandling.Segment;
+import org.axonframework.messaging.unitofwork.BatchingUnitOfWork;
+import org.axonframework.modelling.saga.AnnotatedSagaManager;
+import org.axonframework.modelling.saga.AssociationValue;
+import org.axonframework.modelling.saga.AssociationValues;
+import org.axonframework.modelling.saga.SimpleResourceInjector;
+import org.axonframework.modelling.saga.repository.AnnotatedSagaRepository;
+import org.axonframework.modelling.saga.repository.CachingSagaStore;
+import org.axonframework.modelling.saga.repository.SagaStore;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Logger;
+
+import edu.fi.muni.cz.marketplace.config.cache.CaffeineCacheAdapter;
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.command.CompleteOrderCommand;
+import edu.fi.muni.cz.marketplace.order.command.DeductCommissionCommand;
+import edu.fi.muni.cz.marketplace.order.command.TransferPaymentCommand;
+import edu.fi.muni.cz.marketplace.order.events.CommissionDeductedEvent;
+import edu.fi.muni.cz.marketplace.order.events.OrderDeliveredEvent;
+import edu.fi.muni.cz.marketplace.order.events.PaymentTransferredEvent;
+
+/**
+ * Finalizes {@code orders} delivered orders through {@link FinalizeOrderSaga}, comparing the saga
+ * store with and without the saga cache, and event batches of one event against batches of
+ * {@code batchSize} events handled in one unit of work, as the tracking processor does.
+ *
+ * <p>
+ * Stripe is stubbed out: the commission and payout command handlers only count the commands, and
+ * their {@link CommissionDeductedEvent} and {@link PaymentTransferredEvent} are already part of the
+ * event stream, arriving {@code lag} orders after the delivery. The saga store keeps sagas and an
+ * index of their association values in memory, but every store call costs
+ * {@code roundTripMicros} of busy waiting to stand in for a database round trip. The
+ * {@code storeCalls} counter reports the round trips of an iteration. The saga's logging is turned
+ * off. Run with {@code main} from the test classpath.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FinalizeOrderSagaBenchmark {
+
+  @Param({"100000"})
+  private int orders;
+
+  @Param({"1000"})
+  private int lag;
+
+  @Param({"1", "100"})
+  private int batchSize;
+
+  @Param({"false", "true"})
+  private boolean cached;
+
+  @Param({"50"})
+  private int roundTripMicros;
+
+  private List<EventMessage<?>> stream;
+  private AnnotatedSagaManager<FinalizeOrderSaga> sagaManager;
+  private RoundTripSagaStore roundTripStore;
+  private int completedOrders;
+
+  @Setup(Level.Trial)
+  public void createStream() {
+    // a log line per saga would cost more than the saga store itself
+    ((Logger) LoggerFactory.getLogger(FinalizeOrderSaga.class))
+        .setLevel(ch.qos.logback.classic.Level.WARN);
+
+    stream = new ArrayList<>(orders * 3);
+    Instant deliveredAt = Instant.now();
+    List<UUID> orderIds = new ArrayList<>(orders);
+    for (int i = 0; i < orders + lag; i++) {
+      if (i < orders) {
+        UUID orderId = UUID.randomUUID();
+        orderIds.add(orderId);
+        stream.add(GenericEventMessage.asEventMessage(new OrderDeliveredEvent(orderId,
+            "acct_bench", Money.of(9_000, Money.CZK), Money.of(1_000, Money.CZK), deliveredAt)));
+      }
+      if (i >= lag) {
+        UUID orderId = orderIds.get(i - lag);
+        stream.add(GenericEventMessage.asEventMessage(
+            new CommissionDeductedEvent(orderId, "tr_commission_" + orderId)));
+        stream.add(GenericEventMessage.asEventMessage(
+            new PaymentTransferredEvent(orderId, "tr_payout_" + orderId)));
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void setUp() {
+    SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+    commandBus.subscribe(DeductCommissionCommand.class.getName(), command -> null);
+    commandBus.subscribe(TransferPaymentCommand.class.getName(), command -> null);
+    commandBus.subscribe(CompleteOrderCommand.class.getName(), command -> {
+      completedOrders++;
+      return null;
+    });
+    CommandGateway commandGateway = DefaultCommandGateway.builder()
+        .commandBus(commandBus)
+        .build();
+
+    roundTripStore = new RoundTripSagaStore(Duration.ofNanos(roundTripMicros * 1000L));
+    SagaStore<Object> sagaStore = roundTripStore;
+    if (cached) {
+      sagaStore = CachingSagaStore.builder()
+          .delegateSagaStore(roundTripStore)
+          .sagaCache(new CaffeineCacheAdapter(10_000, Duration.ofMinutes(30)))
+          .associationsCache(new CaffeineCacheAdapter(20_000, Duration.ofMinutes(30)))
+          .build();
+    }
+
+    sagaManager = AnnotatedSagaManager.<FinalizeOrderSaga>builder()
+        .sagaType(FinalizeOrderSaga.class)
+        .sagaRepository(AnnotatedSagaRepository.<FinalizeOrderSaga>builder()
+            .sagaType(FinalizeOrderSaga.class)
+            .sagaStore(sagaStore)
+            .resourceInjector(new SimpleResourceInjector(commandGateway))
+            .build())
+        .build();
+    completedOrders = 0;
+  }
+
+  @Benchmark
+  public int finalizeOrders(StoreCalls storeCalls) {
+    for (int from = 0; from < stream.size(); from += batchSize) {
+      List<EventMessage<?>> batch = stream.subList(from, Math.min(from + batchSize, stream.size()));
+      BatchingUnitOfWork<EventMessage<?>> unitOfWork = new BatchingUnitOfWork<>(batch);
+      unitOfWork.executeWithResult(() -> {
+        sagaManager.handle(unitOfWork.getMessage(), Segment.ROOT_SEGMENT);
+        return null;
+      });
+    }
+    if (completedOrders != orders) {
+      throw new IllegalStateException("Completed " + completedOrders + " of " + orders);
+    }
+    storeCalls.storeCalls += roundTripStore.calls;
+    return completedOrders;
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class StoreCalls {
+
+    public long storeCalls;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      storeCalls = 0;
+    }
+  }
+
+  /**
+   * In-memory saga store with association values indexed like the association table, paying a
+   * simulated database round trip for every call.
+   */
+  private static class RoundTripSagaStore implements SagaStore<Object> {
+
+    private final Map<String, SagaEntry> sagas = new HashMap<>();
+    private final Map<AssociationValue, Set<String>> sagasByAssociation = new HashMap<>();
+    private final long roundTripNanos;
+    private long calls;
+
+    RoundTripSagaStore(Duration roundTrip) {
+      this.roundTripNanos = roundTrip.toNanos();
+    }
+
+    @Override
+    public Set<String> findSagas(Class<?> sagaType, AssociationValue associationValue) {
+      roundTrip();
+      return new HashSet<>(sagasByAssociation.getOrDefault(associationValue, Set.of()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S> Entry<S> loadSaga(Class<S> sagaType, String sagaIdentifier) {
+      roundTrip();
+      return (Entry<S>) sagas.get(sagaIdentifier);
+    }
+
+    @Override
+    public void deleteSaga(Class<?> sagaType, String sagaIdentifier,
+        Set<AssociationValue> associationValues) {
+      roundTrip();
+      sagas.remove(sagaIdentifier);
+      associationValues.forEach(value -> unassociate(value, sagaIdentifier));
+    }
+
+    @Override
+    public void insertSaga(Class<?> sagaType, String sagaIdentifier, Object saga,
+        Set<AssociationValue> associationValues) {
+      roundTrip();
+      sagas.put(sagaIdentifier, new SagaEntry(saga, new HashSet<>(associationValues)));
+      associationValues.forEach(value -> associate(value, sagaIdentifier));
+    }
+
+    @Override
+    public void updateSaga(Class<?> sagaType, String sagaIdentifier, Object saga,
+        AssociationValues associationValues) {
+      roundTrip();
+      sagas.put(sagaIdentifier, new SagaEntry(saga, new HashSet<>(associationValues.asSet())));
+      associationValues.removedAssociations().forEach(value -> unassociate(value, sagaIdentifier));
+      associationValues.addedAssociations().forEach(value -> associate(value, sagaIdentifier));
+    }
+
+    private void associate(AssociationValue value, String sagaIdentifier) {
+      sagasByAssociation.computeIfAbsent(value, key -> new HashSet<>()).add(sagaIdentifier);
+    }
+
+    private void unassociate(AssociationValue value, String sagaIdentifier) {
+      Set<String> sagaIdentifiers = sagasByAssociation.get(value);
+      if (sagaIdentifiers != null && sagaIdentifiers.remove(sagaIdentifier)
+          && sagaIdentifiers.isEmpty()) {
+        sagasByAssociation.remove(value);
+      }
+    }
+
+    private void roundTrip() {
+      calls++;
+      long until = System.nanoTime() + roundTripNanos;
+      while (System.nanoTime() < until) {
+        Thread.onSpinWait();
+      }
+    }
+  }
+
+  private record SagaEntry(Object saga, Set<AssociationValue> associationValues)
+      implements SagaStore.Entry<Object> {
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(FinalizeOrderSagaBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+}
@@ -5,7 +5,6 @@ import static org.axonframework.test.matchers.Matchers.exactSequenceOf;
 import static org.axonframework.test.matchers.Matchers.messageWithPayload;
 import static org.hamcrest.Matchers.instanceOf;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -13,6 +12,7 @@ import org.axonframework.test.saga.SagaTestFixture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import edu.fi.muni.cz.marketplace.money.Money;
 import edu.fi.muni.cz.marketplace.order.command.CompleteOrderCommand;
 import edu.fi.muni.cz.marketplace.order.command.DeductCommissionCommand;
 import edu.fi.muni.cz.marketplace.order.command.TransferPaymentCommand;
@@ -33,8 +33,8 @@ class FinalizeOrderSagaTest {
   void handleOrderDeliveredEvent_noPriorActivity_startsSagaAndDispatchesBothCommands() {
     UUID orderId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
-    BigDecimal payoutAmount = new BigDecimal("90.00");
-    BigDecimal commission = new BigDecimal("10.00");
+    Money payoutAmount = Money.of(9_000, Money.CZK);
+    Money commission = Money.of(1_000, Money.CZK);
     Instant deliveredAt = Instant.now();
 
     fixture.givenNoPriorActivity()
@@ -54,8 +54,8 @@ class FinalizeOrderSagaTest {
   void handleCommissionDeductedEvent_sagaStarted_storesTransferIdAndKeepsSagaActive() {
     UUID orderId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
-    BigDecimal payoutAmount = new BigDecimal("90.00");
-    BigDecimal commission = new BigDecimal("10.00");
+    Money payoutAmount = Money.of(9_000, Money.CZK);
+    Money commission = Money.of(1_000, Money.CZK);
     Instant deliveredAt = Instant.now();
     String commissionTransferId = "transfer-commission-123";
 
@@ -74,8 +74,8 @@ class FinalizeOrderSagaTest {
   void handlePaymentTransferredEvent_sagaStarted_storesTransferIdAndKeepsSagaActive() {
     UUID orderId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
-    BigDecimal payoutAmount = new BigDecimal("90.00");
-    BigDecimal commission = new BigDecimal("10.00");
+    Money payoutAmount = Money.of(9_000, Money.CZK);
+    Money commission = Money.of(1_000, Money.CZK);
     Instant deliveredAt = Instant.now();
     String paymentTransferId = "transfer-payout-456";
 
@@ -94,8 +94,8 @@ class FinalizeOrderSagaTest {
   void handlePaymentTransferredEvent_commissionAlreadyDeducted_completesOrderAndEndsSaga() {
     UUID orderId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
-    BigDecimal payoutAmount = new BigDecimal("90.00");
-    BigDecimal commission = new BigDecimal("10.00");
+    Money payoutAmount = Money.of(9_000, Money.CZK);
+    Money commission = Money.of(1_000, Money.CZK);
     Instant deliveredAt = Instant.now();
     String commissionTransferId = "transfer-commission-123";
     String paymentTransferId = "transfer-payout-456";
@@ -117,8 +117,8 @@ class FinalizeOrderSagaTest {
   void handleCommissionDeductedEvent_paymentAlreadyTransferred_completesOrderAndEndsSaga() {
     UUID orderId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
-    BigDecimal payoutAmount = new BigDecimal("90.00");
-    BigDecimal commission = new BigDecimal("10.00");
+    Money payoutAmount = Money.of(9_000, Money.CZK);
+    Money commission = Money.of(1_000, Money.CZK);
     Instant deliveredAt = Instant.now();
     String commissionTransferId = "transfer-commission-123";
     String paymentTransferId = "transfer-payout-456";
@@ -140,8 +140,8 @@ class FinalizeOrderSagaTest {
   void fullSagaFlow_commissionThenPayment_completesSuccessfully() {
     UUID orderId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
-    BigDecimal payoutAmount = new BigDecimal("90.00");
-    BigDecimal commission = new BigDecimal("10.00");
+    Money payoutAmount = Money.of(9_000, Money.CZK);
+    Money commission = Money.of(1_000, Money.CZK);
     Instant deliveredAt = Instant.now();
     String commissionTransferId = "transfer-commission-123";
     String paymentTransferId = "transfer-payout-456";
@@ -173,8 +173,8 @@ class FinalizeOrderSagaTest {
   void fullSagaFlow_paymentThenCommission_completesSuccessfully() {
     UUID orderId = UUID.randomUUID();
     String sellerStripeAccountId = "acct_seller123";
-    BigDecimal payoutAmount = new BigDecimal("90.00");
-    BigDecimal commission = new BigDecimal("10.00");
+    Money payoutAmount = Money.of(9_000, Money.CZK);
+    Money commission = Money.of(1_000, Money.CZK);
     Instant deliveredAt = Instant.now();
     String commissionTransferId = "transfer-commission-123";
     String paymentTransferId = "transfer-payout-456";
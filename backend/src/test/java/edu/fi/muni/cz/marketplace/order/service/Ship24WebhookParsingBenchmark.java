@@ -0,0 +1,126 @@
+package edu.fi.muni.cz.marketplace.order.service;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.fi.muni.cz.marketplace.order.command.UpdateTrackingStatusBatchCommand;
+import edu.fi.muni.cz.marketplace.order.dto.Ship24WebhookPayload;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Compares binding a whole Ship24 webhook body into {@link Ship24WebhookPayload} with the
+ * streaming {@link Ship24WebhookParser}, both feeding a {@link TrackingUpdateCoalescer} the way
+ * {@link Ship24WebhookService} does. {@code main} runs with the GC profiler, its
+ * {@code gc.alloc.rate.norm} column is the heap allocated per processed body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Ship24WebhookParsingBenchmark {
+
+  private static final int EVENTS_PER_TRACKING = 10;
+  private static final int MAX_PENDING_UPDATES = 5000;
+
+  @Param({"10", "1000", "50000"})
+  private int events;
+
+  private ObjectMapper objectMapper;
+  private Ship24WebhookParser parser;
+  private byte[] body;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    objectMapper = JsonMapper.builder()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+    parser = new Ship24WebhookParser(objectMapper);
+    body = payload(events);
+  }
+
+  @Benchmark
+  public int recordBinding() {
+    Ship24WebhookPayload payload = objectMapper.readValue(body, Ship24WebhookPayload.class);
+    TrackingUpdateCoalescer coalescer = new TrackingUpdateCoalescer();
+    payload.trackings().forEach(tracking -> tracking.events().forEach(
+        event -> coalescer.add(tracking.tracker().shipmentReference(), event)));
+    return consume(coalescer.drain());
+  }
+
+  @Benchmark
+  public int streaming() {
+    TrackingUpdateCoalescer coalescer = new TrackingUpdateCoalescer();
+    int[] commands = {0};
+    parser.parse(body, (shipmentReference, event) -> {
+      coalescer.add(shipmentReference, event);
+      if (coalescer.getPending() >= MAX_PENDING_UPDATES) {
+        commands[0] += consume(coalescer.drain());
+      }
+    });
+    return commands[0] + consume(coalescer.drain());
+  }
+
+  private static int consume(List<UpdateTrackingStatusBatchCommand> commands) {
+    return commands.size();
+  }
+
+  private static byte[] payload(int events) {
+    StringBuilder json = new StringBuilder("{\"trackings\":[");
+    Instant occurredAt = Instant.parse("2025-03-04T17:12:57Z");
+    for (int tracking = 0; tracking * EVENTS_PER_TRACKING < events; tracking++) {
+      if (tracking > 0) {
+        json.append(',');
+      }
+      json.append("""
+          {"tracker":{"trackerId":"%s","trackingNumber":"S24DEMO%06d","shipmentReference":"%s",\
+          "isSubscribed":true},"shipment":{"statusCode":"in_transit"},"events":["""
+          .formatted(UUID.randomUUID(), tracking, UUID.randomUUID()));
+      int count = Math.min(EVENTS_PER_TRACKING, events - tracking * EVENTS_PER_TRACKING);
+      for (int event = 0; event < count; event++) {
+        if (event > 0) {
+          json.append(',');
+        }
+        json.append("""
+            {"eventId":"%s","trackingNumber":"S24DEMO%06d","status":"Arrived in destination \
+            country","occurrenceDatetime":"%s","location":"Prague, CZ","courierCode":"demo",\
+            "statusCode":"AD","statusCategory":"in_transit","statusMilestone":"in_transit"}"""
+            .formatted(UUID.randomUUID(), tracking, occurredAt.plusSeconds(event * 3600L)));
+      }
+      json.append("]}");
+    }
+    return json.append("]}").toString().getBytes(UTF_8);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(Ship24WebhookParsingBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build())
+        .run();
+  }
+}
@@ -0,0 +1,125 @@
+package edu.fi.muni.cz.marketplace.order.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import edu.fi.muni.cz.marketplace.order.client.Ship24ApiClient;
+import edu.fi.muni.cz.marketplace.order.client.dto.BulkCreateTrackersResponse;
+import edu.fi.muni.cz.marketplace.order.client.dto.CreateTrackerRequest;
+import edu.fi.muni.cz.marketplace.order.client.dto.CreateTrackerResponse;
+
+class TrackerRegistrationBatcherTest {
+
+  private final List<List<CreateTrackerRequest>> bulkRequests = new CopyOnWriteArrayList<>();
+  private TrackerRegistrationBatcher batcher;
+
+  @AfterEach
+  void tearDown() {
+    batcher.shutdown();
+  }
+
+  @Test
+  void register_sizeCapReached_sendsOneBulkRequest() throws Exception {
+    batcher = new TrackerRegistrationBatcher(new Ship24Service(new StubShip24ApiClient()), 3,
+        Duration.ofHours(1));
+
+    List<CompletableFuture<String>> trackerIds = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      trackerIds.add(batcher.register("TN" + i, "order-" + i));
+    }
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals("tracker-TN" + i, trackerIds.get(i).get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(1, bulkRequests.size());
+    assertEquals(3, bulkRequests.getFirst().size());
+  }
+
+  @Test
+  void register_windowElapsed_sendsPartialBatch() throws Exception {
+    batcher = new TrackerRegistrationBatcher(new Ship24Service(new StubShip24ApiClient()), 100,
+        Duration.ofMillis(20));
+
+    CompletableFuture<String> first = batcher.register("TN1", "order-1");
+    CompletableFuture<String> repeated = batcher.register("TN1", "order-1");
+    CompletableFuture<String> second = batcher.register("TN2", "order-2");
+
+    assertEquals("tracker-TN1", first.get(5, TimeUnit.SECONDS));
+    assertEquals("tracker-TN1", repeated.get(5, TimeUnit.SECONDS));
+    assertEquals("tracker-TN2", second.get(5, TimeUnit.SECONDS));
+    assertEquals(List.of(new CreateTrackerRequest("TN1", "order-1"),
+        new CreateTrackerRequest("TN2", "order-2")), bulkRequests.getFirst());
+  }
+
+  @Test
+  void register_itemRejected_failsOnlyThatRegistration() throws Exception {
+    batcher = new TrackerRegistrationBatcher(new Ship24Service(new StubShip24ApiClient()), 2,
+        Duration.ofHours(1));
+
+    CompletableFuture<String> rejected = batcher.register("bad", "order-1");
+    CompletableFuture<String> accepted = batcher.register("TN2", "order-2");
+
+    assertEquals("tracker-TN2", accepted.get(5, TimeUnit.SECONDS));
+    ExecutionException failure = assertThrows(ExecutionException.class,
+        () -> rejected.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(TrackerRejectedException.class, failure.getCause());
+  }
+
+  @Test
+  void register_bulkRequestFails_failsAllRegistrations() {
+    batcher = new TrackerRegistrationBatcher(new Ship24Service(new StubShip24ApiClient() {
+      @Override
+      public BulkCreateTrackersResponse createTrackers(List<CreateTrackerRequest> requests) {
+        throw new IllegalStateException("connection reset");
+      }
+    }), 2, Duration.ofHours(1));
+
+    CompletableFuture<String> first = batcher.register("TN1", "order-1");
+    CompletableFuture<String> second = batcher.register("TN2", "order-2");
+
+    for (CompletableFuture<String> trackerId : List.of(first, second)) {
+      ExecutionException failure = assertThrows(ExecutionException.class,
+          () -> trackerId.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(Ship24ServiceException.class, failure.getCause());
+    }
+  }
+
+  private class StubShip24ApiClient implements Ship24ApiClient {
+
+    @Override
+    public CreateTrackerResponse createTracker(CreateTrackerRequest request) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public BulkCreateTrackersResponse createTrackers(List<CreateTrackerRequest> requests) {
+      bulkRequests.add(List.copyOf(requests));
+      List<BulkCreateTrackersResponse.Item> items = new ArrayList<>();
+      for (int i = 0; i < requests.size(); i++) {
+        CreateTrackerRequest request = requests.get(i);
+        if (request.trackingNumber().equals("bad")) {
+          items.add(new BulkCreateTrackersResponse.Item(i, "error", null,
+              List.of(new BulkCreateTrackersResponse.Error("invalid", "Invalid tracking number"))));
+        } else {
+          items.add(new BulkCreateTrackersResponse.Item(i, "created",
+              new CreateTrackerResponse.Tracker("tracker-" + request.trackingNumber(),
+                  request.trackingNumber(), request.shipmentReference(), null),
+              List.of()));
+        }
+      }
+      return new BulkCreateTrackersResponse("partialSuccess", items);
+    }
+  }
+}
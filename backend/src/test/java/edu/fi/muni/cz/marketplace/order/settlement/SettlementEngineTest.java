@@ -0,0 +1,115 @@
+package edu.fi.muni.cz.marketplace.order.settlement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.axonframework.eventhandling.gateway.EventGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import edu.fi.muni.cz.marketplace.money.Money;
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient;
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClient.TransferType;
+import edu.fi.muni.cz.marketplace.order.client.StripeFundsApiClientException;
+import edu.fi.muni.cz.marketplace.order.events.PaymentTransferredEvent;
+
+class SettlementEngineTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+  private static final SettlementGroup SELLER_PAYOUTS =
+      new SettlementGroup(TransferType.PAYOUT, "acct_seller", Money.CZK);
+
+  private SettlementObligationRepository obligationRepository;
+  private SettlementBatchRepository batchRepository;
+  private StripeFundsApiClient stripeFundsApiClient;
+  private EventGateway eventGateway;
+  private SettlementEngine engine;
+
+  @BeforeEach
+  void setUp() {
+    obligationRepository = mock(SettlementObligationRepository.class);
+    batchRepository = mock(SettlementBatchRepository.class);
+    stripeFundsApiClient = mock(StripeFundsApiClient.class);
+    eventGateway = mock(EventGateway.class);
+    when(batchRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    engine = new SettlementEngine(obligationRepository, batchRepository, stripeFundsApiClient,
+        eventGateway, mock(PlatformTransactionManager.class), Clock.fixed(NOW, ZoneOffset.UTC),
+        2);
+  }
+
+  @Test
+  void settle_pendingObligations_transfersOncePerBatchAndFansOutTheTransferId() {
+    UUID firstOrder = UUID.randomUUID();
+    UUID secondOrder = UUID.randomUUID();
+    when(obligationRepository.findPendingGroups()).thenReturn(List.of(SELLER_PAYOUTS));
+    when(obligationRepository.claim(any(), eq("PAYOUT"), eq("acct_seller"), eq(Money.CZK),
+        eq(2))).thenReturn(2, 0);
+    when(obligationRepository.sumAmountOfBatch(any())).thenReturn(18_000L);
+    when(obligationRepository.findOrderIdsOfBatch(any()))
+        .thenReturn(List.of(firstOrder, secondOrder));
+    when(stripeFundsApiClient.transfer(eq(Money.of(18_000, Money.CZK)), eq("acct_seller"),
+        any(), eq(TransferType.PAYOUT))).thenReturn(CompletableFuture.completedFuture("tr_1"));
+
+    assertEquals(1, engine.settle());
+
+    verify(stripeFundsApiClient).transfer(any(), anyString(), any(), any());
+    verify(eventGateway).publish(List.of(
+        new PaymentTransferredEvent(firstOrder, "tr_1"),
+        new PaymentTransferredEvent(secondOrder, "tr_1")));
+  }
+
+  @Test
+  void settle_failedTransfer_leavesBatchForTheNextRunUnderTheSameKey() {
+    when(obligationRepository.findPendingGroups()).thenReturn(List.of(SELLER_PAYOUTS));
+    when(obligationRepository.claim(any(), anyString(), anyString(), anyString(), anyInt()))
+        .thenReturn(1);
+    when(obligationRepository.sumAmountOfBatch(any())).thenReturn(9_000L);
+    when(stripeFundsApiClient.transfer(any(), anyString(), any(), any())).thenReturn(
+        CompletableFuture.failedFuture(new StripeFundsApiClientException("down", null)));
+
+    assertEquals(0, engine.settle());
+
+    ArgumentCaptor<SettlementBatch> batch = ArgumentCaptor.forClass(SettlementBatch.class);
+    verify(batchRepository).save(batch.capture());
+    verify(eventGateway, never()).publish(any(List.class));
+
+    when(obligationRepository.findPendingGroups()).thenReturn(List.of());
+    when(batchRepository.findUnsettled()).thenReturn(List.of(batch.getValue()));
+    when(stripeFundsApiClient.transfer(any(), anyString(), any(), any()))
+        .thenReturn(CompletableFuture.completedFuture("tr_2"));
+
+    assertEquals(1, engine.settle());
+
+    verify(stripeFundsApiClient, times(2)).transfer(
+        eq(Money.of(9_000, Money.CZK)), eq("acct_seller"), eq(batch.getValue().getId()),
+        eq(TransferType.PAYOUT));
+    assertEquals("tr_2", batch.getValue().getTransferId());
+  }
+
+  @Test
+  void record_obligation_isInsertedUnderItsOrderAndType() {
+    UUID orderId = UUID.randomUUID();
+
+    engine.record(TransferType.COMMISSION, orderId, "acct_platform", Money.of(1_000, Money.CZK));
+
+    verify(obligationRepository).insertIfAbsent("commission_" + orderId, orderId, "COMMISSION",
+        "acct_platform", 1_000, Money.CZK, NOW);
+  }
+}
@@ -0,0 +1,47 @@
+package edu.fi.muni.cz.marketplace.user.command;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.fi.muni.cz.marketplace.config.exception.HttpException;
+
+class KeycloakUserIdClaimsTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private KeycloakUserIdClaims claims;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    claims = new KeycloakUserIdClaims(jdbcTemplate);
+  }
+
+  @Test
+  void claim_unclaimedId_isInserted() {
+    UUID userId = UUID.randomUUID();
+    when(jdbcTemplate.update(anyString(), eq("kc-1"), eq(userId))).thenReturn(1);
+
+    claims.claim("kc-1", userId);
+  }
+
+  @Test
+  void claim_idClaimedByAnotherUser_isRejectedWithConflict() {
+    UUID userId = UUID.randomUUID();
+    when(jdbcTemplate.update(anyString(), eq("kc-1"), eq(userId))).thenReturn(0);
+
+    HttpException rejection = assertThrows(HttpException.class,
+        () -> claims.claim("kc-1", userId));
+    assertEquals(HttpStatus.CONFLICT, rejection.getStatus());
+  }
+}
@@ -0,0 +1,70 @@
+package edu.fi.muni.cz.marketplace.user.query;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KeycloakUserIdIndexTest {
+
+  private KeycloakUserIdRepository repository;
+  private KeycloakUserIdIndex index;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(KeycloakUserIdRepository.class);
+    index = new KeycloakUserIdIndex(repository, mock(PlatformTransactionManager.class),
+        new SimpleMeterRegistry(), 1_000, 0.01, 100, Duration.ofMinutes(10));
+  }
+
+  @Test
+  void exists_beforeWarmUp_asksTheDatabase() {
+    when(repository.existsByKeycloakUserId("kc-1")).thenReturn(true);
+
+    assertTrue(index.exists("kc-1"));
+    verify(repository).existsByKeycloakUserId("kc-1");
+  }
+
+  @Test
+  void exists_unknownIdAfterWarmUp_isAnsweredByTheFilter() {
+    when(repository.streamAllKeycloakUserIds()).thenReturn(Stream.of("kc-1", "kc-2"));
+    index.warmUp();
+
+    assertFalse(index.exists("kc-new"));
+    verify(repository, never()).existsByKeycloakUserId("kc-new");
+  }
+
+  @Test
+  void exists_registeredId_isLookedUpOnceThenCached() {
+    when(repository.streamAllKeycloakUserIds()).thenReturn(Stream.of("kc-1"));
+    when(repository.existsByKeycloakUserId("kc-1")).thenReturn(true);
+    index.warmUp();
+
+    assertTrue(index.exists("kc-1"));
+    assertTrue(index.exists("kc-1"));
+    verify(repository, times(1)).existsByKeycloakUserId("kc-1");
+  }
+
+  @Test
+  void add_outsideUnitOfWork_isKnownWithoutLookup() {
+    when(repository.streamAllKeycloakUserIds()).thenReturn(Stream.empty());
+    index.warmUp();
+
+    index.add("kc-3");
+
+    assertTrue(index.exists("kc-3"));
+    verify(repository, never()).existsByKeycloakUserId("kc-3");
+  }
+}
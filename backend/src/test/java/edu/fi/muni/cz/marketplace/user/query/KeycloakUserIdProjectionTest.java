@@ -0,0 +1,61 @@
+package edu.fi.muni.cz.marketplace.user.query;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import edu.fi.muni.cz.marketplace.user.event.UserRegisteredEvent;
+
+class KeycloakUserIdProjectionTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private KeycloakUserIdProjection projection;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(2);
+    projection = new KeycloakUserIdProjection(jdbcTemplate, mock(KeycloakUserIdIndex.class));
+  }
+
+  @Test
+  void on_eventsOfOneUnitOfWork_areInsertedWithOneStatementOnCommit() {
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+
+    projection.on(new UserRegisteredEvent(first, "kc-1"));
+    projection.on(new UserRegisteredEvent(second, "kc-2"));
+    verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    unitOfWork.commit();
+
+    verify(jdbcTemplate).update(
+        eq("INSERT INTO keycloak_user_id_lookup (id, keycloak_user_id) VALUES (?, ?), (?, ?)"
+            + " ON CONFLICT DO NOTHING"),
+        eq(new Object[] {first, "kc-1", second, "kc-2"}));
+  }
+
+  @Test
+  void on_outsideUnitOfWork_insertsRightAway() {
+    UUID id = UUID.randomUUID();
+
+    projection.on(new UserRegisteredEvent(id, "kc-1"));
+
+    verify(jdbcTemplate).update(
+        eq("INSERT INTO keycloak_user_id_lookup (id, keycloak_user_id) VALUES (?, ?)"
+            + " ON CONFLICT DO NOTHING"),
+        eq(new Object[] {id, "kc-1"}));
+  }
+}